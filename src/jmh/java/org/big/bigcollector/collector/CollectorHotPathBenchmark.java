@@ -0,0 +1,173 @@
+package org.big.bigcollector.collector;
+
+import com.anthropic.core.JsonValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.big.bigcollector.dto.hn.HNSearchResponse;
+import org.big.bigcollector.dto.reddit.RedditListingResponse;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item CPU work done by the collectors: HTML stripping, raw JSON serialisation and the
+ * keyword/budget filters. Inputs are fixed strings so runs are comparable across machines and commits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+@State(Scope.Benchmark)
+public class CollectorHotPathBenchmark {
+
+    private static final String REDDIT_SELFTEXT = """
+            I run a 12-person bookkeeping shop and every month we **manually** reconcile invoices against \
+            bank feeds. &gt; We tried three tools and none handle partial payments.
+            <p>Is there anything out there that does this well? I'd happily pay $200/month.</p>
+            <ul><li>QuickBooks rules are too rigid</li><li>Xero matching misses split payments</li></ul>
+            """;
+
+    private static final String HN_COMMENT_HTML = """
+            I wish there was a tool that tracked vendor contract renewals.<p>We got auto-renewed on \
+            three SaaS contracts last quarter because nobody saw the notice emails. <a href="https://example.com" \
+            rel="nofollow">This thread</a> has more &quot;war stories&quot;.<p>Would pay for it &#x2F; \
+            happy to beta test.
+            """;
+
+    private static final String UPWORK_DESCRIPTION_HTML = """
+            Looking for a developer to build an <b>automation</b> that syncs Shopify orders to our \
+            warehouse system.<br /><br /><b>Budget</b>: $1,500 - $3,000<br /><b>Posted On</b>: \
+            January 15, 2025 10:00 UTC<br /><b>Category</b>: Full Stack Development<br /><b>Skills</b>: \
+            Shopify, API, Node.js<br /><b>Country</b>: United States<br /><a href="https://www.upwork.com/jobs/1">click to apply</a>
+            """;
+
+    private static final String PH_COMMENT_MATCH =
+            "Love the idea but the onboarding is really confusing and I wish it had a proper Zapier integration.";
+
+    private static final String PH_COMMENT_NO_MATCH =
+            "Congrats on the launch! Looks great, upvoted and shared with my team. Excited to try it out this week.";
+
+    private static final String BRAINSTORM_TOOL_INPUT = """
+            {"problems": [
+              {"title": "Patient Data Interoperability Gap", "description": "Providers cannot share records.",
+               "target_customer": "Healthcare administrators", "problem_type": "data",
+               "monetization_model": "subscription", "estimated_pain_intensity": "high"},
+              {"title": "Clinical Trial Recruitment Bottleneck", "description": "Trials wait months for patients.",
+               "target_customer": "Research coordinators", "problem_type": "workflow",
+               "monetization_model": "usage_based", "estimated_pain_intensity": "high"}
+            ]}
+            """;
+
+    private RedditCollector redditCollector;
+    private HackerNewsCollector hackerNewsCollector;
+    private UpworkCollector upworkCollector;
+    private KeywordMatcher productHuntKeywords;
+    private LlmBrainstormCollector brainstormCollector;
+    private JsonValue brainstormToolInput;
+
+    private RedditListingResponse.RedditPost redditPost;
+    private HNSearchResponse.HNHit hnHit;
+    private String redditCleanText;
+    private String hnCleanText;
+    private String upworkCleanText;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        redditCollector = new RedditCollector(null, null, null, null, objectMapper, null, null);
+        hackerNewsCollector = new HackerNewsCollector(null, null, null, objectMapper, null, null);
+        upworkCollector = new UpworkCollector(null, null, null, objectMapper, null, null, null);
+        productHuntKeywords = new KeywordMatcherRegistry(objectMapper).matcherFor(SourceType.PRODUCT_HUNT, null);
+        brainstormCollector = new LlmBrainstormCollector(null, null, null, objectMapper, null);
+        brainstormToolInput = JsonValue.fromJsonNode(objectMapper.readTree(BRAINSTORM_TOOL_INPUT));
+
+        redditPost = new RedditListingResponse.RedditPost();
+        redditPost.setId("abc123");
+        redditPost.setTitle("Is there a tool for reconciling invoices with partial payments?");
+        redditPost.setSelftext(REDDIT_SELFTEXT);
+        redditPost.setScore(154);
+        redditPost.setSubreddit("smallbusiness");
+        redditPost.setPermalink("/r/smallbusiness/comments/abc123/is_there_a_tool/");
+        redditPost.setAuthor("bookkeeper42");
+        redditPost.setNumComments(37);
+
+        hnHit = new HNSearchResponse.HNHit();
+        hnHit.setObjectId("38000001");
+        hnHit.setStoryTitle("Ask HN: What tool do you wish existed?");
+        hnHit.setCommentText(HN_COMMENT_HTML);
+        hnHit.setPoints(12);
+        hnHit.setAuthor("pg_fan");
+
+        redditCleanText = Jsoup.parse(REDDIT_SELFTEXT).text();
+        hnCleanText = Jsoup.parse(HN_COMMENT_HTML).text();
+        upworkCleanText = Jsoup.parse(UPWORK_DESCRIPTION_HTML).text();
+    }
+
+    @Benchmark
+    public String jsoupStripReddit() {
+        return Jsoup.parse(REDDIT_SELFTEXT).text();
+    }
+
+    @Benchmark
+    public String jsoupStripHackerNews() {
+        return Jsoup.parse(HN_COMMENT_HTML).text();
+    }
+
+    @Benchmark
+    public String jsoupStripUpwork() {
+        return Jsoup.parse(UPWORK_DESCRIPTION_HTML).text();
+    }
+
+    @Benchmark
+    public String buildRawJsonReddit() {
+        return redditCollector.buildRawJson(redditPost, redditCleanText, KeywordMatch.UNFILTERED);
+    }
+
+    @Benchmark
+    public String buildRawJsonHackerNews() {
+        return hackerNewsCollector.buildRawJson(hnHit, hnCleanText, KeywordMatch.UNFILTERED);
+    }
+
+    @Benchmark
+    public String buildRawJsonUpwork() {
+        return upworkCollector.buildRawJson("Shopify to warehouse sync", upworkCleanText,
+                "1500", "3000", "https://www.upwork.com/jobs/1", "2025-01-15T10:00:00Z", KeywordMatch.UNFILTERED);
+    }
+
+    @Benchmark
+    public KeywordMatch keywordMatchHit() {
+        return productHuntKeywords.match(PH_COMMENT_MATCH);
+    }
+
+    @Benchmark
+    public KeywordMatch keywordMatchMiss() {
+        return productHuntKeywords.match(PH_COMMENT_NO_MATCH);
+    }
+
+    @Benchmark
+    public String[] extractBudget() {
+        return upworkCollector.extractBudget(upworkCleanText);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> parseBrainstormToolInput() {
+        return brainstormCollector.parseProblems(brainstormToolInput);
+    }
+}
@@ -0,0 +1,82 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-bound helpers that run once per processed signal: embedding serialisation for the pgvector
+ * query and JSON extraction from LLM responses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+@State(Scope.Benchmark)
+public class PipelineHotPathBenchmark {
+
+    private static final String EXTRACTION_FENCED = """
+            ```json
+            {"has_problem": true, "title": "Manual invoice reconciliation wastes finance team hours",
+             "description": "Finance teams match invoices to bank lines by hand every month.",
+             "problem_type": "automation", "industry": "Finance", "target_customer": "SMB finance teams",
+             "pain_intensity": "high", "monetization_potential": "high", "monetization_model": "subscription",
+             "willingness_to_pay_signal": "We would pay for anything that cuts this down",
+             "key_quotes": ["I spend two days a month on this", "Our accountant hates it"],
+             "source_url": "https://news.ycombinator.com/item?id=1"}
+            ```
+            """;
+
+    private static final String SCORING_PLAIN = """
+            {"demand": {"score": 18, "rationale": "Many finance teams report this."},
+             "pain": {"score": 20, "rationale": "Hours lost monthly."},
+             "gap": {"score": 12, "rationale": "Existing tools are enterprise-priced."},
+             "timing": {"score": 9, "rationale": "Open banking APIs are mature."},
+             "feasibility": {"score": 11, "rationale": "Small team can build an MVP."}}
+            """;
+
+    private ProblemDeduplicator deduplicator;
+    private LlmProblemExtractor extractor;
+    private VaultScoringService scoringService;
+    private float[] embedding;
+
+    @Setup
+    public void setUp() {
+        deduplicator = new ProblemDeduplicator(null, null, null);
+        extractor = new LlmProblemExtractor(null, null, null, new ObjectMapper(), null);
+        scoringService = new VaultScoringService(null, null, new ObjectMapper(), null);
+
+        SplittableRandom random = new SplittableRandom(42);
+        embedding = new float[1536];
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) (random.nextDouble() * 0.2 - 0.1);
+        }
+    }
+
+    @Benchmark
+    public String embeddingToString() {
+        return deduplicator.embeddingToString(embedding);
+    }
+
+    @Benchmark
+    public String extractJsonFencedExtraction() {
+        return extractor.extractJson(EXTRACTION_FENCED);
+    }
+
+    @Benchmark
+    public String extractJsonPlainScoring() {
+        return scoringService.extractJson(SCORING_PLAIN);
+    }
+}
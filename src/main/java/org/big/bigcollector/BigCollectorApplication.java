@@ -2,8 +2,10 @@ package org.big.bigcollector;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BigCollectorApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,129 @@
+package org.big.bigcollector.collector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.dto.appstore.AppStoreRssResponse;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves an App Store category target to the apps currently on its top free, paid and grossing charts.
+ * Charts move slowly, so each category is looked up at most once per TTL; if a refresh fails the previous
+ * list keeps being served.
+ */
+@Component
+@Slf4j
+public class AppStoreCategoryResolver {
+
+    private static final List<String> CHARTS = List.of(
+            "topfreeapplications", "toppaidapplications", "topgrossingapplications");
+    private static final String CHART_URI = "/us/rss/{chart}/limit={limit}/genre={genre}/json";
+
+    // App Store genre ids by category name; targets may also give the numeric id directly
+    private static final Map<String, String> GENRE_IDS = Map.ofEntries(
+            Map.entry("Books", "6018"),
+            Map.entry("Business", "6000"),
+            Map.entry("Developer Tools", "6026"),
+            Map.entry("Education", "6017"),
+            Map.entry("Entertainment", "6016"),
+            Map.entry("Finance", "6015"),
+            Map.entry("Food & Drink", "6023"),
+            Map.entry("Graphics & Design", "6027"),
+            Map.entry("Health & Fitness", "6013"),
+            Map.entry("Lifestyle", "6012"),
+            Map.entry("Medical", "6020"),
+            Map.entry("Navigation", "6010"),
+            Map.entry("News", "6009"),
+            Map.entry("Photo & Video", "6008"),
+            Map.entry("Productivity", "6007"),
+            Map.entry("Reference", "6006"),
+            Map.entry("Shopping", "6024"),
+            Map.entry("Social Networking", "6005"),
+            Map.entry("Sports", "6004"),
+            Map.entry("Travel", "6003"),
+            Map.entry("Utilities", "6002"),
+            Map.entry("Weather", "6001")
+    );
+
+    private final WebClient webClient;
+    private final ResilientHttpExecutor http;
+    private final Duration ttl;
+    private final int chartLimit;
+    private final Map<String, CachedCategory> cache = new ConcurrentHashMap<>();
+
+    public AppStoreCategoryResolver(@Qualifier("appleRssWebClient") WebClient webClient,
+                                    ResilientHttpExecutor http,
+                                    @Value("${collector.appstore.category-ttl:P1D}") Duration ttl,
+                                    @Value("${collector.appstore.chart-limit:100}") int chartLimit) {
+        this.webClient = webClient;
+        this.http = http;
+        this.ttl = ttl;
+        this.chartLimit = chartLimit;
+    }
+
+    public List<String> resolve(String category, RequestBudget budget) {
+        return resolve(category, budget, Instant.now());
+    }
+
+    List<String> resolve(String category, RequestBudget budget, Instant now) {
+        String genre = !category.isEmpty() && category.chars().allMatch(Character::isDigit)
+                ? category : GENRE_IDS.get(category);
+        if (genre == null) {
+            log.warn("Unknown App Store category: {}", category);
+            return List.of();
+        }
+
+        CachedCategory cached = cache.get(genre);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return cached.appIds();
+        }
+
+        List<String> appIds = fetchCharts(genre, budget);
+        if (appIds.isEmpty()) {
+            // Keep serving the last good list; nothing is cached so the next run tries again
+            return cached != null ? cached.appIds() : List.of();
+        }
+        cache.put(genre, new CachedCategory(appIds, now.plus(ttl)));
+        log.info("Resolved App Store category {} (genre {}) to {} apps", category, genre, appIds.size());
+        return appIds;
+    }
+
+    private List<String> fetchCharts(String genre, RequestBudget budget) {
+        Set<String> appIds = new LinkedHashSet<>();
+        for (String chart : CHARTS) {
+            try {
+                AppStoreRssResponse response = http.execute(SourceType.APP_STORE, budget, () -> webClient.get()
+                        .uri(CHART_URI, chart, chartLimit, genre)
+                        .retrieve()
+                        .bodyToMono(AppStoreRssResponse.class));
+                if (response == null || response.getFeed() == null || response.getFeed().getEntry() == null) {
+                    continue;
+                }
+                for (AppStoreRssResponse.AppStoreEntry entry : response.getFeed().getEntry()) {
+                    if (entry.getId() != null && entry.getId().getAttributes() != null
+                            && entry.getId().getAttributes().getImId() != null) {
+                        appIds.add(entry.getId().getAttributes().getImId());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fetch App Store chart {} for genre {}: {}", chart, genre, e.getMessage());
+            }
+        }
+        return List.copyOf(appIds);
+    }
+
+    private record CachedCategory(List<String> appIds, Instant expiresAt) {
+    }
+}
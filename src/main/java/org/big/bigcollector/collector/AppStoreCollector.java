@@ -9,17 +9,35 @@ import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.ConditionalResponse;
+import org.big.bigcollector.http.HttpCacheService;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
+import org.big.bigcollector.repository.CollectorMarkerRepository;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Slf4j
@@ -27,29 +45,52 @@ public class AppStoreCollector implements SourceCollector {
 
     private static final int MIN_REVIEW_LENGTH = 50;
     private static final int MAX_RATING = 3;
+    // Apple serves at most 10 pages of 50 reviews per app
+    private static final int MAX_PAGES = 10;
+    private static final int PAGE_SIZE = 50;
+    private static final String REVIEWS_URI = "/rss/customerreviews/page={page}/id={appId}/sortBy=mostRecent/json";
+    // Set while an app has unread reviews behind ones already stored
+    private static final String BACKLOG_MARKER = "backlog:";
 
-    // Default popular apps per category for review mining
-    private static final Map<String, List<String>> CATEGORY_APP_IDS = Map.of(
-            "Productivity", List.of("1274495053", "904280696", "1150188240"),  // Things, Todoist, Notion
-            "Business", List.of("507874739", "1176895641", "883919818"),       // Slack, monday.com, Trello
-            "Finance", List.of("349179070", "1209657334", "310583154"),        // QuickBooks, Robinhood, Mint
-            "Education", List.of("906237743", "1247608645", "568903335"),      // Duolingo, Kahoot, Google Classroom
-            "Health & Fitness", List.of("1069348216", "1089047252", "1059232953") // MyFitnessPal, Headspace, Noom
-    );
+    private enum PageOutcome { CONSUMED, REACHED_KNOWN, LIMIT_REACHED }
+
+    private static final class RunCounters {
+        final AtomicInteger collected = new AtomicInteger();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger filtered = new AtomicInteger();
+    }
 
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
+    private final CollectorMarkerRepository markerRepository;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final HttpCacheService httpCache;
+    private final AppStoreCategoryResolver categoryResolver;
+    private final KeywordMatcherRegistry keywordMatchers;
+
+    @Value("${collector.appstore.concurrency:4}")
+    private int concurrency = 4;
 
     public AppStoreCollector(CollectorTargetRepository targetRepository,
                              CollectorSignalRepository signalRepository,
+                             CollectorMarkerRepository markerRepository,
                              @Qualifier("appleRssWebClient") WebClient webClient,
-                             ObjectMapper objectMapper) {
+                             ObjectMapper objectMapper,
+                             ResilientHttpExecutor http,
+                             HttpCacheService httpCache,
+                             AppStoreCategoryResolver categoryResolver,
+                             KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
+        this.markerRepository = markerRepository;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.httpCache = httpCache;
+        this.categoryResolver = categoryResolver;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -58,10 +99,11 @@ public class AppStoreCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
-        int itemsCollected = 0;
-        int duplicatesSkipped = 0;
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.APP_STORE, config.getSettings());
+        RunCounters counters = new RunCounters();
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
 
         List<CollectorTarget> targets = targetRepository
@@ -70,72 +112,32 @@ public class AppStoreCollector implements SourceCollector {
         log.info("AppStore collection started with {} targets, maxItems={}", targets.size(), maxItems);
 
         try {
+            Set<String> appIds = new LinkedHashSet<>();
             for (CollectorTarget target : targets) {
-                if (Thread.currentThread().isInterrupted()) {
-                    log.info("AppStore collection interrupted");
-                    break;
-                }
-                if (itemsCollected >= maxItems) {
-                    log.info("AppStore reached max items limit: {}", maxItems);
-                    break;
-                }
-
-                List<String> appIds = resolveAppIds(target);
-                log.debug("AppStore target: type={}, value={}, appIds={}", target.getTargetType(), target.getTargetValue(), appIds.size());
+                List<String> resolved = resolveAppIds(target, budget);
+                log.debug("AppStore target: type={}, value={}, appIds={}", target.getTargetType(), target.getTargetValue(), resolved.size());
+                appIds.addAll(resolved);
+            }
 
+            // Apps are independent, so fetch them side by side; the shared counters enforce maxItems
+            try (ExecutorService workers = Executors.newFixedThreadPool(
+                    Math.max(1, concurrency), Thread.ofVirtual().name("appstore-", 0).factory())) {
+                List<Future<?>> futures = new ArrayList<>(appIds.size());
                 for (String appId : appIds) {
-                    if (itemsCollected >= maxItems) break;
-
-                    AppStoreRssResponse response = fetchReviews(appId);
-                    if (response == null || response.getFeed() == null || response.getFeed().getEntry() == null) {
-                        log.debug("AppStore no reviews for appId={}", appId);
-                        continue;
-                    }
-
-                    for (AppStoreRssResponse.AppStoreEntry entry : response.getFeed().getEntry()) {
-                        if (itemsCollected >= maxItems) break;
-
-                        // Filter by rating <= 3
-                        int rating = parseRating(entry);
-                        if (rating > MAX_RATING) {
-                            continue;
-                        }
-
-                        // Filter by review length > 50
-                        String content = entry.getContent() != null ? entry.getContent().getLabel() : "";
-                        if (content == null || content.length() <= MIN_REVIEW_LENGTH) {
-                            continue;
-                        }
-
-                        // Extract review ID for dedup
-                        String reviewId = extractReviewId(entry);
-                        String sourceId = appId + "_" + reviewId;
-
-                        if (signalRepository.existsBySourceTypeAndSourceId(SourceType.APP_STORE, sourceId)) {
-                            duplicatesSkipped++;
-                            continue;
-                        }
-
-                        String rawJson = buildRawJson(entry, appId);
-
-                        CollectorSignal signal = CollectorSignal.builder()
-                                .sourceType(SourceType.APP_STORE)
-                                .sourceId(sourceId)
-                                .rawText(rawJson)
-                                .build();
-                        signalRepository.save(signal);
-                        itemsCollected++;
-                    }
+                    futures.add(workers.submit(() -> collectApp(appId, maxItems, budget, keywords, counters, progress)));
                 }
+                awaitAll(futures);
             }
 
-            log.info("AppStore collection completed: {} items, {} duplicates skipped", itemsCollected, duplicatesSkipped);
+            log.info("AppStore collection completed: {} items, {} duplicates skipped",
+                    counters.collected.get(), counters.duplicates.get());
 
             return CollectionResult.builder()
                     .sourceType(SourceType.APP_STORE)
                     .status(CollectorStatus.COMPLETED)
-                    .itemsCollected(itemsCollected)
-                    .duplicatesSkipped(duplicatesSkipped)
+                    .itemsCollected(counters.collected.get())
+                    .duplicatesSkipped(counters.duplicates.get())
+                    .itemsFiltered(counters.filtered.get())
                     .duration(Duration.between(start, Instant.now()))
                     .build();
 
@@ -144,45 +146,172 @@ public class AppStoreCollector implements SourceCollector {
             return CollectionResult.builder()
                     .sourceType(SourceType.APP_STORE)
                     .status(CollectorStatus.FAILED)
-                    .itemsCollected(itemsCollected)
-                    .duplicatesSkipped(duplicatesSkipped)
+                    .itemsCollected(counters.collected.get())
+                    .duplicatesSkipped(counters.duplicates.get())
+                    .itemsFiltered(counters.filtered.get())
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
                     .build();
         }
     }
 
-    private List<String> resolveAppIds(CollectorTarget target) {
-        if ("APP_ID".equals(target.getTargetType())) {
-            return List.of(target.getTargetValue());
-        }
-        // CATEGORY target - resolve to known app IDs
-        return CATEGORY_APP_IDS.getOrDefault(target.getTargetValue(), List.of());
-    }
+    /**
+     * Walks an app's reviews newest-first, page by page, until a review we already have, a short page,
+     * {@link #MAX_PAGES}, or the run's item limit. Page 1 is fetched conditionally: a 304 means no new
+     * reviews at all. Its validators are only stored once the app was read to one of the natural stops,
+     * never when cut short by the item limit, an interrupt or a failure.
+     * <p>
+     * A walk cut short leaves older reviews unread behind the ones it stored, so the next run would stop
+     * at those and never reach them. It therefore sets the app's backlog marker, and while that is set
+     * known reviews are skipped rather than ending the walk; the marker is cleared once a walk finishes.
+     */
+    private void collectApp(String appId, int maxItems, RequestBudget budget, KeywordMatcher keywords,
+                            RunCounters counters, ProgressListener progress) {
+        progress.target("app " + appId);
+        String backlogKey = BACKLOG_MARKER + appId;
+        boolean backlog = markerRepository.existsBySourceTypeAndMarkerKey(SourceType.APP_STORE, backlogKey);
+        ConditionalResponse<AppStoreRssResponse> firstPage = null;
+        boolean finished = false;
+
+        try {
+            for (int page = 1; page <= MAX_PAGES; page++) {
+                if (Thread.currentThread().isInterrupted() || counters.collected.get() >= maxItems) {
+                    return;
+                }
 
-    private AppStoreRssResponse fetchReviews(String appId) {
-        int retries = 2;
-        for (int attempt = 0; attempt <= retries; attempt++) {
-            try {
-                return webClient.get()
-                        .uri("/rss/customerreviews/id={appId}/sortBy=mostRecent/json", appId)
-                        .retrieve()
-                        .bodyToMono(AppStoreRssResponse.class)
-                        .block(Duration.ofSeconds(30));
-            } catch (Exception e) {
-                log.warn("AppStore RSS request failed for appId={} (attempt {}/{}): {}",
-                        appId, attempt + 1, retries + 1, e.getMessage());
-                if (attempt < retries) {
-                    try { Thread.sleep(500L * (attempt + 1)); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry backoff", ie);
+                AppStoreRssResponse response;
+                if (page == 1) {
+                    firstPage = httpCache.get(SourceType.APP_STORE, budget, webClient, AppStoreRssResponse.class,
+                            REVIEWS_URI, page, appId);
+                    if (firstPage.notModified()) {
+                        progress.pageFetched();
+                        log.debug("AppStore reviews unchanged for appId={}", appId);
+                        return;
                     }
+                    response = firstPage.body();
                 } else {
-                    throw e;
+                    int p = page;
+                    response = http.execute(SourceType.APP_STORE, budget, () -> webClient.get()
+                            .uri(REVIEWS_URI, p, appId)
+                            .retrieve()
+                            .bodyToMono(AppStoreRssResponse.class));
+                }
+                progress.pageFetched();
+
+                List<AppStoreRssResponse.AppStoreEntry> entries = response != null && response.getFeed() != null
+                        ? response.getFeed().getEntry() : null;
+                if (entries == null || entries.isEmpty()) {
+                    log.debug("AppStore no reviews for appId={} page={}", appId, page);
+                    break;
+                }
+
+                PageOutcome outcome = processPage(appId, entries, maxItems, backlog, keywords, counters, progress);
+                if (outcome == PageOutcome.LIMIT_REACHED) {
+                    return;
+                }
+                if (outcome == PageOutcome.REACHED_KNOWN || entries.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+            finished = true;
+        } finally {
+            if (finished) {
+                httpCache.commit(firstPage);
+                if (backlog) {
+                    markerRepository.clear(SourceType.APP_STORE, backlogKey);
+                }
+            } else if (firstPage != null && !firstPage.notModified()) {
+                log.debug("AppStore reviews of appId={} cut short, reading past known ones next run", appId);
+                markerRepository.mark(SourceType.APP_STORE.name(), backlogKey, Instant.now());
+            }
+        }
+    }
+
+    private PageOutcome processPage(String appId, List<AppStoreRssResponse.AppStoreEntry> entries, int maxItems,
+                                    boolean backlog, KeywordMatcher keywords, RunCounters counters, ProgressListener progress) {
+        for (AppStoreRssResponse.AppStoreEntry entry : entries) {
+            if (counters.collected.get() >= maxItems) {
+                return PageOutcome.LIMIT_REACHED;
+            }
+
+            // Filter by rating <= 3
+            int rating = parseRating(entry);
+            if (rating > MAX_RATING) {
+                counters.filtered.incrementAndGet();
+                continue;
+            }
+
+            // Filter by review length > 50
+            String content = entry.getContent() != null ? entry.getContent().getLabel() : "";
+            if (content == null || content.length() <= MIN_REVIEW_LENGTH) {
+                counters.filtered.incrementAndGet();
+                continue;
+            }
+
+            KeywordMatch keywordMatch = keywords.match(
+                    entry.getTitle() != null ? entry.getTitle().getLabel() : null, content);
+            if (!keywordMatch.accepted()) {
+                counters.filtered.incrementAndGet();
+                continue;
+            }
+
+            // Extract review ID for dedup
+            String reviewId = extractReviewId(entry);
+            String sourceId = appId + "_" + reviewId;
+
+            // Reviews are newest-first, so everything after a stored one was seen by an earlier run,
+            // unless that run was cut short
+            if (signalRepository.existsBySourceTypeAndSourceId(SourceType.APP_STORE, sourceId)) {
+                counters.duplicates.incrementAndGet();
+                if (backlog) {
+                    continue;
                 }
+                return PageOutcome.REACHED_KNOWN;
+            }
+
+            if (counters.collected.incrementAndGet() > maxItems) {
+                counters.collected.decrementAndGet();
+                return PageOutcome.LIMIT_REACHED;
             }
+
+            String rawJson = buildRawJson(entry, appId, keywordMatch);
+
+            CollectorSignal signal = CollectorSignal.builder()
+                    .sourceType(SourceType.APP_STORE)
+                    .sourceId(sourceId)
+                    .rawText(rawJson)
+                    .build();
+            signalRepository.save(signal);
+            progress.itemProcessed();
+        }
+        return PageOutcome.CONSUMED;
+    }
+
+    /** Waits for every app; the first failure cancels the rest and fails the run, a stop request just ends it. */
+    private static void awaitAll(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            log.info("AppStore collection interrupted");
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> resolveAppIds(CollectorTarget target, RequestBudget budget) {
+        if ("APP_ID".equals(target.getTargetType())) {
+            return List.of(target.getTargetValue());
         }
-        return null;
+        // CATEGORY target - resolve to the apps on its top charts
+        return categoryResolver.resolve(target.getTargetValue(), budget);
     }
 
     private int parseRating(AppStoreRssResponse.AppStoreEntry entry) {
@@ -208,7 +337,7 @@ public class AppStoreCollector implements SourceCollector {
         return String.valueOf(System.nanoTime());
     }
 
-    private String buildRawJson(AppStoreRssResponse.AppStoreEntry entry, String appId) {
+    private String buildRawJson(AppStoreRssResponse.AppStoreEntry entry, String appId, KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("author", entry.getAuthor() != null && entry.getAuthor().getName() != null
@@ -220,6 +349,7 @@ public class AppStoreCollector implements SourceCollector {
             data.put("date", entry.getUpdated() != null ? entry.getUpdated().getLabel() : "");
             data.put("appId", appId);
             data.put("source_url", "https://apps.apple.com/app/id" + appId);
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize AppStore entry: {}", e.getMessage());
@@ -0,0 +1,15 @@
+package org.big.bigcollector.collector;
+
+import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.progress.ProgressListener;
+
+import java.time.Instant;
+
+/**
+ * A collector that can also walk a source's history over a fixed time range, beyond what a regular
+ * run reaches. Backfills ignore {@code maxItems}; they are bounded by the range and their request budget.
+ */
+public interface BackfillCollector extends SourceCollector {
+
+    CollectionResult backfill(CollectorConfig config, Instant from, Instant to, ProgressListener progress);
+}
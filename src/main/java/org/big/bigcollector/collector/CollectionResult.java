@@ -13,6 +13,7 @@ public record CollectionResult(
     int itemsCollected,
     int newProblems,
     int duplicatesSkipped,
+    int itemsFiltered,
     String lastCursor,
     Duration duration,
     String error
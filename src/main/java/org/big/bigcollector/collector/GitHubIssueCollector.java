@@ -3,21 +3,30 @@ package org.big.bigcollector.collector;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.dto.github.GitHubGraphQLSearchResponse;
 import org.big.bigcollector.dto.github.GitHubSearchResponse;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.RequestPacer;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,22 +37,61 @@ import java.util.stream.Collectors;
 public class GitHubIssueCollector implements SourceCollector {
 
     private static final int PER_PAGE = 30;
+    private static final int GRAPHQL_PAGE_SIZE = 100;
     private static final int MAX_PAGES = 3;
-    private static final long RATE_LIMIT_DELAY_MS = 2000;
+
+    // Only the fields buildRawJson stores; labels beyond the first 20 are not worth the extra points
+    private static final String SEARCH_QUERY = """
+            query($q: String!, $first: Int!, $after: String) {
+              search(query: $q, type: ISSUE, first: $first, after: $after) {
+                issueCount
+                pageInfo { hasNextPage endCursor }
+                nodes {
+                  ... on Issue {
+                    databaseId
+                    title
+                    body
+                    url
+                    comments { totalCount }
+                    reactions { totalCount }
+                    thumbsUp: reactions(content: THUMBS_UP) { totalCount }
+                    labels(first: 20) { nodes { name } }
+                    repository { nameWithOwner }
+                  }
+                }
+              }
+            }
+            """;
 
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final KeywordMatcherRegistry keywordMatchers;
+
+    /** {@code graphql} (up to 100 issues per request) or {@code rest}; GraphQL needs a token. */
+    @Value("${collector.github.api:graphql}")
+    private String api = "graphql";
+
+    @Value("${github.token:}")
+    private String token = "";
+
+    @Value("${collector.github.request-interval:PT2S}")
+    private Duration requestInterval = Duration.ofSeconds(2);
 
     public GitHubIssueCollector(CollectorTargetRepository targetRepository,
                                 CollectorSignalRepository signalRepository,
                                 @Qualifier("githubWebClient") WebClient webClient,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                ResilientHttpExecutor http,
+                                KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -52,17 +100,23 @@ public class GitHubIssueCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.GITHUB, config.getSettings());
         int itemsCollected = 0;
         int duplicatesSkipped = 0;
+        int filtered = 0;
         String lastCursor = config.getLastCursor();
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
+        boolean graphql = useGraphQL();
+        RequestPacer pacer = new RequestPacer(requestInterval);
 
         List<CollectorTarget> targets = targetRepository
                 .findBySourceTypeAndEnabledTrue(SourceType.GITHUB);
 
-        log.info("GitHub collection started with {} targets, maxItems={}", targets.size(), maxItems);
+        log.info("GitHub collection started with {} targets, maxItems={}, api={}",
+                targets.size(), maxItems, graphql ? "graphql" : "rest");
 
         try {
             for (CollectorTarget target : targets) {
@@ -72,25 +126,37 @@ public class GitHubIssueCollector implements SourceCollector {
                 }
                 if (itemsCollected >= maxItems) break;
 
+                progress.target(target.getTargetValue());
                 String query = buildSearchQuery(target);
                 log.debug("GitHub searching: {}", query);
 
+                String cursor = null;
                 for (int page = 1; page <= MAX_PAGES && itemsCollected < maxItems; page++) {
-                    GitHubSearchResponse response = fetchPage(query, page);
-                    if (response == null || response.getItems() == null || response.getItems().isEmpty()) {
+                    if (!pacer.tryAcquire()) break;
+                    IssuePage result = graphql
+                            ? fetchGraphQLPage(query, cursor, budget)
+                            : fetchPage(query, page, budget);
+                    progress.pageFetched();
+                    if (result.issues().isEmpty()) {
                         break;
                     }
 
-                    for (GitHubSearchResponse.GitHubIssue issue : response.getItems()) {
+                    for (GitHubSearchResponse.GitHubIssue issue : result.issues()) {
                         if (itemsCollected >= maxItems) break;
 
+                        KeywordMatch keywordMatch = keywords.match(issue.getTitle(), issue.getBody());
+                        if (!keywordMatch.accepted()) {
+                            filtered++;
+                            continue;
+                        }
+
                         String sourceId = String.valueOf(issue.getId());
                         if (signalRepository.existsBySourceTypeAndSourceId(SourceType.GITHUB, sourceId)) {
                             duplicatesSkipped++;
                             continue;
                         }
 
-                        String rawJson = buildRawJson(issue);
+                        String rawJson = buildRawJson(issue, keywordMatch);
                         CollectorSignal signal = CollectorSignal.builder()
                                 .sourceType(SourceType.GITHUB)
                                 .sourceId(sourceId)
@@ -98,15 +164,12 @@ public class GitHubIssueCollector implements SourceCollector {
                                 .build();
                         signalRepository.save(signal);
                         itemsCollected++;
+                        progress.itemProcessed();
                     }
 
-                    lastCursor = String.valueOf(page);
-
-                    // Rate limit delay between requests
-                    try { Thread.sleep(RATE_LIMIT_DELAY_MS); } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
+                    cursor = result.cursor();
+                    lastCursor = cursor;
+                    if (!result.hasNext()) break;
                 }
             }
 
@@ -117,6 +180,7 @@ public class GitHubIssueCollector implements SourceCollector {
                     .status(CollectorStatus.COMPLETED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .build();
@@ -128,6 +192,7 @@ public class GitHubIssueCollector implements SourceCollector {
                     .status(CollectorStatus.FAILED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
@@ -144,47 +209,93 @@ public class GitHubIssueCollector implements SourceCollector {
         };
     }
 
-    private GitHubSearchResponse fetchPage(String query, int page) {
-        int retries = 2;
-        for (int attempt = 0; attempt <= retries; attempt++) {
-            try {
-                return webClient.get()
-                        .uri(uriBuilder -> uriBuilder
-                                .path("/search/issues")
-                                .queryParam("q", query)
-                                .queryParam("per_page", PER_PAGE)
-                                .queryParam("page", page)
-                                .build())
-                        .retrieve()
-                        .bodyToMono(GitHubSearchResponse.class)
-                        .block(Duration.ofSeconds(30));
-            } catch (WebClientResponseException.Forbidden e) {
-                // GitHub returns 403 for rate limiting
-                log.warn("GitHub rate limited (attempt {}/{}), waiting...", attempt + 1, retries + 1);
-                if (attempt < retries) {
-                    try { Thread.sleep(60_000); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during rate limit backoff", ie);
-                    }
-                } else {
-                    throw e;
-                }
-            } catch (Exception e) {
-                log.warn("GitHub API request failed (attempt {}/{}): {}", attempt + 1, retries + 1, e.getMessage());
-                if (attempt < retries) {
-                    try { Thread.sleep(1000L * (attempt + 1)); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry backoff", ie);
-                    }
-                } else {
-                    throw e;
+    boolean useGraphQL() {
+        if (!"graphql".equalsIgnoreCase(api)) {
+            return false;
+        }
+        if (token == null || token.isBlank()) {
+            log.warn("GitHub GraphQL API needs a token, falling back to REST search");
+            return false;
+        }
+        return true;
+    }
+
+    private IssuePage fetchPage(String query, int page, RequestBudget budget) {
+        // Rate-limited 403s are retried after X-RateLimit-Reset by the executor
+        GitHubSearchResponse response = http.execute(SourceType.GITHUB, budget, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/search/issues")
+                        .queryParam("q", query)
+                        .queryParam("per_page", PER_PAGE)
+                        .queryParam("page", page)
+                        .build())
+                .retrieve()
+                .bodyToMono(GitHubSearchResponse.class));
+        List<GitHubSearchResponse.GitHubIssue> issues = response != null && response.getItems() != null
+                ? response.getItems() : List.of();
+        return new IssuePage(issues, String.valueOf(page), issues.size() == PER_PAGE);
+    }
+
+    /**
+     * One GraphQL search page, mapped onto the REST issue shape so both paths store identical signals.
+     * Errors reported in a 200 response without data fail the run like an HTTP error would.
+     */
+    private IssuePage fetchGraphQLPage(String query, String after, RequestBudget budget) {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("q", query);
+        variables.put("first", GRAPHQL_PAGE_SIZE);
+        variables.put("after", after);
+        Map<String, Object> body = Map.of("query", SEARCH_QUERY, "variables", variables);
+
+        GitHubGraphQLSearchResponse response = http.execute(SourceType.GITHUB, budget, () -> webClient.post()
+                .uri("/graphql")
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(GitHubGraphQLSearchResponse.class));
+        if (response == null) {
+            return new IssuePage(List.of(), after, false);
+        }
+        GitHubGraphQLSearchResponse.Search search = response.getData() != null ? response.getData().getSearch() : null;
+        if (search == null) {
+            String message = response.getErrors() != null && !response.getErrors().isEmpty()
+                    ? response.getErrors().getFirst().getMessage() : "no data";
+            throw new IllegalStateException("GitHub GraphQL search failed: " + message);
+        }
+
+        List<GitHubSearchResponse.GitHubIssue> issues = new ArrayList<>();
+        if (search.getNodes() != null) {
+            for (GitHubGraphQLSearchResponse.IssueNode node : search.getNodes()) {
+                // Non-issue nodes come back as empty objects
+                if (node != null && node.getDatabaseId() != null) {
+                    issues.add(toIssue(node));
                 }
             }
         }
-        return null;
+        GitHubGraphQLSearchResponse.PageInfo pageInfo = search.getPageInfo();
+        boolean hasNext = pageInfo != null && pageInfo.isHasNextPage() && pageInfo.getEndCursor() != null;
+        return new IssuePage(issues, pageInfo != null ? pageInfo.getEndCursor() : after, hasNext);
     }
 
-    private String buildRawJson(GitHubSearchResponse.GitHubIssue issue) {
+    private static GitHubSearchResponse.GitHubIssue toIssue(GitHubGraphQLSearchResponse.IssueNode node) {
+        GitHubSearchResponse.GitHubIssue issue = new GitHubSearchResponse.GitHubIssue();
+        issue.setId(node.getDatabaseId());
+        issue.setTitle(node.getTitle());
+        issue.setBody(node.getBody());
+        issue.setHtmlUrl(node.getUrl());
+        issue.setComments(node.getComments() != null ? node.getComments().getTotalCount() : 0);
+        issue.setLabels(node.getLabels() != null && node.getLabels().getNodes() != null
+                ? node.getLabels().getNodes() : List.of());
+        GitHubSearchResponse.GitHubReactions reactions = new GitHubSearchResponse.GitHubReactions();
+        reactions.setTotalCount(node.getReactions() != null ? node.getReactions().getTotalCount() : 0);
+        reactions.setPlusOne(node.getThumbsUp() != null ? node.getThumbsUp().getTotalCount() : 0);
+        issue.setReactions(reactions);
+        if (node.getRepository() != null) {
+            issue.setRepositoryUrl("https://api.github.com/repos/" + node.getRepository().getNameWithOwner());
+        }
+        return issue;
+    }
+
+    private String buildRawJson(GitHubSearchResponse.GitHubIssue issue, KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("title", issue.getTitle());
@@ -197,6 +308,7 @@ public class GitHubIssueCollector implements SourceCollector {
                     : List.of());
             data.put("repo", extractRepoName(issue.getRepositoryUrl()));
             data.put("url", issue.getHtmlUrl());
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize GitHub issue: {}", e.getMessage());
@@ -214,4 +326,8 @@ public class GitHubIssueCollector implements SourceCollector {
     private String truncate(String text, int maxLen) {
         return text.length() <= maxLen ? text : text.substring(0, maxLen) + "...";
     }
+
+    /** Issues of one search page; {@code cursor} is the page number (REST) or end cursor (GraphQL). */
+    private record IssuePage(List<GitHubSearchResponse.GitHubIssue> issues, String cursor, boolean hasNext) {
+    }
 }
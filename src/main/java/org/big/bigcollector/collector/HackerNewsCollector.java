@@ -9,39 +9,75 @@ import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.RequestPacer;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.jsoup.Jsoup;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Slf4j
-public class HackerNewsCollector implements SourceCollector {
+public class HackerNewsCollector implements BackfillCollector {
 
     private static final int MAX_PAGES = 5;
     private static final int HITS_PER_PAGE = 50;
+    // Algolia stops paginating after this many hits per query
+    private static final int ALGOLIA_HIT_CAP = 1000;
+    private static final int BACKFILL_HITS_PER_PAGE = 100;
 
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final KeywordMatcherRegistry keywordMatchers;
+
+    @Value("${collector.hn.backfill.concurrency:4}")
+    private int backfillConcurrency = 4;
+
+    @Value("${collector.hn.backfill.requests-per-second:2}")
+    private double backfillRequestsPerSecond = 2;
+
+    @Value("${collector.hn.backfill.budget:PT2H}")
+    private Duration backfillBudget = Duration.ofHours(2);
 
     public HackerNewsCollector(CollectorTargetRepository targetRepository,
                                CollectorSignalRepository signalRepository,
                                @Qualifier("hnWebClient") WebClient webClient,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               ResilientHttpExecutor http,
+                               KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -50,10 +86,14 @@ public class HackerNewsCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.HACKER_NEWS, config.getSettings());
         int itemsCollected = 0;
+        Set<String> seenIds = new HashSet<>();
         int duplicatesSkipped = 0;
+        int filtered = 0;
         String lastCursor = config.getLastCursor();
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
 
@@ -74,14 +114,15 @@ public class HackerNewsCollector implements SourceCollector {
                 }
 
                 String keyword = target.getTargetValue();
-                String tags = "KEYWORD".equals(target.getTargetType()) ? "comment" : "ask_hn";
-                String numericFilters = "KEYWORD".equals(target.getTargetType())
-                        ? "points>2" : "points>10";
+                progress.target(keyword);
+                String tags = tagsFor(target);
+                String numericFilters = pointsFilterFor(target);
 
                 log.debug("HN fetching target: type={}, value={}", target.getTargetType(), keyword);
 
                 for (int page = 0; page < MAX_PAGES && itemsCollected < maxItems; page++) {
-                    HNSearchResponse response = fetchPage(keyword, tags, numericFilters, page);
+                    HNSearchResponse response = fetchPage(keyword, tags, numericFilters, page, budget);
+                    progress.pageFetched();
                     if (response == null || response.getHits() == null || response.getHits().isEmpty()) {
                         break;
                     }
@@ -89,27 +130,14 @@ public class HackerNewsCollector implements SourceCollector {
                     for (HNSearchResponse.HNHit hit : response.getHits()) {
                         if (itemsCollected >= maxItems) break;
 
-                        String text = hit.getCommentText() != null ? hit.getCommentText() : "";
-                        if (text.isBlank() && (hit.getTitle() == null || hit.getTitle().isBlank())) {
-                            continue;
+                        switch (store(hit, keywords, seenIds)) {
+                            case SAVED -> {
+                                itemsCollected++;
+                                progress.itemProcessed();
+                            }
+                            case DUPLICATE -> duplicatesSkipped++;
+                            case FILTERED -> filtered++;
                         }
-
-                        String sourceId = hit.getObjectId();
-                        if (signalRepository.existsBySourceTypeAndSourceId(SourceType.HACKER_NEWS, sourceId)) {
-                            duplicatesSkipped++;
-                            continue;
-                        }
-
-                        String cleanText = Jsoup.parse(text).text();
-                        String rawJson = buildRawJson(hit, cleanText);
-
-                        CollectorSignal signal = CollectorSignal.builder()
-                                .sourceType(SourceType.HACKER_NEWS)
-                                .sourceId(sourceId)
-                                .rawText(rawJson)
-                                .build();
-                        signalRepository.save(signal);
-                        itemsCollected++;
                     }
 
                     lastCursor = String.valueOf(page + 1);
@@ -125,6 +153,7 @@ public class HackerNewsCollector implements SourceCollector {
                     .status(CollectorStatus.COMPLETED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .build();
@@ -136,6 +165,7 @@ public class HackerNewsCollector implements SourceCollector {
                     .status(CollectorStatus.FAILED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
@@ -143,38 +173,206 @@ public class HackerNewsCollector implements SourceCollector {
         }
     }
 
-    private HNSearchResponse fetchPage(String query, String tags, String numericFilters, int page) {
-        int retries = 2;
-        for (int attempt = 0; attempt <= retries; attempt++) {
+    /**
+     * Walks every target's full history between {@code from} and {@code to}. Algolia returns at most
+     * {@value #ALGOLIA_HIT_CAP} hits per query, so each target is sharded into {@code created_at_i} windows;
+     * a window reporting more hits than that is split in half until every shard fits. Shards run on
+     * {@code collector.hn.backfill.concurrency} workers, with request starts paced to
+     * {@code collector.hn.backfill.requests-per-second}. A failing shard is logged and skipped; the run only
+     * fails if every shard did.
+     */
+    @Override
+    public CollectionResult backfill(CollectorConfig config, Instant from, Instant to, ProgressListener progress) {
+        Instant start = Instant.now();
+        RequestBudget budget = http.newBudget(backfillBudget);
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.HACKER_NEWS, config.getSettings());
+        RequestPacer pacer = RequestPacer.perSecond(backfillRequestsPerSecond);
+        BackfillCounters counters = new BackfillCounters();
+
+        List<CollectorTarget> targets = targetRepository
+                .findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS);
+        log.info("HN backfill started with {} targets, {} to {}", targets.size(), from, to);
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, backfillConcurrency), Thread.ofVirtual().name("hn-backfill-", 0).factory())) {
+            CompletionService<List<Shard>> shards = new ExecutorCompletionService<>(workers);
+            int pending = 0;
+            for (CollectorTarget target : targets) {
+                Shard shard = new Shard(target.getTargetValue(), tagsFor(target), pointsFilterFor(target),
+                        from.getEpochSecond(), to.getEpochSecond());
+                shards.submit(() -> backfillShard(shard, budget, pacer, keywords, counters, progress));
+                pending++;
+            }
+
             try {
-                return webClient.get()
-                        .uri(uriBuilder -> uriBuilder
-                                .path("/api/v1/search")
-                                .queryParam("query", query)
-                                .queryParam("tags", tags)
-                                .queryParam("numericFilters", numericFilters)
-                                .queryParam("hitsPerPage", HITS_PER_PAGE)
-                                .queryParam("page", page)
-                                .build())
-                        .retrieve()
-                        .bodyToMono(HNSearchResponse.class)
-                        .block(Duration.ofSeconds(30));
-            } catch (Exception e) {
-                log.warn("HN API request failed (attempt {}/{}): {}", attempt + 1, retries + 1, e.getMessage());
-                if (attempt < retries) {
-                    try { Thread.sleep(500L * (attempt + 1)); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry backoff", ie);
+                while (pending > 0) {
+                    Future<List<Shard>> done = shards.take();
+                    pending--;
+                    List<Shard> splits;
+                    try {
+                        splits = done.get();
+                    } catch (ExecutionException e) {
+                        counters.failedShards.incrementAndGet();
+                        log.warn("HN backfill shard failed: {}", e.getCause().getMessage());
+                        progress.error("HN backfill shard failed: " + e.getCause().getMessage());
+                        continue;
+                    }
+                    if (splits.isEmpty()) {
+                        counters.finishedShards.incrementAndGet();
+                    }
+                    for (Shard split : splits) {
+                        shards.submit(() -> backfillShard(split, budget, pacer, keywords, counters, progress));
+                        pending++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.info("HN backfill interrupted");
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int failed = counters.failedShards.get();
+        // Only a run in which no shard got through has failed; otherwise it reports the shards it lost
+        boolean allFailed = failed > 0 && counters.finishedShards.get() == 0;
+        log.info("HN backfill {}: {} items, {} duplicates skipped, {} shards, {} failed",
+                allFailed ? "failed" : "completed", counters.collected.get(), counters.duplicates.get(),
+                counters.shards.get(), failed);
+
+        return CollectionResult.builder()
+                .sourceType(SourceType.HACKER_NEWS)
+                .status(allFailed ? CollectorStatus.FAILED : CollectorStatus.COMPLETED)
+                .itemsCollected(counters.collected.get())
+                .duplicatesSkipped(counters.duplicates.get())
+                .itemsFiltered(counters.filtered.get())
+                .lastCursor(config.getLastCursor())
+                .duration(Duration.between(start, Instant.now()))
+                .error(failed > 0 ? failed + " backfill shards failed" : null)
+                .build();
+    }
+
+    /**
+     * Fetches one window. Returns its two halves instead when the window holds more hits than Algolia
+     * will page through; otherwise stores every page and returns no further shards.
+     */
+    private List<Shard> backfillShard(Shard shard, RequestBudget budget, RequestPacer pacer,
+                                      KeywordMatcher keywords, BackfillCounters counters,
+                                      ProgressListener progress) throws InterruptedException {
+        pacer.acquire();
+        HNSearchResponse first = fetchWindow(shard, 0, budget);
+        progress.pageFetched();
+        if (first == null || first.getHits() == null) {
+            return List.of();
+        }
+        if (first.getNbHits() > ALGOLIA_HIT_CAP && shard.to() - shard.from() > 1) {
+            long mid = shard.from() + (shard.to() - shard.from()) / 2;
+            return List.of(shard.withRange(shard.from(), mid), shard.withRange(mid, shard.to()));
+        }
+        if (first.getNbHits() > ALGOLIA_HIT_CAP) {
+            log.warn("HN backfill window {} holds {} hits in one second; only the first {} are reachable",
+                    shard, first.getNbHits(), ALGOLIA_HIT_CAP);
+        }
+        counters.shards.incrementAndGet();
+        progress.target(shard.query() + " " + Instant.ofEpochSecond(shard.from()));
+
+        HNSearchResponse response = first;
+        for (int page = 0; ; ) {
+            for (HNSearchResponse.HNHit hit : response.getHits()) {
+                switch (store(hit, keywords, counters.seenIds)) {
+                    case SAVED -> {
+                        counters.collected.incrementAndGet();
+                        progress.itemProcessed();
                     }
-                } else {
-                    throw e;
+                    case DUPLICATE -> counters.duplicates.incrementAndGet();
+                    case FILTERED -> counters.filtered.incrementAndGet();
                 }
             }
+            if (++page >= response.getNbPages() || Thread.currentThread().isInterrupted()) {
+                return List.of();
+            }
+            pacer.acquire();
+            response = fetchWindow(shard, page, budget);
+            progress.pageFetched();
+            if (response == null || response.getHits() == null || response.getHits().isEmpty()) {
+                return List.of();
+            }
+        }
+    }
+
+    /**
+     * Stores {@code hit} unless it is filtered out or already stored. {@code seenIds} holds the ids this run
+     * has already stored or is storing: the same item can turn up under several targets, and backfill shards
+     * store concurrently, so the lookup alone would let both copies through.
+     */
+    private StoreOutcome store(HNSearchResponse.HNHit hit, KeywordMatcher keywords, Set<String> seenIds) {
+        String text = hit.getCommentText() != null ? hit.getCommentText() : "";
+        if (text.isBlank() && (hit.getTitle() == null || hit.getTitle().isBlank())) {
+            return StoreOutcome.FILTERED;
         }
-        return null;
+
+        KeywordMatch keywordMatch = keywords.match(hit.getTitle(), text);
+        if (!keywordMatch.accepted()) {
+            return StoreOutcome.FILTERED;
+        }
+
+        String sourceId = hit.getObjectId();
+        if (!seenIds.add(sourceId)
+                || signalRepository.existsBySourceTypeAndSourceId(SourceType.HACKER_NEWS, sourceId)) {
+            return StoreOutcome.DUPLICATE;
+        }
+
+        String cleanText = Jsoup.parse(text).text();
+        String rawJson = buildRawJson(hit, cleanText, keywordMatch);
+
+        CollectorSignal signal = CollectorSignal.builder()
+                .sourceType(SourceType.HACKER_NEWS)
+                .sourceId(sourceId)
+                .rawText(rawJson)
+                .build();
+        signalRepository.save(signal);
+        return StoreOutcome.SAVED;
+    }
+
+    private static String tagsFor(CollectorTarget target) {
+        return "KEYWORD".equals(target.getTargetType()) ? "comment" : "ask_hn";
+    }
+
+    private static String pointsFilterFor(CollectorTarget target) {
+        return "KEYWORD".equals(target.getTargetType()) ? "points>2" : "points>10";
+    }
+
+    private HNSearchResponse fetchWindow(Shard shard, int page, RequestBudget budget) {
+        String numericFilters = shard.pointsFilter()
+                + ",created_at_i>=" + shard.from() + ",created_at_i<" + shard.to();
+        return http.execute(SourceType.HACKER_NEWS, budget, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/search_by_date")
+                        .queryParam("query", shard.query())
+                        .queryParam("tags", shard.tags())
+                        .queryParam("numericFilters", numericFilters)
+                        .queryParam("hitsPerPage", BACKFILL_HITS_PER_PAGE)
+                        .queryParam("page", page)
+                        .build())
+                .retrieve()
+                .bodyToMono(HNSearchResponse.class));
+    }
+
+    private HNSearchResponse fetchPage(String query, String tags, String numericFilters, int page,
+                                       RequestBudget budget) {
+        return http.execute(SourceType.HACKER_NEWS, budget, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/search")
+                        .queryParam("query", query)
+                        .queryParam("tags", tags)
+                        .queryParam("numericFilters", numericFilters)
+                        .queryParam("hitsPerPage", HITS_PER_PAGE)
+                        .queryParam("page", page)
+                        .build())
+                .retrieve()
+                .bodyToMono(HNSearchResponse.class));
     }
 
-    private String buildRawJson(HNSearchResponse.HNHit hit, String cleanText) {
+    String buildRawJson(HNSearchResponse.HNHit hit, String cleanText, KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("title", hit.getTitle() != null ? hit.getTitle() :
@@ -185,10 +383,31 @@ public class HackerNewsCollector implements SourceCollector {
                     "https://news.ycombinator.com/item?id=" + hit.getObjectId());
             data.put("author", hit.getAuthor());
             data.put("source_url", "https://news.ycombinator.com/item?id=" + hit.getObjectId());
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize HN hit: {}", e.getMessage());
             return "{}";
         }
     }
+
+    private enum StoreOutcome { SAVED, DUPLICATE, FILTERED }
+
+    /** One query over the half-open {@code created_at_i} range [from, to), in epoch seconds. */
+    private record Shard(String query, String tags, String pointsFilter, long from, long to) {
+
+        Shard withRange(long from, long to) {
+            return new Shard(query, tags, pointsFilter, from, to);
+        }
+    }
+
+    private static final class BackfillCounters {
+        final AtomicInteger collected = new AtomicInteger();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger filtered = new AtomicInteger();
+        final AtomicInteger shards = new AtomicInteger();
+        final AtomicInteger failedShards = new AtomicInteger();
+        final AtomicInteger finishedShards = new AtomicInteger();
+        final Set<String> seenIds = ConcurrentHashMap.newKeySet();
+    }
 }
@@ -1,12 +1,18 @@
 package org.big.bigcollector.collector;
 
 import com.anthropic.client.AnthropicClient;
+import com.anthropic.core.JsonValue;
+import com.anthropic.models.messages.CacheControlEphemeral;
 import com.anthropic.models.messages.ContentBlock;
 import com.anthropic.models.messages.Message;
 import com.anthropic.models.messages.MessageCreateParams;
 import com.anthropic.models.messages.MessageParam;
 import com.anthropic.models.messages.Model;
-import com.anthropic.models.messages.TextBlock;
+import com.anthropic.models.messages.TextBlockParam;
+import com.anthropic.models.messages.Tool;
+import com.anthropic.models.messages.ToolChoiceTool;
+import com.anthropic.models.messages.ToolUseBlock;
+import com.anthropic.models.messages.Usage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,8 +23,14 @@ import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestPacer;
+import org.big.bigcollector.metrics.LlmMetrics;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
+import org.big.bigcollector.similarity.NearDuplicateIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
@@ -32,7 +44,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 @Slf4j
@@ -40,6 +56,9 @@ public class LlmBrainstormCollector implements SourceCollector {
 
     private static final Model HAIKU_MODEL = Model.CLAUDE_3_HAIKU_20240307;
     private static final int MAX_TOKENS = 4096;
+    // 128 MinHash values; see NearDuplicateIndex for the resulting candidate probabilities
+    private static final int LSH_BANDS = 32;
+    private static final int LSH_ROWS = 4;
 
     private static final String SYSTEM_PROMPT = """
             You are a business problem analyst. Your task is to brainstorm real, specific business problems \
@@ -49,30 +68,80 @@ public class LlmBrainstormCollector implements SourceCollector {
             - Could be addressed with a SaaS or software product
             - Are specific enough to build a product around
 
-            Return your response as a JSON array of problem objects. Each object must have these fields:
+            Report the problems by calling the record_problems tool. For each problem give:
             - title: A concise problem title (5-10 words)
             - description: 2-3 sentence description of the problem
             - target_customer: Who experiences this problem
             - problem_type: One of "workflow", "communication", "data", "compliance", "cost", "automation"
             - monetization_model: One of "subscription", "usage_based", "freemium", "marketplace"
             - estimated_pain_intensity: One of "high", "medium", "low"
-
-            Return ONLY the JSON array, no other text.
             """;
 
+    private static final String TOOL_NAME = "record_problems";
+
+    // Forced tool call: the answer arrives as schema-shaped JSON in tool_use.input, no text to scan
+    private static final Tool PROBLEMS_TOOL = Tool.builder()
+            .name(TOOL_NAME)
+            .description("Record the brainstormed business problems for the requested industry.")
+            .inputSchema(Tool.InputSchema.builder()
+                    .properties(JsonValue.from(Map.of("problems", Map.of(
+                            "type", "array",
+                            "items", Map.of(
+                                    "type", "object",
+                                    "properties", Map.of(
+                                            "title", Map.of("type", "string"),
+                                            "description", Map.of("type", "string"),
+                                            "target_customer", Map.of("type", "string"),
+                                            "problem_type", Map.of("type", "string", "enum", List.of(
+                                                    "workflow", "communication", "data", "compliance", "cost",
+                                                    "automation")),
+                                            "monetization_model", Map.of("type", "string", "enum", List.of(
+                                                    "subscription", "usage_based", "freemium", "marketplace")),
+                                            "estimated_pain_intensity", Map.of("type", "string", "enum", List.of(
+                                                    "high", "medium", "low"))),
+                                    "required", List.of("title", "description", "target_customer",
+                                            "problem_type", "monetization_model", "estimated_pain_intensity"))))))
+                    .putAdditionalProperty("required", JsonValue.from(List.of("problems")))
+                    .build())
+            .build();
+
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
     private final AnthropicConfig anthropicConfig;
     private final ObjectMapper objectMapper;
+    private final LlmMetrics llmMetrics;
+
+    @Value("${collector.brainstorm.concurrency:8}")
+    private int concurrency = 8;
+
+    @Value("${collector.brainstorm.requests-per-minute:50}")
+    private int requestsPerMinute = 50;
+
+    /** Marks the system prompt and tool definition as a cacheable prefix shared by every industry call. */
+    @Value("${collector.brainstorm.prompt-caching:true}")
+    private boolean promptCaching = true;
+
+    @Value("${collector.brainstorm.near-duplicate.enabled:true}")
+    private boolean nearDuplicateFilter = true;
+
+    /** Estimated Jaccard similarity (title + description shingles) at which a problem counts as already known. */
+    @Value("${collector.brainstorm.near-duplicate.threshold:0.6}")
+    private double nearDuplicateThreshold = 0.6;
+
+    /** How many of the most recent brainstorm signals seed the index at the start of a run. */
+    @Value("${collector.brainstorm.near-duplicate.seed-size:2000}")
+    private int nearDuplicateSeedSize = 2000;
 
     public LlmBrainstormCollector(CollectorTargetRepository targetRepository,
                                    CollectorSignalRepository signalRepository,
                                    AnthropicConfig anthropicConfig,
-                                   ObjectMapper objectMapper) {
+                                   ObjectMapper objectMapper,
+                                   LlmMetrics llmMetrics) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
         this.anthropicConfig = anthropicConfig;
         this.objectMapper = objectMapper;
+        this.llmMetrics = llmMetrics;
     }
 
     @Override
@@ -81,7 +150,7 @@ public class LlmBrainstormCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
         int itemsCollected = 0;
         int duplicatesSkipped = 0;
@@ -103,68 +172,113 @@ public class LlmBrainstormCollector implements SourceCollector {
 
         log.info("LLM Brainstorm collection started with {} targets", targets.size());
 
-        try {
+        int failedIndustries = 0;
+        int nearDuplicates = 0;
+        RequestPacer pacer = RequestPacer.perSecond(requestsPerMinute / 60.0);
+        try (ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, concurrency), Thread.ofVirtual().name("brainstorm-", 0).factory())) {
+            // Industries are independent, so the run takes about as long as its slowest few calls
+            CompletionService<IndustryProblems> completion = new ExecutorCompletionService<>(workers);
             for (CollectorTarget target : targets) {
-                if (Thread.currentThread().isInterrupted()) {
-                    log.info("LLM Brainstorm collection interrupted");
-                    break;
-                }
-
                 String industry = target.getTargetValue();
-                log.debug("LLM Brainstorm generating problems for industry: {}", industry);
-
-                String userMessage = "Generate 5-8 specific business problems in the " + industry + " industry that could be solved with software.";
-
-                String aiResponse = callClaude(userMessage);
-                if (aiResponse == null || aiResponse.isBlank()) {
-                    log.warn("LLM Brainstorm empty response for industry: {}", industry);
-                    continue;
-                }
-
-                List<Map<String, Object>> problems = parseProblems(aiResponse);
-                if (problems == null || problems.isEmpty()) {
-                    log.warn("LLM Brainstorm no parseable problems for industry: {}", industry);
-                    continue;
-                }
-
-                for (Map<String, Object> problem : problems) {
-                    String title = (String) problem.getOrDefault("title", "");
-                    if (title.isBlank()) continue;
-
-                    String titleHash = hashString(title.toLowerCase().trim());
-                    String sourceId = "llm_" + industry.toLowerCase().replace(" ", "_") + "_" + titleHash;
+                completion.submit(() -> {
+                    pacer.acquire();
+                    log.debug("LLM Brainstorm generating problems for industry: {}", industry);
+                    String userMessage = "Generate 5-8 specific business problems in the " + industry
+                            + " industry that could be solved with software.";
+                    return new IndustryProblems(industry, parseProblems(callClaude(userMessage)));
+                });
+            }
 
-                    if (signalRepository.existsBySourceTypeAndSourceId(SourceType.LLM_BRAINSTORM, sourceId)) {
-                        duplicatesSkipped++;
+            try {
+                // Seeded while the first calls are in flight
+                NearDuplicateIndex seen = nearDuplicateFilter ? seedNearDuplicateIndex() : null;
+
+                for (int pending = targets.size(); pending > 0; pending--) {
+                    IndustryProblems result;
+                    try {
+                        result = completion.take().get();
+                    } catch (InterruptedException e) {
+                        log.info("LLM Brainstorm collection interrupted");
+                        workers.shutdownNow();
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (ExecutionException e) {
+                        failedIndustries++;
+                        log.warn("LLM Brainstorm call failed: {}", e.getCause().getMessage());
+                        progress.error("LLM Brainstorm call failed: " + e.getCause().getMessage());
                         continue;
                     }
 
-                    // Add industry and metadata to the problem data
-                    problem.put("industry", industry);
-                    problem.put("confidence", "ai_predicted");
-
-                    String rawJson = buildRawJson(problem);
+                    String industry = result.industry();
+                    progress.target(industry);
+                    progress.pageFetched();
+                    if (result.problems().isEmpty()) {
+                        log.warn("LLM Brainstorm no parseable problems for industry: {}", industry);
+                        continue;
+                    }
 
-                    CollectorSignal signal = CollectorSignal.builder()
-                            .sourceType(SourceType.LLM_BRAINSTORM)
-                            .sourceId(sourceId)
-                            .rawText(rawJson)
-                            .build();
-                    signalRepository.save(signal);
-                    itemsCollected++;
+                    for (Map<String, Object> problem : result.problems()) {
+                        String title = problem.get("title") instanceof String t ? t : "";
+                        if (title.isBlank()) continue;
+
+                        String titleHash = hashString(title.toLowerCase().trim());
+                        String sourceId = "llm_" + industry.toLowerCase().replace(" ", "_") + "_" + titleHash;
+
+                        if (signalRepository.existsBySourceTypeAndSourceId(SourceType.LLM_BRAINSTORM, sourceId)) {
+                            duplicatesSkipped++;
+                            continue;
+                        }
+
+                        long[] signature = null;
+                        if (seen != null) {
+                            signature = seen.signature(similarityText(problem));
+                            Optional<NearDuplicateIndex.Match> match = seen.findDuplicate(signature);
+                            if (match.isPresent()) {
+                                log.debug("LLM Brainstorm dropped '{}' as near-duplicate of {} ({})",
+                                        title, match.get().key(), match.get().similarity());
+                                nearDuplicates++;
+                                duplicatesSkipped++;
+                                continue;
+                            }
+                        }
+
+                        // Add industry and metadata to the problem data
+                        problem.put("industry", industry);
+                        problem.put("confidence", "ai_predicted");
+
+                        String rawJson = buildRawJson(problem);
+
+                        CollectorSignal signal = CollectorSignal.builder()
+                                .sourceType(SourceType.LLM_BRAINSTORM)
+                                .sourceId(sourceId)
+                                .rawText(rawJson)
+                                .build();
+                        signalRepository.save(signal);
+                        if (seen != null) {
+                            seen.add(sourceId, signature);
+                        }
+                        itemsCollected++;
+                        progress.itemProcessed();
+                    }
                 }
-            }
-
-            log.info("LLM Brainstorm collection completed: {} items, {} duplicates skipped", itemsCollected, duplicatesSkipped);
-
-            return CollectionResult.builder()
-                    .sourceType(SourceType.LLM_BRAINSTORM)
-                    .status(CollectorStatus.COMPLETED)
-                    .itemsCollected(itemsCollected)
-                    .duplicatesSkipped(duplicatesSkipped)
-                    .duration(Duration.between(start, Instant.now()))
-                    .build();
 
+                log.info("LLM Brainstorm collection completed: {} items, {} duplicates skipped ({} near-duplicates)",
+                        itemsCollected, duplicatesSkipped, nearDuplicates);
+
+                return CollectionResult.builder()
+                        .sourceType(SourceType.LLM_BRAINSTORM)
+                        .status(CollectorStatus.COMPLETED)
+                        .itemsCollected(itemsCollected)
+                        .duplicatesSkipped(duplicatesSkipped)
+                        .duration(Duration.between(start, Instant.now()))
+                        .error(failedIndustries > 0 ? failedIndustries + " industries failed" : null)
+                        .build();
+            } catch (RuntimeException e) {
+                // Closing the pool would otherwise wait out every queued, paced call whose result is dropped
+                workers.shutdownNow();
+                throw e;
+            }
         } catch (Exception e) {
             log.error("LLM Brainstorm collection failed: {}", e.getMessage(), e);
             return CollectionResult.builder()
@@ -178,13 +292,21 @@ public class LlmBrainstormCollector implements SourceCollector {
         }
     }
 
-    String callClaude(String userMessage) {
+    /** Returns the {@code record_problems} tool input of Claude's reply. */
+    JsonValue callClaude(String userMessage) {
         AnthropicClient client = anthropicConfig.getClient();
 
+        TextBlockParam.Builder system = TextBlockParam.builder().text(SYSTEM_PROMPT);
+        if (promptCaching) {
+            // Caches tools + system; below the model's minimum cacheable length the marker is ignored
+            system.cacheControl(CacheControlEphemeral.builder().build());
+        }
         MessageCreateParams params = MessageCreateParams.builder()
                 .model(HAIKU_MODEL)
                 .maxTokens(MAX_TOKENS)
-                .system(SYSTEM_PROMPT)
+                .systemOfTextBlockParams(List.of(system.build()))
+                .addTool(PROBLEMS_TOOL)
+                .toolChoice(ToolChoiceTool.builder().name(TOOL_NAME).build())
                 .messages(List.of(
                         MessageParam.builder()
                                 .role(MessageParam.Role.USER)
@@ -193,57 +315,65 @@ public class LlmBrainstormCollector implements SourceCollector {
                 ))
                 .build();
 
-        Message response = client.messages().create(params);
+        Message response = llmMetrics.timeCall("brainstorm", HAIKU_MODEL.asString(),
+                () -> client.messages().create(params));
+        Usage usage = response.usage();
+        llmMetrics.recordTokens("brainstorm", HAIKU_MODEL.asString(), usage.inputTokens(), usage.outputTokens());
+        log.debug("LLM Brainstorm prompt cache: {} tokens read, {} written",
+                usage.cacheReadInputTokens().orElse(0L), usage.cacheCreationInputTokens().orElse(0L));
 
         return response.content().stream()
-                .map(this::extractText)
-                .filter(Objects::nonNull)
-                .filter(text -> !text.isBlank())
-                .collect(Collectors.joining());
-    }
-
-    private String extractText(ContentBlock block) {
-        Optional<TextBlock> textBlock = block.text();
-        return textBlock.map(TextBlock::text).orElse(null);
+                .map(ContentBlock::toolUse)
+                .flatMap(Optional::stream)
+                .filter(toolUse -> TOOL_NAME.equals(toolUse.name()))
+                .map(ToolUseBlock::_input)
+                .findFirst()
+                .orElse(null);
     }
 
-    List<Map<String, Object>> parseProblems(String aiResponse) {
+    /** Problems from a tool input; empty when it is missing or does not have the expected shape. */
+    List<Map<String, Object>> parseProblems(JsonValue toolInput) {
+        if (toolInput == null) {
+            return List.of();
+        }
         try {
-            String json = extractJsonArray(aiResponse);
-            return objectMapper.readValue(json, new TypeReference<>() {});
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to parse LLM brainstorm response: {}", e.getMessage());
-            return null;
+            ProblemList parsed = toolInput.convert(ProblemList.class);
+            if (parsed == null || parsed.problems() == null) {
+                return List.of();
+            }
+            // Mutable copies, the industry is added before storing
+            return parsed.problems().stream()
+                    .filter(Objects::nonNull)
+                    .<Map<String, Object>>map(LinkedHashMap::new)
+                    .toList();
+        } catch (RuntimeException e) {
+            log.warn("Failed to parse LLM brainstorm tool input: {}", e.getMessage());
+            return List.of();
         }
     }
 
-    private String extractJsonArray(String response) {
-        String trimmed = response.trim();
-
-        // Handle markdown code block
-        if (trimmed.contains("```json")) {
-            int start = trimmed.indexOf("```json") + 7;
-            int end = trimmed.indexOf("```", start);
-            if (end > start) {
-                trimmed = trimmed.substring(start, end).trim();
-            }
-        } else if (trimmed.contains("```")) {
-            int start = trimmed.indexOf("```") + 3;
-            int lineEnd = trimmed.indexOf('\n', start);
-            if (lineEnd > start) start = lineEnd + 1;
-            int end = trimmed.indexOf("```", start);
-            if (end > start) {
-                trimmed = trimmed.substring(start, end).trim();
+    /**
+     * Index of the most recent brainstorm problems, so a run does not re-store paraphrases of problems
+     * already collected. A failed seed query leaves the index empty rather than failing the run.
+     */
+    private NearDuplicateIndex seedNearDuplicateIndex() {
+        NearDuplicateIndex index = new NearDuplicateIndex(LSH_BANDS, LSH_ROWS, nearDuplicateThreshold);
+        try {
+            List<CollectorSignal> recent = signalRepository.findBySourceTypeOrderByCreatedAtDesc(
+                    SourceType.LLM_BRAINSTORM, PageRequest.of(0, nearDuplicateSeedSize));
+            for (CollectorSignal signal : recent) {
+                Map<String, Object> problem = objectMapper.readValue(signal.getRawText(), new TypeReference<>() {});
+                index.add(signal.getSourceId(), index.signature(similarityText(problem)));
             }
+        } catch (Exception e) {
+            log.warn("Failed to seed LLM Brainstorm near-duplicate index: {}", e.getMessage());
         }
+        log.debug("LLM Brainstorm near-duplicate index seeded with {} problems", index.size());
+        return index;
+    }
 
-        // Find array start
-        int arrayStart = trimmed.indexOf('[');
-        if (arrayStart >= 0) {
-            return trimmed.substring(arrayStart);
-        }
-
-        return trimmed;
+    private static String similarityText(Map<String, Object> problem) {
+        return Objects.toString(problem.get("title"), "") + " " + Objects.toString(problem.get("description"), "");
     }
 
     private String hashString(String input) {
@@ -265,4 +395,10 @@ public class LlmBrainstormCollector implements SourceCollector {
             return "{}";
         }
     }
+
+    private record ProblemList(List<Map<String, Object>> problems) {
+    }
+
+    private record IndustryProblems(String industry, List<Map<String, Object>> problems) {
+    }
 }
@@ -9,60 +9,91 @@ import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.RequestPacer;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class ProductHuntCollector implements SourceCollector {
 
     private static final int MIN_VOTES = 20;
-    private static final long REQUEST_DELAY_MS = 2100;
-
-    private static final Set<String> CONSTRUCTIVE_KEYWORDS = Set.of(
-            "wish", "need", "missing", "frustrat", "annoying", "hate", "problem",
-            "difficult", "hard to", "can't", "doesn't", "won't", "broken",
-            "alternative", "better", "improve", "should", "lack", "pain"
-    );
-
-    private static final String POSTS_QUERY = """
-            query($topic: String!, $first: Int!) {
-              posts(topic: $topic, first: $first, order: VOTES) {
-                edges {
-                  node {
-                    id
-                    name
-                    tagline
-                    description
-                    url
-                    votesCount
-                    comments(first: 10) {
-                      edges {
-                        node {
-                          id
-                          body
-                          user {
-                            name
-                            username
-                          }
-                        }
-                      }
-                    }
-                    topics {
-                      name
-                    }
-                  }
+    private static final int POSTS_PAGE_SIZE = 20;
+    private static final int MAX_POST_PAGES = 5;
+    // Nested comments multiply query complexity, so the first page is small and the rest are fetched per post
+    private static final int NESTED_COMMENTS = 10;
+    private static final int COMMENTS_PAGE_SIZE = 50;
+    private static final int MAX_COMMENT_PAGES = 10;
+    // Stop paging while this many complexity points are left, so the next run is not throttled on arrival
+    private static final int COMPLEXITY_RESERVE = 1000;
+
+    private static final String COMMENT_FIELDS = """
+            pageInfo {
+              hasNextPage
+              endCursor
+            }
+            edges {
+              node {
+                id
+                body
+                user {
+                  name
+                  username
+                }
+              }
+            }
+            """;
+
+    private static final String POST_FIELDS = """
+            pageInfo {
+              hasNextPage
+              endCursor
+            }
+            edges {
+              node {
+                id
+                name
+                tagline
+                description
+                url
+                votesCount
+                comments(first: $commentsFirst) {
+            """ + COMMENT_FIELDS + """
+                }
+                topics {
+                  name
+                }
+              }
+            }
+            """;
+
+    private static final String COMMENTS_QUERY = """
+            query($id: ID!, $first: Int!, $after: String) {
+              post(id: $id) {
+                comments(first: $first, after: $after) {
+            """ + COMMENT_FIELDS + """
                 }
               }
             }
@@ -71,19 +102,31 @@ public class ProductHuntCollector implements SourceCollector {
     @Value("${producthunt.token:}")
     private String token;
 
+    @Value("${producthunt.topics-per-request:3}")
+    private int topicsPerRequest = 3;
+
+    @Value("${producthunt.request-delay:PT2.1S}")
+    private Duration requestDelay = Duration.ofMillis(2100);
+
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final KeywordMatcherRegistry keywordMatchers;
 
     public ProductHuntCollector(CollectorTargetRepository targetRepository,
                                 CollectorSignalRepository signalRepository,
                                 @Qualifier("productHuntWebClient") WebClient webClient,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                ResilientHttpExecutor http,
+                                KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -92,10 +135,10 @@ public class ProductHuntCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
-        int itemsCollected = 0;
-        int duplicatesSkipped = 0;
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.PRODUCT_HUNT, config.getSettings());
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
 
         // Graceful skip if token not configured
@@ -115,78 +158,71 @@ public class ProductHuntCollector implements SourceCollector {
 
         log.info("ProductHunt collection started with {} targets, maxItems={}", targets.size(), maxItems);
 
+        RunState run = new RunState(maxItems, budget, keywords, progress, new RequestPacer(requestDelay));
         try {
-            for (CollectorTarget target : targets) {
+            Deque<TopicPage> pending = new ArrayDeque<>();
+            targets.forEach(target -> pending.add(new TopicPage(target.getTargetValue(), null, 1)));
+
+            while (!pending.isEmpty()) {
                 if (Thread.currentThread().isInterrupted()) {
                     log.info("ProductHunt collection interrupted");
                     break;
                 }
-                if (itemsCollected >= maxItems) {
+                if (run.limitReached()) {
                     log.info("ProductHunt reached max items limit: {}", maxItems);
                     break;
                 }
-
-                String topic = target.getTargetValue();
-                log.debug("ProductHunt fetching topic: {}", topic);
-
-                ProductHuntGraphQLResponse response = fetchPosts(topic, 20);
-                if (response == null || response.getData() == null
-                        || response.getData().getPosts() == null
-                        || response.getData().getPosts().getEdges() == null) {
-                    log.debug("ProductHunt no results for topic={}", topic);
-                    continue;
+                if (run.complexityExhausted()) {
+                    log.info("ProductHunt complexity budget nearly spent ({} points left), stopping", run.complexityRemaining);
+                    break;
                 }
+                if (!run.pacer.tryAcquire()) break;
 
-                for (ProductHuntGraphQLResponse.PostEdge edge : response.getData().getPosts().getEdges()) {
-                    if (itemsCollected >= maxItems) break;
-
-                    ProductHuntGraphQLResponse.Post post = edge.getNode();
-                    if (post == null || post.getVotesCount() < MIN_VOTES) continue;
-
-                    // Collect constructive comments
-                    if (post.getComments() != null && post.getComments().getEdges() != null) {
-                        for (ProductHuntGraphQLResponse.CommentEdge commentEdge : post.getComments().getEdges()) {
-                            if (itemsCollected >= maxItems) break;
-
-                            ProductHuntGraphQLResponse.Comment comment = commentEdge.getNode();
-                            if (comment == null || comment.getBody() == null) continue;
-
-                            // Filter for constructive/negative sentiment
-                            if (!hasConstructiveKeyword(comment.getBody())) continue;
+                // Several topics share one request through aliases t0, t1, ...
+                List<TopicPage> batch = new ArrayList<>();
+                while (!pending.isEmpty() && batch.size() < Math.max(1, topicsPerRequest)) {
+                    batch.add(pending.poll());
+                }
+                progress.target(batch.stream().map(TopicPage::topic).collect(Collectors.joining(", ")));
+                log.debug("ProductHunt fetching topics: {}", batch);
+
+                ProductHuntGraphQLResponse response = fetchPosts(batch, run);
+                progress.pageFetched();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    TopicPage page = batch.get(i);
+                    ProductHuntGraphQLResponse.PostsConnection posts = response == null || response.getData() == null
+                            ? null : response.getData().getPostsByAlias().get("t" + i);
+                    if (posts == null || posts.getEdges() == null) {
+                        log.debug("ProductHunt no results for topic={}", page.topic());
+                        continue;
+                    }
 
-                            String sourceId = "ph_" + post.getId() + "_" + comment.getId();
-                            if (signalRepository.existsBySourceTypeAndSourceId(SourceType.PRODUCT_HUNT, sourceId)) {
-                                duplicatesSkipped++;
-                                continue;
-                            }
+                    for (ProductHuntGraphQLResponse.PostEdge edge : posts.getEdges()) {
+                        if (run.limitReached()) break;
 
-                            String rawJson = buildCommentRawJson(post, comment, topic);
+                        ProductHuntGraphQLResponse.Post post = edge.getNode();
+                        if (post == null || post.getVotesCount() < MIN_VOTES) continue;
 
-                            CollectorSignal signal = CollectorSignal.builder()
-                                    .sourceType(SourceType.PRODUCT_HUNT)
-                                    .sourceId(sourceId)
-                                    .rawText(rawJson)
-                                    .build();
-                            signalRepository.save(signal);
-                            itemsCollected++;
-                        }
+                        collectComments(post, page.topic(), run);
                     }
-                }
 
-                // Rate limit delay between topic requests
-                try { Thread.sleep(REQUEST_DELAY_MS); } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    break;
+                    ProductHuntGraphQLResponse.PageInfo pageInfo = posts.getPageInfo();
+                    if (pageInfo != null && pageInfo.isHasNextPage() && pageInfo.getEndCursor() != null
+                            && page.number() < MAX_POST_PAGES) {
+                        pending.add(new TopicPage(page.topic(), pageInfo.getEndCursor(), page.number() + 1));
+                    }
                 }
             }
 
-            log.info("ProductHunt collection completed: {} items, {} duplicates skipped", itemsCollected, duplicatesSkipped);
+            log.info("ProductHunt collection completed: {} items, {} duplicates skipped", run.itemsCollected, run.duplicatesSkipped);
 
             return CollectionResult.builder()
                     .sourceType(SourceType.PRODUCT_HUNT)
                     .status(CollectorStatus.COMPLETED)
-                    .itemsCollected(itemsCollected)
-                    .duplicatesSkipped(duplicatesSkipped)
+                    .itemsCollected(run.itemsCollected)
+                    .duplicatesSkipped(run.duplicatesSkipped)
+                    .itemsFiltered(run.filtered)
                     .duration(Duration.between(start, Instant.now()))
                     .build();
 
@@ -195,51 +231,118 @@ public class ProductHuntCollector implements SourceCollector {
             return CollectionResult.builder()
                     .sourceType(SourceType.PRODUCT_HUNT)
                     .status(CollectorStatus.FAILED)
-                    .itemsCollected(itemsCollected)
-                    .duplicatesSkipped(duplicatesSkipped)
+                    .itemsCollected(run.itemsCollected)
+                    .duplicatesSkipped(run.duplicatesSkipped)
+                    .itemsFiltered(run.filtered)
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
                     .build();
         }
     }
 
-    private boolean hasConstructiveKeyword(String text) {
-        String lower = text.toLowerCase();
-        return CONSTRUCTIVE_KEYWORDS.stream().anyMatch(lower::contains);
+    /** Saves the post's constructive comments, following the comment cursor past the nested first page. */
+    private void collectComments(ProductHuntGraphQLResponse.Post post, String topic, RunState run) {
+        ProductHuntGraphQLResponse.CommentsConnection comments = post.getComments();
+        int pages = 1;
+        while (comments != null && comments.getEdges() != null) {
+            for (ProductHuntGraphQLResponse.CommentEdge commentEdge : comments.getEdges()) {
+                if (run.limitReached()) return;
+
+                ProductHuntGraphQLResponse.Comment comment = commentEdge.getNode();
+                if (comment == null || comment.getBody() == null) continue;
+
+                // Filter for constructive/negative sentiment
+                KeywordMatch keywordMatch = run.keywords.match(comment.getBody());
+                if (!keywordMatch.accepted()) {
+                    run.filtered++;
+                    continue;
+                }
+
+                String sourceId = "ph_" + post.getId() + "_" + comment.getId();
+                if (signalRepository.existsBySourceTypeAndSourceId(SourceType.PRODUCT_HUNT, sourceId)) {
+                    run.duplicatesSkipped++;
+                    continue;
+                }
+
+                String rawJson = buildCommentRawJson(post, comment, topic, keywordMatch);
+
+                CollectorSignal signal = CollectorSignal.builder()
+                        .sourceType(SourceType.PRODUCT_HUNT)
+                        .sourceId(sourceId)
+                        .rawText(rawJson)
+                        .build();
+                signalRepository.save(signal);
+                run.itemsCollected++;
+                run.progress.itemProcessed();
+            }
+
+            ProductHuntGraphQLResponse.PageInfo pageInfo = comments.getPageInfo();
+            if (pageInfo == null || !pageInfo.isHasNextPage() || pageInfo.getEndCursor() == null
+                    || pages >= MAX_COMMENT_PAGES || run.complexityExhausted() || !run.pacer.tryAcquire()) {
+                return;
+            }
+            comments = fetchComments(post.getId(), pageInfo.getEndCursor(), run);
+            run.progress.pageFetched();
+            pages++;
+        }
     }
 
-    private ProductHuntGraphQLResponse fetchPosts(String topic, int first) {
-        Map<String, Object> variables = Map.of("topic", topic, "first", first);
-        Map<String, Object> body = Map.of("query", POSTS_QUERY, "variables", variables);
+    private ProductHuntGraphQLResponse fetchPosts(List<TopicPage> batch, RunState run) {
+        StringBuilder query = new StringBuilder("query($first: Int!, $commentsFirst: Int!");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("first", POSTS_PAGE_SIZE);
+        variables.put("commentsFirst", NESTED_COMMENTS);
+        for (int i = 0; i < batch.size(); i++) {
+            query.append(", $topic").append(i).append(": String!, $after").append(i).append(": String");
+            variables.put("topic" + i, batch.get(i).topic());
+            variables.put("after" + i, batch.get(i).cursor());
+        }
+        query.append(") {\n");
+        for (int i = 0; i < batch.size(); i++) {
+            query.append("t").append(i).append(": posts(topic: $topic").append(i)
+                    .append(", first: $first, after: $after").append(i).append(", order: VOTES) {\n")
+                    .append(POST_FIELDS)
+                    .append("}\n");
+        }
+        query.append("}\n");
+
+        return post(query.toString(), variables, run);
+    }
 
-        int retries = 2;
-        for (int attempt = 0; attempt <= retries; attempt++) {
-            try {
-                return webClient.post()
+    private ProductHuntGraphQLResponse.CommentsConnection fetchComments(String postId, String after, RunState run) {
+        Map<String, Object> variables = Map.of("id", postId, "first", COMMENTS_PAGE_SIZE, "after", after);
+        ProductHuntGraphQLResponse response = post(COMMENTS_QUERY, variables, run);
+        return response != null && response.getData() != null && response.getData().getPost() != null
+                ? response.getData().getPost().getComments() : null;
+    }
+
+    private ProductHuntGraphQLResponse post(String query, Map<String, Object> variables, RunState run) {
+        Map<String, Object> body = Map.of("query", query, "variables", variables);
+
+        ResponseEntity<ProductHuntGraphQLResponse> response = http.execute(SourceType.PRODUCT_HUNT, run.budget,
+                () -> webClient.post()
                         .uri("/v2/api/graphql")
                         .bodyValue(body)
                         .retrieve()
-                        .bodyToMono(ProductHuntGraphQLResponse.class)
-                        .block(Duration.ofSeconds(30));
-            } catch (Exception e) {
-                log.warn("ProductHunt API request failed (attempt {}/{}): {}",
-                        attempt + 1, retries + 1, e.getMessage());
-                if (attempt < retries) {
-                    try { Thread.sleep(500L * (attempt + 1)); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry backoff", ie);
-                    }
-                } else {
-                    throw e;
-                }
+                        .toEntity(ProductHuntGraphQLResponse.class));
+        if (response == null) {
+            return null;
+        }
+        String remaining = response.getHeaders().getFirst("X-Rate-Limit-Remaining");
+        if (remaining != null) {
+            try {
+                run.complexityRemaining = Integer.parseInt(remaining.trim());
+            } catch (NumberFormatException e) {
+                log.debug("Unparseable X-Rate-Limit-Remaining: {}", remaining);
             }
         }
-        return null;
+        return response.getBody();
     }
 
     private String buildCommentRawJson(ProductHuntGraphQLResponse.Post post,
                                         ProductHuntGraphQLResponse.Comment comment,
-                                        String topic) {
+                                        String topic,
+                                        KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("product_name", post.getName());
@@ -250,10 +353,44 @@ public class ProductHuntCollector implements SourceCollector {
             data.put("topic", topic);
             data.put("product_url", post.getUrl());
             data.put("source_url", post.getUrl());
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize ProductHunt entry: {}", e.getMessage());
             return "{}";
         }
     }
+
+    private record TopicPage(String topic, String cursor, int number) {
+    }
+
+    private static final class RunState {
+        final int maxItems;
+        final RequestBudget budget;
+        final KeywordMatcher keywords;
+        final ProgressListener progress;
+        /** Politeness delay between request starts. */
+        final RequestPacer pacer;
+        int itemsCollected;
+        int duplicatesSkipped;
+        int filtered;
+        Integer complexityRemaining;
+
+        RunState(int maxItems, RequestBudget budget, KeywordMatcher keywords, ProgressListener progress,
+                 RequestPacer pacer) {
+            this.maxItems = maxItems;
+            this.budget = budget;
+            this.keywords = keywords;
+            this.progress = progress;
+            this.pacer = pacer;
+        }
+
+        boolean limitReached() {
+            return itemsCollected >= maxItems;
+        }
+
+        boolean complexityExhausted() {
+            return complexityRemaining != null && complexityRemaining < COMPLEXITY_RESERVE;
+        }
+    }
 }
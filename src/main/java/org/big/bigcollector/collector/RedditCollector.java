@@ -3,24 +3,42 @@ package org.big.bigcollector.collector;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.dto.reddit.RedditCommentListing;
 import org.big.bigcollector.dto.reddit.RedditListingResponse;
+import org.big.bigcollector.dto.reddit.RedditMoreChildrenResponse;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.RequestPacer;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
+import org.big.bigcollector.repository.CollectorMarkerRepository;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.jsoup.Jsoup;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Component
 @Slf4j
@@ -28,23 +46,58 @@ public class RedditCollector implements SourceCollector {
 
     private static final int LIMIT = 100;
     private static final int MAX_PAGES = 3;
-    private static final long REQUEST_DELAY_MS = 600;
+    private static final int MORE_CHILDREN_BATCH = 100;
     private static final int MIN_SCORE = 5;
     private static final int MIN_SELFTEXT_LENGTH = 50;
+    // Set once a post's comment thread has been read in full
+    private static final String THREAD_MARKER = "thread:";
 
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
+    private final CollectorMarkerRepository markerRepository;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final KeywordMatcherRegistry keywordMatchers;
+
+    @Value("${collector.reddit.request-interval:PT0.6S}")
+    private Duration requestInterval = Duration.ofMillis(600);
+
+    @Value("${collector.reddit.comments.enabled:false}")
+    private boolean commentsEnabled;
+
+    @Value("${collector.reddit.comments.min-post-score:50}")
+    private int commentsMinPostScore = 50;
+
+    @Value("${collector.reddit.comments.min-score:5}")
+    private int commentsMinScore = 5;
+
+    @Value("${collector.reddit.comments.max-depth:5}")
+    private int commentsMaxDepth = 5;
+
+    @Value("${collector.reddit.comments.max-per-post:200}")
+    private int commentsMaxPerPost = 200;
+
+    @Value("${collector.reddit.comments.max-threads-per-run:25}")
+    private int commentsMaxThreads = 25;
+
+    @Value("${collector.reddit.comments.concurrency:3}")
+    private int commentsConcurrency = 3;
 
     public RedditCollector(CollectorTargetRepository targetRepository,
                            CollectorSignalRepository signalRepository,
+                           CollectorMarkerRepository markerRepository,
                            @Qualifier("redditWebClient") WebClient webClient,
-                           ObjectMapper objectMapper) {
+                           ObjectMapper objectMapper,
+                           ResilientHttpExecutor http,
+                           KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
+        this.markerRepository = markerRepository;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -53,12 +106,18 @@ public class RedditCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.REDDIT, config.getSettings());
         int itemsCollected = 0;
         int duplicatesSkipped = 0;
+        int filtered = 0;
         String lastCursor = config.getLastCursor();
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
+        // One pacer for listings and comment threads, so both share Reddit's request rate
+        RequestPacer pacer = new RequestPacer(requestInterval);
+        int threadsRemaining = commentsMaxThreads;
 
         List<CollectorTarget> targets = targetRepository
                 .findBySourceTypeAndEnabledTrue(SourceType.REDDIT);
@@ -73,25 +132,40 @@ public class RedditCollector implements SourceCollector {
                 }
                 if (itemsCollected >= maxItems) break;
 
+                progress.target(target.getTargetValue());
                 String after = null;
                 for (int page = 0; page < MAX_PAGES && itemsCollected < maxItems; page++) {
-                    RedditListingResponse response = fetchListing(target, after);
+                    RedditListingResponse response = pacer.tryAcquire() ? fetchListing(target, after, budget) : null;
+                    progress.pageFetched();
                     if (response == null || response.getData() == null
                             || response.getData().getChildren() == null
                             || response.getData().getChildren().isEmpty()) {
                         break;
                     }
 
+                    List<RedditListingResponse.RedditPost> threads = new ArrayList<>();
                     for (RedditListingResponse.RedditChild child : response.getData().getChildren()) {
                         if (itemsCollected >= maxItems) break;
 
                         RedditListingResponse.RedditPost post = child.getData();
                         if (post == null) continue;
 
+                        if (commentsEnabled && post.getScore() >= commentsMinPostScore && post.getNumComments() > 0) {
+                            threads.add(post);
+                        }
+
                         // Filter: score > MIN_SCORE and selftext length > MIN_SELFTEXT_LENGTH
-                        if (post.getScore() < MIN_SCORE) continue;
                         String selftext = post.getSelftext() != null ? post.getSelftext() : "";
-                        if (selftext.length() < MIN_SELFTEXT_LENGTH) continue;
+                        if (post.getScore() < MIN_SCORE || selftext.length() < MIN_SELFTEXT_LENGTH) {
+                            filtered++;
+                            continue;
+                        }
+
+                        KeywordMatch keywordMatch = keywords.match(post.getTitle(), selftext);
+                        if (!keywordMatch.accepted()) {
+                            filtered++;
+                            continue;
+                        }
 
                         String sourceId = post.getId();
                         if (signalRepository.existsBySourceTypeAndSourceId(SourceType.REDDIT, sourceId)) {
@@ -100,7 +174,7 @@ public class RedditCollector implements SourceCollector {
                         }
 
                         String cleanText = Jsoup.parse(selftext).text();
-                        String rawJson = buildRawJson(post, cleanText);
+                        String rawJson = buildRawJson(post, cleanText, keywordMatch);
 
                         CollectorSignal signal = CollectorSignal.builder()
                                 .sourceType(SourceType.REDDIT)
@@ -109,17 +183,68 @@ public class RedditCollector implements SourceCollector {
                                 .build();
                         signalRepository.save(signal);
                         itemsCollected++;
+                        progress.itemProcessed();
+                    }
+
+                    // Comments of threads fetched now could not be stored, so leave them for the next run
+                    if (itemsCollected >= maxItems || Thread.currentThread().isInterrupted()) {
+                        threads.clear();
+                    }
+                    // Whether the post itself was stored says nothing about its thread, which is tracked apart
+                    threads.removeIf(post -> markerRepository.existsBySourceTypeAndMarkerKey(
+                            SourceType.REDDIT, THREAD_MARKER + post.getId()));
+                    threads = threads.subList(0, Math.min(threads.size(), Math.max(0, threadsRemaining)));
+                    threadsRemaining -= threads.size();
+
+                    Map<RedditListingResponse.RedditPost, List<RedditCommentListing.ThingData>> harvested =
+                            harvestThreads(threads, budget, pacer, progress);
+                    for (var thread : harvested.entrySet()) {
+                        boolean cutShort = false;
+                        for (RedditCommentListing.ThingData comment : thread.getValue()) {
+                            if (itemsCollected >= maxItems) {
+                                cutShort = true;
+                                break;
+                            }
+
+                            String body = comment.getBody() != null ? comment.getBody() : "";
+                            if (comment.getScore() < commentsMinScore || body.length() < MIN_SELFTEXT_LENGTH
+                                    || "[deleted]".equals(body) || "[removed]".equals(body)) {
+                                filtered++;
+                                continue;
+                            }
+
+                            KeywordMatch keywordMatch = keywords.match(body);
+                            if (!keywordMatch.accepted()) {
+                                filtered++;
+                                continue;
+                            }
+
+                            // Fullname, since comment and post ids are separate sequences
+                            String sourceId = "t1_" + comment.getId();
+                            if (signalRepository.existsBySourceTypeAndSourceId(SourceType.REDDIT, sourceId)) {
+                                duplicatesSkipped++;
+                                continue;
+                            }
+
+                            CollectorSignal signal = CollectorSignal.builder()
+                                    .sourceType(SourceType.REDDIT)
+                                    .sourceId(sourceId)
+                                    .rawText(buildCommentRawJson(thread.getKey(), comment, keywordMatch))
+                                    .build();
+                            signalRepository.save(signal);
+                            itemsCollected++;
+                            progress.itemProcessed();
+                        }
+                        // A thread left unfinished by the item limit or an interrupt is walked again next run
+                        if (!cutShort && !Thread.currentThread().isInterrupted()) {
+                            markerRepository.mark(SourceType.REDDIT.name(), THREAD_MARKER + thread.getKey().getId(),
+                                    Instant.now());
+                        }
                     }
 
                     after = response.getData().getAfter();
                     lastCursor = after;
                     if (after == null) break;
-
-                    // Rate limit delay
-                    try { Thread.sleep(REQUEST_DELAY_MS); } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
                 }
             }
 
@@ -130,6 +255,7 @@ public class RedditCollector implements SourceCollector {
                     .status(CollectorStatus.COMPLETED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .build();
@@ -141,6 +267,7 @@ public class RedditCollector implements SourceCollector {
                     .status(CollectorStatus.FAILED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .lastCursor(lastCursor)
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
@@ -148,58 +275,156 @@ public class RedditCollector implements SourceCollector {
         }
     }
 
-    private RedditListingResponse fetchListing(CollectorTarget target, String after) {
-        int retries = 2;
-        for (int attempt = 0; attempt <= retries; attempt++) {
-            try {
-                String path;
-                String query;
-
-                if ("SUBREDDIT".equals(target.getTargetType())) {
-                    path = "/r/" + target.getTargetValue() + "/hot.json";
-                    query = null;
-                } else {
-                    path = "/search.json";
-                    query = target.getTargetValue();
+    /**
+     * Fetches and walks the comment trees of the given posts on up to {@code collector.reddit.comments.concurrency}
+     * workers. A thread that fails is logged and left out; the others are returned in post order.
+     */
+    private Map<RedditListingResponse.RedditPost, List<RedditCommentListing.ThingData>> harvestThreads(
+            List<RedditListingResponse.RedditPost> posts, RequestBudget budget, RequestPacer pacer,
+            ProgressListener progress) {
+        Map<RedditListingResponse.RedditPost, List<RedditCommentListing.ThingData>> harvested = new LinkedHashMap<>();
+        if (posts.isEmpty()) {
+            return harvested;
+        }
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, commentsConcurrency), Thread.ofVirtual().name("reddit-comments-", 0).factory())) {
+            Map<RedditListingResponse.RedditPost, Future<List<RedditCommentListing.ThingData>>> futures =
+                    new LinkedHashMap<>();
+            for (RedditListingResponse.RedditPost post : posts) {
+                futures.put(post, workers.submit(() -> walkThread(post, budget, pacer, progress)));
+            }
+            for (var entry : futures.entrySet()) {
+                try {
+                    harvested.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    log.warn("Failed to fetch Reddit comments for post {}: {}",
+                            entry.getKey().getId(), e.getCause().getMessage());
+                    progress.error("Reddit comments failed for " + entry.getKey().getId() + ": "
+                            + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    futures.values().forEach(f -> f.cancel(true));
+                    Thread.currentThread().interrupt();
+                    break;
                 }
+            }
+        }
+        return harvested;
+    }
 
-                final String finalQuery = query;
-                final String finalAfter = after;
-
-                return webClient.get()
-                        .uri(uriBuilder -> {
-                            var builder = uriBuilder.path(path)
-                                    .queryParam("limit", LIMIT)
-                                    .queryParam("t", "year")
-                                    .queryParam("raw_json", 1);
-                            if (finalQuery != null) {
-                                builder.queryParam("q", finalQuery)
-                                        .queryParam("sort", "relevance");
-                            }
-                            if (finalAfter != null) {
-                                builder.queryParam("after", finalAfter);
-                            }
-                            return builder.build();
-                        })
+    /**
+     * Collects up to {@code max-comments-per-post} comments of a thread, breadth-first through the
+     * initial tree and then through {@code more} stubs (100 ids per {@code /api/morechildren} call),
+     * never going deeper than {@code max-depth}.
+     */
+    private List<RedditCommentListing.ThingData> walkThread(RedditListingResponse.RedditPost post,
+                                                            RequestBudget budget, RequestPacer pacer,
+                                                            ProgressListener progress) throws JsonProcessingException {
+        List<RedditCommentListing.ThingData> comments = new ArrayList<>();
+        Deque<String> moreIds = new ArrayDeque<>();
+        if (!pacer.tryAcquire()) {
+            return comments;
+        }
+
+        RedditCommentListing[] thread = http.execute(SourceType.REDDIT, budget, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/comments/{id}.json")
+                        .queryParam("depth", commentsMaxDepth)
+                        .queryParam("limit", commentsMaxPerPost)
+                        .queryParam("sort", "top")
+                        .queryParam("raw_json", 1)
+                        .build(post.getId()))
+                .retrieve()
+                .bodyToMono(RedditCommentListing[].class));
+        progress.pageFetched();
+        Deque<RedditCommentListing.Thing> pending = new ArrayDeque<>();
+        if (thread != null && thread.length > 1) {
+            pending.addAll(childrenOf(thread[1]));
+        }
+
+        while (comments.size() < commentsMaxPerPost) {
+            if (pending.isEmpty()) {
+                if (moreIds.isEmpty() || !pacer.tryAcquire()) {
+                    break;
+                }
+                List<String> batch = new ArrayList<>();
+                while (!moreIds.isEmpty() && batch.size() < MORE_CHILDREN_BATCH) {
+                    batch.add(moreIds.poll());
+                }
+                RedditMoreChildrenResponse more = http.execute(SourceType.REDDIT, budget, () -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/api/morechildren.json")
+                                .queryParam("api_type", "json")
+                                .queryParam("link_id", "t3_" + post.getId())
+                                .queryParam("children", String.join(",", batch))
+                                .queryParam("sort", "top")
+                                .queryParam("raw_json", 1)
+                                .build())
                         .retrieve()
-                        .bodyToMono(RedditListingResponse.class)
-                        .block(Duration.ofSeconds(30));
-            } catch (Exception e) {
-                log.warn("Reddit API request failed (attempt {}/{}): {}", attempt + 1, retries + 1, e.getMessage());
-                if (attempt < retries) {
-                    try { Thread.sleep(1000L * (attempt + 1)); } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry backoff", ie);
-                    }
-                } else {
-                    throw e;
+                        .bodyToMono(RedditMoreChildrenResponse.class));
+                progress.pageFetched();
+                if (more != null && more.getJson() != null && more.getJson().getData() != null
+                        && more.getJson().getData().getThings() != null) {
+                    pending.addAll(more.getJson().getData().getThings());
+                }
+                continue;
+            }
+
+            RedditCommentListing.Thing thing = pending.poll();
+            RedditCommentListing.ThingData data = thing.getData();
+            if (data == null || data.getDepth() >= commentsMaxDepth) {
+                continue;
+            }
+            if ("more".equals(thing.getKind())) {
+                // "Continue this thread" stubs carry no ids and would need a separate thread fetch
+                if (data.getChildren() != null) {
+                    moreIds.addAll(data.getChildren());
+                }
+            } else if ("t1".equals(thing.getKind())) {
+                comments.add(data);
+                if (data.getReplies() != null && data.getReplies().isObject()) {
+                    pending.addAll(childrenOf(objectMapper.treeToValue(data.getReplies(), RedditCommentListing.class)));
                 }
             }
         }
-        return null;
+        return comments;
     }
 
-    private String buildRawJson(RedditListingResponse.RedditPost post, String cleanText) {
+    private static List<RedditCommentListing.Thing> childrenOf(RedditCommentListing listing) {
+        return listing != null && listing.getData() != null && listing.getData().getChildren() != null
+                ? listing.getData().getChildren() : List.of();
+    }
+
+    private RedditListingResponse fetchListing(CollectorTarget target, String after, RequestBudget budget) {
+        String path;
+        String query;
+
+        if ("SUBREDDIT".equals(target.getTargetType())) {
+            path = "/r/" + target.getTargetValue() + "/hot.json";
+            query = null;
+        } else {
+            path = "/search.json";
+            query = target.getTargetValue();
+        }
+
+        return http.execute(SourceType.REDDIT, budget, () -> webClient.get()
+                .uri(uriBuilder -> {
+                    var builder = uriBuilder.path(path)
+                            .queryParam("limit", LIMIT)
+                            .queryParam("t", "year")
+                            .queryParam("raw_json", 1);
+                    if (query != null) {
+                        builder.queryParam("q", query)
+                                .queryParam("sort", "relevance");
+                    }
+                    if (after != null) {
+                        builder.queryParam("after", after);
+                    }
+                    return builder.build();
+                })
+                .retrieve()
+                .bodyToMono(RedditListingResponse.class));
+    }
+
+    String buildRawJson(RedditListingResponse.RedditPost post, String cleanText, KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("title", post.getTitle());
@@ -209,10 +434,32 @@ public class RedditCollector implements SourceCollector {
             data.put("url", "https://www.reddit.com" + post.getPermalink());
             data.put("author", post.getAuthor());
             data.put("num_comments", post.getNumComments());
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize Reddit post: {}", e.getMessage());
             return "{}";
         }
     }
+
+    String buildCommentRawJson(RedditListingResponse.RedditPost post, RedditCommentListing.ThingData comment,
+                               KeywordMatch keywordMatch) {
+        try {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("type", "comment");
+            data.put("post_title", post.getTitle());
+            data.put("body", comment.getBody());
+            data.put("score", comment.getScore());
+            data.put("depth", comment.getDepth());
+            data.put("subreddit", post.getSubreddit());
+            data.put("url", "https://www.reddit.com" + (comment.getPermalink() != null
+                    ? comment.getPermalink() : post.getPermalink()));
+            data.put("author", comment.getAuthor());
+            keywordMatch.putInto(data);
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize Reddit comment: {}", e.getMessage());
+            return "{}";
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package org.big.bigcollector.collector;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pulls RSS 2.0 {@code <item>}s off a stream one at a time with StAX, so a feed is never held in memory
+ * as a whole and the caller can stop early. Closing the reader closes the underlying stream.
+ */
+final class RssItemReader implements Iterator<RssItemReader.Item>, AutoCloseable {
+
+    record Item(String title, String link, String guid, String description, Instant publishedAt) {}
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final InputStream input;
+    private final XMLStreamReader reader;
+    private Item next;
+
+    RssItemReader(InputStream input) {
+        this.input = input;
+        try {
+            this.reader = FACTORY.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Invalid RSS feed: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readItem();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = next;
+        next = null;
+        return item;
+    }
+
+    private Item readItem() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "item".equals(reader.getLocalName())) {
+                    return parseItem();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Invalid RSS feed: " + e.getMessage(), e);
+        }
+    }
+
+    private Item parseItem() throws XMLStreamException {
+        String title = null;
+        String link = null;
+        String guid = null;
+        String description = null;
+        Instant publishedAt = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "item".equals(reader.getLocalName())) {
+                break;
+            }
+            // Only un-prefixed RSS elements; skips e.g. <media:title> or <dc:date>
+            if (event != XMLStreamConstants.START_ELEMENT
+                    || (reader.getPrefix() != null && !reader.getPrefix().isEmpty())) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "title" -> title = reader.getElementText().trim();
+                case "link" -> link = reader.getElementText().trim();
+                case "guid" -> guid = reader.getElementText().trim();
+                case "description" -> description = reader.getElementText();
+                case "pubDate" -> publishedAt = parseDate(reader.getElementText().trim());
+                default -> { }
+            }
+        }
+        return new Item(title, emptyToNull(link), emptyToNull(guid), description, publishedAt);
+    }
+
+    static Instant parseDate(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+            input.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
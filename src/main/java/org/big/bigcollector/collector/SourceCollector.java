@@ -2,10 +2,15 @@ package org.big.bigcollector.collector;
 
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.progress.ProgressListener;
 
 public interface SourceCollector {
 
     SourceType getSourceType();
 
-    CollectionResult collect(CollectorConfig config);
+    CollectionResult collect(CollectorConfig config, ProgressListener progress);
+
+    default CollectionResult collect(CollectorConfig config) {
+        return collect(config, ProgressListener.NONE);
+    }
 }
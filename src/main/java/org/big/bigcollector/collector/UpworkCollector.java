@@ -2,24 +2,28 @@ package org.big.bigcollector.collector;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
 import lombok.extern.slf4j.Slf4j;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.ConditionalResponse;
+import org.big.bigcollector.http.HttpCacheService;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatch;
+import org.big.bigcollector.keyword.KeywordMatcher;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
 
-import java.net.URI;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.LinkedHashMap;
@@ -37,14 +41,26 @@ public class UpworkCollector implements SourceCollector {
 
     private final CollectorTargetRepository targetRepository;
     private final CollectorSignalRepository signalRepository;
+    private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ResilientHttpExecutor http;
+    private final HttpCacheService httpCache;
+    private final KeywordMatcherRegistry keywordMatchers;
 
     public UpworkCollector(CollectorTargetRepository targetRepository,
                            CollectorSignalRepository signalRepository,
-                           ObjectMapper objectMapper) {
+                           @Qualifier("upworkWebClient") WebClient webClient,
+                           ObjectMapper objectMapper,
+                           ResilientHttpExecutor http,
+                           HttpCacheService httpCache,
+                           KeywordMatcherRegistry keywordMatchers) {
         this.targetRepository = targetRepository;
         this.signalRepository = signalRepository;
+        this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.http = http;
+        this.httpCache = httpCache;
+        this.keywordMatchers = keywordMatchers;
     }
 
     @Override
@@ -53,10 +69,13 @@ public class UpworkCollector implements SourceCollector {
     }
 
     @Override
-    public CollectionResult collect(CollectorConfig config) {
+    public CollectionResult collect(CollectorConfig config, ProgressListener progress) {
         Instant start = Instant.now();
+        RequestBudget budget = http.newBudget();
+        KeywordMatcher keywords = keywordMatchers.matcherFor(SourceType.UPWORK, config.getSettings());
         int itemsCollected = 0;
         int duplicatesSkipped = 0;
+        int filtered = 0;
         int maxItems = config.getMaxItems() != null ? config.getMaxItems() : 100;
 
         List<CollectorTarget> targets = targetRepository
@@ -73,46 +92,69 @@ public class UpworkCollector implements SourceCollector {
                 if (itemsCollected >= maxItems) break;
 
                 String keyword = target.getTargetValue();
+                progress.target(keyword);
                 log.debug("Upwork fetching RSS for keyword: {}", keyword);
 
                 try {
-                    String encodedKeyword = URLEncoder.encode(keyword, StandardCharsets.UTF_8);
-                    String feedUrl = "https://www.upwork.com/ab/feed/jobs/rss?q=" + encodedKeyword + "&sort=recency";
-
-                    SyndFeedInput input = new SyndFeedInput();
-                    SyndFeed feed = input.build(new XmlReader(URI.create(feedUrl).toURL()));
-
-                    for (SyndEntry entry : feed.getEntries()) {
-                        if (itemsCollected >= maxItems) break;
-
-                        String link = entry.getLink();
-                        String sourceId = link != null ? link : entry.getUri();
-                        if (sourceId == null) continue;
-
-                        if (signalRepository.existsBySourceTypeAndSourceId(SourceType.UPWORK, sourceId)) {
-                            duplicatesSkipped++;
-                            continue;
+                    ConditionalResponse<InputStream> fetched = httpCache.getStream(SourceType.UPWORK, budget, webClient,
+                            "/ab/feed/jobs/rss?q={keyword}&sort=recency", keyword);
+                    progress.pageFetched();
+                    if (fetched.notModified()) {
+                        log.debug("Upwork feed unchanged for keyword: {}", keyword);
+                    } else {
+                        boolean consumedAll = true;
+                        try (InputStream in = fetched.body(); RssItemReader items = new RssItemReader(in)) {
+                            while (items.hasNext()) {
+                                if (itemsCollected >= maxItems) {
+                                    consumedAll = false;
+                                    break;
+                                }
+                                RssItemReader.Item entry = items.next();
+
+                                String link = entry.link();
+                                String sourceId = link != null ? link : entry.guid();
+                                if (sourceId == null) {
+                                    filtered++;
+                                    continue;
+                                }
+
+                                KeywordMatch keywordMatch = keywords.match(entry.title(), entry.description());
+                                if (!keywordMatch.accepted()) {
+                                    filtered++;
+                                    continue;
+                                }
+
+                                if (signalRepository.existsBySourceTypeAndSourceId(SourceType.UPWORK, sourceId)) {
+                                    duplicatesSkipped++;
+                                    continue;
+                                }
+
+                                String description = entry.description() != null
+                                        ? Jsoup.parse(entry.description()).text() : "";
+                                String pubDate = entry.publishedAt() != null ? entry.publishedAt().toString() : "";
+
+                                String[] budgets = extractBudget(description);
+
+                                String rawJson = buildRawJson(entry.title(), description, budgets[0], budgets[1], link, pubDate,
+                                        keywordMatch);
+
+                                CollectorSignal signal = CollectorSignal.builder()
+                                        .sourceType(SourceType.UPWORK)
+                                        .sourceId(sourceId)
+                                        .rawText(rawJson)
+                                        .build();
+                                signalRepository.save(signal);
+                                itemsCollected++;
+                                progress.itemProcessed();
+                            }
+                        }
+                        if (consumedAll) {
+                            httpCache.commit(fetched);
                         }
-
-                        String description = entry.getDescription() != null
-                                ? Jsoup.parse(entry.getDescription().getValue()).text() : "";
-                        String pubDate = entry.getPublishedDate() != null
-                                ? entry.getPublishedDate().toInstant().toString() : "";
-
-                        String[] budgets = extractBudget(description);
-
-                        String rawJson = buildRawJson(entry.getTitle(), description, budgets[0], budgets[1], link, pubDate);
-
-                        CollectorSignal signal = CollectorSignal.builder()
-                                .sourceType(SourceType.UPWORK)
-                                .sourceId(sourceId)
-                                .rawText(rawJson)
-                                .build();
-                        signalRepository.save(signal);
-                        itemsCollected++;
                     }
                 } catch (Exception e) {
                     log.warn("Failed to fetch Upwork RSS for keyword '{}': {}", keyword, e.getMessage());
+                    progress.error("Upwork RSS failed for '" + keyword + "': " + e.getMessage());
                 }
 
                 // Delay between keyword fetches
@@ -129,6 +171,7 @@ public class UpworkCollector implements SourceCollector {
                     .status(CollectorStatus.COMPLETED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .duration(Duration.between(start, Instant.now()))
                     .build();
 
@@ -139,6 +182,7 @@ public class UpworkCollector implements SourceCollector {
                     .status(CollectorStatus.FAILED)
                     .itemsCollected(itemsCollected)
                     .duplicatesSkipped(duplicatesSkipped)
+                    .itemsFiltered(filtered)
                     .duration(Duration.between(start, Instant.now()))
                     .error(e.getMessage())
                     .build();
@@ -159,8 +203,8 @@ public class UpworkCollector implements SourceCollector {
         return result;
     }
 
-    private String buildRawJson(String title, String description, String budgetMin, String budgetMax,
-                                String link, String pubDate) {
+    String buildRawJson(String title, String description, String budgetMin, String budgetMax,
+                        String link, String pubDate, KeywordMatch keywordMatch) {
         try {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("title", title != null ? title : "");
@@ -169,6 +213,7 @@ public class UpworkCollector implements SourceCollector {
             data.put("budget_max", budgetMax);
             data.put("link", link != null ? link : "");
             data.put("pubDate", pubDate);
+            keywordMatch.putInto(data);
             return objectMapper.writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.warn("Failed to serialize Upwork item: {}", e.getMessage());
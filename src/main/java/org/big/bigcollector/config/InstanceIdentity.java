@@ -0,0 +1,35 @@
+package org.big.bigcollector.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Stable id for this application instance, recorded as the owner of collector and signal leases.
+ */
+@Component
+@Getter
+@Slf4j
+public class InstanceIdentity {
+
+    private final String id;
+
+    public InstanceIdentity(@Value("${instance.id:}") String configuredId) {
+        this.id = configuredId != null && !configuredId.isBlank() ? configuredId : generateId();
+        log.info("Instance id: {}", id);
+    }
+
+    private static String generateId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
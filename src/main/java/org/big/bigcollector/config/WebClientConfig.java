@@ -1,11 +1,16 @@
 package org.big.bigcollector.config;
 
+import io.netty.channel.ChannelOption;
+import org.big.bigcollector.http.HttpResilienceSettings;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
@@ -21,6 +26,42 @@ public class WebClientConfig {
     @Value("${collector.reddit.user-agent:BIG-Collector/1.0}")
     private String redditUserAgent;
 
+    @Value("${collector.upwork.base-url:https://www.upwork.com}")
+    private String upworkBaseUrl;
+
+    @Value("${collector.upwork.max-connections:4}")
+    private int upworkMaxConnections;
+
+    @Value("${collector.defaults.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${collector.defaults.read-timeout-ms:30000}")
+    private int readTimeoutMs;
+
+    @Bean
+    public HttpResilienceSettings httpResilienceSettings(
+            @Value("${collector.http.max-attempts:3}") int maxAttempts,
+            @Value("${collector.http.base-delay:PT0.5S}") Duration baseDelay,
+            @Value("${collector.http.max-delay:PT30S}") Duration maxDelay,
+            @Value("${collector.http.request-timeout:PT30S}") Duration requestTimeout,
+            @Value("${collector.http.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${collector.http.circuit.open-duration:PT60S}") Duration openDuration,
+            @Value("${collector.http.bulkhead.max-concurrent:4}") int maxConcurrent,
+            @Value("${collector.http.bulkhead.max-wait:PT10S}") Duration bulkheadWait,
+            @Value("${collector.http.run-budget:PT15M}") Duration runBudget) {
+        return HttpResilienceSettings.builder()
+                .maxAttempts(maxAttempts)
+                .baseDelay(baseDelay)
+                .maxDelay(maxDelay)
+                .requestTimeout(requestTimeout)
+                .failureThreshold(failureThreshold)
+                .openDuration(openDuration)
+                .maxConcurrent(maxConcurrent)
+                .bulkheadWait(bulkheadWait)
+                .runBudget(runBudget)
+                .build();
+    }
+
     @Bean("hnWebClient")
     public WebClient hnWebClient(WebClient.Builder builder) {
         return builder
@@ -60,6 +101,29 @@ public class WebClientConfig {
                 .build();
     }
 
+    /**
+     * Feeds are streamed, so the read timeout applies between packets rather than to the whole body:
+     * a stalled feed fails after {@code read-timeout-ms} instead of hanging the run.
+     */
+    @Bean("upworkWebClient")
+    public WebClient upworkWebClient(WebClient.Builder builder) {
+        ConnectionProvider pool = ConnectionProvider.builder("upwork")
+                .maxConnections(upworkMaxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs))
+                .compress(true);
+
+        return builder
+                .baseUrl(upworkBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.ACCEPT, "application/rss+xml, application/xml")
+                .build();
+    }
+
     @Bean("productHuntWebClient")
     public WebClient productHuntWebClient(WebClient.Builder builder) {
         WebClient.Builder b = builder
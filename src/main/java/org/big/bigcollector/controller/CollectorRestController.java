@@ -7,8 +7,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +32,20 @@ public class CollectorRestController {
         return ResponseEntity.accepted().body(result);
     }
 
+    @PostMapping("/collect/{sourceType}/backfill")
+    public ResponseEntity<Map<String, Object>> startBackfill(@PathVariable SourceType sourceType,
+                                                             @RequestParam Instant from,
+                                                             @RequestParam(required = false) Instant to) {
+        Map<String, Object> result = collectorService.startBackfill(sourceType, from, to != null ? to : Instant.now());
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (result.containsKey("error")) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.accepted().body(result);
+    }
+
     @PostMapping("/stop/{sourceType}")
     public ResponseEntity<Map<String, Object>> stopCollection(@PathVariable SourceType sourceType) {
         Map<String, Object> result = collectorService.stopCollection(sourceType);
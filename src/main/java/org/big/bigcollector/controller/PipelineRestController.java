@@ -1,13 +1,23 @@
 package org.big.bigcollector.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.service.pipeline.PipelineJob;
+import org.big.bigcollector.service.pipeline.PipelineJobService;
 import org.big.bigcollector.service.pipeline.SignalPipelineService;
+import org.big.bigcollector.service.pipeline.SignalRetryService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,22 +26,99 @@ import java.util.Map;
 public class PipelineRestController {
 
     private final SignalPipelineService pipelineService;
+    private final PipelineJobService jobService;
+    private final SignalRetryService retryService;
 
-    @PostMapping("/process")
-    public ResponseEntity<Map<String, Object>> processSignals() {
-        Map<String, Object> result = pipelineService.processUnprocessedSignals();
-
-        if (result.containsKey("error")) {
-            return ResponseEntity.badRequest().body(result);
+    @PostMapping({"/process", "/jobs"})
+    public ResponseEntity<Map<String, Object>> submitJob(@RequestParam(required = false) Integer maxSignals,
+                                                         @RequestParam(required = false) SourceType sourceType,
+                                                         @RequestParam(defaultValue = "1") int concurrency) {
+        PipelineRunOptions options;
+        try {
+            options = PipelineRunOptions.builder()
+                    .maxSignals(maxSignals)
+                    .sourceType(sourceType)
+                    .concurrency(concurrency)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
 
-        return ResponseEntity.ok(result);
+        return jobService.submit(options)
+                .map(job -> ResponseEntity.accepted().body(job.toStatusMap()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                        "error", "Pipeline already running",
+                        "status", "ALREADY_RUNNING",
+                        "jobId", jobService.getActiveJob().map(PipelineJob::getId).orElse("")
+                )));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Map<String, Object>>> listJobs() {
+        return ResponseEntity.ok(jobService.listJobs().stream()
+                .map(PipelineJob::toStatusMap)
+                .toList());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        return jobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toStatusMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<Map<String, Object>> getJobResult(@PathVariable String jobId) {
+        return jobService.getJob(jobId)
+                .map(job -> {
+                    if (!job.isFinished()) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(job.toStatusMap());
+                    }
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("jobId", job.getId());
+                    body.put("status", job.getStatus().name());
+                    if (job.getResult() != null) {
+                        body.putAll(job.getResult());
+                        body.put("status", job.getStatus().name());
+                    }
+                    if (job.getError() != null) {
+                        body.put("error", job.getError());
+                    }
+                    return ResponseEntity.ok(body);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String jobId) {
+        return jobService.cancel(jobId)
+                .map(job -> ResponseEntity.accepted().body(job.toStatusMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/dead-letter")
+    public ResponseEntity<Map<String, Object>> getDeadLetterCount(@RequestParam(required = false) SourceType sourceType) {
+        return ResponseEntity.ok(Map.of(
+                "sourceType", sourceType != null ? sourceType.name() : "ALL",
+                "deadLettered", retryService.countDeadLettered(sourceType),
+                "maxAttempts", retryService.getMaxAttempts()
+        ));
+    }
+
+    @PostMapping("/dead-letter/requeue")
+    public ResponseEntity<Map<String, Object>> requeueDeadLetter(@RequestParam(required = false) SourceType sourceType) {
+        int requeued = retryService.requeueDeadLettered(sourceType);
+        return ResponseEntity.ok(Map.of(
+                "sourceType", sourceType != null ? sourceType.name() : "ALL",
+                "requeued", requeued
+        ));
     }
 
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getStatus() {
         return ResponseEntity.ok(Map.of(
-                "running", pipelineService.isRunning()
+                "running", pipelineService.isRunning(),
+                "activeJobId", jobService.getActiveJob().map(PipelineJob::getId).orElse("")
         ));
     }
 }
@@ -0,0 +1,35 @@
+package org.big.bigcollector.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.big.bigcollector.progress.ProgressEvent;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.big.bigcollector.progress.ProgressStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/progress")
+@RequiredArgsConstructor
+public class ProgressRestController {
+
+    private final ProgressEventBus progressEventBus;
+    private final ProgressStreamService progressStreamService;
+
+    @GetMapping
+    public ResponseEntity<List<ProgressEvent>> getLatest() {
+        return ResponseEntity.ok(progressEventBus.latest());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String runType,
+                             @RequestParam(required = false) String runId) {
+        return progressStreamService.stream(runType, runId);
+    }
+}
@@ -0,0 +1,79 @@
+package org.big.bigcollector.dto.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response of the GraphQL issue search. Nodes carry only the fields a signal stores, so one request
+ * returns up to 100 issues.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GitHubGraphQLSearchResponse {
+
+    private SearchData data;
+    private List<GraphQLError> errors;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class SearchData {
+        private Search search;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Search {
+        private int issueCount;
+        private PageInfo pageInfo;
+        private List<IssueNode> nodes;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PageInfo {
+        private boolean hasNextPage;
+        private String endCursor;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class IssueNode {
+        /** Same id as the REST {@code id}, so both paths deduplicate against each other. */
+        private Long databaseId;
+        private String title;
+        private String body;
+        private String url;
+        private Count comments;
+        private Count reactions;
+        private Count thumbsUp;
+        private Labels labels;
+        private Repository repository;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Count {
+        private int totalCount;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Labels {
+        private List<GitHubSearchResponse.GitHubLabel> nodes;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Repository {
+        private String nameWithOwner;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class GraphQLError {
+        private String type;
+        private String message;
+    }
+}
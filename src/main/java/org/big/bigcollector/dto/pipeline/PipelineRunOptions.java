@@ -0,0 +1,29 @@
+package org.big.bigcollector.dto.pipeline;
+
+import lombok.Builder;
+import org.big.bigcollector.entity.enums.SourceType;
+
+/**
+ * Parameters for one pipeline run. {@code maxSignals} and {@code sourceType} are optional filters;
+ * {@code concurrency} is the number of signals processed in parallel.
+ */
+@Builder
+public record PipelineRunOptions(
+    Integer maxSignals,
+    SourceType sourceType,
+    int concurrency
+) {
+
+    public static final int MAX_CONCURRENCY = 16;
+
+    public PipelineRunOptions {
+        if (maxSignals != null && maxSignals <= 0) {
+            throw new IllegalArgumentException("maxSignals must be positive");
+        }
+        concurrency = Math.clamp(concurrency, 1, MAX_CONCURRENCY);
+    }
+
+    public static PipelineRunOptions defaults() {
+        return PipelineRunOptions.builder().concurrency(1).build();
+    }
+}
@@ -1,9 +1,12 @@
 package org.big.bigcollector.dto.producthunt;
 
+import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -14,15 +17,31 @@ public class ProductHuntGraphQLResponse {
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class ProductHuntData {
-        private PostsConnection posts;
+        /** Set by single-post queries such as the comment pages. */
+        private Post post;
+        /** Post connections keyed by their alias in the query, so several topics fit in one request. */
+        private Map<String, PostsConnection> postsByAlias = new LinkedHashMap<>();
+
+        @JsonAnySetter
+        public void putPosts(String alias, PostsConnection connection) {
+            postsByAlias.put(alias, connection);
+        }
     }
 
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class PostsConnection {
+        private PageInfo pageInfo;
         private List<PostEdge> edges;
     }
 
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PageInfo {
+        private boolean hasNextPage;
+        private String endCursor;
+    }
+
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class PostEdge {
@@ -45,6 +64,7 @@ public class ProductHuntGraphQLResponse {
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class CommentsConnection {
+        private PageInfo pageInfo;
         private List<CommentEdge> edges;
     }
 
@@ -0,0 +1,52 @@
+package org.big.bigcollector.dto.reddit;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One listing of a comment thread ({@code /comments/{id}.json} returns the post listing followed by this).
+ * Children are {@code t1} comments or {@code more} stubs naming comments that were left out.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RedditCommentListing {
+
+    private ListingData data;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ListingData {
+        private List<Thing> children;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Thing {
+        private String kind;
+        private ThingData data;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ThingData {
+        private String id;
+        private String body;
+        private int score;
+        private String author;
+        private String permalink;
+        private int depth;
+
+        @JsonProperty("parent_id")
+        private String parentId;
+
+        /** Ids of the omitted comments, on {@code more} stubs. */
+        private List<String> children;
+
+        /** Nested {@link RedditCommentListing}, or an empty string when a comment has no replies. */
+        private JsonNode replies;
+    }
+}
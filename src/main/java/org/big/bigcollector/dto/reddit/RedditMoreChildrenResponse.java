@@ -0,0 +1,28 @@
+package org.big.bigcollector.dto.reddit;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * {@code /api/morechildren} response: the requested comments as a flat list, each carrying its depth.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RedditMoreChildrenResponse {
+
+    private Json json;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Json {
+        private Things data;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Things {
+        private List<RedditCommentListing.Thing> things;
+    }
+}
@@ -0,0 +1,45 @@
+package org.big.bigcollector.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.big.bigcollector.entity.enums.SourceType;
+
+import java.time.Instant;
+
+/**
+ * One row per source type that has ever been collected. The row is held by {@code owner} until
+ * {@code expiresAt}; the running instance keeps pushing that forward, so a crashed instance's lease
+ * simply lapses and can be taken over.
+ */
+@Entity
+@Table(name = "collector_lease")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectorLease {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", length = 30)
+    private SourceType sourceType;
+
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(name = "acquired_at", nullable = false)
+    private Instant acquiredAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,49 @@
+package org.big.bigcollector.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.big.bigcollector.entity.enums.SourceType;
+
+import java.time.Instant;
+
+/**
+ * A named flag a collector keeps between runs, such as "this app's reviews were cut short". The row's
+ * presence is the information; collectors set and clear it by key.
+ */
+@Entity
+@Table(name = "collector_marker", uniqueConstraints = {
+    @UniqueConstraint(name = "uq_collector_marker_source_key", columnNames = {"source_type", "marker_key"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectorMarker {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", nullable = false, length = 30)
+    private SourceType sourceType;
+
+    @Column(name = "marker_key", nullable = false, length = 500)
+    private String markerKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -16,12 +16,22 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.similarity.SignalFingerprint;
 
 import java.time.Instant;
 
 @Entity
 @Table(name = "collector_signal", indexes = {
-    @Index(name = "idx_collector_signal_processed_created", columnList = "processed, created_at")
+    @Index(name = "idx_collector_signal_processed_created", columnList = "processed, created_at"),
+    @Index(name = "idx_collector_signal_lease", columnList = "processed, lease_expires_at"),
+    @Index(name = "idx_collector_signal_dead_lettered", columnList = "dead_lettered_at"),
+    @Index(name = "idx_collector_signal_fingerprint_band0", columnList = "fingerprint_band0"),
+    @Index(name = "idx_collector_signal_fingerprint_band1", columnList = "fingerprint_band1"),
+    @Index(name = "idx_collector_signal_fingerprint_band2", columnList = "fingerprint_band2"),
+    @Index(name = "idx_collector_signal_fingerprint_band3", columnList = "fingerprint_band3"),
+    @Index(name = "idx_collector_signal_fingerprint_band4", columnList = "fingerprint_band4"),
+    @Index(name = "idx_collector_signal_fingerprint_band5", columnList = "fingerprint_band5"),
+    @Index(name = "idx_collector_signal_fingerprint_band6", columnList = "fingerprint_band6")
 })
 @Getter
 @Setter
@@ -54,6 +64,64 @@ public class CollectorSignal {
     @Column(columnDefinition = "TEXT")
     private String error;
 
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "dead_lettered_at")
+    private Instant deadLetteredAt;
+
+    /** SimHash of the content fields, see {@link SignalFingerprint}; null for too little text. */
+    @Column(name = "fingerprint")
+    private Long fingerprint;
+
+    // The fingerprint's bands (SignalFingerprint.bands), kept in step by setFingerprint; near-duplicate
+    // lookup finds candidates through their indexes
+    @Column(name = "fingerprint_band0")
+    private Integer fingerprintBand0;
+
+    @Column(name = "fingerprint_band1")
+    private Integer fingerprintBand1;
+
+    @Column(name = "fingerprint_band2")
+    private Integer fingerprintBand2;
+
+    @Column(name = "fingerprint_band3")
+    private Integer fingerprintBand3;
+
+    @Column(name = "fingerprint_band4")
+    private Integer fingerprintBand4;
+
+    @Column(name = "fingerprint_band5")
+    private Integer fingerprintBand5;
+
+    @Column(name = "fingerprint_band6")
+    private Integer fingerprintBand6;
+
+    /** First signal this one is a near-duplicate of; set when extraction was skipped because of it. */
+    @Column(name = "duplicate_of_id")
+    private Long duplicateOfId;
+
+    /** Problem this signal was recorded as evidence for, if any. */
+    @Column(name = "problem_vault_id")
+    private Long problemVaultId;
+
+    /**
+     * True once the pipeline found no problem in this signal. Null for signals processed before outcomes were
+     * recorded, whose null {@link #problemVaultId} says nothing about whether they had one.
+     */
+    @Column(name = "no_problem")
+    private Boolean noProblem;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -62,5 +130,18 @@ public class CollectorSignal {
         if (this.createdAt == null) {
             this.createdAt = Instant.now();
         }
+        setFingerprint(this.fingerprint != null ? this.fingerprint : SignalFingerprint.of(this.rawText));
+    }
+
+    public void setFingerprint(Long fingerprint) {
+        this.fingerprint = fingerprint;
+        int[] bands = fingerprint != null ? SignalFingerprint.bands(fingerprint) : null;
+        this.fingerprintBand0 = bands != null ? bands[0] : null;
+        this.fingerprintBand1 = bands != null ? bands[1] : null;
+        this.fingerprintBand2 = bands != null ? bands[2] : null;
+        this.fingerprintBand3 = bands != null ? bands[3] : null;
+        this.fingerprintBand4 = bands != null ? bands[4] : null;
+        this.fingerprintBand5 = bands != null ? bands[5] : null;
+        this.fingerprintBand6 = bands != null ? bands[6] : null;
     }
 }
@@ -0,0 +1,61 @@
+package org.big.bigcollector.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A remembered LLM answer to "is this candidate the same problem as that vault entry?". Keyed by the
+ * vault entry, a hash of the candidate's normalised title and description, and the model that decided,
+ * so a model change re-asks instead of trusting an older model's verdict.
+ */
+@Entity
+@Table(name = "duplicate_verdict", uniqueConstraints = {
+    @UniqueConstraint(name = "uq_duplicate_verdict_entry_candidate_model",
+                      columnNames = {"vault_entry_id", "candidate_hash", "model"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DuplicateVerdict {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vault_entry_id", nullable = false)
+    private Long vaultEntryId;
+
+    @Column(name = "candidate_hash", nullable = false, length = 64)
+    private String candidateHash;
+
+    @Column(nullable = false)
+    private boolean duplicate;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    @Column(name = "decided_at", nullable = false)
+    private Instant decidedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (decidedAt == null) {
+            decidedAt = Instant.now();
+        }
+    }
+}
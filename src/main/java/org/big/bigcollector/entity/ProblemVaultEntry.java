@@ -10,6 +10,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -94,6 +95,11 @@ public class ProblemVaultEntry {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Concurrent pipeline workers merge evidence into the same entry; the later write fails and is retried
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "problemVaultEntry", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<ProblemEvidence> evidence = new ArrayList<>();
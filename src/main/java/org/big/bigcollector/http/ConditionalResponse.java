@@ -0,0 +1,18 @@
+package org.big.bigcollector.http;
+
+/**
+ * Result of a conditional GET. {@code body} is null when {@code notModified}; the validators are
+ * those the server sent with this response and are only persisted on {@link HttpCacheService#commit}.
+ */
+public record ConditionalResponse<T>(
+    String cacheKey,
+    T body,
+    boolean notModified,
+    String etag,
+    String lastModified
+) {
+
+    static <T> ConditionalResponse<T> notModified(String cacheKey) {
+        return new ConditionalResponse<>(cacheKey, null, true, null, null);
+    }
+}
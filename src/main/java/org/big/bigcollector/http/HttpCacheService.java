@@ -0,0 +1,113 @@
+package org.big.bigcollector.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.HttpCacheEntry;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.repository.HttpCacheEntryRepository;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Conditional GETs for feeds that are polled repeatedly. Stored ETag / Last-Modified values are sent
+ * with each request and a 304 comes back as {@link ConditionalResponse#notModified()} with no body.
+ *
+ * <p>Validators are saved only when the caller {@link #commit commits} the response, which it should do
+ * after it has consumed the whole body. A run that stops part-way through a feed (max items, failure)
+ * must not commit, or the unread tail would be skipped as "not modified" next time.
+ */
+@Service
+@Slf4j
+public class HttpCacheService {
+
+    private static final int STREAM_PREFETCH_BUFFERS = 8;
+
+    private final HttpCacheEntryRepository cacheRepository;
+    private final ResilientHttpExecutor http;
+    private final CollectorMetrics metrics;
+
+    public HttpCacheService(HttpCacheEntryRepository cacheRepository,
+                            ResilientHttpExecutor http,
+                            CollectorMetrics metrics) {
+        this.cacheRepository = cacheRepository;
+        this.http = http;
+        this.metrics = metrics;
+    }
+
+    public <T> ConditionalResponse<T> get(SourceType source, RequestBudget budget, WebClient webClient,
+                                          Class<T> type, String uriTemplate, Object... uriVariables) {
+        return exchange(source, budget, webClient, spec -> spec.toEntity(type), uriTemplate, uriVariables);
+    }
+
+    /**
+     * Like {@link #get} but hands back the body as a stream that is read from the connection on demand,
+     * so large feeds are never buffered whole. The caller must close the stream; closing it early
+     * cancels the rest of the download.
+     */
+    public ConditionalResponse<InputStream> getStream(SourceType source, RequestBudget budget, WebClient webClient,
+                                                      String uriTemplate, Object... uriVariables) {
+        ConditionalResponse<Flux<DataBuffer>> response = exchange(source, budget, webClient,
+                spec -> spec.toEntityFlux(DataBuffer.class), uriTemplate, uriVariables);
+        if (response.notModified() || response.body() == null) {
+            return ConditionalResponse.notModified(response.cacheKey());
+        }
+        return new ConditionalResponse<>(response.cacheKey(),
+                DataBufferUtils.subscriberInputStream(response.body(), STREAM_PREFETCH_BUFFERS),
+                false, response.etag(), response.lastModified());
+    }
+
+    private <R> ConditionalResponse<R> exchange(SourceType source, RequestBudget budget, WebClient webClient,
+                                                Function<WebClient.ResponseSpec, Mono<ResponseEntity<R>>> toEntity,
+                                                String uriTemplate, Object... uriVariables) {
+        String cacheKey = source.name() + " " + UriComponentsBuilder.fromUriString(uriTemplate)
+                .buildAndExpand(uriVariables).toUriString();
+        Optional<HttpCacheEntry> cached = cacheRepository.findByCacheKey(cacheKey);
+
+        ResponseEntity<R> response = http.execute(source, budget, () -> toEntity.apply(webClient.get()
+                .uri(uriTemplate, uriVariables)
+                .headers(headers -> cached.ifPresent(entry -> {
+                    if (entry.getEtag() != null) {
+                        headers.setIfNoneMatch(entry.getEtag());
+                    }
+                    if (entry.getLastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, entry.getLastModified());
+                    }
+                }))
+                .retrieve()));
+
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            log.debug("{} not modified", cacheKey);
+            metrics.recordNotModified(source);
+            return ConditionalResponse.notModified(cacheKey);
+        }
+        HttpHeaders headers = response.getHeaders();
+        return new ConditionalResponse<>(cacheKey, response.getBody(), false,
+                headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    /**
+     * Persists the response's validators so the next fetch of the same URL can be answered with a 304.
+     */
+    public void commit(ConditionalResponse<?> response) {
+        if (response.notModified() || (response.etag() == null && response.lastModified() == null)) {
+            return;
+        }
+        HttpCacheEntry entry = cacheRepository.findByCacheKey(response.cacheKey())
+                .orElseGet(() -> HttpCacheEntry.builder().cacheKey(response.cacheKey()).build());
+        entry.setEtag(response.etag());
+        entry.setLastModified(response.lastModified());
+        cacheRepository.save(entry);
+    }
+}
@@ -0,0 +1,45 @@
+package org.big.bigcollector.http;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link ResilientHttpExecutor}. Retries back off from {@code baseDelay} up to {@code maxDelay}
+ * with full jitter; a source's circuit opens after {@code failureThreshold} consecutive retryable failures
+ * and stays open for {@code openDuration}; at most {@code maxConcurrent} requests per source are in flight;
+ * and a single collection run may spend at most {@code runBudget} on upstream calls, waits included.
+ */
+@Builder(toBuilder = true)
+public record HttpResilienceSettings(
+    int maxAttempts,
+    Duration baseDelay,
+    Duration maxDelay,
+    Duration requestTimeout,
+    int failureThreshold,
+    Duration openDuration,
+    int maxConcurrent,
+    Duration bulkheadWait,
+    Duration runBudget
+) {
+
+    public HttpResilienceSettings {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1");
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be at least 1");
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be at least 1");
+    }
+
+    public static HttpResilienceSettings defaults() {
+        return HttpResilienceSettings.builder()
+                .maxAttempts(3)
+                .baseDelay(Duration.ofMillis(500))
+                .maxDelay(Duration.ofSeconds(30))
+                .requestTimeout(Duration.ofSeconds(30))
+                .failureThreshold(5)
+                .openDuration(Duration.ofSeconds(60))
+                .maxConcurrent(4)
+                .bulkheadWait(Duration.ofSeconds(10))
+                .runBudget(Duration.ofMinutes(15))
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package org.big.bigcollector.http;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Wall-clock allowance for all upstream calls made during one collection run. Request timeouts,
+ * retry backoff and bulkhead waits are all clipped to what is left.
+ */
+public final class RequestBudget {
+
+    private final Instant deadline;
+
+    RequestBudget(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    public static RequestBudget unlimited() {
+        return new RequestBudget(Instant.MAX);
+    }
+
+    public Duration remaining() {
+        Instant now = Instant.now();
+        return now.isBefore(deadline) ? Duration.between(now, deadline) : Duration.ZERO;
+    }
+
+    public boolean isExhausted() {
+        return !Instant.now().isBefore(deadline);
+    }
+
+    Duration clip(Duration duration) {
+        Duration left = remaining();
+        return duration.compareTo(left) <= 0 ? duration : left;
+    }
+}
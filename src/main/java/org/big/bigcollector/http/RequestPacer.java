@@ -0,0 +1,46 @@
+package org.big.bigcollector.http;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spaces request starts at least {@code interval} apart across all threads sharing the pacer. Callers
+ * reserve the next free slot and sleep until it arrives, so concurrent workers stay under a request rate.
+ */
+public final class RequestPacer {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    public RequestPacer(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public static RequestPacer perSecond(double requestsPerSecond) {
+        return new RequestPacer(Duration.ofNanos((long) (1_000_000_000L / requestsPerSecond)));
+    }
+
+    public void acquire() throws InterruptedException {
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndUpdate(next -> Math.max(next, now) + intervalNanos);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * {@link #acquire()} for run loops that stop when interrupted: false if the thread was interrupted while
+     * waiting, with its interrupt flag restored.
+     */
+    public boolean tryAcquire() {
+        try {
+            acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
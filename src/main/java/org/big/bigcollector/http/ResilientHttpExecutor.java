@@ -0,0 +1,182 @@
+package org.big.bigcollector.http;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking upstream requests for the WebClient-based collectors with retry, a circuit breaker and
+ * a bulkhead per source, all bounded by the caller's {@link RequestBudget}. Each source talks to a single
+ * upstream host, so per-source state is per-host state.
+ *
+ * <p>Only transport errors, timeouts, 429, 5xx and rate-limited 403s are retried and count against the
+ * circuit; other 4xx responses mean the host is healthy and are rethrown immediately.
+ */
+@Component
+@Slf4j
+public class ResilientHttpExecutor {
+
+    private static final Duration DEFAULT_RATE_LIMIT_WAIT = Duration.ofSeconds(60);
+
+    private final CollectorMetrics metrics;
+    private final HttpResilienceSettings settings;
+    private final Map<SourceType, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<SourceType, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    public ResilientHttpExecutor(CollectorMetrics metrics, HttpResilienceSettings settings) {
+        this.metrics = metrics;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts the budget for one collection run.
+     */
+    public RequestBudget newBudget() {
+        return newBudget(settings.runBudget());
+    }
+
+    /**
+     * Starts a budget with an explicit allowance, for jobs such as backfills that outlast a normal run.
+     */
+    public RequestBudget newBudget(Duration allowance) {
+        return new RequestBudget(Instant.now().plus(allowance));
+    }
+
+    public <T> T execute(SourceType source, RequestBudget budget, Supplier<Mono<T>> request) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(source,
+                s -> new CircuitBreaker(settings.failureThreshold(), settings.openDuration()));
+
+        for (int attempt = 1; ; attempt++) {
+            if (budget.isExhausted()) {
+                throw reject(source, "budget_exhausted", "Request budget exhausted for " + source);
+            }
+            Duration delay;
+            Semaphore bulkhead = acquireBulkhead(source, budget);
+            try {
+                if (!breaker.tryAcquirePermission(Instant.now())) {
+                    throw reject(source, "circuit_open", "Circuit open for " + source);
+                }
+
+                Timer.Sample sample = metrics.startRequest();
+                try {
+                    T response = request.get().block(budget.clip(settings.requestTimeout()));
+                    metrics.recordRequest(source, sample, true);
+                    breaker.onSuccess();
+                    return response;
+                } catch (RuntimeException e) {
+                    metrics.recordRequest(source, sample, false);
+                    if (!isRetryable(e)) {
+                        breaker.onSuccess();
+                        throw e;
+                    }
+                    if (breaker.onFailure(Instant.now())) {
+                        log.warn("Circuit opened for {} after repeated failures: {}", source, e.getMessage());
+                    }
+                    delay = retryDelay(e, attempt);
+                    if (attempt >= settings.maxAttempts() || delay.compareTo(budget.remaining()) >= 0
+                            || breaker.getState() == CircuitBreaker.State.OPEN) {
+                        throw e;
+                    }
+                    log.warn("{} request failed (attempt {}/{}), retrying in {} ms: {}",
+                            source, attempt, settings.maxAttempts(), delay.toMillis(), e.getMessage());
+                    metrics.recordRetry(source);
+                }
+            } finally {
+                bulkhead.release();
+            }
+            sleep(delay);
+        }
+    }
+
+    private Semaphore acquireBulkhead(SourceType source, RequestBudget budget) {
+        Semaphore bulkhead = bulkheads.computeIfAbsent(source, s -> new Semaphore(settings.maxConcurrent()));
+        try {
+            if (!bulkhead.tryAcquire(budget.clip(settings.bulkheadWait()).toMillis(), TimeUnit.MILLISECONDS)) {
+                throw reject(source, "bulkhead_full", "Too many concurrent requests to " + source);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException(source, "Interrupted waiting for " + source + " bulkhead", e);
+        }
+        return bulkhead;
+    }
+
+    private UpstreamUnavailableException reject(SourceType source, String reason, String message) {
+        metrics.recordRejected(source, reason);
+        return new UpstreamUnavailableException(source, message);
+    }
+
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof WebClientResponseException response) {
+            HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+            return response.getStatusCode().is5xxServerError()
+                    || status == HttpStatus.TOO_MANY_REQUESTS
+                    || (status == HttpStatus.FORBIDDEN && isRateLimited(response.getHeaders()));
+        }
+        if (e instanceof WebClientRequestException) {
+            return true;
+        }
+        // Mono.block(timeout) signals a timeout this way
+        return e instanceof IllegalStateException && e.getMessage() != null
+                && e.getMessage().startsWith("Timeout on blocking read");
+    }
+
+    private static boolean isRateLimited(HttpHeaders headers) {
+        return headers.containsKey(HttpHeaders.RETRY_AFTER) || "0".equals(headers.getFirst("X-RateLimit-Remaining"));
+    }
+
+    /**
+     * Honours Retry-After / X-RateLimit-Reset on rate-limit responses; otherwise full-jitter
+     * exponential backoff.
+     */
+    Duration retryDelay(RuntimeException e, int attempt) {
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            return rateLimitWait(response.getHeaders());
+        }
+        long capMs = Math.min(settings.maxDelay().toMillis(),
+                settings.baseDelay().toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capMs + 1));
+    }
+
+    private static Duration rateLimitWait(HttpHeaders headers) {
+        try {
+            String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null) {
+                return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+            }
+            String reset = headers.getFirst("X-RateLimit-Reset");
+            if (reset != null) {
+                Duration untilReset = Duration.between(Instant.now(), Instant.ofEpochSecond(Long.parseLong(reset.trim())));
+                return untilReset.isNegative() ? Duration.ZERO : untilReset;
+            }
+        } catch (NumberFormatException ignored) {
+            // HTTP-date Retry-After or garbage: fall through to the default wait
+        }
+        return DEFAULT_RATE_LIMIT_WAIT;
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during retry backoff", ie);
+        }
+    }
+}
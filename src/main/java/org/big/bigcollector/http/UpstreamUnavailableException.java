@@ -0,0 +1,26 @@
+package org.big.bigcollector.http;
+
+import org.big.bigcollector.entity.enums.SourceType;
+
+/**
+ * Thrown without contacting the upstream when its circuit is open, its bulkhead is full,
+ * or the run's request budget is spent.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final SourceType source;
+
+    public UpstreamUnavailableException(SourceType source, String message) {
+        super(message);
+        this.source = source;
+    }
+
+    public UpstreamUnavailableException(SourceType source, String message, Throwable cause) {
+        super(message, cause);
+        this.source = source;
+    }
+
+    public SourceType getSource() {
+        return source;
+    }
+}
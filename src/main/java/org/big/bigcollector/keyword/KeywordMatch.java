@@ -0,0 +1,26 @@
+package org.big.bigcollector.keyword;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of running a {@link KeywordMatcher} over one item.
+ *
+ * @param accepted whether the item passes the keyword pre-filter (always true when no keywords are set)
+ * @param terms    distinct keywords found, in order of first occurrence
+ * @param hits     total keyword occurrences, counting repeats and overlaps
+ */
+public record KeywordMatch(boolean accepted, List<String> terms, int hits) {
+
+    /** Result for a source without keywords: accepted, nothing recorded. */
+    public static final KeywordMatch UNFILTERED = new KeywordMatch(true, List.of(), 0);
+    static final KeywordMatch NO_MATCH = new KeywordMatch(false, List.of(), 0);
+
+    /** Adds {@code keyword_matches} and {@code keyword_hits} to a signal's raw JSON when anything matched. */
+    public void putInto(Map<String, Object> rawJson) {
+        if (hits > 0) {
+            rawJson.put("keyword_matches", terms);
+            rawJson.put("keyword_hits", hits);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.big.bigcollector.keyword;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over case-folded keywords. Finds every keyword occurrence (as a substring, like
+ * {@code String.contains}) in one pass over the text without lowercasing or copying it. Immutable and
+ * safe to share between threads.
+ */
+public final class KeywordMatcher {
+
+    private static final KeywordMatcher EMPTY = new KeywordMatcher(List.of());
+
+    private final String[] keywords;
+    // Per state: sorted edge labels and their target states
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    // Per state: indexes of every keyword ending here, including those inherited through fail links
+    private final int[][] outputs;
+
+    private KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords.toArray(String[]::new);
+
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        for (int k = 0; k < this.keywords.length; k++) {
+            int state = 0;
+            for (char c : this.keywords[k].toCharArray()) {
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(k);
+        }
+
+        int states = trie.size();
+        edgeChars = new char[states][];
+        edgeTargets = new int[states][];
+        fail = new int[states];
+        outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            edgeChars[s] = new char[edges.size()];
+            edgeTargets[s] = new int[edges.size()];
+            int i = 0;
+            for (var edge : edges.entrySet()) {
+                edgeChars[s][i] = edge.getKey();
+                edgeTargets[s][i++] = edge.getValue();
+            }
+        }
+
+        // Breadth-first so a state's fail target is always finished before the state itself
+        outputs[0] = ends.get(0).stream().mapToInt(Integer::intValue).toArray();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] inherited = outputs[fail[state]];
+            int[] own = ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+            int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+            System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+            outputs[state] = merged;
+
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                int child = edgeTargets[state][i];
+                fail[child] = step(fail[state], edgeChars[state][i]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /** Builds a matcher for the given keywords; blank entries are ignored and duplicates collapsed. */
+    public static KeywordMatcher of(Collection<String> keywords) {
+        Set<String> folded = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isBlank()) {
+                folded.add(fold(keyword.strip()));
+            }
+        }
+        return folded.isEmpty() ? EMPTY : new KeywordMatcher(List.copyOf(folded));
+    }
+
+    public static KeywordMatcher empty() {
+        return EMPTY;
+    }
+
+    /** True when there are no keywords, i.e. the matcher does not filter anything. */
+    public boolean isEmpty() {
+        return keywords.length == 0;
+    }
+
+    /**
+     * Scans the given texts (e.g. title and body) as separate fields, so no keyword matches across the
+     * boundary between two of them. Null texts are skipped.
+     */
+    public KeywordMatch match(CharSequence... texts) {
+        if (isEmpty()) {
+            return KeywordMatch.UNFILTERED;
+        }
+
+        boolean[] seen = new boolean[keywords.length];
+        List<String> terms = new ArrayList<>();
+        int hits = 0;
+        for (CharSequence text : texts) {
+            if (text == null) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                state = step(state, Character.toLowerCase(text.charAt(i)));
+                for (int k : outputs[state]) {
+                    hits++;
+                    if (!seen[k]) {
+                        seen[k] = true;
+                        terms.add(keywords[k]);
+                    }
+                }
+            }
+        }
+        return hits == 0 ? KeywordMatch.NO_MATCH : new KeywordMatch(true, List.copyOf(terms), hits);
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(edgeChars[state], c);
+            if (i >= 0) {
+                return edgeTargets[state][i];
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static String fold(String keyword) {
+        char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,70 @@
+package org.big.bigcollector.keyword;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled keyword pre-filters per source. Keywords come from the {@code "keywords"} array in
+ * {@code CollectorConfig.settings}; without one a source uses its built-in list, which is empty (no
+ * filtering) for everything except Product Hunt. An explicit empty array turns filtering off.
+ * Matchers are rebuilt only when the settings change.
+ */
+@Component
+@Slf4j
+public class KeywordMatcherRegistry {
+
+    private static final Map<SourceType, List<String>> DEFAULT_KEYWORDS = Map.of(
+            SourceType.PRODUCT_HUNT, List.of(
+                    "wish", "need", "missing", "frustrat", "annoying", "hate", "problem",
+                    "difficult", "hard to", "can't", "doesn't", "won't", "broken",
+                    "alternative", "better", "improve", "should", "lack", "pain")
+    );
+
+    private final ObjectMapper objectMapper;
+    private final Map<SourceType, Compiled> compiled = new ConcurrentHashMap<>();
+
+    public KeywordMatcherRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public KeywordMatcher matcherFor(SourceType source, String settings) {
+        Compiled current = compiled.get(source);
+        if (current != null && Objects.equals(current.settings(), settings)) {
+            return current.matcher();
+        }
+        KeywordMatcher matcher = KeywordMatcher.of(keywordsFor(source, settings));
+        compiled.put(source, new Compiled(settings, matcher));
+        return matcher;
+    }
+
+    List<String> keywordsFor(SourceType source, String settings) {
+        List<String> defaults = DEFAULT_KEYWORDS.getOrDefault(source, List.of());
+        if (settings == null || settings.isBlank()) {
+            return defaults;
+        }
+        try {
+            JsonNode keywords = objectMapper.readTree(settings).get("keywords");
+            if (keywords == null || !keywords.isArray()) {
+                return defaults;
+            }
+            List<String> configured = new ArrayList<>(keywords.size());
+            keywords.forEach(node -> configured.add(node.asText()));
+            return configured;
+        } catch (Exception e) {
+            log.warn("Invalid collector settings for {}, using default keywords: {}", source, e.getMessage());
+            return defaults;
+        }
+    }
+
+    private record Compiled(String settings, KeywordMatcher matcher) {
+    }
+}
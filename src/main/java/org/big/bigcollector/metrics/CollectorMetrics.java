@@ -0,0 +1,83 @@
+package org.big.bigcollector.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.big.bigcollector.collector.CollectionResult;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collector-side meters: upstream request latency/errors/retries and per-run item counts.
+ */
+@Component
+public class CollectorMetrics {
+
+    private final MeterRegistry registry;
+
+    public CollectorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample startRequest() {
+        return Timer.start(registry);
+    }
+
+    public void recordRequest(SourceType source, Timer.Sample sample, boolean success) {
+        sample.stop(Timer.builder("collector.upstream.requests")
+                .description("HTTP requests made by collectors to upstream APIs")
+                .tag("source", source.name())
+                .tag("outcome", success ? "success" : "error")
+                .register(registry));
+    }
+
+    public void recordRetry(SourceType source) {
+        Counter.builder("collector.upstream.retries")
+                .description("Upstream requests retried after a failure")
+                .tag("source", source.name())
+                .register(registry)
+                .increment();
+    }
+
+    public void recordRejected(SourceType source, String reason) {
+        Counter.builder("collector.upstream.rejected")
+                .description("Upstream requests refused locally by the circuit breaker, bulkhead or run budget")
+                .tag("source", source.name())
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordNotModified(SourceType source) {
+        Counter.builder("collector.upstream.not_modified")
+                .description("Conditional requests answered with 304 Not Modified")
+                .tag("source", source.name())
+                .register(registry)
+                .increment();
+    }
+
+    public void recordRun(CollectionResult result) {
+        String source = result.sourceType().name();
+        countItems(source, "collected", result.itemsCollected());
+        countItems(source, "duplicate", result.duplicatesSkipped());
+        countItems(source, "filtered", result.itemsFiltered());
+
+        if (result.duration() != null) {
+            Timer.builder("collector.runs")
+                    .description("Collection run duration")
+                    .tag("source", source)
+                    .tag("status", result.status().name())
+                    .register(registry)
+                    .record(result.duration());
+        }
+    }
+
+    private void countItems(String source, String outcome, int amount) {
+        Counter.builder("collector.items")
+                .description("Items seen by collectors, by outcome")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(amount);
+    }
+}
@@ -0,0 +1,75 @@
+package org.big.bigcollector.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * LLM call counts, latency and token usage, tagged by operation (extract, score, ...) and model.
+ */
+@Component
+public class LlmMetrics {
+
+    private final MeterRegistry registry;
+
+    public LlmMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample startCall() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Runs a blocking SDK call and records its latency and outcome; exceptions are rethrown unchanged.
+     */
+    public <T> T timeCall(String operation, String model, Supplier<T> call) {
+        Timer.Sample sample = startCall();
+        try {
+            T result = call.get();
+            recordCall(operation, model, sample, true);
+            return result;
+        } catch (RuntimeException e) {
+            recordCall(operation, model, sample, false);
+            throw e;
+        }
+    }
+
+    public void recordCall(String operation, String model, Timer.Sample sample, boolean success) {
+        sample.stop(Timer.builder("llm.requests")
+                .description("LLM API calls")
+                .tag("operation", operation)
+                .tag("model", model)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry));
+    }
+
+    public void recordTokens(String operation, String model, long promptTokens, long completionTokens) {
+        countTokens(operation, model, "prompt", promptTokens);
+        countTokens(operation, model, "completion", completionTokens);
+    }
+
+    /** Counts a call answered from a stored result instead of the API. */
+    public void recordCacheHit(String operation, String model) {
+        Counter.builder("llm.cache.hits")
+                .description("LLM calls avoided by a stored result")
+                .tag("operation", operation)
+                .tag("model", model)
+                .register(registry)
+                .increment();
+    }
+
+    private void countTokens(String operation, String model, String type, long amount) {
+        if (amount <= 0) return;
+        Counter.builder("llm.tokens")
+                .description("LLM tokens consumed")
+                .tag("operation", operation)
+                .tag("model", model)
+                .tag("type", type)
+                .register(registry)
+                .increment(amount);
+    }
+}
@@ -0,0 +1,67 @@
+package org.big.bigcollector.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Signal pipeline meters: per-stage latency, signal and dedup outcomes, and vector search timings.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String DEDUP_NEW = "new";
+    public static final String DEDUP_DEFINITE_DUPLICATE = "definite_duplicate";
+    public static final String DEDUP_LLM_CONFIRMED = "llm_confirmed";
+    public static final String DEDUP_LLM_REJECTED = "llm_rejected";
+    public static final String DEDUP_NEAR_DUPLICATE_SIGNAL = "near_duplicate_signal";
+
+    private final MeterRegistry registry;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        return Timer.builder("pipeline.stage.duration")
+                .description("Latency of a single pipeline stage for one signal")
+                .tag("stage", stage)
+                .register(registry)
+                .record(work);
+    }
+
+    public void timeStage(String stage, Runnable work) {
+        Timer.builder("pipeline.stage.duration")
+                .description("Latency of a single pipeline stage for one signal")
+                .tag("stage", stage)
+                .register(registry)
+                .record(work);
+    }
+
+    public <T> T timeVectorSearch(String query, Supplier<T> work) {
+        return Timer.builder("pipeline.vector_search.duration")
+                .description("pgvector similarity query latency")
+                .tag("query", query)
+                .register(registry)
+                .record(work);
+    }
+
+    public void recordSignal(String outcome) {
+        Counter.builder("pipeline.signals")
+                .description("Signals processed by the pipeline, by outcome")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordDedup(String outcome) {
+        Counter.builder("pipeline.dedup.outcomes")
+                .description("Deduplication decisions")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
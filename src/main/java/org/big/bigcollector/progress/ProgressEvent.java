@@ -0,0 +1,36 @@
+package org.big.bigcollector.progress;
+
+import lombok.Builder;
+import org.big.bigcollector.entity.enums.CollectorStatus;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of a running collection or pipeline run. {@code itemsTotal} and {@code etaSeconds} are null
+ * when the run has no known upper bound yet.
+ */
+@Builder
+public record ProgressEvent(
+    String runType,
+    String runId,
+    CollectorStatus status,
+    String currentTarget,
+    int pagesFetched,
+    int itemsProcessed,
+    Integer itemsTotal,
+    int errors,
+    double itemsPerSecond,
+    Long etaSeconds,
+    String message,
+    Instant startedAt,
+    Instant timestamp
+) {
+
+    public String key() {
+        return runType + ":" + runId;
+    }
+
+    public boolean isFinished() {
+        return status != CollectorStatus.RUNNING;
+    }
+}
@@ -0,0 +1,108 @@
+package org.big.bigcollector.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.enums.CollectorStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory fan-out of {@link ProgressEvent}s. Publishing never blocks: each subscriber owns a bounded
+ * queue and the oldest event is dropped when a slow client falls behind. The latest event per run is
+ * retained so new subscribers can render current state without waiting for the next update.
+ */
+@Component
+@Slf4j
+public class ProgressEventBus {
+
+    static final int SUBSCRIBER_BUFFER = 256;
+    static final int MAX_RETAINED_RUNS = 50;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, ProgressEvent> latest = new LinkedHashMap<>();
+
+    public ProgressTracker startRun(String runType, String runId, Integer itemsTotal) {
+        ProgressTracker tracker = new ProgressTracker(this, runType, runId, itemsTotal);
+        publish(tracker.snapshot(CollectorStatus.RUNNING));
+        return tracker;
+    }
+
+    public void publish(ProgressEvent event) {
+        synchronized (latest) {
+            latest.remove(event.key());
+            latest.put(event.key(), event);
+            if (latest.size() > MAX_RETAINED_RUNS) {
+                latest.entrySet().stream()
+                        .filter(entry -> entry.getValue().isFinished())
+                        .findFirst()
+                        .ifPresent(entry -> latest.remove(entry.getKey()));
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public List<ProgressEvent> latest() {
+        synchronized (latest) {
+            return new ArrayList<>(latest.values());
+        }
+    }
+
+    public Subscription subscribe(Predicate<ProgressEvent> filter) {
+        Subscription subscription = new Subscription(filter, SUBSCRIBER_BUFFER);
+        subscriptions.add(subscription);
+        latest().stream().filter(filter).forEach(subscription::offer);
+        return subscription;
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final Predicate<ProgressEvent> filter;
+        private final BlockingQueue<ProgressEvent> queue;
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Subscription(Predicate<ProgressEvent> filter, int capacity) {
+            this.filter = filter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(ProgressEvent event) {
+            if (!filter.test(event)) return;
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+
+        public ProgressEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        public long dropped() {
+            return dropped.get();
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            if (dropped.get() > 0) {
+                log.debug("Progress subscriber closed after dropping {} events", dropped.get());
+            }
+        }
+    }
+}
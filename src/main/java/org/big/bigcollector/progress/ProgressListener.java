@@ -0,0 +1,18 @@
+package org.big.bigcollector.progress;
+
+/**
+ * Callbacks a long-running loop uses to report how far it has got. Implementations must be cheap and
+ * thread-safe; {@link #NONE} is used when nobody is listening.
+ */
+public interface ProgressListener {
+
+    ProgressListener NONE = new ProgressListener() {};
+
+    default void target(String target) {}
+
+    default void pageFetched() {}
+
+    default void itemProcessed() {}
+
+    default void error(String message) {}
+}
@@ -0,0 +1,67 @@
+package org.big.bigcollector.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bridges {@link ProgressEventBus} subscriptions to Server-Sent Events. Each client gets its own virtual
+ * thread that drains the subscription queue, so a slow client only ever delays itself.
+ */
+@Service
+@Slf4j
+public class ProgressStreamService {
+
+    private static final Duration STREAM_TIMEOUT = Duration.ofHours(1);
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final ProgressEventBus progressEventBus;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProgressStreamService(ProgressEventBus progressEventBus) {
+        this.progressEventBus = progressEventBus;
+    }
+
+    public SseEmitter stream(String runType, String runId) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+        ProgressEventBus.Subscription subscription = progressEventBus.subscribe(event ->
+                (runType == null || runType.equals(event.runType()))
+                        && (runId == null || runId.equals(event.runId())));
+
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        executor.submit(() -> pump(emitter, subscription, open));
+        return emitter;
+    }
+
+    private void pump(SseEmitter emitter, ProgressEventBus.Subscription subscription, AtomicBoolean open) {
+        try (subscription) {
+            while (open.get()) {
+                ProgressEvent event = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                    continue;
+                }
+                emitter.send(SseEmitter.event()
+                        .name(event.runType())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Progress stream closed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.big.bigcollector.progress;
+
+import org.big.bigcollector.entity.enums.CollectorStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates counters for one run and publishes {@link ProgressEvent}s to the bus. Page and item updates
+ * are throttled to one event per {@link #MIN_EMIT_INTERVAL_MS}; target changes, errors and the terminal
+ * event are always published.
+ */
+public class ProgressTracker implements ProgressListener {
+
+    static final long MIN_EMIT_INTERVAL_MS = 500;
+
+    private final ProgressEventBus bus;
+    private final String runType;
+    private final String runId;
+    private final Instant startedAt = Instant.now();
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger itemsProcessed = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicLong lastEmitNanos = new AtomicLong();
+    private volatile Integer itemsTotal;
+    private volatile String currentTarget;
+    private volatile String lastMessage;
+
+    ProgressTracker(ProgressEventBus bus, String runType, String runId, Integer itemsTotal) {
+        this.bus = bus;
+        this.runType = runType;
+        this.runId = runId;
+        this.itemsTotal = itemsTotal;
+    }
+
+    public void total(int itemsTotal) {
+        this.itemsTotal = itemsTotal;
+        publish(CollectorStatus.RUNNING);
+    }
+
+    @Override
+    public void target(String target) {
+        this.currentTarget = target;
+        publish(CollectorStatus.RUNNING);
+    }
+
+    @Override
+    public void pageFetched() {
+        pagesFetched.incrementAndGet();
+        publishThrottled();
+    }
+
+    @Override
+    public void itemProcessed() {
+        itemsProcessed.incrementAndGet();
+        publishThrottled();
+    }
+
+    @Override
+    public void error(String message) {
+        errors.incrementAndGet();
+        this.lastMessage = message;
+        publish(CollectorStatus.RUNNING);
+    }
+
+    public void finish(CollectorStatus status, String message) {
+        this.lastMessage = message;
+        publish(status);
+    }
+
+    public ProgressEvent current() {
+        return snapshot(CollectorStatus.RUNNING);
+    }
+
+    ProgressEvent snapshot(CollectorStatus status) {
+        Instant now = Instant.now();
+        int items = itemsProcessed.get();
+        double elapsedSeconds = Math.max(Duration.between(startedAt, now).toMillis(), 1) / 1000.0;
+        double rate = items / elapsedSeconds;
+        Integer total = itemsTotal;
+        Long eta = null;
+        if (status == CollectorStatus.RUNNING && total != null && rate > 0) {
+            eta = (long) Math.ceil(Math.max(total - items, 0) / rate);
+        }
+
+        return ProgressEvent.builder()
+                .runType(runType)
+                .runId(runId)
+                .status(status)
+                .currentTarget(currentTarget)
+                .pagesFetched(pagesFetched.get())
+                .itemsProcessed(items)
+                .itemsTotal(total)
+                .errors(errors.get())
+                .itemsPerSecond(Math.round(rate * 100) / 100.0)
+                .etaSeconds(eta)
+                .message(lastMessage)
+                .startedAt(startedAt)
+                .timestamp(now)
+                .build();
+    }
+
+    private void publishThrottled() {
+        long now = System.nanoTime();
+        long last = lastEmitNanos.get();
+        if (now - last < MIN_EMIT_INTERVAL_MS * 1_000_000 || !lastEmitNanos.compareAndSet(last, now)) {
+            return;
+        }
+        bus.publish(snapshot(CollectorStatus.RUNNING));
+    }
+
+    private void publish(CollectorStatus status) {
+        lastEmitNanos.set(System.nanoTime());
+        bus.publish(snapshot(status));
+    }
+}
@@ -0,0 +1,47 @@
+package org.big.bigcollector.repository;
+
+import org.big.bigcollector.entity.CollectorLease;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CollectorLeaseRepository extends JpaRepository<CollectorLease, SourceType> {
+
+    /**
+     * Inserts the lease row or takes it over if the current holder's lease has expired.
+     * Returns 1 when {@code owner} now holds the lease, 0 when another live owner has it.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO collector_lease (source_type, owner, acquired_at, expires_at)
+            VALUES (:sourceType, :owner, :now, :expiresAt)
+            ON CONFLICT (source_type) DO UPDATE
+               SET owner = EXCLUDED.owner, acquired_at = EXCLUDED.acquired_at, expires_at = EXCLUDED.expires_at
+             WHERE collector_lease.expires_at < :now
+            """, nativeQuery = true)
+    int tryAcquire(@Param("sourceType") String sourceType,
+                   @Param("owner") String owner,
+                   @Param("now") Instant now,
+                   @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE CollectorLease l SET l.expiresAt = :expiresAt
+             WHERE l.sourceType = :sourceType AND l.owner = :owner AND l.expiresAt >= :now
+            """)
+    int renew(@Param("sourceType") SourceType sourceType,
+              @Param("owner") String owner,
+              @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM CollectorLease l WHERE l.sourceType = :sourceType AND l.owner = :owner")
+    int release(@Param("sourceType") SourceType sourceType, @Param("owner") String owner);
+
+    List<CollectorLease> findByExpiresAtAfter(Instant now);
+}
@@ -0,0 +1,33 @@
+package org.big.bigcollector.repository;
+
+import org.big.bigcollector.entity.CollectorMarker;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface CollectorMarkerRepository extends JpaRepository<CollectorMarker, Long> {
+
+    boolean existsBySourceTypeAndMarkerKey(SourceType sourceType, String markerKey);
+
+    /** Sets the marker; a no-op when it is already set. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO collector_marker (source_type, marker_key, created_at)
+            VALUES (:sourceType, :markerKey, :now)
+            ON CONFLICT (source_type, marker_key) DO NOTHING
+            """, nativeQuery = true)
+    int mark(@Param("sourceType") String sourceType,
+             @Param("markerKey") String markerKey,
+             @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CollectorMarker m WHERE m.sourceType = :sourceType AND m.markerKey = :markerKey")
+    int clear(@Param("sourceType") SourceType sourceType, @Param("markerKey") String markerKey);
+}
@@ -1,14 +1,145 @@
 package org.big.bigcollector.repository;
 
+import jakarta.persistence.LockModeType;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CollectorSignalRepository extends JpaRepository<CollectorSignal, Long> {
 
     List<CollectorSignal> findByProcessedFalseOrderByCreatedAtAsc();
 
     boolean existsBySourceTypeAndSourceId(SourceType sourceType, String sourceId);
+
+    List<CollectorSignal> findBySourceTypeOrderByCreatedAtDesc(SourceType sourceType, Pageable pageable);
+
+    /**
+     * Processed, not dead-lettered signals created since {@code since} that share at least one fingerprint
+     * band with {@code bands}, from any source, oldest first. Only signals with a recorded outcome qualify:
+     * a problem, or a {@code no_problem} flag; signals processed before outcomes were recorded have neither.
+     * Each band is an indexed equality, so the lookup never scans the window; callers confirm the Hamming
+     * distance on the returned fingerprints.
+     */
+    @Query(value = """
+            SELECT cs.id AS id, cs.fingerprint AS fingerprint FROM collector_signal cs
+            WHERE (cs.fingerprint_band0 = :#{#bands[0]}
+                   OR cs.fingerprint_band1 = :#{#bands[1]}
+                   OR cs.fingerprint_band2 = :#{#bands[2]}
+                   OR cs.fingerprint_band3 = :#{#bands[3]}
+                   OR cs.fingerprint_band4 = :#{#bands[4]}
+                   OR cs.fingerprint_band5 = :#{#bands[5]}
+                   OR cs.fingerprint_band6 = :#{#bands[6]})
+            AND cs.id <> :id
+            AND cs.processed = true
+            AND cs.dead_lettered_at IS NULL
+            AND (cs.problem_vault_id IS NOT NULL OR cs.no_problem = true)
+            AND cs.created_at >= :since
+            ORDER BY cs.created_at ASC
+            """, nativeQuery = true)
+    List<FingerprintCandidate> findNearDuplicateCandidates(@Param("id") Long id,
+                                                           @Param("bands") int[] bands,
+                                                           @Param("since") Instant since);
+
+    /**
+     * Row-locks up to {@code limit} unprocessed signals that are unleased or whose lease has expired,
+     * skipping failed signals still waiting out their retry backoff.
+     * SKIP LOCKED lets concurrent workers pick disjoint rows without waiting on each other.
+     * Must run inside a transaction; the locks are held until it commits.
+     */
+    @Query(value = """
+            SELECT cs.id FROM collector_signal cs
+            WHERE cs.processed = false
+            AND (cs.lease_expires_at IS NULL OR cs.lease_expires_at < :now)
+            AND (cs.next_attempt_at IS NULL OR cs.next_attempt_at <= :now)
+            ORDER BY cs.created_at ASC
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockClaimableIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT cs.id FROM collector_signal cs
+            WHERE cs.processed = false
+            AND cs.source_type = :sourceType
+            AND (cs.lease_expires_at IS NULL OR cs.lease_expires_at < :now)
+            AND (cs.next_attempt_at IS NULL OR cs.next_attempt_at <= :now)
+            ORDER BY cs.created_at ASC
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockClaimableIdsBySourceType(@Param("sourceType") String sourceType,
+                                            @Param("now") Instant now,
+                                            @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CollectorSignal s SET s.leaseOwner = :owner, s.leaseExpiresAt = :expiresAt WHERE s.id IN :ids")
+    int assignLease(@Param("ids") Collection<Long> ids,
+                    @Param("owner") String owner,
+                    @Param("expiresAt") Instant expiresAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE CollectorSignal s SET s.leaseOwner = null, s.leaseExpiresAt = null
+            WHERE s.id IN :ids AND s.leaseOwner = :owner AND s.processed = false
+            """)
+    int releaseLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE CollectorSignal s SET s.leaseExpiresAt = :expiresAt
+            WHERE s.id IN :ids AND s.leaseOwner = :owner AND s.processed = false
+            """)
+    int renewLease(@Param("ids") Collection<Long> ids,
+                   @Param("owner") String owner,
+                   @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Row-locks the signal if it is still unprocessed and leased to {@code owner}, expired or not.
+     * Claims skip locked rows, so no other worker can take it over until the caller's transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CollectorSignal s WHERE s.id = :id AND s.leaseOwner = :owner AND s.processed = false")
+    Optional<CollectorSignal> lockIfLeasedTo(@Param("id") Long id, @Param("owner") String owner);
+
+    @Query("""
+            SELECT count(s) FROM CollectorSignal s
+            WHERE s.processed = false
+            AND (:sourceType IS NULL OR s.sourceType = :sourceType)
+            AND (s.leaseExpiresAt IS NULL OR s.leaseExpiresAt < :now)
+            AND (s.nextAttemptAt IS NULL OR s.nextAttemptAt <= :now)
+            """)
+    long countClaimable(@Param("sourceType") SourceType sourceType, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE CollectorSignal s
+               SET s.processed = false, s.processedAt = null, s.deadLetteredAt = null,
+                   s.attempts = 0, s.nextAttemptAt = null, s.error = null
+            WHERE s.deadLetteredAt IS NOT NULL
+            AND (:sourceType IS NULL OR s.sourceType = :sourceType)
+            """)
+    int requeueDeadLettered(@Param("sourceType") SourceType sourceType);
+
+    @Query("""
+            SELECT count(s) FROM CollectorSignal s
+            WHERE s.deadLetteredAt IS NOT NULL
+            AND (:sourceType IS NULL OR s.sourceType = :sourceType)
+            """)
+    long countDeadLettered(@Param("sourceType") SourceType sourceType);
+
+    interface FingerprintCandidate {
+        Long getId();
+
+        Long getFingerprint();
+    }
 }
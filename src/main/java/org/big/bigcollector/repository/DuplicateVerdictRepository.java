@@ -0,0 +1,37 @@
+package org.big.bigcollector.repository;
+
+import org.big.bigcollector.entity.DuplicateVerdict;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface DuplicateVerdictRepository extends JpaRepository<DuplicateVerdict, Long> {
+
+    Optional<DuplicateVerdict> findByVaultEntryIdAndCandidateHashAndModel(Long vaultEntryId,
+                                                                         String candidateHash,
+                                                                         String model);
+
+    /**
+     * Records a verdict unless one already exists for the same key (e.g. written concurrently by another
+     * worker). Runs in its own transaction so the paid-for answer survives a rollback of the signal that
+     * asked for it. Returns 1 when inserted, 0 when the key was already present.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = """
+            INSERT INTO duplicate_verdict (vault_entry_id, candidate_hash, duplicate, model, decided_at)
+            VALUES (:vaultEntryId, :candidateHash, :duplicate, :model, :decidedAt)
+            ON CONFLICT (vault_entry_id, candidate_hash, model) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("vaultEntryId") Long vaultEntryId,
+                       @Param("candidateHash") String candidateHash,
+                       @Param("duplicate") boolean duplicate,
+                       @Param("model") String model,
+                       @Param("decidedAt") Instant decidedAt);
+}
@@ -0,0 +1,11 @@
+package org.big.bigcollector.repository;
+
+import org.big.bigcollector.entity.HttpCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface HttpCacheEntryRepository extends JpaRepository<HttpCacheEntry, Long> {
+
+    Optional<HttpCacheEntry> findByCacheKey(String cacheKey);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProblemVaultEntryRepository extends JpaRepository<ProblemVaultEntry, Long> {
@@ -26,10 +27,17 @@ public interface ProblemVaultEntryRepository extends JpaRepository<ProblemVaultE
             @Param("maxDistance") double maxDistance,
             @Param("limit") int limit);
 
+    /** Cosine distances from {@code embedding} to the given entries; entries without an embedding are left out. */
     @Query(value = """
-            SELECT (pv.embedding <=> cast(:embedding as vector)) as distance
+            SELECT pv.id AS id, (pv.embedding <=> cast(:embedding as vector)) AS distance
             FROM problem_vault pv
-            WHERE pv.id = :id AND pv.embedding IS NOT NULL
+            WHERE pv.id IN (:ids) AND pv.embedding IS NOT NULL
             """, nativeQuery = true)
-    Double getDistanceTo(@Param("id") Long id, @Param("embedding") String embedding);
+    List<EntryDistance> getDistancesTo(@Param("ids") Collection<Long> ids, @Param("embedding") String embedding);
+
+    interface EntryDistance {
+        Long getId();
+
+        Double getDistance();
+    }
 }
@@ -0,0 +1,83 @@
+package org.big.bigcollector.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.config.InstanceIdentity;
+import org.big.bigcollector.entity.CollectorLease;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Per-source mutual exclusion across instances, backed by the {@code collector_lease} table.
+ * Holders must {@link #renew} before the lease duration elapses; a lapsed lease is taken over
+ * by the next {@link #tryAcquire}. Each acquisition gets its own token, recorded as the lease owner,
+ * so a finished run can only renew or release its own lease and never a later run's, even on the
+ * same instance.
+ */
+@Service
+@Slf4j
+public class CollectorLockService {
+
+    private final CollectorLeaseRepository leaseRepository;
+    private final String owner;
+    private final Duration leaseDuration;
+
+    public CollectorLockService(CollectorLeaseRepository leaseRepository,
+                                InstanceIdentity instanceIdentity,
+                                @Value("${collector.lease.duration:PT2M}") Duration leaseDuration) {
+        this.leaseRepository = leaseRepository;
+        this.owner = instanceIdentity.getId();
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * Takes the lease for {@code sourceType}. Returns the token to renew and release it with, or empty
+     * when another live holder has it.
+     */
+    @Transactional
+    public Optional<String> tryAcquire(SourceType sourceType) {
+        Instant now = Instant.now();
+        String token = owner + "/" + UUID.randomUUID().toString().substring(0, 8);
+        boolean acquired = leaseRepository.tryAcquire(sourceType.name(), token, now, now.plus(leaseDuration)) > 0;
+        log.debug("Instance {} {} collector lease for {}", owner, acquired ? "acquired" : "was denied", sourceType);
+        return acquired ? Optional.of(token) : Optional.empty();
+    }
+
+    /**
+     * Extends the lease acquired with {@code token}. Returns false if the lease had already lapsed
+     * (and may now belong to someone else), in which case the caller must stop its run.
+     */
+    @Transactional
+    public boolean renew(SourceType sourceType, String token) {
+        Instant now = Instant.now();
+        return leaseRepository.renew(sourceType, token, now, now.plus(leaseDuration)) > 0;
+    }
+
+    /** Releases the lease acquired with {@code token}; a no-op once someone else has taken it over. */
+    @Transactional
+    public void release(SourceType sourceType, String token) {
+        leaseRepository.release(sourceType, token);
+    }
+
+    /**
+     * Source types with an unexpired lease held by any instance.
+     */
+    public Set<SourceType> findLocked() {
+        return leaseRepository.findByExpiresAtAfter(Instant.now()).stream()
+                .map(CollectorLease::getSourceType)
+                .collect(Collectors.toSet());
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
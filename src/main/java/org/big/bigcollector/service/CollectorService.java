@@ -1,15 +1,20 @@
 package org.big.bigcollector.service;
 
-import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.collector.BackfillCollector;
 import org.big.bigcollector.collector.CollectionResult;
 import org.big.bigcollector.collector.SourceCollector;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorRunLog;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.big.bigcollector.progress.ProgressListener;
+import org.big.bigcollector.progress.ProgressTracker;
 import org.big.bigcollector.repository.CollectorConfigRepository;
 import org.big.bigcollector.repository.CollectorRunLogRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -17,10 +22,12 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -31,26 +38,65 @@ public class CollectorService {
     private final CollectorConfigRepository configRepository;
     private final CollectorRunLogRepository runLogRepository;
     private final Map<SourceType, SourceCollector> collectors;
-    private final ConcurrentHashMap<SourceType, Future<?>> runningCollections = new ConcurrentHashMap<>();
+    private final CollectorMetrics collectorMetrics;
+    private final ProgressEventBus progressEventBus;
+    private final CollectorLockService lockService;
+    private final ConcurrentHashMap<SourceType, Run> runningCollections = new ConcurrentHashMap<>();
     private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
+    /**
+     * A collection started on this instance, with the token of the lease it holds. Once stopped or
+     * past its lease the run writes nothing more: its source may already be running again.
+     */
+    private static final class Run {
+        final String leaseToken;
+        volatile Future<?> future;
+        volatile boolean abandoned;
+
+        Run(String leaseToken) {
+            this.leaseToken = leaseToken;
+        }
+    }
+
     public CollectorService(CollectorConfigRepository configRepository,
                             CollectorRunLogRepository runLogRepository,
-                            List<SourceCollector> collectorList) {
+                            List<SourceCollector> collectorList,
+                            CollectorMetrics collectorMetrics,
+                            ProgressEventBus progressEventBus,
+                            CollectorLockService lockService) {
         this.configRepository = configRepository;
         this.runLogRepository = runLogRepository;
+        this.collectorMetrics = collectorMetrics;
+        this.progressEventBus = progressEventBus;
+        this.lockService = lockService;
         this.collectors = collectorList.stream()
                 .collect(Collectors.toMap(SourceCollector::getSourceType, Function.identity()));
     }
 
-    @PostConstruct
-    public void resetStaleRunningStatuses() {
-        List<CollectorConfig> configs = configRepository.findAll();
-        for (CollectorConfig config : configs) {
-            if (config.getStatus() == CollectorStatus.RUNNING) {
+    /**
+     * Renews the leases of collections running on this instance, stops any whose lease was lost,
+     * and resets configs left RUNNING by an instance whose lease has since expired.
+     */
+    @Scheduled(fixedDelayString = "${collector.lease.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        runningCollections.forEach((sourceType, run) -> {
+            if (run.future != null && !run.future.isDone() && !lockService.renew(sourceType, run.leaseToken)) {
+                log.warn("Lost collector lease for {}; stopping local run", sourceType);
+                run.abandoned = true;
+                run.future.cancel(true);
+                runningCollections.remove(sourceType, run);
+            }
+        });
+        resetStaleRunningStatuses();
+    }
+
+    void resetStaleRunningStatuses() {
+        Set<SourceType> locked = lockService.findLocked();
+        for (CollectorConfig config : configRepository.findAll()) {
+            if (config.getStatus() == CollectorStatus.RUNNING && !locked.contains(config.getSourceType())) {
                 log.warn("Resetting stale RUNNING status to IDLE for source: {}", config.getSourceType());
                 config.setStatus(CollectorStatus.IDLE);
-                config.setLastError("Reset on startup — previous run did not complete");
+                config.setLastError("Reset — previous run's lease expired before it completed");
                 configRepository.save(config);
             }
         }
@@ -61,42 +107,82 @@ public class CollectorService {
         if (collector == null) {
             return null;
         }
+        return start(sourceType, "Collection", collector::collect);
+    }
 
-        Optional<CollectorConfig> configOpt = configRepository.findBySourceType(sourceType);
-        if (configOpt.isEmpty()) {
+    /**
+     * Starts a history backfill for {@code [from, to)}. It holds the same per-source lease as a regular
+     * collection, so the two never overlap.
+     */
+    public Map<String, Object> startBackfill(SourceType sourceType, Instant from, Instant to) {
+        SourceCollector collector = collectors.get(sourceType);
+        if (collector == null) {
             return null;
         }
+        if (!(collector instanceof BackfillCollector backfiller)) {
+            return Map.of(
+                "error", "Backfill is not supported for " + sourceType,
+                "sourceType", sourceType.name()
+            );
+        }
+        if (!from.isBefore(to)) {
+            return Map.of(
+                "error", "Backfill range is empty: from must be before to",
+                "sourceType", sourceType.name()
+            );
+        }
+        return start(sourceType, "Backfill", (config, progress) -> backfiller.backfill(config, from, to, progress));
+    }
 
-        CollectorConfig config = configOpt.get();
-        if (config.getStatus() == CollectorStatus.RUNNING) {
+    private Map<String, Object> start(SourceType sourceType, String label,
+                                      BiFunction<CollectorConfig, ProgressListener, CollectionResult> job) {
+        if (configRepository.findBySourceType(sourceType).isEmpty()) {
+            return null;
+        }
+
+        Optional<String> leaseToken = lockService.tryAcquire(sourceType);
+        if (leaseToken.isEmpty()) {
             return Map.of(
                 "error", "Collection already running for " + sourceType,
                 "sourceType", sourceType.name()
             );
         }
 
+        // Re-read under the lease so we start from the previous holder's final state
+        CollectorConfig config = configRepository.findBySourceType(sourceType).orElseThrow();
         config.setStatus(CollectorStatus.RUNNING);
         config.setLastError(null);
         configRepository.save(config);
 
-        Future<?> future = executor.submit(() -> runCollection(collector, config));
-        runningCollections.put(sourceType, future);
+        Run run = new Run(leaseToken.get());
+        runningCollections.put(sourceType, run);
+        try {
+            run.future = executor.submit(() -> runCollection(config, job, run));
+        } catch (RuntimeException e) {
+            runningCollections.remove(sourceType, run);
+            lockService.release(sourceType, run.leaseToken);
+            throw e;
+        }
 
         return Map.of(
-            "message", "Collection started for " + sourceType,
+            "message", label + " started for " + sourceType,
             "sourceType", sourceType.name(),
             "status", CollectorStatus.RUNNING.name()
         );
     }
 
+    /**
+     * Interrupts the local run of {@code sourceType}. Its lease stays held until the run has actually
+     * exited and released it, so the source cannot start again, here or elsewhere, while it winds down.
+     */
     public Map<String, Object> stopCollection(SourceType sourceType) {
-        Future<?> future = runningCollections.get(sourceType);
-        if (future == null || future.isDone()) {
+        Run run = runningCollections.get(sourceType);
+        if (run == null || run.future == null || run.future.isDone()) {
             return null;
         }
 
-        future.cancel(true);
-        runningCollections.remove(sourceType);
+        run.abandoned = true;
+        run.future.cancel(true);
 
         configRepository.findBySourceType(sourceType).ifPresent(config -> {
             config.setStatus(CollectorStatus.IDLE);
@@ -121,10 +207,21 @@ public class CollectorService {
                 .map(this::toStatusMap);
     }
 
-    private void runCollection(SourceCollector collector, CollectorConfig config) {
+    private void runCollection(CollectorConfig config,
+                               BiFunction<CollectorConfig, ProgressListener, CollectionResult> job, Run run) {
         Instant startedAt = Instant.now();
+        ProgressTracker progress = progressEventBus.startRun(
+                "collection", config.getSourceType().name(), config.getMaxItems());
         try {
-            CollectionResult result = collector.collect(config);
+            CollectionResult result = job.apply(config, progress);
+            collectorMetrics.recordRun(result);
+            progress.finish(result.status(), result.error() != null ? result.error()
+                    : "%d collected, %d duplicates, %d filtered".formatted(
+                            result.itemsCollected(), result.duplicatesSkipped(), result.itemsFiltered()));
+            if (run.abandoned) {
+                log.info("Collection for {} was stopped; its result is not recorded", config.getSourceType());
+                return;
+            }
 
             config.setStatus(result.status());
             config.setLastRunAt(Instant.now());
@@ -148,6 +245,10 @@ public class CollectorService {
 
         } catch (Exception e) {
             log.error("Collection failed for {}: {}", config.getSourceType(), e.getMessage(), e);
+            progress.finish(CollectorStatus.FAILED, e.getMessage());
+            if (run.abandoned) {
+                return;
+            }
             config.setStatus(CollectorStatus.FAILED);
             config.setLastRunAt(Instant.now());
             config.setLastError(e.getMessage());
@@ -163,7 +264,8 @@ public class CollectorService {
                     .build();
             runLogRepository.save(runLog);
         } finally {
-            runningCollections.remove(config.getSourceType());
+            runningCollections.remove(config.getSourceType(), run);
+            lockService.release(config.getSourceType(), run.leaseToken);
         }
     }
 
@@ -6,6 +6,7 @@ import com.openai.models.embeddings.CreateEmbeddingResponse;
 import com.openai.models.embeddings.EmbeddingCreateParams;
 import lombok.extern.slf4j.Slf4j;
 import org.big.bigcollector.config.OpenAiConfig;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,10 +19,12 @@ public class EmbeddingService {
 
     private final OpenAIClient openAIClient;
     private final OpenAiConfig openAiConfig;
+    private final LlmMetrics llmMetrics;
 
-    public EmbeddingService(OpenAIClient openAIClient, OpenAiConfig openAiConfig) {
+    public EmbeddingService(OpenAIClient openAIClient, OpenAiConfig openAiConfig, LlmMetrics llmMetrics) {
         this.openAIClient = openAIClient;
         this.openAiConfig = openAiConfig;
+        this.llmMetrics = llmMetrics;
     }
 
     public float[] generateEmbedding(String title, String description) {
@@ -36,25 +39,25 @@ public class EmbeddingService {
             text = text.substring(0, 8000);
         }
 
-        try {
-            EmbeddingCreateParams params = EmbeddingCreateParams.builder()
-                    .model(MODEL)
-                    .input(text)
-                    .build();
+        // API failures propagate so the pipeline retries the signal instead of storing an entry without an embedding
+        EmbeddingCreateParams params = EmbeddingCreateParams.builder()
+                .model(MODEL)
+                .input(text)
+                .build();
 
-            CreateEmbeddingResponse response = openAIClient.embeddings().create(params);
-
-            List<Float> embeddingList = response.data().getFirst().embedding();
-            float[] embedding = new float[embeddingList.size()];
-            for (int i = 0; i < embeddingList.size(); i++) {
-                embedding[i] = embeddingList.get(i);
-            }
+        CreateEmbeddingResponse response = llmMetrics.timeCall("embed", MODEL.asString(),
+                () -> openAIClient.embeddings().create(params));
+        if (response.usage() != null) {
+            llmMetrics.recordTokens("embed", MODEL.asString(), response.usage().promptTokens(), 0);
+        }
 
-            log.debug("Generated embedding with {} dimensions", embedding.length);
-            return embedding;
-        } catch (Exception e) {
-            log.error("Failed to generate embedding: {}", e.getMessage());
-            return null;
+        List<Float> embeddingList = response.data().getFirst().embedding();
+        float[] embedding = new float[embeddingList.size()];
+        for (int i = 0; i < embeddingList.size(); i++) {
+            embedding[i] = embeddingList.get(i);
         }
+
+        log.debug("Generated embedding with {} dimensions", embedding.length);
+        return embedding;
     }
 }
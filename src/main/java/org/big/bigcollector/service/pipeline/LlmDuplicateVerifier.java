@@ -1,13 +1,35 @@
 package org.big.bigcollector.service.pipeline;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openai.client.OpenAIClient;
 import com.openai.models.ChatModel;
+import com.openai.models.ResponseFormatJsonObject;
 import com.openai.models.chat.completions.ChatCompletion;
 import com.openai.models.chat.completions.ChatCompletionCreateParams;
 import lombok.extern.slf4j.Slf4j;
 import org.big.bigcollector.config.OpenAiConfig;
+import org.big.bigcollector.entity.DuplicateVerdict;
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.metrics.LlmMetrics;
+import org.big.bigcollector.repository.DuplicateVerdictRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
 @Service
 @Slf4j
 public class LlmDuplicateVerifier {
@@ -21,18 +43,138 @@ public class LlmDuplicateVerifier {
             Respond with ONLY one word: "DUPLICATE" or "DIFFERENT"
             """;
 
+    private static final String BATCH_SYSTEM_PROMPT = """
+            You are a deduplication expert. You will be given numbered pairs of business problems. For each \
+            pair, determine if the two describe the SAME core problem (even if worded differently) or if they \
+            are genuinely DIFFERENT problems.
+
+            Respond with JSON only: {"verdicts": [{"pair": 1, "duplicate": true}, ...]} with one entry per pair.
+            """;
+
+    /**
+     * Completion budget of a batch request. A verdict entry is ~12 tokens compact and ~25 pretty-printed;
+     * unused budget costs nothing, a cut-off answer costs a request per pair.
+     */
+    private static final long BATCH_BASE_TOKENS = 50;
+    private static final long BATCH_TOKENS_PER_PAIR = 40;
+
     private final OpenAIClient openAIClient;
     private final OpenAiConfig openAiConfig;
+    private final LlmMetrics llmMetrics;
+    private final DuplicateVerdictRepository verdictRepository;
+    private final ObjectMapper objectMapper;
+    private final MicroBatcher<Pair, Optional<Boolean>> batcher;
 
-    public LlmDuplicateVerifier(OpenAIClient openAIClient, OpenAiConfig openAiConfig) {
+    public LlmDuplicateVerifier(OpenAIClient openAIClient, OpenAiConfig openAiConfig, LlmMetrics llmMetrics,
+                                DuplicateVerdictRepository verdictRepository, ObjectMapper objectMapper,
+                                @Value("${pipeline.dedup.verify-batch-size:10}") int batchSize,
+                                @Value("${pipeline.dedup.verify-batch-linger:PT0.05S}") Duration batchLinger) {
         this.openAIClient = openAIClient;
         this.openAiConfig = openAiConfig;
+        this.llmMetrics = llmMetrics;
+        this.verdictRepository = verdictRepository;
+        this.objectMapper = objectMapper;
+        this.batcher = batchSize > 1 ? new MicroBatcher<>(batchSize, batchLinger, this::verifyAll) : null;
+    }
+
+    /** A candidate problem to check against an existing vault entry. */
+    public record Pair(String candidateTitle, String candidateDescription, ProblemVaultEntry existing) {
     }
 
-    public boolean isDuplicate(String title1, String desc1, String title2, String desc2) {
+    /**
+     * Whether the candidate problem is the same as an existing vault entry. A verdict stored for the same
+     * entry, candidate text and model is reused; otherwise the model is asked and its answer stored.
+     * Failed calls (and an unconfigured client) count as "not duplicate" and are not stored, so they are
+     * retried next time.
+     */
+    public boolean isDuplicate(String candidateTitle, String candidateDescription, ProblemVaultEntry existing) {
+        return areDuplicates(List.of(new Pair(candidateTitle, candidateDescription, existing))).getFirst();
+    }
+
+    /**
+     * Batch form of {@link #isDuplicate(String, String, ProblemVaultEntry)}. Pairs without a stored verdict,
+     * together with those of concurrent callers (pipeline workers hitting borderline matches at the same
+     * time), are sent up to {@code pipeline.dedup.verify-batch-size} per request. Results are in input order.
+     */
+    public List<Boolean> areDuplicates(List<Pair> pairs) {
+        Boolean[] results = new Boolean[pairs.size()];
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            Optional<Boolean> cached = cachedVerdict(pairs.get(i));
+            if (cached.isPresent()) {
+                results[i] = cached.get();
+            } else {
+                misses.add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<Pair> uncached = misses.stream().map(pairs::get).toList();
+        List<Optional<Boolean>> verdicts = batcher != null
+                ? batcher.submitAll(uncached)
+                : uncached.stream().map(this::verify).toList();
+        for (int j = 0; j < uncached.size(); j++) {
+            Pair pair = uncached.get(j);
+            verdicts.get(j).ifPresent(duplicate -> storeVerdict(pair, duplicate));
+            results[misses.get(j)] = verdicts.get(j).orElse(false);
+        }
+        return Arrays.asList(results);
+    }
+
+    private Optional<Boolean> cachedVerdict(Pair pair) {
+        Long entryId = pair.existing().getId();
+        if (entryId == null) {
+            return Optional.empty();
+        }
+        String hash = candidateHash(pair.candidateTitle(), pair.candidateDescription());
+        Optional<DuplicateVerdict> cached = verdictRepository
+                .findByVaultEntryIdAndCandidateHashAndModel(entryId, hash, MODEL.asString());
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        llmMetrics.recordCacheHit("dedup_verify", MODEL.asString());
+        log.debug("Cached dedup verdict: '{}' vs entry {} -> {}", pair.candidateTitle(), entryId,
+                cached.get().isDuplicate() ? "DUPLICATE" : "DIFFERENT");
+        return Optional.of(cached.get().isDuplicate());
+    }
+
+    private void storeVerdict(Pair pair, boolean duplicate) {
+        Long entryId = pair.existing().getId();
+        if (entryId == null) {
+            return;
+        }
+        try {
+            verdictRepository.insertIfAbsent(entryId, candidateHash(pair.candidateTitle(), pair.candidateDescription()),
+                    duplicate, MODEL.asString(), Instant.now());
+        } catch (Exception e) {
+            log.warn("Failed to store dedup verdict for entry {}: {}", entryId, e.getMessage());
+        }
+    }
+
+    /**
+     * SHA-256 of the lowercased, whitespace-collapsed title and description, so extractions differing
+     * only in case or spacing share a key.
+     */
+    static String candidateHash(String title, String description) {
+        String normalized = normalize(title) + "\n" + normalize(description);
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return Objects.toString(text, "").strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private Optional<Boolean> verify(Pair pair) {
         if (!openAiConfig.isConfigured()) {
             log.warn("OpenAI not configured, defaulting to NOT duplicate for borderline case");
-            return false;
+            return Optional.empty();
         }
 
         String userMessage = """
@@ -45,7 +187,8 @@ public class LlmDuplicateVerifier {
                 Description: %s
 
                 Are these the SAME problem or DIFFERENT problems?
-                """.formatted(title1, desc1, title2, desc2);
+                """.formatted(pair.candidateTitle(), pair.candidateDescription(),
+                pair.existing().getTitle(), pair.existing().getDescription());
 
         try {
             ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
@@ -55,7 +198,10 @@ public class LlmDuplicateVerifier {
                     .addUserMessage(userMessage)
                     .build();
 
-            ChatCompletion completion = openAIClient.chat().completions().create(params);
+            ChatCompletion completion = llmMetrics.timeCall("dedup_verify", MODEL.asString(),
+                    () -> openAIClient.chat().completions().create(params));
+            completion.usage().ifPresent(usage -> llmMetrics.recordTokens("dedup_verify", MODEL.asString(),
+                    usage.promptTokens(), usage.completionTokens()));
 
             String response = completion.choices().stream()
                     .findFirst()
@@ -63,11 +209,84 @@ public class LlmDuplicateVerifier {
                     .orElse("DIFFERENT");
 
             boolean result = response.trim().toUpperCase().contains("DUPLICATE");
-            log.debug("LLM dedup verification: '{}' vs '{}' -> {}", title1, title2, result ? "DUPLICATE" : "DIFFERENT");
-            return result;
+            log.debug("LLM dedup verification: '{}' vs '{}' -> {}", pair.candidateTitle(), pair.existing().getTitle(),
+                    result ? "DUPLICATE" : "DIFFERENT");
+            return Optional.of(result);
         } catch (Exception e) {
             log.error("LLM dedup verification failed: {}", e.getMessage());
-            return false;
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * One request for all pairs, answered as a JSON verdict array. If the model answers but a pair is missing
+     * from the answer (or the answer does not parse, e.g. cut off at the token limit), that pair is asked on
+     * its own. If the call itself fails, the whole batch gets no verdict.
+     */
+    private List<Optional<Boolean>> verifyAll(List<Pair> pairs) {
+        if (pairs.size() == 1) {
+            return List.of(verify(pairs.getFirst()));
+        }
+        List<Optional<Boolean>> verdicts = new ArrayList<>(Collections.nCopies(pairs.size(), Optional.empty()));
+        if (!openAiConfig.isConfigured()) {
+            log.warn("OpenAI not configured, defaulting to NOT duplicate for {} borderline cases", pairs.size());
+            return verdicts;
+        }
+
+        StringBuilder userMessage = new StringBuilder();
+        for (int i = 0; i < pairs.size(); i++) {
+            Pair pair = pairs.get(i);
+            userMessage.append("""
+                    Pair %d:
+                    Problem A:
+                    Title: %s
+                    Description: %s
+                    Problem B:
+                    Title: %s
+                    Description: %s
+
+                    """.formatted(i + 1, pair.candidateTitle(), pair.candidateDescription(),
+                    pair.existing().getTitle(), pair.existing().getDescription()));
+        }
+
+        boolean answered = false;
+        try {
+            ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
+                    .model(MODEL)
+                    .maxCompletionTokens(BATCH_BASE_TOKENS + BATCH_TOKENS_PER_PAIR * pairs.size())
+                    .responseFormat(ResponseFormatJsonObject.builder().build())
+                    .addSystemMessage(BATCH_SYSTEM_PROMPT)
+                    .addUserMessage(userMessage.toString())
+                    .build();
+
+            ChatCompletion completion = llmMetrics.timeCall("dedup_verify_batch", MODEL.asString(),
+                    () -> openAIClient.chat().completions().create(params));
+            completion.usage().ifPresent(usage -> llmMetrics.recordTokens("dedup_verify_batch", MODEL.asString(),
+                    usage.promptTokens(), usage.completionTokens()));
+            answered = true;
+
+            String response = completion.choices().stream()
+                    .findFirst()
+                    .flatMap(choice -> choice.message().content())
+                    .orElseThrow(() -> new IllegalStateException("Empty batch verification response"));
+
+            for (JsonNode verdict : objectMapper.readTree(response).path("verdicts")) {
+                int index = verdict.path("pair").asInt() - 1;
+                if (index >= 0 && index < pairs.size() && verdict.path("duplicate").isBoolean()) {
+                    verdicts.set(index, Optional.of(verdict.path("duplicate").booleanValue()));
+                }
+            }
+            log.debug("LLM batch dedup verification of {} pairs: {}", pairs.size(), verdicts);
+        } catch (Exception e) {
+            log.error("LLM batch dedup verification of {} pairs failed: {}", pairs.size(), e.getMessage());
+        }
+        if (answered) {
+            for (int i = 0; i < pairs.size(); i++) {
+                if (verdicts.get(i).isEmpty()) {
+                    verdicts.set(i, verify(pairs.get(i)));
+                }
+            }
         }
+        return verdicts;
     }
 }
@@ -11,6 +11,7 @@ import org.big.bigcollector.dto.pipeline.ExtractedProblem;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.LlmPrompt;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.big.bigcollector.repository.LlmPromptRepository;
 import org.springframework.stereotype.Service;
 
@@ -61,15 +62,18 @@ public class LlmProblemExtractor {
     private final OpenAiConfig openAiConfig;
     private final LlmPromptRepository promptRepository;
     private final ObjectMapper objectMapper;
+    private final LlmMetrics llmMetrics;
 
     public LlmProblemExtractor(OpenAIClient openAIClient,
                                 OpenAiConfig openAiConfig,
                                 LlmPromptRepository promptRepository,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                LlmMetrics llmMetrics) {
         this.openAIClient = openAIClient;
         this.openAiConfig = openAiConfig;
         this.promptRepository = promptRepository;
         this.objectMapper = objectMapper;
+        this.llmMetrics = llmMetrics;
     }
 
     public ExtractedProblem extract(CollectorSignal signal) {
@@ -81,13 +85,9 @@ public class LlmProblemExtractor {
         String systemPrompt = loadSystemPrompt(signal.getSourceType());
         String userMessage = "Source: " + signal.getSourceType().name() + "\n\nRaw text:\n" + signal.getRawText();
 
-        try {
-            String response = callOpenAi(systemPrompt, userMessage);
-            return parseResponse(response);
-        } catch (Exception e) {
-            log.error("Failed to extract problem from signal {}: {}", signal.getId(), e.getMessage());
-            return ExtractedProblem.builder().hasProblem(false).build();
-        }
+        // API failures propagate so the pipeline can retry the signal; only unparseable output means "no problem"
+        String response = callOpenAi(systemPrompt, userMessage);
+        return parseResponse(response);
     }
 
     String callOpenAi(String systemPrompt, String userMessage) {
@@ -98,7 +98,10 @@ public class LlmProblemExtractor {
                 .addUserMessage(userMessage)
                 .build();
 
-        ChatCompletion completion = openAIClient.chat().completions().create(params);
+        ChatCompletion completion = llmMetrics.timeCall("extract", MODEL.asString(),
+                () -> openAIClient.chat().completions().create(params));
+        completion.usage().ifPresent(usage -> llmMetrics.recordTokens("extract", MODEL.asString(),
+                usage.promptTokens(), usage.completionTokens()));
 
         return completion.choices().stream()
                 .findFirst()
@@ -126,7 +129,7 @@ public class LlmProblemExtractor {
         return basePrompt + hint;
     }
 
-    private String extractJson(String response) {
+    String extractJson(String response) {
         String trimmed = response.trim();
         if (trimmed.contains("```json")) {
             int start = trimmed.indexOf("```json") + 7;
@@ -0,0 +1,142 @@
+package org.big.bigcollector.service.pipeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent calls into batches. The first caller opens a batch and waits up to
+ * {@code linger} (or until {@code maxSize} items have joined) before running it on behalf of everyone;
+ * the others block until their result is in. A lone caller pays at most {@code linger} extra.
+ * Uses a {@link ReentrantLock} rather than monitors so waiting virtual threads do not pin their carrier.
+ */
+final class MicroBatcher<T, R> {
+
+    private final int maxSize;
+    private final long lingerNanos;
+    private final Function<List<T>, List<R>> flush;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sealed = lock.newCondition();
+    private Batch<T, R> open;
+
+    /**
+     * @param flush runs one batch and returns one result per item, in order; an exception fails every
+     *              caller in that batch
+     */
+    MicroBatcher(int maxSize, Duration linger, Function<List<T>, List<R>> flush) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.lingerNanos = linger.toNanos();
+        this.flush = flush;
+    }
+
+    R submit(T item) {
+        return submitAll(List.of(item)).getFirst();
+    }
+
+    /**
+     * Adds all items to the open batch, spilling into new batches as each fills, and returns their
+     * results in order. The caller leads (waits for and runs) every batch it opened.
+     */
+    List<R> submitAll(List<T> items) {
+        List<Batch<T, R>> batches = new ArrayList<>(items.size());
+        int[] indexes = new int[items.size()];
+        List<Batch<T, R>> led = new ArrayList<>();
+        lock.lock();
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                if (open == null) {
+                    open = new Batch<>();
+                    led.add(open);
+                }
+                Batch<T, R> batch = open;
+                indexes[i] = batch.items.size();
+                batch.items.add(items.get(i));
+                batches.add(batch);
+                if (batch.items.size() >= maxSize) {
+                    seal(batch);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Batch<T, R> batch : led) {
+            awaitSealed(batch);
+            run(batch);
+        }
+        List<R> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(batches.get(i).result(indexes[i]));
+        }
+        return results;
+    }
+
+    private void awaitSealed(Batch<T, R> batch) {
+        lock.lock();
+        try {
+            long remaining = lingerNanos;
+            while (!batch.sealed && remaining > 0) {
+                try {
+                    remaining = sealed.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // Run what has joined so far rather than strand the other callers
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!batch.sealed) {
+                seal(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void seal(Batch<T, R> batch) {
+        batch.sealed = true;
+        if (open == batch) {
+            open = null;
+        }
+        sealed.signalAll();
+    }
+
+    private void run(Batch<T, R> batch) {
+        try {
+            List<R> results = flush.apply(batch.items);
+            if (results.size() != batch.items.size()) {
+                throw new IllegalStateException("Batch returned %d results for %d items"
+                        .formatted(results.size(), batch.items.size()));
+            }
+            batch.results.complete(results);
+        } catch (RuntimeException e) {
+            batch.results.completeExceptionally(e);
+        }
+    }
+
+    private static final class Batch<T, R> {
+        // Written under the lock until sealed, read only by the leader afterwards
+        private final List<T> items = new ArrayList<>();
+        private final CompletableFuture<List<R>> results = new CompletableFuture<>();
+        private boolean sealed;
+
+        R result(int index) {
+            try {
+                return results.join().get(index);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.big.bigcollector.similarity.SignalFingerprint;
+import org.big.bigcollector.similarity.SimHash;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks up an already processed signal that a new one is a near-identical copy of, e.g. the same story
+ * cross-posted to Reddit, HN and Product Hunt, by the Hamming distance of their content fingerprints.
+ * The pipeline reuses the earlier signal's outcome instead of extracting the copy again.
+ */
+@Service
+@Slf4j
+public class NearDuplicateSignalFinder {
+
+    private static final List<String> URL_FIELDS = List.of("url", "source_url", "link", "product_url");
+
+    private final CollectorSignalRepository signalRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxDistance;
+    private final Duration window;
+
+    public NearDuplicateSignalFinder(CollectorSignalRepository signalRepository,
+                                     ObjectMapper objectMapper,
+                                     @Value("${pipeline.near-duplicate.enabled:true}") boolean enabled,
+                                     @Value("${pipeline.near-duplicate.max-distance:6}") int maxDistance,
+                                     @Value("${pipeline.near-duplicate.window:P14D}") Duration window) {
+        if (maxDistance >= SignalFingerprint.BANDS) {
+            throw new IllegalArgumentException("pipeline.near-duplicate.max-distance must be below "
+                    + SignalFingerprint.BANDS + ", the number of fingerprint bands it is looked up by");
+        }
+        this.signalRepository = signalRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxDistance = maxDistance;
+        this.window = window;
+    }
+
+    /**
+     * The earlier signal {@code signal} duplicates, resolved to the first of its chain. Signals stored
+     * before fingerprints or their bands existed get them computed here, which are persisted with the signal.
+     */
+    public Optional<NearDuplicate> find(CollectorSignal signal) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        signal.setFingerprint(signal.getFingerprint() != null
+                ? signal.getFingerprint() : SignalFingerprint.of(signal.getRawText()));
+        if (signal.getFingerprint() == null) {
+            return Optional.empty();
+        }
+
+        long fingerprint = signal.getFingerprint();
+        Instant since = signal.getCreatedAt() != null ? signal.getCreatedAt().minus(window) : Instant.now().minus(window);
+        return signalRepository.findNearDuplicateCandidates(signal.getId(), SignalFingerprint.bands(fingerprint), since)
+                .stream()
+                .filter(candidate -> SimHash.distance(candidate.getFingerprint(), fingerprint) <= maxDistance)
+                .findFirst()
+                .flatMap(candidate -> signalRepository.findById(candidate.getId()))
+                .map(original -> {
+                    Long firstId = original.getDuplicateOfId() != null ? original.getDuplicateOfId() : original.getId();
+                    log.debug("Signal {} ({}) is a near-duplicate of signal {} ({})", signal.getId(),
+                            signal.getSourceType(), firstId, original.getSourceType());
+                    return new NearDuplicate(firstId, original.getProblemVaultId(), sourceUrl(signal));
+                });
+    }
+
+    private String sourceUrl(CollectorSignal signal) {
+        try {
+            JsonNode json = objectMapper.readTree(signal.getRawText());
+            for (String field : URL_FIELDS) {
+                JsonNode value = json.get(field);
+                if (value != null && value.isTextual() && !value.asText().isBlank()) {
+                    return value.asText();
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Signal {} raw text is not JSON: {}", signal.getId(), e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @param originalId     first signal of the duplicate chain
+     * @param problemVaultId problem the original was recorded for, or null if it was recorded as having none
+     * @param sourceUrl      URL of the duplicate itself, for its evidence row
+     */
+    public record NearDuplicate(Long originalId, Long problemVaultId, String sourceUrl) {
+    }
+}
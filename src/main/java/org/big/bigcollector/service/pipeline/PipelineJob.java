@@ -0,0 +1,93 @@
+package org.big.bigcollector.service.pipeline;
+
+import lombok.Getter;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
+import org.big.bigcollector.progress.ProgressEvent;
+import org.big.bigcollector.progress.ProgressTracker;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One asynchronous pipeline run submitted through {@link PipelineJobService}.
+ */
+@Getter
+public class PipelineJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id;
+    private final PipelineRunOptions options;
+    private final ProgressTracker progress;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    PipelineJob(String id, PipelineRunOptions options, ProgressTracker progress) {
+        this.id = id;
+        this.options = options;
+        this.progress = progress;
+    }
+
+    void markRunning() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    void markFinished(Map<String, Object> result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        if (result.containsKey("error")) {
+            this.error = String.valueOf(result.get("error"));
+            this.status = Status.FAILED;
+        } else {
+            this.status = "CANCELLED".equals(result.get("status")) ? Status.CANCELLED : Status.COMPLETED;
+        }
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    boolean requestCancel() {
+        return cancelRequested.compareAndSet(false, true);
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested.get();
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public Map<String, Object> toStatusMap() {
+        ProgressEvent snapshot = progress.current();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("status", status.name());
+        map.put("cancelRequested", cancelRequested.get());
+        map.put("maxSignals", options.maxSignals() != null ? options.maxSignals() : "");
+        map.put("sourceType", options.sourceType() != null ? options.sourceType().name() : "");
+        map.put("concurrency", options.concurrency());
+        map.put("submittedAt", submittedAt.toString());
+        map.put("startedAt", startedAt != null ? startedAt.toString() : "");
+        map.put("finishedAt", finishedAt != null ? finishedAt.toString() : "");
+        map.put("itemsProcessed", snapshot.itemsProcessed());
+        map.put("itemsTotal", snapshot.itemsTotal() != null ? snapshot.itemsTotal() : "");
+        map.put("errors", snapshot.errors());
+        map.put("itemsPerSecond", snapshot.itemsPerSecond());
+        map.put("etaSeconds", snapshot.etaSeconds() != null && !isFinished() ? snapshot.etaSeconds() : "");
+        map.put("error", error != null ? error : "");
+        return map;
+    }
+}
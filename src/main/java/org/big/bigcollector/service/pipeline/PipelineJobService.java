@@ -0,0 +1,111 @@
+package org.big.bigcollector.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the signal pipeline as background jobs so HTTP callers get a job id immediately. Only one job
+ * runs at a time, matching {@link SignalPipelineService}'s own guard; finished jobs are retained for
+ * status and result queries until {@link #MAX_RETAINED_JOBS} is exceeded.
+ */
+@Service
+@Slf4j
+public class PipelineJobService {
+
+    static final int MAX_RETAINED_JOBS = 50;
+
+    private final SignalPipelineService pipelineService;
+    private final ProgressEventBus progressEventBus;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, PipelineJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicReference<PipelineJob> activeJob = new AtomicReference<>();
+
+    public PipelineJobService(SignalPipelineService pipelineService, ProgressEventBus progressEventBus) {
+        this.pipelineService = pipelineService;
+        this.progressEventBus = progressEventBus;
+    }
+
+    /**
+     * Submits a job, or returns empty if another job is still active.
+     */
+    public synchronized Optional<PipelineJob> submit(PipelineRunOptions options) {
+        if (activeJob.get() != null || pipelineService.isRunning()) {
+            return Optional.empty();
+        }
+
+        String id = UUID.randomUUID().toString();
+        PipelineJob job = new PipelineJob(id, options,
+                progressEventBus.startRun("pipeline", id, options.maxSignals()));
+        activeJob.set(job);
+        jobs.put(id, job);
+        evictFinishedJobs();
+        executor.submit(() -> run(job));
+        log.info("Pipeline job {} submitted: {}", id, options);
+        return Optional.of(job);
+    }
+
+    public Optional<PipelineJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<PipelineJob> listJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(PipelineJob::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    public Optional<PipelineJob> getActiveJob() {
+        return Optional.ofNullable(activeJob.get());
+    }
+
+    /**
+     * Requests cancellation. Returns empty if the job does not exist; the job is returned unchanged if it
+     * has already finished.
+     */
+    public Optional<PipelineJob> cancel(String id) {
+        PipelineJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.isFinished() && job.requestCancel()) {
+            log.info("Cancellation requested for pipeline job {}", id);
+        }
+        return Optional.of(job);
+    }
+
+    private void run(PipelineJob job) {
+        job.markRunning();
+        try {
+            Map<String, Object> result = pipelineService.processSignals(
+                    job.getOptions(), job.getProgress(), job::isCancelRequested);
+            job.markFinished(result);
+            log.info("Pipeline job {} finished with status {}", job.getId(), job.getStatus());
+        } catch (Exception e) {
+            log.error("Pipeline job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            activeJob.compareAndSet(job, null);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= MAX_RETAINED_JOBS) return;
+        jobs.values().stream()
+                .filter(PipelineJob::isFinished)
+                .sorted(Comparator.comparing(PipelineJob::getSubmittedAt))
+                .limit(jobs.size() - MAX_RETAINED_JOBS)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+}
@@ -5,13 +5,20 @@ import org.big.bigcollector.dto.pipeline.ExtractedProblem;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.ProblemEvidence;
 import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.metrics.PipelineMetrics;
 import org.big.bigcollector.repository.ProblemVaultEntryRepository;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -20,69 +27,169 @@ public class ProblemDeduplicator {
     private static final double DEFINITE_DUPLICATE_THRESHOLD = 0.10;
     private static final double BORDERLINE_THRESHOLD = 0.20;
     private static final double MAX_SEARCH_DISTANCE = 0.25;
+    private static final int MAX_CANDIDATES = 5;
+    // Covers the creating worker's scoring call; past this the entry is inserted again rather than waited on
+    private static final Duration PENDING_SAVE_TIMEOUT = Duration.ofMinutes(2);
 
     private final ProblemVaultEntryRepository vaultRepository;
     private final LlmDuplicateVerifier duplicateVerifier;
+    private final PipelineMetrics pipelineMetrics;
 
     public ProblemDeduplicator(ProblemVaultEntryRepository vaultRepository,
-                                LlmDuplicateVerifier duplicateVerifier) {
+                                LlmDuplicateVerifier duplicateVerifier,
+                                PipelineMetrics pipelineMetrics) {
         this.vaultRepository = vaultRepository;
         this.duplicateVerifier = duplicateVerifier;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     /**
-     * Deduplication result: either a new entry to save, or an existing entry that was updated.
+     * Deduplication result: either a new entry to save, or the existing entry to {@link #mergeEvidence merge}
+     * the signal into. Dedup reads existing entries outside any transaction, so it leaves them untouched and
+     * the merge happens on a fresh copy when the outcome is written. A new entry with an embedding is
+     * buffered for the rest of the run as {@code pending}, whose creator must report it
+     * {@link RunVaultBuffer.Pending#saved saved} or {@link RunVaultBuffer.Pending#abandon abandoned}.
      */
-    public record DeduplicationResult(ProblemVaultEntry entry, boolean isNew) {}
+    public record DeduplicationResult(ProblemVaultEntry entry, boolean isNew, RunVaultBuffer.Pending pending) {
 
-    public DeduplicationResult deduplicate(ExtractedProblem extracted, float[] embedding, CollectorSignal signal) {
+        public DeduplicationResult(ProblemVaultEntry entry, boolean isNew) {
+            this(entry, isNew, null);
+        }
+    }
+
+    /**
+     * Matches the problem against the vault and against entries other workers of this run have created but
+     * possibly not saved yet ({@code buffer}).
+     */
+    public DeduplicationResult deduplicate(ExtractedProblem extracted, float[] embedding, CollectorSignal signal,
+                                           RunVaultBuffer buffer) {
         if (embedding == null) {
             log.debug("No embedding available, inserting as new problem");
+            pipelineMetrics.recordDedup(PipelineMetrics.DEDUP_NEW);
             return new DeduplicationResult(createNewEntry(extracted, embedding, signal), true);
         }
 
         // Search for similar problems
         String embeddingStr = embeddingToString(embedding);
-        List<ProblemVaultEntry> similar = vaultRepository.findSimilarByEmbedding(
-                embeddingStr, MAX_SEARCH_DISTANCE, 5);
+        List<ProblemVaultEntry> similar = pipelineMetrics.timeVectorSearch("find_similar",
+                () -> vaultRepository.findSimilarByEmbedding(embeddingStr, MAX_SEARCH_DISTANCE, MAX_CANDIDATES));
 
-        if (similar.isEmpty()) {
-            log.debug("No similar problems found, inserting as new: {}", extracted.getTitle());
-            return new DeduplicationResult(createNewEntry(extracted, embedding, signal), true);
+        // Keyed by identity: buffered entries may not have an id yet
+        Map<ProblemVaultEntry, Double> distances = new IdentityHashMap<>();
+        if (!similar.isEmpty()) {
+            Map<Long, ProblemVaultEntry> byId = new HashMap<>();
+            similar.forEach(entry -> byId.put(entry.getId(), entry));
+            pipelineMetrics.timeVectorSearch("distance", () -> vaultRepository.getDistancesTo(byId.keySet(), embeddingStr))
+                    .forEach(d -> {
+                        if (d.getDistance() != null && byId.containsKey(d.getId())) {
+                            distances.put(byId.get(d.getId()), d.getDistance());
+                        }
+                    });
+        }
+        Map<ProblemVaultEntry, RunVaultBuffer.Pending> buffered = new IdentityHashMap<>();
+        for (RunVaultBuffer.Match match : buffer.nearest(embedding, MAX_SEARCH_DISTANCE, MAX_CANDIDATES)) {
+            boolean alreadyInVault = match.pending().savedId()
+                    .map(id -> similar.stream().anyMatch(entry -> id.equals(entry.getId())))
+                    .orElse(false);
+            if (!alreadyInVault) {
+                distances.put(match.pending().entry(), match.distance());
+                buffered.put(match.pending().entry(), match.pending());
+            }
         }
 
-        ProblemVaultEntry closest = similar.getFirst();
-        Double distance = vaultRepository.getDistanceTo(closest.getId(), embeddingStr);
+        List<ProblemVaultEntry> candidates = distances.keySet().stream()
+                .sorted(Comparator.comparingDouble(distances::get))
+                .limit(MAX_CANDIDATES)
+                .toList();
 
-        if (distance == null) {
-            return new DeduplicationResult(createNewEntry(extracted, embedding, signal), true);
+        if (candidates.isEmpty()) {
+            log.debug("No similar problems found, inserting as new: {}", extracted.getTitle());
+            return insertNew(extracted, embedding, signal, buffer, PipelineMetrics.DEDUP_NEW);
         }
 
-        log.debug("Closest match: '{}' with distance {}", closest.getTitle(), distance);
+        ProblemVaultEntry closest = candidates.getFirst();
+        double closestDistance = distances.get(closest);
+        log.debug("Closest match: '{}' with distance {}", closest.getTitle(), closestDistance);
 
-        if (distance < DEFINITE_DUPLICATE_THRESHOLD) {
-            // Definite duplicate — merge
-            log.info("Definite duplicate found (distance={}): '{}' matches '{}'",
-                    distance, extracted.getTitle(), closest.getTitle());
-            return new DeduplicationResult(mergeEvidence(closest, extracted, signal), false);
+        if (closestDistance < DEFINITE_DUPLICATE_THRESHOLD) {
+            Optional<ProblemVaultEntry> target = persisted(closest, buffered);
+            if (target.isPresent()) {
+                // Definite duplicate — merge
+                log.info("Definite duplicate found (distance={}): '{}' matches '{}'",
+                        closestDistance, extracted.getTitle(), closest.getTitle());
+                pipelineMetrics.recordDedup(PipelineMetrics.DEDUP_DEFINITE_DUPLICATE);
+                return new DeduplicationResult(target.get(), false);
+            }
         }
 
-        if (distance < BORDERLINE_THRESHOLD) {
-            // Borderline — ask LLM
-            boolean isDup = duplicateVerifier.isDuplicate(
-                    extracted.getTitle(), extracted.getDescription(),
-                    closest.getTitle(), closest.getDescription());
+        // Borderline — ask the LLM about every candidate in the band at once and merge into the closest
+        // confirmed one, so a rejected nearest match does not hide a real duplicate just behind it
+        List<ProblemVaultEntry> borderline = candidates.stream()
+                .filter(entry -> distances.get(entry) >= DEFINITE_DUPLICATE_THRESHOLD)
+                .filter(entry -> distances.get(entry) < BORDERLINE_THRESHOLD)
+                .toList();
+        if (borderline.isEmpty()) {
+            return insertNew(extracted, embedding, signal, buffer, PipelineMetrics.DEDUP_NEW);
+        }
 
-            if (isDup) {
-                log.info("LLM confirmed duplicate (distance={}): '{}' matches '{}'",
-                        distance, extracted.getTitle(), closest.getTitle());
-                return new DeduplicationResult(mergeEvidence(closest, extracted, signal), false);
+        List<Boolean> verdicts = duplicateVerifier.areDuplicates(borderline.stream()
+                .map(entry -> new LlmDuplicateVerifier.Pair(extracted.getTitle(), extracted.getDescription(), entry))
+                .toList());
+        for (int i = 0; i < borderline.size(); i++) {
+            if (!verdicts.get(i)) {
+                continue;
+            }
+            ProblemVaultEntry match = borderline.get(i);
+            Optional<ProblemVaultEntry> target = persisted(match, buffered);
+            if (target.isPresent()) {
+                log.info("LLM confirmed duplicate (distance={}, candidate {} of {}): '{}' matches '{}'",
+                        distances.get(match), i + 1, borderline.size(), extracted.getTitle(), match.getTitle());
+                pipelineMetrics.recordDedup(PipelineMetrics.DEDUP_LLM_CONFIRMED);
+                return new DeduplicationResult(target.get(), false);
             }
         }
 
         // New problem
+        return insertNew(extracted, embedding, signal, buffer, PipelineMetrics.DEDUP_LLM_REJECTED);
+    }
+
+    /**
+     * Creates the new entry and buffers it for the rest of the run. If another worker buffered a definite
+     * duplicate in the meantime, merges into that one instead once it is saved.
+     */
+    private DeduplicationResult insertNew(ExtractedProblem extracted, float[] embedding, CollectorSignal signal,
+                                          RunVaultBuffer buffer, String outcome) {
+        ProblemVaultEntry entry = createNewEntry(extracted, embedding, signal);
+        RunVaultBuffer.Claim claim = buffer.claim(entry, embedding, DEFINITE_DUPLICATE_THRESHOLD);
+        if (!claim.created()) {
+            Optional<ProblemVaultEntry> target = claim.pending().awaitSavedId(PENDING_SAVE_TIMEOUT)
+                    .flatMap(vaultRepository::findById);
+            if (target.isPresent()) {
+                log.info("Definite duplicate created earlier in this run: '{}' matches '{}'",
+                        extracted.getTitle(), target.get().getTitle());
+                pipelineMetrics.recordDedup(PipelineMetrics.DEDUP_DEFINITE_DUPLICATE);
+                return new DeduplicationResult(target.get(), false);
+            }
+            log.debug("In-run duplicate of '{}' was not saved, inserting as new", extracted.getTitle());
+            pipelineMetrics.recordDedup(outcome);
+            return new DeduplicationResult(entry, true);
+        }
         log.debug("No duplicate, inserting as new: {}", extracted.getTitle());
-        return new DeduplicationResult(createNewEntry(extracted, embedding, signal), true);
+        pipelineMetrics.recordDedup(outcome);
+        return new DeduplicationResult(entry, true, claim.pending());
+    }
+
+    /**
+     * The vault entry to merge into: the candidate itself, or for an entry buffered by another worker, its
+     * saved row once that worker has saved it. Empty if it never was.
+     */
+    private Optional<ProblemVaultEntry> persisted(ProblemVaultEntry candidate,
+                                                  Map<ProblemVaultEntry, RunVaultBuffer.Pending> buffered) {
+        RunVaultBuffer.Pending pending = buffered.get(candidate);
+        if (pending == null) {
+            return Optional.of(candidate);
+        }
+        return pending.awaitSavedId(PENDING_SAVE_TIMEOUT).flatMap(vaultRepository::findById);
     }
 
     private ProblemVaultEntry createNewEntry(ExtractedProblem extracted, float[] embedding, CollectorSignal signal) {
@@ -104,14 +211,32 @@ public class ProblemDeduplicator {
         return entry;
     }
 
-    private ProblemVaultEntry mergeEvidence(ProblemVaultEntry existing, ExtractedProblem extracted, CollectorSignal signal) {
+    /**
+     * Records a signal as further evidence for a problem without extracting it, for near-identical
+     * copies of a signal that already produced {@code existing}.
+     */
+    public ProblemVaultEntry attachEvidence(ProblemVaultEntry existing, CollectorSignal signal, String sourceUrl) {
+        pipelineMetrics.recordDedup(PipelineMetrics.DEDUP_NEAR_DUPLICATE_SIGNAL);
+        return addEvidence(existing, ProblemEvidence.builder()
+                .sourceType(signal.getSourceType())
+                .sourceUrl(sourceUrl)
+                .rawText(signal.getRawText())
+                .collectedAt(signal.getCreatedAt())
+                .build());
+    }
+
+    /** Adds the signal to {@code existing} as evidence for the extracted problem. */
+    public ProblemVaultEntry mergeEvidence(ProblemVaultEntry existing, ExtractedProblem extracted, CollectorSignal signal) {
+        return addEvidence(existing, buildEvidence(extracted, signal));
+    }
+
+    private ProblemVaultEntry addEvidence(ProblemVaultEntry existing, ProblemEvidence evidence) {
         existing.setSourceCount(existing.getSourceCount() + 1);
         existing.setLastSeenAt(Instant.now());
 
         // Upgrade confidence based on source count
         existing.setConfidence(calculateConfidence(existing.getSourceCount()));
 
-        ProblemEvidence evidence = buildEvidence(extracted, signal);
         evidence.setProblemVaultEntry(existing);
         existing.getEvidence().add(evidence);
 
@@ -139,7 +264,7 @@ public class ProblemDeduplicator {
         return new BigDecimal("0.25"); // ai_predicted
     }
 
-    private String embeddingToString(float[] embedding) {
+    String embeddingToString(float[] embedding) {
         StringBuilder sb = new StringBuilder("[");
         for (int i = 0; i < embedding.length; i++) {
             if (i > 0) sb.append(",");
@@ -0,0 +1,153 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.big.bigcollector.entity.ProblemVaultEntry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * New vault entries of one pipeline run that dedup has decided to insert but that may not be saved yet.
+ * Dedup searches it alongside the vault, so two workers handling the same problem at the same time do
+ * not both insert it: the later one merges into the earlier entry once that is saved. Entries only need
+ * to stay until every signal that could have missed them in the vault has finished, so the pipeline
+ * evicts settled entries between claim batches. Thread-safe.
+ */
+public final class RunVaultBuffer {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Pending> entries = new ArrayList<>();
+
+    /** Buffered entries within {@code maxDistance} of {@code embedding}, closest first. */
+    public List<Match> nearest(float[] embedding, double maxDistance, int limit) {
+        lock.lock();
+        try {
+            return entries.stream()
+                    .filter(pending -> !pending.isAbandoned())
+                    .map(pending -> new Match(pending, cosineDistance(pending.embedding, embedding)))
+                    .filter(match -> match.distance() < maxDistance)
+                    .sorted(Comparator.comparingDouble(Match::distance))
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds {@code entry} unless a buffered entry is already within {@code maxDistance}, checked and added
+     * atomically so of two concurrent near-identical claims exactly one is created.
+     */
+    public Claim claim(ProblemVaultEntry entry, float[] embedding, double maxDistance) {
+        lock.lock();
+        try {
+            for (Pending pending : entries) {
+                if (!pending.isAbandoned() && cosineDistance(pending.embedding, embedding) < maxDistance) {
+                    return new Claim(pending, false);
+                }
+            }
+            Pending pending = new Pending(entry, embedding);
+            entries.add(pending);
+            return new Claim(pending, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops entries that have been saved or abandoned. */
+    public void evictSettled() {
+        lock.lock();
+        try {
+            entries.removeIf(pending -> pending.savedId.isDone());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static double cosineDistance(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) {
+            return 1.0;
+        }
+        return 1.0 - dot / Math.sqrt(normA * normB);
+    }
+
+    /** A buffered entry and its distance to the searched embedding. */
+    public record Match(Pending pending, double distance) {
+    }
+
+    /** Result of {@link #claim}: the newly buffered entry, or the existing one it collided with. */
+    public record Claim(Pending pending, boolean created) {
+    }
+
+    /** A new entry on its way to the vault. Its creator reports the outcome through {@link #saved} or {@link #abandon}. */
+    public static final class Pending {
+
+        private final ProblemVaultEntry entry;
+        private final float[] embedding;
+        private final CompletableFuture<Long> savedId = new CompletableFuture<>();
+
+        private Pending(ProblemVaultEntry entry, float[] embedding) {
+            this.entry = entry;
+            this.embedding = embedding;
+        }
+
+        /** The creator's unsaved instance; only its title and description are safe to read from other threads. */
+        public ProblemVaultEntry entry() {
+            return entry;
+        }
+
+        public void saved(Long id) {
+            savedId.complete(id);
+        }
+
+        /** Marks the entry as never going to be saved; a no-op once it has been. */
+        public void abandon() {
+            savedId.complete(null);
+        }
+
+        boolean isAbandoned() {
+            return savedId.isDone() && savedId.getNow(null) == null;
+        }
+
+        /** The saved entry's id once its creator has saved it; empty if abandoned or not saved in time. */
+        public Optional<Long> awaitSavedId(Duration timeout) {
+            try {
+                return Optional.ofNullable(savedId.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } catch (ExecutionException | TimeoutException e) {
+                return Optional.empty();
+            }
+        }
+
+        /** The saved id if already known. */
+        Optional<Long> savedId() {
+            return savedId.isDone() ? Optional.ofNullable(savedId.getNow(null)) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.big.bigcollector.service.pipeline;
+
+/**
+ * Thrown when a signal's outcome or failure is about to be written but this worker no longer holds its lease, because it
+ * expired and another worker claimed the signal. The write is rolled back and the signal left to its new owner.
+ */
+public class SignalLeaseLostException extends RuntimeException {
+
+    private final Long signalId;
+
+    public SignalLeaseLostException(Long signalId) {
+        super("Lease on signal " + signalId + " was taken over by another worker");
+        this.signalId = signalId;
+    }
+
+    public Long getSignalId() {
+        return signalId;
+    }
+}
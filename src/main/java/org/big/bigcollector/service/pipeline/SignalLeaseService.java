@@ -0,0 +1,95 @@
+package org.big.bigcollector.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.config.InstanceIdentity;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hands out disjoint batches of unprocessed signals to pipeline workers across instances. A claim
+ * stamps the rows with this worker's id and a lease expiry; if the worker dies, the rows become
+ * claimable again once the lease expires. Each signal's lease is renewed when its processing starts,
+ * and its outcome is only written while this worker still holds it.
+ */
+@Service
+@Slf4j
+public class SignalLeaseService {
+
+    private final CollectorSignalRepository signalRepository;
+    private final String workerId;
+    private final Duration leaseDuration;
+
+    public SignalLeaseService(CollectorSignalRepository signalRepository,
+                              InstanceIdentity instanceIdentity,
+                              @Value("${pipeline.lease-duration:PT10M}") Duration leaseDuration) {
+        this.signalRepository = signalRepository;
+        this.workerId = instanceIdentity.getId();
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Transactional
+    public List<CollectorSignal> claim(int limit, SourceType sourceType) {
+        Instant now = Instant.now();
+        List<Long> ids = sourceType != null
+                ? signalRepository.lockClaimableIdsBySourceType(sourceType.name(), now, limit)
+                : signalRepository.lockClaimableIds(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        signalRepository.assignLease(ids, workerId, now.plus(leaseDuration));
+        log.debug("Worker {} claimed {} signals", workerId, ids.size());
+        return signalRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(CollectorSignal::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(CollectorSignal::getId))
+                .toList();
+    }
+
+    /**
+     * Extends the lease on a claimed signal that is about to be processed, so it runs on a full lease
+     * however long it waited in its batch. False if the lease expired and another worker took the signal.
+     */
+    @Transactional
+    public boolean renew(CollectorSignal signal) {
+        return signalRepository.renewLease(List.of(signal.getId()), workerId, Instant.now().plus(leaseDuration)) > 0;
+    }
+
+    /**
+     * Locks {@code signal} for the rest of the caller's transaction if this worker still holds its lease.
+     * Outcomes are written under this lock, so a signal whose lease was taken over is never written twice.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean lockIfHeld(CollectorSignal signal) {
+        return signalRepository.lockIfLeasedTo(signal.getId(), workerId).isPresent();
+    }
+
+    /**
+     * Returns claimed-but-unprocessed signals to the pool, e.g. after a cancelled run.
+     */
+    @Transactional
+    public void release(Collection<CollectorSignal> signals) {
+        if (signals.isEmpty()) return;
+        List<Long> ids = signals.stream().map(CollectorSignal::getId).toList();
+        int released = signalRepository.releaseLease(ids, workerId);
+        log.debug("Worker {} released {} signal leases", workerId, released);
+    }
+
+    public long countClaimable(SourceType sourceType) {
+        return signalRepository.countClaimable(sourceType, Instant.now());
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+}
@@ -0,0 +1,100 @@
+package org.big.bigcollector.service.pipeline;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.dto.pipeline.ExtractedProblem;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.big.bigcollector.repository.ProblemVaultEntryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Writes the outcome of a pipeline signal: the vault entry it created or added evidence to, and the signal's
+ * processed state, in one transaction. Existing entries are reloaded inside that transaction, so evidence is
+ * added to a managed entity, and a concurrent write to the same entry fails with an
+ * {@link org.springframework.dao.OptimisticLockingFailureException} for the caller to retry. Nothing is written
+ * unless this worker still holds the signal's lease ({@link SignalLeaseLostException} otherwise). Model calls
+ * happen before these methods, so no connection is held while waiting on them.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SignalOutcomeWriter {
+
+    private final CollectorSignalRepository signalRepository;
+    private final ProblemVaultEntryRepository vaultRepository;
+    private final ProblemDeduplicator deduplicator;
+    private final SignalLeaseService leaseService;
+
+    @Transactional
+    public void recordNoProblem(CollectorSignal signal) {
+        signal.setNoProblem(true);
+        markSignalProcessed(signal);
+    }
+
+    /** Inserts {@code entry}, which already holds the signal's evidence. */
+    @Transactional
+    public void recordNew(CollectorSignal signal, ProblemVaultEntry entry) {
+        vaultRepository.save(entry);
+        signal.setProblemVaultId(entry.getId());
+        markSignalProcessed(signal);
+    }
+
+    /** Adds the signal as evidence to entry {@code entryId}. Empty if that entry no longer exists. */
+    @Transactional
+    public Optional<ProblemVaultEntry> recordMerge(CollectorSignal signal, Long entryId, ExtractedProblem extracted) {
+        Optional<ProblemVaultEntry> existing = vaultRepository.findById(entryId);
+        existing.ifPresent(entry -> {
+            vaultRepository.save(deduplicator.mergeEvidence(entry, extracted, signal));
+            signal.setProblemVaultId(entry.getId());
+            markSignalProcessed(signal);
+        });
+        return existing;
+    }
+
+    /**
+     * Records {@code signal} with the outcome of the signal it duplicates: as evidence for that signal's
+     * problem, or as having none. Empty if the problem no longer exists, so the signal is processed normally.
+     */
+    @Transactional
+    public Optional<Boolean> linkToOriginal(CollectorSignal signal, NearDuplicateSignalFinder.NearDuplicate original) {
+        if (original.problemVaultId() == null) {
+            signal.setDuplicateOfId(original.originalId());
+            signal.setNoProblem(true);
+            markSignalProcessed(signal);
+            return Optional.of(false);
+        }
+
+        Optional<ProblemVaultEntry> existing = vaultRepository.findById(original.problemVaultId());
+        if (existing.isEmpty()) {
+            log.debug("Problem {} of signal {} is gone, processing signal {} normally",
+                    original.problemVaultId(), original.originalId(), signal.getId());
+            return Optional.empty();
+        }
+
+        ProblemVaultEntry entry = deduplicator.attachEvidence(existing.get(), signal, original.sourceUrl());
+        vaultRepository.save(entry);
+        signal.setDuplicateOfId(original.originalId());
+        signal.setProblemVaultId(entry.getId());
+        markSignalProcessed(signal);
+        return Optional.of(true);
+    }
+
+    private void markSignalProcessed(CollectorSignal signal) {
+        if (!leaseService.lockIfHeld(signal)) {
+            throw new SignalLeaseLostException(signal.getId());
+        }
+        signal.setProcessed(true);
+        signal.setProcessedAt(Instant.now());
+        signal.setError(null);
+        signal.setNextAttemptAt(null);
+        signal.setLeaseOwner(null);
+        signal.setLeaseExpiresAt(null);
+        signalRepository.save(signal);
+    }
+}
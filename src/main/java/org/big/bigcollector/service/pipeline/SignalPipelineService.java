@@ -4,36 +4,68 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.big.bigcollector.config.OpenAiConfig;
 import org.big.bigcollector.dto.pipeline.ExtractedProblem;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.ProblemVaultEntry;
-import org.big.bigcollector.repository.CollectorSignalRepository;
-import org.big.bigcollector.repository.ProblemVaultEntryRepository;
+import org.big.bigcollector.entity.enums.CollectorStatus;
+import org.big.bigcollector.metrics.PipelineMetrics;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.big.bigcollector.progress.ProgressTracker;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class SignalPipelineService {
 
-    private final CollectorSignalRepository signalRepository;
-    private final ProblemVaultEntryRepository vaultRepository;
+    private static final int CLAIM_BATCH_SIZE = 25;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final LlmProblemExtractor extractor;
     private final EmbeddingService embeddingService;
     private final ProblemDeduplicator deduplicator;
     private final VaultScoringService scoringService;
     private final OpenAiConfig openAiConfig;
+    private final PipelineMetrics pipelineMetrics;
+    private final ProgressEventBus progressEventBus;
+    private final SignalLeaseService leaseService;
+    private final SignalRetryService retryService;
+    private final NearDuplicateSignalFinder nearDuplicateFinder;
+    private final SignalOutcomeWriter outcomeWriter;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
 
     public Map<String, Object> processUnprocessedSignals() {
+        ProgressTracker progress = progressEventBus.startRun("pipeline", "pipeline", null);
+        return processSignals(PipelineRunOptions.defaults(), progress, () -> false);
+    }
+
+    /**
+     * Processes unprocessed signals matching {@code options}. Cancellation is cooperative: once
+     * {@code cancelled} returns true no new signals are started, and signals already in flight finish
+     * normally so none are left half-written.
+     */
+    public Map<String, Object> processSignals(PipelineRunOptions options, ProgressTracker progress,
+                                              BooleanSupplier cancelled) {
         if (!openAiConfig.isConfigured()) {
+            progress.finish(CollectorStatus.FAILED, "OpenAI API key not configured");
             return Map.of(
                     "error", "OpenAI API key not configured",
                     "status", "SKIPPED"
@@ -41,6 +73,7 @@ public class SignalPipelineService {
         }
 
         if (!running.compareAndSet(false, true)) {
+            progress.finish(CollectorStatus.FAILED, "Pipeline already running");
             return Map.of(
                     "error", "Pipeline already running",
                     "status", "ALREADY_RUNNING"
@@ -48,104 +81,203 @@ public class SignalPipelineService {
         }
 
         Instant start = Instant.now();
-        int processed = 0;
-        int problemsExtracted = 0;
-        int newProblems = 0;
-        int duplicatesMerged = 0;
-        int noProblem = 0;
-        int errors = 0;
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger problemsExtracted = new AtomicInteger();
+        AtomicInteger noProblem = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger deadLettered = new AtomicInteger();
+        AtomicInteger leaseLost = new AtomicInteger();
+        int limit = options.maxSignals() != null ? options.maxSignals() : Integer.MAX_VALUE;
+        int batchSize = Math.max(CLAIM_BATCH_SIZE, options.concurrency() * 4);
+        int claimed = 0;
+        RunVaultBuffer buffer = new RunVaultBuffer();
 
         try {
-            List<CollectorSignal> signals = signalRepository.findByProcessedFalseOrderByCreatedAtAsc();
-            log.info("Pipeline started: {} unprocessed signals", signals.size());
+            long claimable = leaseService.countClaimable(options.sourceType());
+            progress.total((int) Math.min(claimable, limit));
+            log.info("Pipeline started: {} claimable signals, concurrency={}, worker={}",
+                    claimable, options.concurrency(), leaseService.getWorkerId());
 
-            for (CollectorSignal signal : signals) {
-                if (Thread.currentThread().isInterrupted()) {
-                    log.info("Pipeline interrupted");
-                    break;
-                }
+            try (ExecutorService workers = Executors.newFixedThreadPool(
+                    options.concurrency(), Thread.ofVirtual().name("pipeline-worker-", 0).factory())) {
+                while (claimed < limit && !cancelled.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                    List<CollectorSignal> batch = leaseService.claim(
+                            Math.min(batchSize, limit - claimed), options.sourceType());
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    claimed += batch.size();
 
-                try {
-                    boolean success = processSignal(signal);
-                    processed++;
+                    List<CollectorSignal> skipped = Collections.synchronizedList(new ArrayList<>());
+                    List<Future<?>> futures = new ArrayList<>(batch.size());
+                    for (CollectorSignal signal : batch) {
+                        futures.add(workers.submit(() -> {
+                            if (cancelled.getAsBoolean()) {
+                                skipped.add(signal);
+                                return;
+                            }
+                            if (!leaseService.renew(signal)) {
+                                log.info("Lease on signal {} expired before it was started, left to its new owner",
+                                        signal.getId());
+                                leaseLost.incrementAndGet();
+                                return;
+                            }
+                            try {
+                                boolean success = processSignal(signal, buffer);
+                                processed.incrementAndGet();
+                                progress.itemProcessed();
 
-                    if (success) {
-                        problemsExtracted++;
-                        // Check if it was new or merged by looking at what processSignal did
-                        // We track this via the return mechanism
-                    } else {
-                        noProblem++;
+                                if (success) {
+                                    problemsExtracted.incrementAndGet();
+                                } else {
+                                    noProblem.incrementAndGet();
+                                }
+                            } catch (SignalLeaseLostException e) {
+                                log.warn("{}; its outcome was discarded", e.getMessage());
+                                leaseLost.incrementAndGet();
+                                pipelineMetrics.recordSignal("lease_lost");
+                            } catch (Exception e) {
+                                log.error("Failed to process signal {}: {}", signal.getId(), e.getMessage());
+                                try {
+                                    if (retryService.recordFailure(signal, e.getMessage())) {
+                                        deadLettered.incrementAndGet();
+                                        pipelineMetrics.recordSignal("dead_letter");
+                                    } else {
+                                        pipelineMetrics.recordSignal("retry");
+                                    }
+                                } catch (SignalLeaseLostException lost) {
+                                    log.warn("{}; its failure was not recorded", lost.getMessage());
+                                    leaseLost.incrementAndGet();
+                                    pipelineMetrics.recordSignal("lease_lost");
+                                }
+                                progress.itemProcessed();
+                                progress.error("Signal " + signal.getId() + ": " + e.getMessage());
+                                errors.incrementAndGet();
+                            }
+                        }));
                     }
-                } catch (Exception e) {
-                    log.error("Failed to process signal {}: {}", signal.getId(), e.getMessage());
-                    markSignalFailed(signal, e.getMessage());
-                    errors++;
+                    awaitBatch(futures);
+                    leaseService.release(skipped);
+                    // Everything created in this batch is now saved and visible to vector search
+                    buffer.evictSettled();
                 }
             }
 
+            boolean wasCancelled = cancelled.getAsBoolean() || Thread.currentThread().isInterrupted();
             Duration duration = Duration.between(start, Instant.now());
-            log.info("Pipeline completed in {}: {} processed, {} problems extracted, {} errors",
-                    duration, processed, problemsExtracted, errors);
+            log.info("Pipeline {} in {}: {} processed, {} problems extracted, {} errors",
+                    wasCancelled ? "cancelled" : "completed", duration, processed, problemsExtracted, errors);
+            String summary = "%d processed, %d problems extracted, %d errors"
+                    .formatted(processed.get(), problemsExtracted.get(), errors.get());
+            progress.finish(wasCancelled ? CollectorStatus.IDLE : CollectorStatus.COMPLETED, summary);
 
             return Map.of(
-                    "status", "COMPLETED",
-                    "totalSignals", signals.size(),
-                    "processed", processed,
-                    "problemsExtracted", problemsExtracted,
-                    "noProblem", noProblem,
-                    "errors", errors,
+                    "status", wasCancelled ? "CANCELLED" : "COMPLETED",
+                    "totalSignals", claimed,
+                    "processed", processed.get(),
+                    "problemsExtracted", problemsExtracted.get(),
+                    "noProblem", noProblem.get(),
+                    "errors", errors.get(),
+                    "deadLettered", deadLettered.get(),
+                    "leaseLost", leaseLost.get(),
                     "durationMs", duration.toMillis()
             );
+        } catch (RuntimeException e) {
+            progress.finish(CollectorStatus.FAILED, e.getMessage());
+            throw e;
         } finally {
             running.set(false);
         }
     }
 
-    @Transactional
-    boolean processSignal(CollectorSignal signal) {
+    private void awaitBatch(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                // Leave the flag set; the claim loop stops and the executor drains in-flight signals
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Pipeline worker failed", e.getCause());
+            }
+        }
+    }
+
+    boolean processSignal(CollectorSignal signal, RunVaultBuffer buffer) {
+        // Step 0: A near-identical copy of an already processed signal shares its outcome
+        Optional<NearDuplicateSignalFinder.NearDuplicate> nearDuplicate = nearDuplicateFinder.find(signal);
+        if (nearDuplicate.isPresent()) {
+            Optional<Boolean> linked = pipelineMetrics.timeStage("save",
+                    () -> retryOnConflict(() -> outcomeWriter.linkToOriginal(signal, nearDuplicate.get())));
+            if (linked.isPresent()) {
+                pipelineMetrics.recordSignal("near_duplicate");
+                return linked.get();
+            }
+        }
+
         // Step 1: Extract problem from raw text
-        ExtractedProblem extracted = extractor.extract(signal);
+        ExtractedProblem extracted = pipelineMetrics.timeStage("extract", () -> extractor.extract(signal));
 
         if (!extracted.isValid()) {
-            markSignalProcessed(signal);
+            outcomeWriter.recordNoProblem(signal);
+            pipelineMetrics.recordSignal("no_problem");
             return false;
         }
 
         // Step 2: Generate embedding
-        float[] embedding = embeddingService.generateEmbedding(
-                extracted.getTitle(), extracted.getDescription());
+        float[] embedding = pipelineMetrics.timeStage("embed", () -> embeddingService.generateEmbedding(
+                extracted.getTitle(), extracted.getDescription()));
 
-        // Step 3: Deduplicate
-        ProblemDeduplicator.DeduplicationResult dedupResult =
-                deduplicator.deduplicate(extracted, embedding, signal);
+        // Step 3: Deduplicate, against the vault and the new entries of signals still in flight
+        ProblemDeduplicator.DeduplicationResult dedupResult = pipelineMetrics.timeStage("dedup",
+                () -> deduplicator.deduplicate(extracted, embedding, signal, buffer));
 
         ProblemVaultEntry entry = dedupResult.entry();
-
-        // Step 4: Score new problems only
         if (dedupResult.isNew()) {
-            scoringService.scoreEntry(entry);
-        }
-
-        // Step 5: Save
-        vaultRepository.save(entry);
+            RunVaultBuffer.Pending pending = dedupResult.pending();
+            try {
+                // Step 4: Score new problems only
+                pipelineMetrics.timeStage("score", () -> scoringService.scoreEntry(entry));
 
-        // Step 6: Mark signal as processed
-        markSignalProcessed(signal);
+                // Step 5: Save, marking the signal processed in the same transaction
+                pipelineMetrics.timeStage("save", () -> outcomeWriter.recordNew(signal, entry));
+                if (pending != null) {
+                    pending.saved(entry.getId());
+                }
+            } finally {
+                if (pending != null) {
+                    pending.abandon();
+                }
+            }
+        } else {
+            // Step 5: Merge into the matched entry as it is now, not as dedup read it
+            Optional<ProblemVaultEntry> merged = pipelineMetrics.timeStage("save",
+                    () -> retryOnConflict(() -> outcomeWriter.recordMerge(signal, entry.getId(), extracted)));
+            if (merged.isEmpty()) {
+                throw new IllegalStateException("Problem " + entry.getId() + " was deleted during deduplication");
+            }
+        }
 
+        pipelineMetrics.recordSignal(dedupResult.isNew() ? "new" : "merged");
         return true;
     }
 
-    private void markSignalProcessed(CollectorSignal signal) {
-        signal.setProcessed(true);
-        signal.setProcessedAt(Instant.now());
-        signalRepository.save(signal);
-    }
-
-    private void markSignalFailed(CollectorSignal signal, String errorMessage) {
-        signal.setProcessed(true);
-        signal.setProcessedAt(Instant.now());
-        signal.setError(errorMessage);
-        signalRepository.save(signal);
+    /**
+     * Runs a vault write, again in a fresh transaction if another worker updated the same entry since it was
+     * read. Gives up after {@value #MAX_WRITE_ATTEMPTS} attempts and lets the signal's retry handle it.
+     */
+    private <T> T retryOnConflict(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Vault entry changed concurrently, retrying write (attempt {})", attempt);
+            }
+        }
     }
 
     public boolean isRunning() {
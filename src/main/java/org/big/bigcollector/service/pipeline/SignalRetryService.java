@@ -0,0 +1,112 @@
+package org.big.bigcollector.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides what happens to a signal whose processing threw. Until {@code maxAttempts} is reached the
+ * signal stays unprocessed with an exponentially growing {@code nextAttemptAt}, which the claim
+ * queries respect; after that it is dead-lettered and only comes back through {@link #requeueDeadLettered}.
+ */
+@Service
+@Slf4j
+public class SignalRetryService {
+
+    private final CollectorSignalRepository signalRepository;
+    private final SignalLeaseService leaseService;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    public SignalRetryService(CollectorSignalRepository signalRepository,
+                              SignalLeaseService leaseService,
+                              @Value("${pipeline.retry.max-attempts:5}") int maxAttempts,
+                              @Value("${pipeline.retry.base-delay:PT1M}") Duration baseDelay,
+                              @Value("${pipeline.retry.max-delay:PT6H}") Duration maxDelay) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("pipeline.retry.max-attempts must be at least 1");
+        }
+        this.signalRepository = signalRepository;
+        this.leaseService = leaseService;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Records a failed attempt on the stored signal. Returns true if the signal was dead-lettered.
+     * Only the retry state is written, onto the row as it is now rather than the worker's copy, and only
+     * while this worker holds the signal's lease ({@link SignalLeaseLostException} otherwise), so a signal
+     * taken over and finished by another worker is left as that worker wrote it.
+     */
+    @Transactional
+    public boolean recordFailure(CollectorSignal failed, String errorMessage) {
+        if (!leaseService.lockIfHeld(failed)) {
+            throw new SignalLeaseLostException(failed.getId());
+        }
+        CollectorSignal signal = signalRepository.findById(failed.getId())
+                .orElseThrow(() -> new SignalLeaseLostException(failed.getId()));
+
+        Instant now = Instant.now();
+        int attempts = (signal.getAttempts() != null ? signal.getAttempts() : 0) + 1;
+        signal.setAttempts(attempts);
+        signal.setError(errorMessage);
+        signal.setLeaseOwner(null);
+        signal.setLeaseExpiresAt(null);
+
+        boolean deadLettered = attempts >= maxAttempts;
+        if (deadLettered) {
+            signal.setProcessed(true);
+            signal.setProcessedAt(now);
+            signal.setDeadLetteredAt(now);
+            signal.setNextAttemptAt(null);
+            log.warn("Signal {} dead-lettered after {} attempts: {}", signal.getId(), attempts, errorMessage);
+        } else {
+            signal.setNextAttemptAt(now.plus(backoff(attempts)));
+            log.info("Signal {} failed attempt {}/{}, retrying after {}",
+                    signal.getId(), attempts, maxAttempts, signal.getNextAttemptAt());
+        }
+        signalRepository.save(signal);
+        return deadLettered;
+    }
+
+    /**
+     * Delay before the attempt following {@code attempts} failures: base * 2^(attempts-1), capped at
+     * {@code maxDelay}, with up to 20% jitter so signals failed by the same rate limit spread out.
+     */
+    Duration backoff(int attempts) {
+        long baseMs = baseDelay.toMillis();
+        int shift = Math.min(attempts - 1, 20);
+        long delayMs = Math.min(maxDelay.toMillis(), baseMs << shift);
+        long jitterMs = (long) (delayMs * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(delayMs + jitterMs);
+    }
+
+    /**
+     * Puts dead-lettered signals back in the queue with a fresh attempt budget.
+     * Limited to one source type when {@code sourceType} is non-null.
+     */
+    @Transactional
+    public int requeueDeadLettered(SourceType sourceType) {
+        int requeued = signalRepository.requeueDeadLettered(sourceType);
+        log.info("Requeued {} dead-lettered signals{}", requeued, sourceType != null ? " for " + sourceType : "");
+        return requeued;
+    }
+
+    public long countDeadLettered(SourceType sourceType) {
+        return signalRepository.countDeadLettered(sourceType);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -11,9 +11,11 @@ import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.big.bigcollector.config.OpenAiConfig;
 import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -46,13 +48,16 @@ public class VaultScoringService {
     private final OpenAIClient openAIClient;
     private final OpenAiConfig openAiConfig;
     private final ObjectMapper objectMapper;
+    private final LlmMetrics llmMetrics;
 
     public VaultScoringService(OpenAIClient openAIClient,
                                 OpenAiConfig openAiConfig,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                LlmMetrics llmMetrics) {
         this.openAIClient = openAIClient;
         this.openAiConfig = openAiConfig;
         this.objectMapper = objectMapper;
+        this.llmMetrics = llmMetrics;
     }
 
     public void scoreEntry(ProblemVaultEntry entry) {
@@ -77,27 +82,29 @@ public class VaultScoringService {
                 entry.getSourceCount()
         );
 
-        try {
-            ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
-                    .model(MODEL)
-                    .maxCompletionTokens(500L)
-                    .addSystemMessage(SYSTEM_PROMPT)
-                    .addUserMessage(userMessage)
-                    .build();
-
-            ChatCompletion completion = openAIClient.chat().completions().create(params);
-
-            String response = completion.choices().stream()
-                    .findFirst()
-                    .flatMap(choice -> choice.message().content())
-                    .orElseThrow(() -> new RuntimeException("Empty scoring response"));
-
-            applyScores(entry, response);
-            log.debug("Scored '{}': overall={}", entry.getTitle(), entry.getOverallScore());
-
-        } catch (Exception e) {
-            log.error("Failed to score problem '{}': {}", entry.getTitle(), e.getMessage());
+        // API failures propagate so the pipeline retries the signal; only unusable output leaves it unscored
+        ChatCompletionCreateParams params = ChatCompletionCreateParams.builder()
+                .model(MODEL)
+                .maxCompletionTokens(500L)
+                .addSystemMessage(SYSTEM_PROMPT)
+                .addUserMessage(userMessage)
+                .build();
+
+        ChatCompletion completion = llmMetrics.timeCall("score", MODEL.asString(),
+                () -> openAIClient.chat().completions().create(params));
+        completion.usage().ifPresent(usage -> llmMetrics.recordTokens("score", MODEL.asString(),
+                usage.promptTokens(), usage.completionTokens()));
+
+        Optional<String> response = completion.choices().stream()
+                .findFirst()
+                .flatMap(choice -> choice.message().content());
+        if (response.isEmpty()) {
+            log.warn("Empty scoring response for problem '{}'", entry.getTitle());
+            return;
         }
+
+        applyScores(entry, response.get());
+        log.debug("Scored '{}': overall={}", entry.getTitle(), entry.getOverallScore());
     }
 
     void applyScores(ProblemVaultEntry entry, String response) {
@@ -127,7 +134,7 @@ public class VaultScoringService {
         return BigDecimal.valueOf(Math.max(0, Math.min(score, max)));
     }
 
-    private String extractJson(String response) {
+    String extractJson(String response) {
         String trimmed = response.trim();
         if (trimmed.contains("```json")) {
             int start = trimmed.indexOf("```json") + 7;
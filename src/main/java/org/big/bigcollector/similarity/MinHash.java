@@ -0,0 +1,105 @@
+package org.big.bigcollector.similarity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over the character shingles of each word, so the estimated Jaccard similarity of two
+ * texts ignores word order and tolerates inflections ("invoice reconciliation" vs "reconciling invoices").
+ * Immutable and safe to share between threads.
+ */
+public final class MinHash {
+
+    private static final int SHINGLE_SIZE = 4;
+
+    private final long[] seeds;
+
+    public MinHash(int numHashes) {
+        if (numHashes <= 0) {
+            throw new IllegalArgumentException("numHashes must be positive");
+        }
+        // Fixed seed, so signatures stay comparable across runs and instances
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    public int numHashes() {
+        return seeds.length;
+    }
+
+    /** Signature of the text; texts without any letters or digits all share the same signature. */
+    public long[] signature(CharSequence text) {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long shingle : shingles(text)) {
+            for (int i = 0; i < seeds.length; i++) {
+                long h = mix(shingle ^ seeds[i]);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /** Estimated Jaccard similarity: the fraction of positions where two signatures agree. */
+    public static double similarity(long[] a, long[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Signatures have different lengths");
+        }
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / a.length;
+    }
+
+    /** Hashes of the {@value SHINGLE_SIZE}-character shingles of each lowercased word; short words count whole. */
+    static Set<Long> shingles(CharSequence text) {
+        Set<Long> shingles = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (word.length() <= SHINGLE_SIZE) {
+                if (!word.isEmpty()) {
+                    shingles.add(hash(word, 0, word.length()));
+                }
+            } else {
+                for (int start = 0; start + SHINGLE_SIZE <= word.length(); start++) {
+                    shingles.add(hash(word, start, start + SHINGLE_SIZE));
+                }
+            }
+            word.setLength(0);
+        }
+        return shingles;
+    }
+
+    private static long hash(CharSequence s, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /** MurmurHash3 64-bit finalizer. */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,91 @@
+package org.big.bigcollector.similarity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory LSH table over {@link MinHash} signatures. Signatures are split into {@code bands} bands of
+ * {@code rows} hashes; texts sharing any band are candidates and are confirmed against the similarity
+ * threshold. With 32 bands of 4 rows a pair at 0.6 similarity becomes a candidate ~99% of the time,
+ * at 0.3 ~23%. Not thread-safe.
+ */
+public final class NearDuplicateIndex {
+
+    private final MinHash minHash;
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+    private final List<Map<Long, List<Entry>>> buckets;
+    private int size;
+
+    public NearDuplicateIndex(int bands, int rows, double threshold) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        this.minHash = new MinHash(bands * rows);
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+        this.buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    public long[] signature(CharSequence text) {
+        return minHash.signature(text);
+    }
+
+    /** The most similar indexed text at or above the threshold, if any. */
+    public Optional<Match> findDuplicate(long[] signature) {
+        Entry best = null;
+        double bestSimilarity = threshold;
+        for (int b = 0; b < bands; b++) {
+            List<Entry> candidates = buckets.get(b).get(bandKey(signature, b));
+            if (candidates == null) {
+                continue;
+            }
+            for (Entry candidate : candidates) {
+                if (candidate == best) {
+                    continue;
+                }
+                double similarity = MinHash.similarity(signature, candidate.signature());
+                if (similarity >= bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(new Match(best.key(), bestSimilarity));
+    }
+
+    public void add(String key, long[] signature) {
+        Entry entry = new Entry(key, signature);
+        for (int b = 0; b < bands; b++) {
+            buckets.get(b).computeIfAbsent(bandKey(signature, b), k -> new ArrayList<>(1)).add(entry);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            key = MinHash.mix(key * 31 + signature[r]);
+        }
+        return key;
+    }
+
+    /** An indexed text judged a near-duplicate, with its estimated Jaccard similarity. */
+    public record Match(String key, double similarity) {
+    }
+
+    private record Entry(String key, long[] signature) {
+    }
+}
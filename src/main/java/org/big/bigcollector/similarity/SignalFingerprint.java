@@ -0,0 +1,57 @@
+package org.big.bigcollector.similarity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+/**
+ * SimHash fingerprint of a signal's content. Only the free-text fields collectors write into the raw JSON
+ * count, so the same story posted to Reddit, HN and Product Hunt fingerprints alike regardless of
+ * scores, authors or URLs. A comment's parent title ({@code post_title}) is left out on purpose.
+ */
+public final class SignalFingerprint {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> CONTENT_FIELDS = List.of(
+            "title", "tagline", "text", "selftext", "body", "content", "description", "comment_body");
+
+    // Below this there is too little text for a SimHash match to mean the texts are the same
+    static final int MIN_TOKENS = 12;
+
+    /** Bands stored per fingerprint; lookups by equal band find every fingerprint up to {@code BANDS - 1} bits away. */
+    public static final int BANDS = 7;
+
+    private SignalFingerprint() {
+    }
+
+    /** Fingerprint of a signal's raw JSON, or null when it has too little text or is not JSON. */
+    public static Long of(String rawJson) {
+        if (rawJson == null || rawJson.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode json = MAPPER.readTree(rawJson);
+            if (json == null || !json.isObject()) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder();
+            for (String field : CONTENT_FIELDS) {
+                JsonNode value = json.get(field);
+                if (value != null && value.isTextual()) {
+                    text.append(value.asText()).append('\n');
+                }
+            }
+            List<String> tokens = SimHash.tokens(text);
+            return tokens.size() < MIN_TOKENS ? null : SimHash.of(tokens);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** The fingerprint's {@link #BANDS} bands of 9-10 bits. */
+    public static int[] bands(long fingerprint) {
+        return SimHash.bands(fingerprint, BANDS);
+    }
+}
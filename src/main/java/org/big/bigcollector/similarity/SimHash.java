@@ -0,0 +1,86 @@
+package org.big.bigcollector.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 64-bit SimHash over the word unigrams and bigrams of a text. Near-identical texts (the same post with
+ * different markup, a trailing signature, a few edited words) land within a few bits of each other, so
+ * they can be compared by {@link #distance Hamming distance}.
+ */
+public final class SimHash {
+
+    private SimHash() {
+    }
+
+    /** Lowercased runs of letters and digits. */
+    public static List<String> tokens(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                tokens.add(word.toString().toLowerCase(Locale.ROOT));
+                word.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    public static long of(List<String> tokens) {
+        int[] weights = new int[64];
+        for (int i = 0; i < tokens.size(); i++) {
+            add(weights, hash(tokens.get(i)));
+            if (i + 1 < tokens.size()) {
+                add(weights, hash(tokens.get(i) + ' ' + tokens.get(i + 1)));
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * Splits a fingerprint into {@code count} contiguous bands of near-equal width, highest bits first.
+     * Two fingerprints less than {@code count} bits apart agree on at least one band (pigeonhole), so equal
+     * bands find every candidate within that distance.
+     */
+    public static int[] bands(long fingerprint, int count) {
+        if (count <= 0 || count > 64) {
+            throw new IllegalArgumentException("count must be between 1 and 64");
+        }
+        int[] bands = new int[count];
+        int shift = 64;
+        for (int b = 0; b < count; b++) {
+            int width = 64 / count + (b < 64 % count ? 1 : 0);
+            shift -= width;
+            bands[b] = (int) ((fingerprint >>> shift) & ((1L << width) - 1));
+        }
+        return bands;
+    }
+
+    private static void add(int[] weights, long featureHash) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((featureHash >>> bit) & 1) != 0 ? 1 : -1;
+        }
+    }
+
+    private static long hash(String feature) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            h = (h ^ feature.charAt(i)) * 0x100000001b3L;
+        }
+        return MinHash.mix(h);
+    }
+}
@@ -0,0 +1,110 @@
+package org.big.bigcollector.collector;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.RequestBudget;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppStoreCategoryResolverTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T00:00:00Z");
+
+    private MockWebServer mockWebServer;
+    private AppStoreCategoryResolver resolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        WebClient webClient = WebClient.builder()
+                .baseUrl(mockWebServer.url("/").toString())
+                .build();
+        HttpResilienceSettings settings = HttpResilienceSettings.defaults().toBuilder().maxAttempts(1).build();
+        ResilientHttpExecutor http = new ResilientHttpExecutor(
+                new CollectorMetrics(new SimpleMeterRegistry()), settings);
+        resolver = new AppStoreCategoryResolver(webClient, http, Duration.ofDays(1), 50);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void resolve_mergesChartsInOrderWithoutDuplicates() throws InterruptedException {
+        enqueueChart("1", "2");
+        enqueueChart("2", "3");
+        enqueueChart("4");
+
+        List<String> appIds = resolver.resolve("Productivity", RequestBudget.unlimited(), NOW);
+
+        assertThat(appIds).containsExactly("1", "2", "3", "4");
+        RecordedRequest first = mockWebServer.takeRequest();
+        assertThat(first.getPath()).isEqualTo("/us/rss/topfreeapplications/limit=50/genre=6007/json");
+        assertThat(mockWebServer.takeRequest().getPath()).contains("/toppaidapplications/");
+        assertThat(mockWebServer.takeRequest().getPath()).contains("/topgrossingapplications/");
+    }
+
+    @Test
+    void resolve_withinTtl_servesCachedList() {
+        enqueueChart("1");
+        enqueueChart();
+        enqueueChart();
+
+        resolver.resolve("Finance", RequestBudget.unlimited(), NOW);
+        List<String> again = resolver.resolve("Finance", RequestBudget.unlimited(), NOW.plus(Duration.ofHours(23)));
+
+        assertThat(again).containsExactly("1");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void resolve_expiredAndRefreshFails_keepsPreviousList() {
+        enqueueChart("1");
+        enqueueChart();
+        enqueueChart();
+        resolver.resolve("6015", RequestBudget.unlimited(), NOW);
+
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        }
+        List<String> refreshed = resolver.resolve("6015", RequestBudget.unlimited(), NOW.plus(Duration.ofDays(2)));
+
+        assertThat(refreshed).containsExactly("1");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    void resolve_unknownCategory_returnsEmptyWithoutRequests() {
+        assertThat(resolver.resolve("Not A Genre", RequestBudget.unlimited(), NOW)).isEmpty();
+        assertThat(mockWebServer.getRequestCount()).isZero();
+    }
+
+    private void enqueueChart(String... appIds) {
+        String entries = Arrays.stream(appIds)
+                .map(id -> "{\"id\": {\"label\": \"https://apps.apple.com/app/id" + id
+                        + "\", \"attributes\": {\"im:id\": \"" + id + "\"}}}")
+                .collect(Collectors.joining(","));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"feed\": {\"entry\": [" + entries + "]}}")
+                .addHeader("Content-Type", "application/json"));
+    }
+}
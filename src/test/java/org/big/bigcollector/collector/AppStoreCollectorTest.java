@@ -1,27 +1,46 @@
 package org.big.bigcollector.collector;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorTarget;
+import org.big.bigcollector.entity.HttpCacheEntry;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpCacheService;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.repository.CollectorMarkerRepository;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
+import org.big.bigcollector.repository.HttpCacheEntryRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +52,15 @@ class AppStoreCollectorTest {
     @Mock
     private CollectorSignalRepository signalRepository;
 
+    @Mock
+    private CollectorMarkerRepository markerRepository;
+
+    @Mock
+    private HttpCacheEntryRepository cacheRepository;
+
+    @Mock
+    private AppStoreCategoryResolver categoryResolver;
+
     private MockWebServer mockWebServer;
     private AppStoreCollector collector;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -46,7 +74,11 @@ class AppStoreCollectorTest {
                 .baseUrl(mockWebServer.url("/").toString())
                 .build();
 
-        collector = new AppStoreCollector(targetRepository, signalRepository, webClient, objectMapper);
+        CollectorMetrics metrics = new CollectorMetrics(new SimpleMeterRegistry());
+        ResilientHttpExecutor http = new ResilientHttpExecutor(metrics, HttpResilienceSettings.defaults());
+        collector = new AppStoreCollector(targetRepository, signalRepository, markerRepository, webClient, objectMapper,
+                http, new HttpCacheService(cacheRepository, http, metrics), categoryResolver,
+                new KeywordMatcherRegistry(objectMapper));
     }
 
     @AfterEach
@@ -98,7 +130,7 @@ class AppStoreCollectorTest {
                 }
                 """;
 
-        // Enqueue responses for each app in the Productivity category (3 apps)
+        // Enqueue responses for each app resolved for the Productivity category (3 apps)
         mockWebServer.enqueue(new MockResponse().setBody(responseJson).addHeader("Content-Type", "application/json"));
         mockWebServer.enqueue(new MockResponse().setBody(responseJson).addHeader("Content-Type", "application/json"));
         mockWebServer.enqueue(new MockResponse().setBody(responseJson).addHeader("Content-Type", "application/json"));
@@ -112,6 +144,8 @@ class AppStoreCollectorTest {
 
         when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
                 .thenReturn(List.of(target));
+        when(categoryResolver.resolve(eq("Productivity"), any()))
+                .thenReturn(List.of("1274495053", "904280696", "1150188240"));
         when(signalRepository.existsBySourceTypeAndSourceId(any(), any()))
                 .thenReturn(false);
 
@@ -297,4 +331,199 @@ class AppStoreCollectorTest {
         assertThat(result.itemsCollected()).isEqualTo(0);
         verify(signalRepository, never()).save(any());
     }
+
+    @Test
+    void collect_storedEtagAnsweredWith304_skipsParsing() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        CollectorTarget target = CollectorTarget.builder()
+                .sourceType(SourceType.APP_STORE)
+                .targetType("APP_ID")
+                .targetValue("123456789")
+                .enabled(true)
+                .build();
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(target));
+        when(cacheRepository.findByCacheKey("APP_STORE /rss/customerreviews/page=1/id=123456789/sortBy=mostRecent/json"))
+                .thenReturn(Optional.of(HttpCacheEntry.builder().etag("\"v1\"").build()));
+
+        CollectorConfig config = CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(100)
+                .build();
+
+        CollectionResult result = collector.collect(config);
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(0);
+        assertThat(mockWebServer.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        verify(signalRepository, never()).save(any());
+        verify(cacheRepository, never()).save(any());
+    }
+
+    @Test
+    void collect_fullyConsumedFeed_storesEtag() {
+        String responseJson = """
+                {
+                    "feed": {
+                        "entry": []
+                    }
+                }
+                """;
+        mockWebServer.enqueue(new MockResponse().setBody(responseJson)
+                .addHeader("Content-Type", "application/json")
+                .addHeader("ETag", "\"v2\""));
+
+        CollectorTarget target = CollectorTarget.builder()
+                .sourceType(SourceType.APP_STORE)
+                .targetType("APP_ID")
+                .targetValue("123456789")
+                .enabled(true)
+                .build();
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(target));
+
+        CollectorConfig config = CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(100)
+                .build();
+
+        collector.collect(config);
+
+        ArgumentCaptor<HttpCacheEntry> saved = ArgumentCaptor.forClass(HttpCacheEntry.class);
+        verify(cacheRepository).save(saved.capture());
+        assertThat(saved.getValue().getEtag()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void collect_fullPages_followsPaginationUntilShortPage() {
+        mockWebServer.setDispatcher(pagesDispatcher(Map.of(1, 50, 2, 50, 3, 10)));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(appTarget("123456789")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(500)
+                .build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(110);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void collect_knownReviewOnFirstPage_stopsPaging() {
+        mockWebServer.setDispatcher(pagesDispatcher(Map.of(1, 50, 2, 50)));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(appTarget("123456789")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any()))
+                .thenAnswer(inv -> inv.getArgument(1).equals("123456789_p1_r20"));
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(500)
+                .build());
+
+        assertThat(result.itemsCollected()).isEqualTo(20);
+        assertThat(result.duplicatesSkipped()).isEqualTo(1);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        verify(markerRepository, never()).mark(any(), any(), any());
+    }
+
+    @Test
+    void collect_cutShortByLimit_marksAppBacklog() {
+        mockWebServer.setDispatcher(pagesDispatcher(Map.of(1, 50, 2, 50)));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(appTarget("123456789")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(60)
+                .build());
+
+        assertThat(result.itemsCollected()).isEqualTo(60);
+        verify(markerRepository).mark(eq("APP_STORE"), eq("backlog:123456789"), any());
+        verify(markerRepository, never()).clear(any(), any());
+    }
+
+    @Test
+    void collect_appBacklogMarked_readsPastKnownReviewsAndClearsMarker() {
+        mockWebServer.setDispatcher(pagesDispatcher(Map.of(1, 50, 2, 50, 3, 10)));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(appTarget("123456789")));
+        when(markerRepository.existsBySourceTypeAndMarkerKey(SourceType.APP_STORE, "backlog:123456789"))
+                .thenReturn(true);
+        // The previous, truncated run stored page 1
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any()))
+                .thenAnswer(inv -> inv.<String>getArgument(1).startsWith("123456789_p1_"));
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(500)
+                .build());
+
+        assertThat(result.itemsCollected()).isEqualTo(60);
+        assertThat(result.duplicatesSkipped()).isEqualTo(50);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        verify(markerRepository).clear(SourceType.APP_STORE, "backlog:123456789");
+        verify(markerRepository, never()).mark(any(), any(), any());
+    }
+
+    @Test
+    void collect_parallelApps_respectMaxItemsAcrossWorkers() {
+        mockWebServer.setDispatcher(pagesDispatcher(Map.of(1, 50, 2, 50)));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.APP_STORE))
+                .thenReturn(List.of(appTarget("1"), appTarget("2"), appTarget("3"), appTarget("4")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.APP_STORE)
+                .maxItems(75)
+                .build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(75);
+        verify(signalRepository, times(75)).save(any());
+        verify(cacheRepository, never()).save(any());
+    }
+
+    private static CollectorTarget appTarget(String appId) {
+        return CollectorTarget.builder()
+                .sourceType(SourceType.APP_STORE)
+                .targetType("APP_ID")
+                .targetValue(appId)
+                .enabled(true)
+                .build();
+    }
+
+    /** Serves {@code sizes.get(page)} low-rated reviews per page (ids {@code p<page>_r<n>}), empty beyond. */
+    private static Dispatcher pagesDispatcher(Map<Integer, Integer> sizes) {
+        Pattern pagePattern = Pattern.compile("/page=(\\d+)/");
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                Matcher m = pagePattern.matcher(request.getPath());
+                int page = m.find() ? Integer.parseInt(m.group(1)) : 1;
+                String entries = IntStream.range(0, sizes.getOrDefault(page, 0))
+                        .mapToObj(n -> """
+                                {"im:rating": {"label": "2"},
+                                 "id": {"label": "x", "attributes": {"im:id": "p%d_r%d"}},
+                                 "content": {"label": "Sync keeps failing after every update and support never answers tickets."}}
+                                """.formatted(page, n))
+                        .collect(Collectors.joining(","));
+                return new MockResponse()
+                        .setBody("{\"feed\": {\"entry\": [" + entries + "]}}")
+                        .addHeader("Content-Type", "application/json");
+            }
+        };
+    }
 }
@@ -1,24 +1,34 @@
 package org.big.bigcollector.collector;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -52,7 +62,10 @@ class GitHubIssueCollectorTest {
                 .defaultHeader("Authorization", "Bearer test-token")
                 .build();
 
-        collector = new GitHubIssueCollector(targetRepository, signalRepository, webClient, objectMapper);
+        collector = new GitHubIssueCollector(targetRepository, signalRepository, webClient, objectMapper,
+                new ResilientHttpExecutor(new CollectorMetrics(new SimpleMeterRegistry()), HttpResilienceSettings.defaults()),
+                new KeywordMatcherRegistry(objectMapper));
+        ReflectionTestUtils.setField(collector, "requestInterval", Duration.ZERO);
     }
 
     @AfterEach
@@ -261,4 +274,100 @@ class GitHubIssueCollectorTest {
 
         verify(signalRepository, times(1)).save(any());
     }
+
+    @Test
+    void collect_graphql_mapsNodesAndFollowsCursor() throws Exception {
+        ReflectionTestUtils.setField(collector, "token", "test-token");
+        enqueueJson("""
+                {"data": {"search": {"issueCount": 2,
+                    "pageInfo": {"hasNextPage": true, "endCursor": "Y3Vyc29yOjE="},
+                    "nodes": [
+                        {"databaseId": 101, "title": "Export to CSV", "body": "Please add CSV export",
+                         "url": "https://github.com/acme/crm/issues/1", "comments": {"totalCount": 4},
+                         "reactions": {"totalCount": 30}, "thumbsUp": {"totalCount": 25},
+                         "labels": {"nodes": [{"name": "enhancement"}]},
+                         "repository": {"nameWithOwner": "acme/crm"}},
+                        {}
+                    ]}}}
+                """);
+        enqueueJson("""
+                {"data": {"search": {"issueCount": 2,
+                    "pageInfo": {"hasNextPage": false, "endCursor": "Y3Vyc29yOjI="},
+                    "nodes": [
+                        {"databaseId": 102, "title": "Dark mode", "body": null,
+                         "url": "https://github.com/acme/crm/issues/2", "comments": {"totalCount": 0},
+                         "reactions": {"totalCount": 12}, "thumbsUp": {"totalCount": 12},
+                         "labels": {"nodes": []}, "repository": {"nameWithOwner": "acme/crm"}}
+                    ]}}}
+                """);
+        stubTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.GITHUB).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        assertThat(result.lastCursor()).isEqualTo("Y3Vyc29yOjI=");
+
+        RecordedRequest first = mockWebServer.takeRequest();
+        assertThat(first.getMethod()).isEqualTo("POST");
+        assertThat(first.getPath()).isEqualTo("/graphql");
+        JsonNode variables = objectMapper.readTree(first.getBody().readUtf8()).get("variables");
+        assertThat(variables.get("first").asInt()).isEqualTo(100);
+        assertThat(variables.get("after").isNull()).isTrue();
+        JsonNode second = objectMapper.readTree(mockWebServer.takeRequest().getBody().readUtf8());
+        assertThat(second.get("variables").get("after").asText()).isEqualTo("Y3Vyc29yOjE=");
+
+        ArgumentCaptor<CollectorSignal> captor = ArgumentCaptor.forClass(CollectorSignal.class);
+        verify(signalRepository, times(2)).save(captor.capture());
+        CollectorSignal signal = captor.getAllValues().getFirst();
+        assertThat(signal.getSourceId()).isEqualTo("101");
+        JsonNode raw = objectMapper.readTree(signal.getRawText());
+        assertThat(raw.get("repo").asText()).isEqualTo("acme/crm");
+        assertThat(raw.get("reactions").asInt()).isEqualTo(30);
+        assertThat(raw.get("reactions_plus_one").asInt()).isEqualTo(25);
+        assertThat(raw.get("labels").get(0).asText()).isEqualTo("enhancement");
+    }
+
+    @Test
+    void collect_graphqlErrors_failRun() {
+        ReflectionTestUtils.setField(collector, "token", "test-token");
+        enqueueJson("""
+                {"data": null, "errors": [{"type": "RATE_LIMITED", "message": "API rate limit exceeded"}]}
+                """);
+        stubTarget();
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.GITHUB).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.FAILED);
+        assertThat(result.error()).contains("API rate limit exceeded");
+    }
+
+    @Test
+    void collect_graphqlWithoutToken_usesRestSearch() throws InterruptedException {
+        enqueueJson(EMPTY_RESPONSE);
+        stubTarget();
+
+        collector.collect(CollectorConfig.builder().sourceType(SourceType.GITHUB).maxItems(100).build());
+
+        assertThat(mockWebServer.takeRequest().getPath()).startsWith("/search/issues");
+    }
+
+    private void enqueueJson(String body) {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json"));
+    }
+
+    private void stubTarget() {
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.GITHUB)).thenReturn(List.of(
+                CollectorTarget.builder()
+                        .sourceType(SourceType.GITHUB)
+                        .targetType("TOPIC")
+                        .targetValue("CRM")
+                        .enabled(true)
+                        .build()));
+    }
 }
@@ -1,24 +1,40 @@
 package org.big.bigcollector.collector;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.progress.ProgressListener;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,7 +62,9 @@ class HackerNewsCollectorTest {
                 .baseUrl(mockWebServer.url("/").toString())
                 .build();
 
-        collector = new HackerNewsCollector(targetRepository, signalRepository, webClient, objectMapper);
+        collector = new HackerNewsCollector(targetRepository, signalRepository, webClient, objectMapper,
+                new ResilientHttpExecutor(new CollectorMetrics(new SimpleMeterRegistry()), HttpResilienceSettings.defaults()),
+                new KeywordMatcherRegistry(objectMapper));
     }
 
     @AfterEach
@@ -285,4 +303,146 @@ class HackerNewsCollectorTest {
         assertThat(result.status()).isEqualTo(CollectorStatus.FAILED);
         assertThat(result.error()).isNotNull();
     }
+
+    @Test
+    void backfill_windowsOverHitCap_splitUntilShardsFit() {
+        ReflectionTestUtils.setField(collector, "backfillRequestsPerSecond", 1000.0);
+        // Windows wider than 100s report more hits than Algolia pages through; narrower ones hold one hit
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                long[] range = windowOf(request);
+                if (range[1] - range[0] > 100) {
+                    return hnResponse("[]", 2000, 20);
+                }
+                return hnResponse(hnHit("h" + range[0]), 1, 1);
+            }
+        });
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS))
+                .thenReturn(List.of(keywordTarget("invoice")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.backfill(CollectorConfig.builder().sourceType(SourceType.HACKER_NEWS).build(),
+                Instant.ofEpochSecond(0), Instant.ofEpochSecond(400), ProgressListener.NONE);
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.error()).isNull();
+        assertThat(result.itemsCollected()).isEqualTo(4);
+        // [0,400) -> two halves -> four 100s shards
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(7);
+        ArgumentCaptor<CollectorSignal> saved = ArgumentCaptor.forClass(CollectorSignal.class);
+        verify(signalRepository, times(4)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(CollectorSignal::getSourceId)
+                .containsExactlyInAnyOrder("h0", "h100", "h200", "h300");
+    }
+
+    @Test
+    void backfill_shardWithSeveralPages_fetchesEveryPage() throws InterruptedException {
+        ReflectionTestUtils.setField(collector, "backfillRequestsPerSecond", 1000.0);
+        mockWebServer.enqueue(hnResponse(hnHit("p0"), 150, 2));
+        mockWebServer.enqueue(hnResponse(hnHit("p1"), 150, 2));
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS))
+                .thenReturn(List.of(keywordTarget("invoice")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.backfill(CollectorConfig.builder().sourceType(SourceType.HACKER_NEWS).build(),
+                Instant.ofEpochSecond(1_600_000_000), Instant.ofEpochSecond(1_700_000_000), ProgressListener.NONE);
+
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        RecordedRequest first = mockWebServer.takeRequest();
+        assertThat(first.getRequestUrl().encodedPath()).isEqualTo("/api/v1/search_by_date");
+        assertThat(first.getRequestUrl().queryParameter("numericFilters"))
+                .isEqualTo("points>2,created_at_i>=1600000000,created_at_i<1700000000");
+        assertThat(mockWebServer.takeRequest().getRequestUrl().queryParameter("page")).isEqualTo("1");
+    }
+
+    @Test
+    void backfill_failingShard_isReportedWithoutFailingTheRun() {
+        ReflectionTestUtils.setField(collector, "backfillRequestsPerSecond", 1000.0);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return "broken".equals(request.getRequestUrl().queryParameter("query"))
+                        ? new MockResponse().setResponseCode(400)
+                        : hnResponse(hnHit("h1"), 1, 1);
+            }
+        });
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS))
+                .thenReturn(List.of(keywordTarget("invoice"), keywordTarget("broken")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.backfill(CollectorConfig.builder().sourceType(SourceType.HACKER_NEWS).build(),
+                Instant.ofEpochSecond(0), Instant.ofEpochSecond(400), ProgressListener.NONE);
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.error()).isEqualTo("1 backfill shards failed");
+    }
+
+    @Test
+    void backfill_everyShardFailing_failsTheRun() {
+        ReflectionTestUtils.setField(collector, "backfillRequestsPerSecond", 1000.0);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400));
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS))
+                .thenReturn(List.of(keywordTarget("invoice")));
+
+        CollectionResult result = collector.backfill(CollectorConfig.builder().sourceType(SourceType.HACKER_NEWS).build(),
+                Instant.ofEpochSecond(0), Instant.ofEpochSecond(400), ProgressListener.NONE);
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.FAILED);
+        assertThat(result.error()).isEqualTo("1 backfill shards failed");
+    }
+
+    @Test
+    void backfill_sameItemUnderTwoTargets_storedOnce() {
+        ReflectionTestUtils.setField(collector, "backfillRequestsPerSecond", 1000.0);
+        // Both shards see the item before either has stored it
+        CountDownLatch bothLooking = new CountDownLatch(2);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return hnResponse(hnHit("shared"), 1, 1);
+            }
+        });
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.HACKER_NEWS))
+                .thenReturn(List.of(keywordTarget("invoice"), keywordTarget("manual")));
+        lenient().when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenAnswer(inv -> {
+            bothLooking.countDown();
+            bothLooking.await(1, TimeUnit.SECONDS);
+            return false;
+        });
+
+        CollectionResult result = collector.backfill(CollectorConfig.builder().sourceType(SourceType.HACKER_NEWS).build(),
+                Instant.ofEpochSecond(0), Instant.ofEpochSecond(400), ProgressListener.NONE);
+
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.duplicatesSkipped()).isEqualTo(1);
+        verify(signalRepository, times(1)).save(any());
+    }
+
+    private static long[] windowOf(RecordedRequest request) {
+        Matcher m = Pattern.compile("created_at_i>=(\\d+),created_at_i<(\\d+)")
+                .matcher(request.getRequestUrl().queryParameter("numericFilters"));
+        assertThat(m.find()).isTrue();
+        return new long[]{Long.parseLong(m.group(1)), Long.parseLong(m.group(2))};
+    }
+
+    private static MockResponse hnResponse(String hits, int nbHits, int nbPages) {
+        return new MockResponse()
+                .setBody("{\"hits\": " + hits + ", \"nbHits\": " + nbHits + ", \"nbPages\": " + nbPages + "}")
+                .addHeader("Content-Type", "application/json");
+    }
+
+    private static String hnHit(String id) {
+        return "[{\"objectID\": \"" + id + "\", \"comment_text\": \"I wish invoicing was not so manual\", \"points\": 5}]";
+    }
+
+    private static CollectorTarget keywordTarget(String keyword) {
+        return CollectorTarget.builder()
+                .sourceType(SourceType.HACKER_NEWS)
+                .targetType("KEYWORD")
+                .targetValue(keyword)
+                .enabled(true)
+                .build();
+    }
 }
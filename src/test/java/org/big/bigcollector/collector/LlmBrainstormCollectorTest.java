@@ -1,22 +1,33 @@
 package org.big.bigcollector.collector;
 
+import com.anthropic.core.JsonValue;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.config.AnthropicConfig;
 import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -37,7 +48,9 @@ class LlmBrainstormCollectorTest {
 
     @BeforeEach
     void setUp() {
-        collector = new LlmBrainstormCollector(targetRepository, signalRepository, anthropicConfig, objectMapper);
+        collector = new LlmBrainstormCollector(targetRepository, signalRepository, anthropicConfig, objectMapper,
+                new LlmMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(collector, "requestsPerMinute", 60_000);
     }
 
     @Test
@@ -46,7 +59,7 @@ class LlmBrainstormCollectorTest {
     }
 
     @Test
-    void collect_successfulBrainstorm_savesProblems() {
+    void collect_successfulBrainstorm_savesProblems() throws Exception {
         String aiResponse = """
                 [
                     {
@@ -84,7 +97,7 @@ class LlmBrainstormCollectorTest {
 
         // Use a spy to mock the Claude API call
         LlmBrainstormCollector spyCollector = spy(collector);
-        doReturn(aiResponse).when(spyCollector).callClaude(any());
+        doReturn(toolInput(aiResponse)).when(spyCollector).callClaude(any());
 
         CollectorConfig config = CollectorConfig.builder()
                 .sourceType(SourceType.LLM_BRAINSTORM)
@@ -117,7 +130,7 @@ class LlmBrainstormCollectorTest {
     }
 
     @Test
-    void collect_duplicateProblems_skipped() {
+    void collect_duplicateProblems_skipped() throws Exception {
         String aiResponse = """
                 [
                     {
@@ -146,7 +159,7 @@ class LlmBrainstormCollectorTest {
                 .thenReturn(true);
 
         LlmBrainstormCollector spyCollector = spy(collector);
-        doReturn(aiResponse).when(spyCollector).callClaude(any());
+        doReturn(toolInput(aiResponse)).when(spyCollector).callClaude(any());
 
         CollectorConfig config = CollectorConfig.builder()
                 .sourceType(SourceType.LLM_BRAINSTORM)
@@ -162,8 +175,8 @@ class LlmBrainstormCollectorTest {
     }
 
     @Test
-    void collect_malformedAiResponse_handledGracefully() {
-        String malformedResponse = "This is not valid JSON at all, just random text from the AI.";
+    void collect_malformedAiResponse_handledGracefully() throws Exception {
+        String malformedResponse = "\"This is not a problem list at all, just random text from the AI.\"";
 
         when(anthropicConfig.isConfigured()).thenReturn(true);
 
@@ -178,7 +191,7 @@ class LlmBrainstormCollectorTest {
                 .thenReturn(List.of(target));
 
         LlmBrainstormCollector spyCollector = spy(collector);
-        doReturn(malformedResponse).when(spyCollector).callClaude(any());
+        doReturn(toolInput(malformedResponse)).when(spyCollector).callClaude(any());
 
         CollectorConfig config = CollectorConfig.builder()
                 .sourceType(SourceType.LLM_BRAINSTORM)
@@ -191,4 +204,143 @@ class LlmBrainstormCollectorTest {
         assertThat(result.itemsCollected()).isEqualTo(0);
         verify(signalRepository, never()).save(any());
     }
+
+    @Test
+    void collect_industriesRunConcurrently() throws Exception {
+        when(anthropicConfig.isConfigured()).thenReturn(true);
+        List<CollectorTarget> targets = List.of("Healthcare", "Legal", "Retail", "Logistics").stream()
+                .map(industry -> CollectorTarget.builder()
+                        .sourceType(SourceType.LLM_BRAINSTORM)
+                        .targetType("INDUSTRY")
+                        .targetValue(industry)
+                        .enabled(true)
+                        .build())
+                .toList();
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.LLM_BRAINSTORM)).thenReturn(targets);
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+        // Every call waits until all four are in flight, so a sequential run would time out
+        CountDownLatch inFlight = new CountDownLatch(4);
+        LlmBrainstormCollector spyCollector = spy(collector);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            if (!inFlight.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("calls were not concurrent");
+            }
+            String message = invocation.getArgument(0);
+            String title = Map.of("Healthcare", "Patient intake paperwork", "Legal", "Contract clause tracking",
+                            "Retail", "Shelf stock forecasting", "Logistics", "Freight invoice auditing")
+                    .entrySet().stream()
+                    .filter(entry -> message.contains(entry.getKey()))
+                    .findFirst().orElseThrow().getValue();
+            return JsonValue.from(Map.of("problems", List.of(Map.of("title", title))));
+        }).when(spyCollector).callClaude(any());
+
+        CollectionResult result = spyCollector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.LLM_BRAINSTORM).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(4);
+        assertThat(result.error()).isNull();
+    }
+
+    @Test
+    void collect_failedIndustry_doesNotFailRun() throws Exception {
+        when(anthropicConfig.isConfigured()).thenReturn(true);
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.LLM_BRAINSTORM)).thenReturn(List.of(
+                CollectorTarget.builder().sourceType(SourceType.LLM_BRAINSTORM).targetType("INDUSTRY")
+                        .targetValue("Healthcare").enabled(true).build(),
+                CollectorTarget.builder().sourceType(SourceType.LLM_BRAINSTORM).targetType("INDUSTRY")
+                        .targetValue("Legal").enabled(true).build()));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        LlmBrainstormCollector spyCollector = spy(collector);
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("Legal")) {
+                throw new IllegalStateException("overloaded");
+            }
+            return toolInput("[{\"title\": \"Claims backlog\"}]");
+        }).when(spyCollector).callClaude(any());
+
+        CollectionResult result = spyCollector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.LLM_BRAINSTORM).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.error()).isEqualTo("1 industries failed");
+    }
+
+    @Test
+    void collect_saveFails_cancelsQueuedCalls() throws Exception {
+        // One call a minute: the second industry's call is still waiting for its slot when save fails
+        ReflectionTestUtils.setField(collector, "requestsPerMinute", 1);
+        when(anthropicConfig.isConfigured()).thenReturn(true);
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.LLM_BRAINSTORM)).thenReturn(List.of(
+                CollectorTarget.builder().sourceType(SourceType.LLM_BRAINSTORM).targetType("INDUSTRY")
+                        .targetValue("Healthcare").enabled(true).build(),
+                CollectorTarget.builder().sourceType(SourceType.LLM_BRAINSTORM).targetType("INDUSTRY")
+                        .targetValue("Legal").enabled(true).build()));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+        when(signalRepository.save(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        LlmBrainstormCollector spyCollector = spy(collector);
+        doReturn(toolInput("[{\"title\": \"Claims backlog\"}]")).when(spyCollector).callClaude(any());
+
+        CollectionResult result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> spyCollector.collect(CollectorConfig.builder()
+                        .sourceType(SourceType.LLM_BRAINSTORM).maxItems(100).build()));
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.FAILED);
+        assertThat(result.error()).isEqualTo("connection refused");
+        verify(spyCollector, times(1)).callClaude(any());
+    }
+
+    @Test
+    void parseProblems_missingProblems_returnsEmpty() {
+        assertThat(collector.parseProblems(null)).isEmpty();
+        assertThat(collector.parseProblems(JsonValue.from(Map.of("other", 1)))).isEmpty();
+    }
+
+    /** Wraps a JSON problem array the way the record_problems tool input carries it. */
+    private JsonValue toolInput(String problemsJson) throws Exception {
+        return JsonValue.from(Map.of("problems", objectMapper.readValue(problemsJson, Object.class)));
+    }
+
+    @Test
+    void collect_nearDuplicates_droppedAgainstRecentSignalsAndWithinRun() throws Exception {
+        when(anthropicConfig.isConfigured()).thenReturn(true);
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.LLM_BRAINSTORM)).thenReturn(List.of(
+                CollectorTarget.builder().sourceType(SourceType.LLM_BRAINSTORM).targetType("INDUSTRY")
+                        .targetValue("Accounting").enabled(true).build()));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+        when(signalRepository.findBySourceTypeOrderByCreatedAtDesc(eq(SourceType.LLM_BRAINSTORM), any()))
+                .thenReturn(List.of(CollectorSignal.builder()
+                        .sourceType(SourceType.LLM_BRAINSTORM)
+                        .sourceId("llm_accounting_known")
+                        .rawText("""
+                                {"title": "Manual invoice reconciliation",
+                                 "description": "Accountants match invoices to bank lines by hand every month."}
+                                """)
+                        .build()));
+
+        LlmBrainstormCollector spyCollector = spy(collector);
+        doReturn(toolInput("""
+                [
+                  {"title": "Manual reconciliation of invoices",
+                   "description": "Accountants match bank lines to invoices by hand every month."},
+                  {"title": "Audit trail gaps in expense approvals",
+                   "description": "Finance teams cannot show who approved which expense and when."},
+                  {"title": "Expense approval audit trail gaps",
+                   "description": "Finance teams cannot show who approved which expense, and when."}
+                ]
+                """)).when(spyCollector).callClaude(any());
+
+        CollectionResult result = spyCollector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.LLM_BRAINSTORM).maxItems(100).build());
+
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.duplicatesSkipped()).isEqualTo(2);
+        ArgumentCaptor<CollectorSignal> captor = ArgumentCaptor.forClass(CollectorSignal.class);
+        verify(signalRepository).save(captor.capture());
+        assertThat(captor.getValue().getRawText()).contains("Audit trail gaps in expense approvals");
+    }
 }
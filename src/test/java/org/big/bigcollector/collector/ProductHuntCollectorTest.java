@@ -1,12 +1,18 @@
 package org.big.bigcollector.collector;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -19,6 +25,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,8 +54,11 @@ class ProductHuntCollectorTest {
                 .baseUrl(mockWebServer.url("/").toString())
                 .build();
 
-        collector = new ProductHuntCollector(targetRepository, signalRepository, webClient, objectMapper);
+        collector = new ProductHuntCollector(targetRepository, signalRepository, webClient, objectMapper,
+                new ResilientHttpExecutor(new CollectorMetrics(new SimpleMeterRegistry()), HttpResilienceSettings.defaults()),
+                new KeywordMatcherRegistry(objectMapper));
         ReflectionTestUtils.setField(collector, "token", "test-token");
+        ReflectionTestUtils.setField(collector, "requestDelay", Duration.ZERO);
     }
 
     @AfterEach
@@ -66,7 +76,7 @@ class ProductHuntCollectorTest {
         String responseJson = """
                 {
                     "data": {
-                        "posts": {
+                        "t0": {
                             "edges": [
                                 {
                                     "node": {
@@ -160,7 +170,7 @@ class ProductHuntCollectorTest {
         String responseJson = """
                 {
                     "data": {
-                        "posts": {
+                        "t0": {
                             "edges": [
                                 {
                                     "node": {
@@ -226,7 +236,7 @@ class ProductHuntCollectorTest {
         String responseJson = """
                 {
                     "data": {
-                        "posts": {
+                        "t0": {
                             "edges": []
                         }
                     }
@@ -258,4 +268,119 @@ class ProductHuntCollectorTest {
         assertThat(result.itemsCollected()).isEqualTo(0);
         verify(signalRepository, never()).save(any());
     }
+
+    @Test
+    void collect_severalTopics_batchedIntoOneRequest() throws Exception {
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {
+                    "t0": {"edges": [%s]},
+                    "t1": {"edges": [%s]}
+                }}
+                """.formatted(post("p1", comment("c1")), post("p2", comment("c2")))));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.PRODUCT_HUNT))
+                .thenReturn(List.of(topic("SaaS"), topic("Productivity")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(config(100));
+
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        JsonNode variables = objectMapper.readTree(mockWebServer.takeRequest().getBody().readUtf8()).get("variables");
+        assertThat(variables.get("topic0").asText()).isEqualTo("SaaS");
+        assertThat(variables.get("topic1").asText()).isEqualTo("Productivity");
+    }
+
+    @Test
+    void collect_nextPageOfPosts_followsCursor() throws Exception {
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {"t0": {"pageInfo": {"hasNextPage": true, "endCursor": "cursor-1"}, "edges": [%s]}}}
+                """.formatted(post("p1", comment("c1")))));
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {"t0": {"pageInfo": {"hasNextPage": false}, "edges": [%s]}}}
+                """.formatted(post("p2", comment("c2")))));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.PRODUCT_HUNT))
+                .thenReturn(List.of(topic("SaaS")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(config(100));
+
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        mockWebServer.takeRequest();
+        JsonNode variables = objectMapper.readTree(mockWebServer.takeRequest().getBody().readUtf8()).get("variables");
+        assertThat(variables.get("after0").asText()).isEqualTo("cursor-1");
+    }
+
+    @Test
+    void collect_moreComments_fetchesCommentPages() throws Exception {
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {"t0": {"edges": [{"node": {"id": "p1", "name": "Tool", "votesCount": 100,
+                    "comments": {"pageInfo": {"hasNextPage": true, "endCursor": "c-cursor"}, "edges": [%s]}}}]}}}
+                """.formatted(comment("c1"))));
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {"post": {"comments": {"pageInfo": {"hasNextPage": false}, "edges": [%s, %s]}}}}
+                """.formatted(comment("c2"), comment("c3"))));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.PRODUCT_HUNT))
+                .thenReturn(List.of(topic("SaaS")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(config(100));
+
+        assertThat(result.itemsCollected()).isEqualTo(3);
+        mockWebServer.takeRequest();
+        JsonNode variables = objectMapper.readTree(mockWebServer.takeRequest().getBody().readUtf8()).get("variables");
+        assertThat(variables.get("id").asText()).isEqualTo("p1");
+        assertThat(variables.get("after").asText()).isEqualTo("c-cursor");
+    }
+
+    @Test
+    void collect_complexityBudgetLow_stopsPaging() {
+        mockWebServer.enqueue(jsonResponse("""
+                {"data": {"t0": {"pageInfo": {"hasNextPage": true, "endCursor": "cursor-1"}, "edges": [%s]}}}
+                """.formatted(post("p1", comment("c1")))).addHeader("X-Rate-Limit-Remaining", "120"));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.PRODUCT_HUNT))
+                .thenReturn(List.of(topic("SaaS")));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(config(100));
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    private static MockResponse jsonResponse(String body) {
+        return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+    }
+
+    private static String post(String id, String comment) {
+        return """
+                {"node": {"id": "%s", "name": "Tool", "votesCount": 100, "comments": {"edges": [%s]}}}
+                """.formatted(id, comment);
+    }
+
+    private static String comment(String id) {
+        return """
+                {"node": {"id": "%s", "body": "I wish it had a proper API, the export is broken."}}
+                """.formatted(id);
+    }
+
+    private static CollectorTarget topic(String name) {
+        return CollectorTarget.builder()
+                .sourceType(SourceType.PRODUCT_HUNT)
+                .targetType("TOPIC")
+                .targetValue(name)
+                .enabled(true)
+                .build();
+    }
+
+    private static CollectorConfig config(int maxItems) {
+        return CollectorConfig.builder()
+                .sourceType(SourceType.PRODUCT_HUNT)
+                .maxItems(maxItems)
+                .build();
+    }
 }
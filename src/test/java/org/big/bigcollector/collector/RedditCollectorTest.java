@@ -1,27 +1,39 @@
 package org.big.bigcollector.collector;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.CollectorTarget;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.repository.CollectorMarkerRepository;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +45,9 @@ class RedditCollectorTest {
     @Mock
     private CollectorSignalRepository signalRepository;
 
+    @Mock
+    private CollectorMarkerRepository markerRepository;
+
     private MockWebServer mockWebServer;
     private RedditCollector collector;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -47,7 +62,10 @@ class RedditCollectorTest {
                 .defaultHeader("User-Agent", "BIG-Collector-Test/1.0")
                 .build();
 
-        collector = new RedditCollector(targetRepository, signalRepository, webClient, objectMapper);
+        collector = new RedditCollector(targetRepository, signalRepository, markerRepository, webClient, objectMapper,
+                new ResilientHttpExecutor(new CollectorMetrics(new SimpleMeterRegistry()), HttpResilienceSettings.defaults()),
+                new KeywordMatcherRegistry(objectMapper));
+        ReflectionTestUtils.setField(collector, "requestInterval", Duration.ZERO);
     }
 
     @AfterEach
@@ -140,9 +158,51 @@ class RedditCollectorTest {
         assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
         // Only abc123 passes both filters (score > 5 AND selftext > 50 chars)
         assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.itemsFiltered()).isEqualTo(2);
         verify(signalRepository, times(1)).save(any());
     }
 
+    @Test
+    void collect_keywordsInSettings_filtersAndRecordsMatches() throws Exception {
+        String responseJson = """
+                {"data": {"after": null, "children": [
+                    {"kind": "t3", "data": {"id": "match1", "title": "Invoicing is painful",
+                        "selftext": "Reconciling invoices by hand every month wastes hours. Is there a tool for this?",
+                        "score": 30, "subreddit": "smallbusiness", "permalink": "/r/smallbusiness/comments/match1/"}},
+                    {"kind": "t3", "data": {"id": "miss1", "title": "Show off my new desk setup",
+                        "selftext": "Finally finished building the standing desk, very happy with how the wood turned out.",
+                        "score": 30, "subreddit": "smallbusiness", "permalink": "/r/smallbusiness/comments/miss1/"}}
+                ]}}
+                """;
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(responseJson)
+                .addHeader("Content-Type", "application/json"));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.REDDIT))
+                .thenReturn(List.of(CollectorTarget.builder()
+                        .sourceType(SourceType.REDDIT)
+                        .targetType("SUBREDDIT")
+                        .targetValue("smallbusiness")
+                        .enabled(true)
+                        .build()));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT)
+                .maxItems(100)
+                .settings("{\"keywords\": [\"PAIN\", \"is there a tool\"]}")
+                .build());
+
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(result.itemsFiltered()).isEqualTo(1);
+        ArgumentCaptor<CollectorSignal> saved = ArgumentCaptor.forClass(CollectorSignal.class);
+        verify(signalRepository).save(saved.capture());
+        JsonNode rawJson = objectMapper.readTree(saved.getValue().getRawText());
+        assertThat(rawJson.get("keyword_matches")).extracting(JsonNode::asText)
+                .containsExactly("pain", "is there a tool");
+        assertThat(rawJson.get("keyword_hits").asInt()).isEqualTo(2);
+    }
+
     @Test
     void collect_paginationWithAfterCursor() {
         String page1 = """
@@ -278,4 +338,244 @@ class RedditCollectorTest {
         assertThat(result.duplicatesSkipped()).isEqualTo(1);
         verify(signalRepository, never()).save(any());
     }
+
+    @Test
+    void collect_commentMode_walksTreeAndFetchesMoreChildren() throws Exception {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        enqueueJson(listingWithPopularPost());
+        enqueueJson("""
+                [{"data": {"children": []}},
+                 {"data": {"children": [
+                    {"kind": "t1", "data": {"id": "c1", "depth": 0, "score": 40, "author": "a1",
+                        "permalink": "/r/SaaS/comments/hot1/t/c1/",
+                        "body": "I would pay for a tool that syncs invoices with my bank automatically.",
+                        "replies": {"data": {"children": [
+                            {"kind": "t1", "data": {"id": "c2", "depth": 1, "score": 12, "author": "a2",
+                                "body": "Same here, every accounting app I tried gets the bank feed wrong.",
+                                "replies": ""}}
+                        ]}}}},
+                    {"kind": "t1", "data": {"id": "c3", "depth": 0, "score": 30, "body": "+1", "replies": ""}},
+                    {"kind": "more", "data": {"id": "m1", "depth": 0, "children": ["c4"]}}
+                 ]}}]
+                """);
+        enqueueJson("""
+                {"json": {"data": {"things": [
+                    {"kind": "t1", "data": {"id": "c4", "depth": 0, "score": 8, "author": "a4",
+                        "body": "Honestly the reconciliation step is the worst part of running a shop.",
+                        "replies": ""}}
+                ]}}}
+                """);
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        // The post plus c1, c2 and c4; c3 is too short
+        assertThat(result.itemsCollected()).isEqualTo(4);
+        assertThat(result.itemsFiltered()).isEqualTo(1);
+
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getPath())
+                .startsWith("/comments/hot1.json?depth=5&limit=200&sort=top");
+        assertThat(mockWebServer.takeRequest().getPath())
+                .contains("/api/morechildren.json").contains("link_id=t3_hot1").contains("children=c4");
+
+        ArgumentCaptor<CollectorSignal> captor = ArgumentCaptor.forClass(CollectorSignal.class);
+        verify(signalRepository, times(4)).save(captor.capture());
+        assertThat(captor.getAllValues()).extracting(CollectorSignal::getSourceId)
+                .containsExactly("hot1", "t1_c1", "t1_c2", "t1_c4");
+        JsonNode reply = objectMapper.readTree(captor.getAllValues().get(2).getRawText());
+        assertThat(reply.get("type").asText()).isEqualTo("comment");
+        assertThat(reply.get("post_title").asText()).isEqualTo("Invoicing is painful");
+        assertThat(reply.get("depth").asInt()).isEqualTo(1);
+        verify(markerRepository).mark(eq("REDDIT"), eq("thread:hot1"), any());
+    }
+
+    @Test
+    void collect_commentMode_respectsPerPostCapAndDepth() throws Exception {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        ReflectionTestUtils.setField(collector, "commentsMaxDepth", 1);
+        ReflectionTestUtils.setField(collector, "commentsMaxPerPost", 1);
+        enqueueJson(listingWithPopularPost());
+        enqueueJson("""
+                [{"data": {"children": []}},
+                 {"data": {"children": [
+                    {"kind": "t1", "data": {"id": "c1", "depth": 0, "score": 40,
+                        "body": "I would pay for a tool that syncs invoices with my bank automatically.",
+                        "replies": ""}},
+                    {"kind": "t1", "data": {"id": "c2", "depth": 0, "score": 40,
+                        "body": "Another top level comment that is long enough to be kept as a signal.",
+                        "replies": ""}},
+                    {"kind": "more", "data": {"id": "m1", "depth": 0, "children": ["c4"]}}
+                 ]}}]
+                """);
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(100).build());
+
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getPath()).contains("depth=1").contains("limit=1");
+    }
+
+    @Test
+    void collect_commentMode_failedThreadDoesNotFailRun() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        enqueueJson(listingWithPopularPost());
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(100).build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+    }
+
+    @Test
+    void collect_commentMode_skipsThreadsHarvestedEarlier() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        enqueueJson(listingWithPopularPost());
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(SourceType.REDDIT, "hot1")).thenReturn(true);
+        when(markerRepository.existsBySourceTypeAndMarkerKey(SourceType.REDDIT, "thread:hot1")).thenReturn(true);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(100).build());
+
+        assertThat(result.duplicatesSkipped()).isEqualTo(1);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        verify(markerRepository, never()).mark(any(), any(), any());
+    }
+
+    @Test
+    void collect_commentMode_harvestedThreadOfUnstoredPostIsNotWalkedAgain() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        // Popular, but a link post without selftext, so the post itself is never stored
+        enqueueJson(listingWithPopularPost().replace(
+                "Every month I spend a full day matching invoices to bank transactions by hand.", ""));
+        enqueueJson(singleCommentThread());
+        enqueueJson(listingWithPopularPost().replace(
+                "Every month I spend a full day matching invoices to bank transactions by hand.", ""));
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+        when(markerRepository.existsBySourceTypeAndMarkerKey(SourceType.REDDIT, "thread:hot1"))
+                .thenReturn(false, true);
+
+        CollectorConfig config = CollectorConfig.builder().sourceType(SourceType.REDDIT).maxItems(100).build();
+        CollectionResult first = collector.collect(config);
+        CollectionResult second = collector.collect(config);
+
+        assertThat(first.itemsCollected()).isEqualTo(1);
+        assertThat(second.itemsCollected()).isZero();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+        verify(markerRepository).mark(eq("REDDIT"), eq("thread:hot1"), any());
+    }
+
+    @Test
+    void collect_commentMode_limitReachedByPosts_skipsThreadFetch() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        enqueueJson(listingWithPopularPost());
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(1).build());
+
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        verifyNoInteractions(markerRepository);
+    }
+
+    @Test
+    void collect_commentMode_threadCutShortByLimitIsNotMarked() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        enqueueJson(listingWithPopularPost());
+        enqueueJson("""
+                [{"data": {"children": []}},
+                 {"data": {"children": [
+                    {"kind": "t1", "data": {"id": "c1", "depth": 0, "score": 40,
+                        "body": "I would pay for a tool that syncs invoices with my bank automatically.",
+                        "replies": ""}},
+                    {"kind": "t1", "data": {"id": "c2", "depth": 0, "score": 40,
+                        "body": "Another top level comment that is long enough to be kept as a signal.",
+                        "replies": ""}}
+                 ]}}]
+                """);
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).maxItems(2).build());
+
+        assertThat(result.itemsCollected()).isEqualTo(2);
+        verify(markerRepository, never()).mark(any(), any(), any());
+    }
+
+    @Test
+    void collect_commentMode_threadOfInterruptedRunIsNotMarked() {
+        ReflectionTestUtils.setField(collector, "commentsEnabled", true);
+        Thread collecting = Thread.currentThread();
+        enqueueJson(listingWithPopularPost());
+        enqueueJson(singleCommentThread());
+        stubRedditTarget();
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenAnswer(inv -> {
+            // Stop requested while the post is being stored, before its thread is harvested
+            collecting.interrupt();
+            return false;
+        });
+
+        try {
+            collector.collect(CollectorConfig.builder().sourceType(SourceType.REDDIT).maxItems(100).build());
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(markerRepository, never()).mark(any(), any(), any());
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    private static String singleCommentThread() {
+        return """
+                [{"data": {"children": []}},
+                 {"data": {"children": [
+                    {"kind": "t1", "data": {"id": "c1", "depth": 0, "score": 40,
+                        "body": "I would pay for a tool that syncs invoices with my bank automatically.",
+                        "replies": ""}}
+                 ]}}]
+                """;
+    }
+
+    private static String listingWithPopularPost() {
+        return """
+                {"data": {"after": null, "children": [
+                    {"kind": "t3", "data": {"id": "hot1", "title": "Invoicing is painful",
+                        "selftext": "Every month I spend a full day matching invoices to bank transactions by hand.",
+                        "score": 120, "subreddit": "SaaS", "permalink": "/r/SaaS/comments/hot1/t/",
+                        "author": "founder", "num_comments": 4, "created_utc": 1700000000.0}}
+                ]}}
+                """;
+    }
+
+    private void enqueueJson(String body) {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "application/json"));
+    }
+
+    private void stubRedditTarget() {
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.REDDIT)).thenReturn(List.of(
+                CollectorTarget.builder()
+                        .sourceType(SourceType.REDDIT)
+                        .targetType("SUBREDDIT")
+                        .targetValue("SaaS")
+                        .enabled(true)
+                        .build()));
+    }
 }
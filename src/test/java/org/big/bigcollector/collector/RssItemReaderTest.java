@@ -0,0 +1,86 @@
+package org.big.bigcollector.collector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RssItemReaderTest {
+
+    private static final String FEED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <rss version="2.0" xmlns:media="http://search.yahoo.com/mrss/">
+              <channel>
+                <title>Channel title is not an item title</title>
+                <item>
+                  <title>First job</title>
+                  <media:title>ignored</media:title>
+                  <link>https://www.upwork.com/jobs/1</link>
+                  <description><![CDATA[<b>Budget</b>: $500]]></description>
+                  <pubDate>Wed, 15 Jan 2025 10:00:00 +0000</pubDate>
+                </item>
+                <item>
+                  <title>Second job</title>
+                  <guid>job-2</guid>
+                  <description>Plain &amp; simple</description>
+                  <pubDate>yesterday</pubDate>
+                </item>
+              </channel>
+            </rss>
+            """;
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsItemsInOrder() {
+        try (RssItemReader reader = new RssItemReader(stream(FEED))) {
+            RssItemReader.Item first = reader.next();
+            assertThat(first.title()).isEqualTo("First job");
+            assertThat(first.link()).isEqualTo("https://www.upwork.com/jobs/1");
+            assertThat(first.guid()).isNull();
+            assertThat(first.description()).isEqualTo("<b>Budget</b>: $500");
+            assertThat(first.publishedAt()).isEqualTo(Instant.parse("2025-01-15T10:00:00Z"));
+
+            RssItemReader.Item second = reader.next();
+            assertThat(second.title()).isEqualTo("Second job");
+            assertThat(second.link()).isNull();
+            assertThat(second.guid()).isEqualTo("job-2");
+            assertThat(second.description()).isEqualTo("Plain & simple");
+            assertThat(second.publishedAt()).isNull();
+
+            assertThat(reader.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    void close_closesUnderlyingStreamWithoutReadingTheRest() {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream input = new ByteArrayInputStream(FEED.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        try (RssItemReader reader = new RssItemReader(input)) {
+            assertThat(reader.next().title()).isEqualTo("First job");
+        }
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void malformedFeed_throws() {
+        try (RssItemReader reader = new RssItemReader(stream("<rss><channel><item><title>broken"))) {
+            assertThatThrownBy(reader::hasNext).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
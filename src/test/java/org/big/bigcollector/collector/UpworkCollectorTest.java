@@ -1,19 +1,35 @@
 package org.big.bigcollector.collector;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.big.bigcollector.entity.CollectorConfig;
 import org.big.bigcollector.entity.CollectorTarget;
+import org.big.bigcollector.entity.HttpCacheEntry;
 import org.big.bigcollector.entity.enums.CollectorStatus;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.http.HttpCacheService;
+import org.big.bigcollector.http.HttpResilienceSettings;
+import org.big.bigcollector.http.ResilientHttpExecutor;
+import org.big.bigcollector.keyword.KeywordMatcherRegistry;
+import org.big.bigcollector.metrics.CollectorMetrics;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.CollectorTargetRepository;
+import org.big.bigcollector.repository.HttpCacheEntryRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,11 +44,32 @@ class UpworkCollectorTest {
     @Mock
     private CollectorSignalRepository signalRepository;
 
+    @Mock
+    private HttpCacheEntryRepository cacheRepository;
+
+    private MockWebServer mockWebServer;
     private UpworkCollector collector;
 
     @BeforeEach
-    void setUp() {
-        collector = new UpworkCollector(targetRepository, signalRepository, new ObjectMapper());
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        WebClient webClient = WebClient.builder()
+                .baseUrl(mockWebServer.url("/").toString())
+                .build();
+
+        CollectorMetrics metrics = new CollectorMetrics(new SimpleMeterRegistry());
+        ResilientHttpExecutor http = new ResilientHttpExecutor(metrics, HttpResilienceSettings.defaults().toBuilder()
+                .baseDelay(Duration.ofMillis(10))
+                .build());
+        collector = new UpworkCollector(targetRepository, signalRepository, webClient, new ObjectMapper(),
+                http, new HttpCacheService(cacheRepository, http, metrics), new KeywordMatcherRegistry(new ObjectMapper()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
     }
 
     @Test
@@ -90,7 +127,10 @@ class UpworkCollectorTest {
 
     @Test
     void collect_rssFetchFails_gracefullyHandlesError() {
-        // This target will cause a fetch failure since we're not mocking the HTTP call
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        }
+
         CollectorTarget target = CollectorTarget.builder()
                 .sourceType(SourceType.UPWORK)
                 .targetType("KEYWORD")
@@ -112,4 +152,110 @@ class UpworkCollectorTest {
         assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
         assertThat(result.itemsCollected()).isEqualTo(0);
     }
+
+    @Test
+    void collect_parsesFeedAndStoresValidators() throws InterruptedException {
+        String rss = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <rss version="2.0">
+                  <channel>
+                    <title>Upwork jobs</title>
+                    <item>
+                      <title>Shopify to warehouse sync</title>
+                      <link>https://www.upwork.com/jobs/1</link>
+                      <description><![CDATA[Build an automation. <b>Budget</b>: $1,500 - $3,000]]></description>
+                      <pubDate>Wed, 15 Jan 2025 10:00:00 +0000</pubDate>
+                    </item>
+                  </channel>
+                </rss>
+                """;
+        mockWebServer.enqueue(new MockResponse().setBody(rss)
+                .addHeader("Content-Type", "application/rss+xml")
+                .addHeader("Last-Modified", "Wed, 15 Jan 2025 10:00:00 GMT"));
+
+        CollectorTarget target = CollectorTarget.builder()
+                .sourceType(SourceType.UPWORK)
+                .targetType("KEYWORD")
+                .targetValue("shopify automation")
+                .enabled(true)
+                .build();
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.UPWORK))
+                .thenReturn(List.of(target));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectorConfig config = CollectorConfig.builder()
+                .sourceType(SourceType.UPWORK)
+                .maxItems(100)
+                .build();
+
+        CollectionResult result = collector.collect(config);
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        assertThat(mockWebServer.takeRequest().getPath())
+                .isEqualTo("/ab/feed/jobs/rss?q=shopify%20automation&sort=recency");
+        ArgumentCaptor<HttpCacheEntry> saved = ArgumentCaptor.forClass(HttpCacheEntry.class);
+        verify(cacheRepository).save(saved.capture());
+        assertThat(saved.getValue().getLastModified()).isEqualTo("Wed, 15 Jan 2025 10:00:00 GMT");
+    }
+
+    @Test
+    void collect_unparseableFeed_skipsKeywordAndContinues() {
+        mockWebServer.enqueue(new MockResponse().setBody("<?xml version=\"1.0\"?>>>")
+                .addHeader("Last-Modified", "Wed, 15 Jan 2025 09:00:00 GMT"));
+        mockWebServer.enqueue(new MockResponse().setBody("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <rss version="2.0"><channel>
+                  <item><title>Zapier workflow</title><link>https://www.upwork.com/jobs/2</link></item>
+                </channel></rss>
+                """).addHeader("Last-Modified", "Wed, 15 Jan 2025 10:00:00 GMT"));
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.UPWORK)).thenReturn(List.of(
+                CollectorTarget.builder().sourceType(SourceType.UPWORK).targetType("KEYWORD")
+                        .targetValue("broken").enabled(true).build(),
+                CollectorTarget.builder().sourceType(SourceType.UPWORK).targetType("KEYWORD")
+                        .targetValue("zapier").enabled(true).build()));
+        when(signalRepository.existsBySourceTypeAndSourceId(any(), any())).thenReturn(false);
+
+        CollectionResult result = collector.collect(CollectorConfig.builder()
+                .sourceType(SourceType.UPWORK)
+                .maxItems(100)
+                .build());
+
+        assertThat(result.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(result.itemsCollected()).isEqualTo(1);
+        ArgumentCaptor<HttpCacheEntry> saved = ArgumentCaptor.forClass(HttpCacheEntry.class);
+        verify(cacheRepository).save(saved.capture());
+        assertThat(saved.getValue().getLastModified()).isEqualTo("Wed, 15 Jan 2025 10:00:00 GMT");
+    }
+
+    @Test
+    void collect_feedNotModified_savesNothing() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        CollectorTarget target = CollectorTarget.builder()
+                .sourceType(SourceType.UPWORK)
+                .targetType("KEYWORD")
+                .targetValue("saas")
+                .enabled(true)
+                .build();
+
+        when(targetRepository.findBySourceTypeAndEnabledTrue(SourceType.UPWORK))
+                .thenReturn(List.of(target));
+        when(cacheRepository.findByCacheKey("UPWORK /ab/feed/jobs/rss?q=saas&sort=recency"))
+                .thenReturn(Optional.of(HttpCacheEntry.builder().lastModified("Wed, 15 Jan 2025 10:00:00 GMT").build()));
+
+        CollectorConfig config = CollectorConfig.builder()
+                .sourceType(SourceType.UPWORK)
+                .maxItems(100)
+                .build();
+
+        CollectionResult result = collector.collect(config);
+
+        assertThat(result.itemsCollected()).isEqualTo(0);
+        assertThat(mockWebServer.takeRequest().getHeader("If-Modified-Since"))
+                .isEqualTo("Wed, 15 Jan 2025 10:00:00 GMT");
+        verify(signalRepository, never()).save(any());
+    }
 }
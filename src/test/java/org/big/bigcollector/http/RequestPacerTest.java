@@ -0,0 +1,39 @@
+package org.big.bigcollector.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestPacerTest {
+
+    @AfterEach
+    void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    void tryAcquire_spacesRequestsByInterval() {
+        RequestPacer pacer = new RequestPacer(Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        assertThat(pacer.tryAcquire()).isTrue();
+        assertThat(pacer.tryAcquire()).isTrue();
+        assertThat(pacer.tryAcquire()).isTrue();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void tryAcquire_interruptedWhileWaiting_returnsFalseAndKeepsFlag() {
+        RequestPacer pacer = new RequestPacer(Duration.ofMinutes(1));
+        assertThat(pacer.tryAcquire()).isTrue();
+
+        Thread.currentThread().interrupt();
+
+        assertThat(pacer.tryAcquire()).isFalse();
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package org.big.bigcollector.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilientHttpExecutorTest {
+
+    private MockWebServer mockWebServer;
+    private WebClient webClient;
+    private SimpleMeterRegistry registry;
+    private ResilientHttpExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        registry = new SimpleMeterRegistry();
+        executor = new ResilientHttpExecutor(new CollectorMetrics(registry), HttpResilienceSettings.defaults().toBuilder()
+                .baseDelay(Duration.ofMillis(10))
+                .maxDelay(Duration.ofMillis(50))
+                .failureThreshold(3)
+                .openDuration(Duration.ofMinutes(1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    private Supplier<Mono<String>> get() {
+        return () -> webClient.get().uri("/x").retrieve().bodyToMono(String.class);
+    }
+
+    @Test
+    void execute_retriesServerErrorsThenSucceeds() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("ok"));
+
+        String body = executor.execute(SourceType.REDDIT, executor.newBudget(), get());
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        assertThat(registry.get("collector.upstream.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_clientErrorIsNotRetried() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThatThrownBy(() -> executor.execute(SourceType.REDDIT, executor.newBudget(), get()))
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_openCircuitFailsFastWithoutCallingUpstream() {
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        assertThatThrownBy(() -> executor.execute(SourceType.REDDIT, executor.newBudget(), get()))
+                .isInstanceOf(WebClientResponseException.InternalServerError.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+
+        assertThatThrownBy(() -> executor.execute(SourceType.REDDIT, executor.newBudget(), get()))
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("Circuit open");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+
+        // Circuits are per source
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("hn"));
+        assertThat(executor.execute(SourceType.HACKER_NEWS, executor.newBudget(), get())).isEqualTo("hn");
+    }
+
+    @Test
+    void execute_exhaustedBudgetIsRejected() {
+        RequestBudget spent = new RequestBudget(Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> executor.execute(SourceType.REDDIT, spent, get()))
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("budget");
+        assertThat(mockWebServer.getRequestCount()).isZero();
+    }
+
+    @Test
+    void execute_rateLimitWaitLongerThanBudget_failsWithoutSleeping() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "120"));
+        RequestBudget budget = new RequestBudget(Instant.now().plusSeconds(5));
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> executor.execute(SourceType.GITHUB, budget, get()))
+                .isInstanceOf(WebClientResponseException.TooManyRequests.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(3));
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitBreaker_halfOpenTrialClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10));
+        Instant now = Instant.now();
+
+        assertThat(breaker.onFailure(now)).isTrue();
+        assertThat(breaker.tryAcquirePermission(now.plusSeconds(5))).isFalse();
+        assertThat(breaker.tryAcquirePermission(now.plusSeconds(11))).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission(now.plusSeconds(11))).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
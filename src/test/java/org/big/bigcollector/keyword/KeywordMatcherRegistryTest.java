@@ -0,0 +1,46 @@
+package org.big.bigcollector.keyword;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherRegistryTest {
+
+    private final KeywordMatcherRegistry registry = new KeywordMatcherRegistry(new ObjectMapper());
+
+    @Test
+    void matcherFor_noSettings_usesSourceDefaults() {
+        assertThat(registry.matcherFor(SourceType.PRODUCT_HUNT, null).match("I wish it synced").accepted()).isTrue();
+        assertThat(registry.matcherFor(SourceType.REDDIT, null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void matcherFor_keywordsInSettings_overrideDefaults() {
+        KeywordMatcher matcher = registry.matcherFor(SourceType.PRODUCT_HUNT, "{\"keywords\": [\"invoice\"]}");
+
+        assertThat(matcher.match("I wish it synced").accepted()).isFalse();
+        assertThat(matcher.match("Invoice export is slow").accepted()).isTrue();
+    }
+
+    @Test
+    void matcherFor_emptyKeywordArray_disablesFiltering() {
+        assertThat(registry.matcherFor(SourceType.PRODUCT_HUNT, "{\"keywords\": []}").isEmpty()).isTrue();
+    }
+
+    @Test
+    void matcherFor_unchangedSettings_reusesCompiledMatcher() {
+        String settings = "{\"keywords\": [\"invoice\"]}";
+
+        assertThat(registry.matcherFor(SourceType.GITHUB, settings))
+                .isSameAs(registry.matcherFor(SourceType.GITHUB, settings));
+    }
+
+    @Test
+    void matcherFor_invalidSettings_fallsBackToDefaults() {
+        KeywordMatcher matcher = registry.matcherFor(SourceType.PRODUCT_HUNT, "{not json");
+
+        assertThat(matcher.match("this is broken").accepted()).isTrue();
+    }
+}
@@ -0,0 +1,55 @@
+package org.big.bigcollector.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void match_caseInsensitiveSubstrings_returnsTermsInOrderAndCountsHits() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("wish", "Frustrat", "hard to"));
+
+        KeywordMatch match = matcher.match("FRUSTRATING setup. I wish it was not so hard to use; I really wish.");
+
+        assertThat(match.accepted()).isTrue();
+        assertThat(match.terms()).containsExactly("frustrat", "wish", "hard to");
+        assertThat(match.hits()).isEqualTo(4);
+    }
+
+    @Test
+    void match_overlappingKeywords_findsEveryOccurrence() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("he", "she", "hers", "his"));
+
+        KeywordMatch match = matcher.match("ushers");
+
+        assertThat(match.terms()).containsExactly("she", "he", "hers");
+        assertThat(match.hits()).isEqualTo(3);
+    }
+
+    @Test
+    void match_separateFields_doNotMatchAcrossBoundary() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("pain point"));
+
+        assertThat(matcher.match("pain", " point").accepted()).isFalse();
+        assertThat(matcher.match(null, "a real pain point").accepted()).isTrue();
+    }
+
+    @Test
+    void match_noOccurrence_rejected() {
+        KeywordMatch match = KeywordMatcher.of(List.of("broken")).match("Works great, love it");
+
+        assertThat(match.accepted()).isFalse();
+        assertThat(match.terms()).isEmpty();
+    }
+
+    @Test
+    void match_withoutKeywords_acceptsEverything() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of(" ", ""));
+
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.match("anything")).isEqualTo(KeywordMatch.UNFILTERED);
+    }
+}
@@ -0,0 +1,88 @@
+package org.big.bigcollector.progress;
+
+import org.big.bigcollector.entity.enums.CollectorStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProgressEventBusTest {
+
+    private ProgressEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new ProgressEventBus();
+    }
+
+    @Test
+    void startRun_publishesInitialSnapshot() {
+        bus.startRun("collection", "REDDIT", 100);
+
+        assertThat(bus.latest()).singleElement().satisfies(event -> {
+            assertThat(event.runId()).isEqualTo("REDDIT");
+            assertThat(event.status()).isEqualTo(CollectorStatus.RUNNING);
+            assertThat(event.itemsTotal()).isEqualTo(100);
+            assertThat(event.itemsProcessed()).isZero();
+        });
+    }
+
+    @Test
+    void tracker_finishReportsCountersAndClearsEta() {
+        ProgressTracker tracker = bus.startRun("pipeline", "pipeline", 3);
+        tracker.target("batch-1");
+        tracker.pageFetched();
+        tracker.itemProcessed();
+        tracker.itemProcessed();
+        tracker.error("boom");
+        tracker.finish(CollectorStatus.COMPLETED, "done");
+
+        ProgressEvent event = bus.latest().getFirst();
+        assertThat(event.status()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(event.currentTarget()).isEqualTo("batch-1");
+        assertThat(event.pagesFetched()).isEqualTo(1);
+        assertThat(event.itemsProcessed()).isEqualTo(2);
+        assertThat(event.errors()).isEqualTo(1);
+        assertThat(event.etaSeconds()).isNull();
+        assertThat(event.message()).isEqualTo("done");
+    }
+
+    @Test
+    void subscribe_replaysLatestAndAppliesFilter() throws InterruptedException {
+        bus.startRun("collection", "REDDIT", 10);
+        bus.startRun("pipeline", "pipeline", null);
+
+        try (ProgressEventBus.Subscription subscription = bus.subscribe(e -> e.runType().equals("pipeline"))) {
+            ProgressEvent replayed = subscription.poll(1, TimeUnit.SECONDS);
+            assertThat(replayed.runType()).isEqualTo("pipeline");
+            assertThat(subscription.poll(50, TimeUnit.MILLISECONDS)).isNull();
+        }
+        assertThat(bus.subscriberCount()).isZero();
+    }
+
+    @Test
+    void slowSubscriber_dropsOldestEventsInsteadOfBlocking() throws InterruptedException {
+        ProgressTracker tracker = bus.startRun("collection", "HACKER_NEWS", null);
+
+        try (ProgressEventBus.Subscription subscription = bus.subscribe(e -> true)) {
+            int published = ProgressEventBus.SUBSCRIBER_BUFFER + 10;
+            for (int i = 0; i < published; i++) {
+                tracker.target("keyword-" + i);
+            }
+
+            List<ProgressEvent> received = new ArrayList<>();
+            ProgressEvent event;
+            while ((event = subscription.poll(10, TimeUnit.MILLISECONDS)) != null) {
+                received.add(event);
+            }
+
+            assertThat(received).hasSize(ProgressEventBus.SUBSCRIBER_BUFFER);
+            assertThat(received.getLast().currentTarget()).isEqualTo("keyword-" + (published - 1));
+            assertThat(subscription.dropped()).isEqualTo(11);
+        }
+    }
+}
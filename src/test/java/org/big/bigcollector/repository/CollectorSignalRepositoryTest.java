@@ -0,0 +1,67 @@
+package org.big.bigcollector.repository;
+
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.similarity.SignalFingerprint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.schema-locations=classpath:db/pipeline-schema.sql"
+})
+class CollectorSignalRepositoryTest {
+
+    private static final long FINGERPRINT = 0x8123_4567_89AB_CDEFL;
+
+    @Autowired
+    private CollectorSignalRepository signalRepository;
+
+    private Instant createdAt = Instant.now().minus(Duration.ofHours(1));
+
+    @Test
+    void findNearDuplicateCandidates_matchesSignalsSharingAnyBand() {
+        Instant since = Instant.now().minus(Duration.ofDays(1));
+        // Differs only in the lowest band, so it shares the other six
+        CollectorSignal sameUpperBands = processed(FINGERPRINT ^ 0b1, 42L);
+        // Differs in every band
+        processed(FINGERPRINT ^ 0x0040_2010_0804_0201L, 43L);
+        CollectorSignal sameLowestBand = processed(FINGERPRINT ^ 0xFFFF_FFFF_FFFF_FE00L, 44L);
+        CollectorSignal self = processed(FINGERPRINT, 45L);
+
+        assertThat(signalRepository.findNearDuplicateCandidates(self.getId(), SignalFingerprint.bands(FINGERPRINT), since))
+                .extracting(CollectorSignalRepository.FingerprintCandidate::getId)
+                .containsExactly(sameUpperBands.getId(), sameLowestBand.getId());
+    }
+
+    @Test
+    void findNearDuplicateCandidates_skipsSignalsWithoutRecordedOutcome() {
+        Instant since = Instant.now().minus(Duration.ofDays(1));
+        // Processed before outcomes were recorded
+        processed(FINGERPRINT, null);
+        CollectorSignal noProblem = processed(FINGERPRINT, null);
+        noProblem.setNoProblem(true);
+        signalRepository.save(noProblem);
+
+        assertThat(signalRepository.findNearDuplicateCandidates(-1L, SignalFingerprint.bands(FINGERPRINT), since))
+                .extracting(CollectorSignalRepository.FingerprintCandidate::getId)
+                .containsExactly(noProblem.getId());
+    }
+
+    private CollectorSignal processed(long fingerprint, Long problemVaultId) {
+        return signalRepository.saveAndFlush(CollectorSignal.builder()
+                .sourceType(SourceType.REDDIT)
+                .rawText("{}")
+                .fingerprint(fingerprint)
+                .processed(true)
+                .createdAt(createdAt = createdAt.plusSeconds(1))
+                .problemVaultId(problemVaultId)
+                .build());
+    }
+}
@@ -0,0 +1,187 @@
+package org.big.bigcollector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.big.bigcollector.collector.CollectionResult;
+import org.big.bigcollector.collector.SourceCollector;
+import org.big.bigcollector.entity.CollectorConfig;
+import org.big.bigcollector.entity.enums.CollectorStatus;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.CollectorMetrics;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.big.bigcollector.repository.CollectorConfigRepository;
+import org.big.bigcollector.repository.CollectorRunLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CollectorServiceTest {
+
+    @Mock
+    private CollectorConfigRepository configRepository;
+
+    @Mock
+    private CollectorRunLogRepository runLogRepository;
+
+    @Mock
+    private CollectorLockService lockService;
+
+    @Mock
+    private SourceCollector collector;
+
+    private CollectorService service;
+
+    @BeforeEach
+    void setUp() {
+        when(collector.getSourceType()).thenReturn(SourceType.REDDIT);
+        service = new CollectorService(configRepository, runLogRepository, List.of(collector),
+                new CollectorMetrics(new SimpleMeterRegistry()), new ProgressEventBus(), lockService);
+    }
+
+    @Test
+    void startCollection_leaseHeldElsewhere_rejectsWithoutTouchingConfig() {
+        CollectorConfig config = CollectorConfig.builder().sourceType(SourceType.REDDIT).build();
+        when(configRepository.findBySourceType(SourceType.REDDIT)).thenReturn(Optional.of(config));
+        when(lockService.tryAcquire(SourceType.REDDIT)).thenReturn(Optional.empty());
+
+        Map<String, Object> result = service.startCollection(SourceType.REDDIT);
+
+        assertThat(result).containsKey("error");
+        verify(configRepository, never()).save(any());
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void startCollection_acquiresLeaseAndReleasesItWhenRunFinishes() throws Exception {
+        CollectorConfig config = CollectorConfig.builder().sourceType(SourceType.REDDIT).build();
+        when(configRepository.findBySourceType(SourceType.REDDIT)).thenReturn(Optional.of(config));
+        when(lockService.tryAcquire(SourceType.REDDIT)).thenReturn(Optional.of("node-1/run-1"));
+        when(collector.collect(any(), any())).thenReturn(CollectionResult.builder()
+                .sourceType(SourceType.REDDIT)
+                .status(CollectorStatus.COMPLETED)
+                .itemsCollected(3)
+                .duration(Duration.ofMillis(5))
+                .build());
+        CountDownLatch released = new CountDownLatch(1);
+        doAnswer(inv -> {
+            released.countDown();
+            return null;
+        }).when(lockService).release(SourceType.REDDIT, "node-1/run-1");
+
+        Map<String, Object> result = service.startCollection(SourceType.REDDIT);
+
+        assertThat(result).containsEntry("status", "RUNNING");
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(config.getStatus()).isEqualTo(CollectorStatus.COMPLETED);
+        assertThat(config.getItemsLastRun()).isEqualTo(3);
+    }
+
+    @Test
+    void heartbeat_lostLease_stopsLocalRun() throws Exception {
+        CollectorConfig config = CollectorConfig.builder().sourceType(SourceType.REDDIT).build();
+        when(configRepository.findBySourceType(SourceType.REDDIT)).thenReturn(Optional.of(config));
+        when(lockService.tryAcquire(SourceType.REDDIT)).thenReturn(Optional.of("node-1/run-1"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(collector.collect(any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return CollectionResult.builder().sourceType(SourceType.REDDIT).status(CollectorStatus.IDLE).build();
+        });
+        when(lockService.renew(SourceType.REDDIT, "node-1/run-1")).thenReturn(false);
+        when(lockService.findLocked()).thenReturn(Set.of());
+
+        service.startCollection(SourceType.REDDIT);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        service.heartbeat();
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(lockService, timeout(5000)).release(SourceType.REDDIT, "node-1/run-1");
+        verify(configRepository, after(200).times(1)).save(config);
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void stopCollection_keepsLeaseUntilRunExitsAndRecordsNothingFromIt() throws Exception {
+        CollectorConfig config = CollectorConfig.builder().sourceType(SourceType.REDDIT).build();
+        CollectorConfig stopped = CollectorConfig.builder().sourceType(SourceType.REDDIT).build();
+        when(configRepository.findBySourceType(SourceType.REDDIT))
+                .thenReturn(Optional.of(config), Optional.of(config), Optional.of(stopped));
+        when(lockService.tryAcquire(SourceType.REDDIT)).thenReturn(Optional.of("node-1/run-1"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch exit = new CountDownLatch(1);
+        when(collector.collect(any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            // Collectors wind down after an interrupt and still return what they have
+            exit.await(5, TimeUnit.SECONDS);
+            return CollectionResult.builder().sourceType(SourceType.REDDIT).status(CollectorStatus.COMPLETED)
+                    .lastCursor("stale").build();
+        });
+
+        service.startCollection(SourceType.REDDIT);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.stopCollection(SourceType.REDDIT)).containsKey("message");
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(lockService, never()).release(any(), any());
+        assertThat(stopped.getLastError()).isEqualTo("Stopped by user");
+
+        exit.countDown();
+        verify(lockService, timeout(5000)).release(SourceType.REDDIT, "node-1/run-1");
+        assertThat(config.getLastCursor()).isNull();
+        assertThat(config.getStatus()).isEqualTo(CollectorStatus.RUNNING);
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void resetStaleRunningStatuses_onlyResetsSourcesWithoutLiveLease() {
+        CollectorConfig orphaned = CollectorConfig.builder()
+                .sourceType(SourceType.REDDIT).status(CollectorStatus.RUNNING).build();
+        CollectorConfig leased = CollectorConfig.builder()
+                .sourceType(SourceType.HACKER_NEWS).status(CollectorStatus.RUNNING).build();
+        when(configRepository.findAll()).thenReturn(List.of(orphaned, leased));
+        when(lockService.findLocked()).thenReturn(Set.of(SourceType.HACKER_NEWS));
+
+        service.resetStaleRunningStatuses();
+
+        assertThat(orphaned.getStatus()).isEqualTo(CollectorStatus.IDLE);
+        assertThat(orphaned.getLastError()).contains("lease expired");
+        assertThat(leased.getStatus()).isEqualTo(CollectorStatus.RUNNING);
+        verify(configRepository).save(orphaned);
+        verify(configRepository, never()).save(leased);
+    }
+
+    @Test
+    void startBackfill_collectorWithoutBackfill_rejected() {
+        Map<String, Object> result = service.startBackfill(SourceType.REDDIT,
+                Instant.parse("2020-01-01T00:00:00Z"), Instant.parse("2021-01-01T00:00:00Z"));
+
+        assertThat(result).containsEntry("error", "Backfill is not supported for REDDIT");
+        verifyNoInteractions(lockService);
+    }
+}
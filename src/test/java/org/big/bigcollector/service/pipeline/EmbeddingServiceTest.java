@@ -2,7 +2,9 @@ package org.big.bigcollector.service.pipeline;
 
 import com.openai.client.OpenAIClient;
 import com.openai.models.embeddings.EmbeddingCreateParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.config.OpenAiConfig;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -26,7 +29,7 @@ class EmbeddingServiceTest {
 
     @BeforeEach
     void setUp() {
-        embeddingService = new EmbeddingService(openAIClient, openAiConfig);
+        embeddingService = new EmbeddingService(openAIClient, openAiConfig, new LlmMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -40,7 +43,7 @@ class EmbeddingServiceTest {
     }
 
     @Test
-    void generateEmbedding_apiError_returnsNull() {
+    void generateEmbedding_apiError_propagates() {
         when(openAiConfig.isConfigured()).thenReturn(true);
 
         var embeddingsService = mock(com.openai.services.blocking.EmbeddingService.class);
@@ -48,9 +51,9 @@ class EmbeddingServiceTest {
         when(embeddingsService.create(any(EmbeddingCreateParams.class)))
                 .thenThrow(new RuntimeException("API error"));
 
-        float[] result = embeddingService.generateEmbedding("title", "description");
-
-        assertThat(result).isNull();
+        // Left to the pipeline's retry, so the signal is not stored without an embedding
+        assertThatThrownBy(() -> embeddingService.generateEmbedding("title", "description"))
+                .hasMessage("API error");
     }
 
     @Test
@@ -65,10 +68,9 @@ class EmbeddingServiceTest {
         String longTitle = "T".repeat(5000);
         String longDesc = "D".repeat(5000);
 
-        // Will fail with exception but we just need to verify it doesn't crash on long input
-        float[] result = embeddingService.generateEmbedding(longTitle, longDesc);
-
-        assertThat(result).isNull(); // Fails due to mocked exception, but truncation was handled
+        // Fails with the mocked exception, but only after the long input was handled
+        assertThatThrownBy(() -> embeddingService.generateEmbedding(longTitle, longDesc))
+                .hasMessage("capture call");
         verify(embeddingsService).create(any(EmbeddingCreateParams.class));
     }
 }
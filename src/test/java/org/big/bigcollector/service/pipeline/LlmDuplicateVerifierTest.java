@@ -0,0 +1,202 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.big.bigcollector.config.OpenAiConfig;
+import org.big.bigcollector.entity.DuplicateVerdict;
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.metrics.LlmMetrics;
+import org.big.bigcollector.repository.DuplicateVerdictRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LlmDuplicateVerifierTest {
+
+    @Mock
+    private OpenAiConfig openAiConfig;
+
+    @Mock
+    private DuplicateVerdictRepository verdictRepository;
+
+    private OpenAiStubServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private LlmDuplicateVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        stub = OpenAiStubServer.builder().build().start();
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new LlmDuplicateVerifier(stub.client(), openAiConfig, new LlmMetrics(meterRegistry),
+                verdictRepository, new ObjectMapper(), 3, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private ProblemVaultEntry existing(Long id) {
+        return existing(id, "Manual invoice processing wastes hours");
+    }
+
+    private ProblemVaultEntry existing(Long id, String title) {
+        return ProblemVaultEntry.builder()
+                .id(id)
+                .title(title)
+                .description("Small businesses spend hours processing invoices by hand.")
+                .build();
+    }
+
+    @Test
+    void isDuplicate_cachedVerdict_skipsModel() {
+        String hash = LlmDuplicateVerifier.candidateHash("Invoice processing wastes hours", "Too slow.");
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(eq(7L), eq(hash), anyString()))
+                .thenReturn(Optional.of(DuplicateVerdict.builder().duplicate(true).build()));
+
+        boolean result = verifier.isDuplicate("Invoice processing wastes hours", "Too slow.", existing(7L));
+
+        assertThat(result).isTrue();
+        assertThat(stub.chatRequests()).isZero();
+        assertThat(meterRegistry.counter("llm.cache.hits", "operation", "dedup_verify", "model", "gpt-4o-mini")
+                .count()).isEqualTo(1.0);
+        verify(verdictRepository, never()).insertIfAbsent(anyLong(), anyString(), anyBoolean(), anyString(), any());
+    }
+
+    @Test
+    void isDuplicate_noCachedVerdict_asksModelAndStoresAnswer() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(anyLong(), anyString(), anyString()))
+                .thenReturn(Optional.empty());
+
+        boolean result = verifier.isDuplicate("Manual invoice processing wastes time", "Slow.", existing(7L));
+
+        assertThat(result).isTrue();
+        assertThat(stub.chatRequests()).isEqualTo(1);
+        verify(verdictRepository).insertIfAbsent(eq(7L),
+                eq(LlmDuplicateVerifier.candidateHash("Manual invoice processing wastes time", "Slow.")),
+                eq(true), eq("gpt-4o-mini"), any());
+    }
+
+    @Test
+    void isDuplicate_modelUnavailable_doesNotStoreVerdict() {
+        when(openAiConfig.isConfigured()).thenReturn(false);
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(anyLong(), anyString(), anyString()))
+                .thenReturn(Optional.empty());
+
+        boolean result = verifier.isDuplicate("Manual invoice processing wastes time", "Slow.", existing(7L));
+
+        assertThat(result).isFalse();
+        verify(verdictRepository, never()).insertIfAbsent(anyLong(), anyString(), anyBoolean(), anyString(), any());
+    }
+
+    @Test
+    void isDuplicate_unsavedEntry_bypassesCache() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        boolean result = verifier.isDuplicate("Payroll exports break every month", "Broken.", existing(null));
+
+        assertThat(result).isFalse();
+        assertThat(stub.chatRequests()).isEqualTo(1);
+        verifyNoInteractions(verdictRepository);
+    }
+
+    @Test
+    void areDuplicates_sendsUncachedPairsInBatchesAndKeepsOrder() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        String cachedHash = LlmDuplicateVerifier.candidateHash("Cached candidate", "Known.");
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(anyLong(), anyString(), anyString()))
+                .thenReturn(Optional.empty());
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(eq(1L), eq(cachedHash), anyString()))
+                .thenReturn(Optional.of(DuplicateVerdict.builder().duplicate(true).build()));
+
+        List<Boolean> results = verifier.areDuplicates(List.of(
+                new LlmDuplicateVerifier.Pair("Cached candidate", "Known.", existing(1L)),
+                new LlmDuplicateVerifier.Pair("Manual invoice processing wastes time", "Slow.", existing(2L)),
+                new LlmDuplicateVerifier.Pair("Payroll exports break every month", "Broken.", existing(3L)),
+                new LlmDuplicateVerifier.Pair("Shift scheduling conflicts", "Chaos.",
+                        existing(4L, "Shift scheduling conflicts everywhere")),
+                new LlmDuplicateVerifier.Pair("Vendor onboarding takes weeks", "Slow.", existing(5L))));
+
+        assertThat(results).containsExactly(true, true, false, true, false);
+        // Four uncached pairs with a batch size of 3: one batched request plus one single request
+        assertThat(stub.chatRequests()).isEqualTo(2);
+        verify(verdictRepository, times(4)).insertIfAbsent(anyLong(), anyString(), anyBoolean(), anyString(), any());
+        verify(verdictRepository).insertIfAbsent(eq(4L), anyString(), eq(true), anyString(), any());
+    }
+
+    @Test
+    void areDuplicates_truncatedBatchAnswer_asksEachPairAlone() {
+        stub.close();
+        stub = OpenAiStubServer.builder().truncateBatchVerdicts(true).build().start();
+        verifier = new LlmDuplicateVerifier(stub.client(), openAiConfig, new LlmMetrics(meterRegistry),
+                verdictRepository, new ObjectMapper(), 3, Duration.ofMillis(20));
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        when(verdictRepository.findByVaultEntryIdAndCandidateHashAndModel(anyLong(), anyString(), anyString()))
+                .thenReturn(Optional.empty());
+
+        List<Boolean> results = verifier.areDuplicates(List.of(
+                new LlmDuplicateVerifier.Pair("Manual invoice processing wastes time", "Slow.", existing(1L)),
+                new LlmDuplicateVerifier.Pair("Payroll exports break every month", "Broken.", existing(2L)),
+                new LlmDuplicateVerifier.Pair("Invoice processing wastes hours", "Slow.", existing(3L))));
+
+        assertThat(results).containsExactly(true, false, true);
+        // One cut-off batch request, then one request per pair
+        assertThat(stub.chatRequests()).isEqualTo(4);
+        verify(verdictRepository, times(3)).insertIfAbsent(anyLong(), anyString(), anyBoolean(), anyString(), any());
+    }
+
+    @Test
+    void isDuplicate_concurrentCallers_shareOneRequest() throws Exception {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        verifier = new LlmDuplicateVerifier(stub.client(), openAiConfig, new LlmMetrics(meterRegistry),
+                verdictRepository, new ObjectMapper(), 3, Duration.ofSeconds(5));
+        List<String> titles = List.of("Manual invoice processing wastes time", "Payroll exports break every month",
+                "Invoice processing wastes hours");
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String title : titles) {
+                results.add(pool.submit(() -> verifier.isDuplicate(title, "Slow.", existing(null))));
+            }
+        }
+
+        assertThat(results.get(0).get()).isTrue();
+        assertThat(results.get(1).get()).isFalse();
+        assertThat(results.get(2).get()).isTrue();
+        assertThat(stub.chatRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void candidateHash_ignoresCaseAndWhitespace() {
+        assertThat(LlmDuplicateVerifier.candidateHash("  Invoice   Processing ", "Takes\nHOURS"))
+                .isEqualTo(LlmDuplicateVerifier.candidateHash("invoice processing", "takes hours"))
+                .hasSize(64);
+        assertThat(LlmDuplicateVerifier.candidateHash("invoice processing", "takes hours"))
+                .isNotEqualTo(LlmDuplicateVerifier.candidateHash("invoice processing", "takes days"));
+    }
+}
@@ -2,10 +2,12 @@ package org.big.bigcollector.service.pipeline;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openai.client.OpenAIClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.config.OpenAiConfig;
 import org.big.bigcollector.dto.pipeline.ExtractedProblem;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.big.bigcollector.repository.LlmPromptRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,7 +38,8 @@ class LlmProblemExtractorTest {
 
     @BeforeEach
     void setUp() {
-        extractor = new LlmProblemExtractor(openAIClient, openAiConfig, promptRepository, objectMapper);
+        extractor = new LlmProblemExtractor(openAIClient, openAiConfig, promptRepository, objectMapper,
+                new LlmMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -0,0 +1,75 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    @Test
+    void submit_loneCaller_runsAfterLinger() {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(5, Duration.ofMillis(10), items -> {
+            batches.add(List.copyOf(items));
+            return items.stream().map(i -> i * 2).toList();
+        });
+
+        assertThat(batcher.submit(21)).isEqualTo(42);
+        assertThat(batches).containsExactly(List.of(21));
+    }
+
+    @Test
+    void submit_concurrentCallers_areGroupedUpToMaxSize() throws Exception {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        // A long linger: batches may only be closed early by filling up
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(3, Duration.ofSeconds(30), items -> {
+            batches.add(List.copyOf(items));
+            return items.stream().map(i -> i * 2).toList();
+        });
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 6; i++) {
+                int item = i;
+                results.add(pool.submit(() -> batcher.submit(item)));
+            }
+        }
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(results.get(i).get()).isEqualTo(i * 2);
+        }
+        assertThat(batches).hasSize(2).allSatisfy(batch -> assertThat(batch).hasSize(3));
+    }
+
+    @Test
+    void submitAll_spillsIntoNewBatchesAndKeepsOrder() {
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(2, Duration.ofMillis(10), items -> {
+            batches.add(List.copyOf(items));
+            return items.stream().map(i -> i * 2).toList();
+        });
+
+        assertThat(batcher.submitAll(List.of(1, 2, 3, 4, 5))).containsExactly(2, 4, 6, 8, 10);
+        assertThat(batches).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+    }
+
+    @Test
+    void submit_flushFails_propagatesToCaller() {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>(5, Duration.ZERO, items -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> batcher.submit(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+}
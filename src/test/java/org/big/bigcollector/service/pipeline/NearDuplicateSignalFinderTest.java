@@ -0,0 +1,118 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.big.bigcollector.similarity.SignalFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearDuplicateSignalFinderTest {
+
+    private static final String STORY = """
+            {"title": "Ask HN: How do you reconcile invoices with partial payments?",
+             "text": "Our bookkeeping tool cannot match one invoice to several bank transfers, so we do it by hand.",
+             "url": "https://news.ycombinator.com/item?id=1"}
+            """;
+
+    @Mock
+    private CollectorSignalRepository signalRepository;
+
+    private NearDuplicateSignalFinder finder;
+
+    @BeforeEach
+    void setUp() {
+        finder = new NearDuplicateSignalFinder(signalRepository, new ObjectMapper(), true, 6, Duration.ofDays(14));
+    }
+
+    @Test
+    void find_resolvesToFirstSignalOfChain() {
+        Instant createdAt = Instant.parse("2025-03-15T00:00:00Z");
+        CollectorSignal signal = CollectorSignal.builder().id(9L).sourceType(SourceType.HACKER_NEWS)
+                .rawText(STORY).createdAt(createdAt).build();
+        long fingerprint = SignalFingerprint.of(STORY);
+        CollectorSignal original = CollectorSignal.builder().id(5L).sourceType(SourceType.REDDIT)
+                .duplicateOfId(2L).problemVaultId(42L).build();
+        when(signalRepository.findNearDuplicateCandidates(eq(9L), eq(SignalFingerprint.bands(fingerprint)),
+                eq(createdAt.minus(Duration.ofDays(14))))).thenReturn(List.of(candidate(5L, fingerprint ^ 0b101)));
+        when(signalRepository.findById(5L)).thenReturn(Optional.of(original));
+
+        Optional<NearDuplicateSignalFinder.NearDuplicate> found = finder.find(signal);
+
+        assertThat(found).contains(new NearDuplicateSignalFinder.NearDuplicate(
+                2L, 42L, "https://news.ycombinator.com/item?id=1"));
+        // Signals stored before fingerprints existed get one, and its bands, on the way through
+        assertThat(signal.getFingerprint()).isEqualTo(fingerprint);
+        assertThat(signal.getFingerprintBand6()).isEqualTo(SignalFingerprint.bands(fingerprint)[6]);
+    }
+
+    @Test
+    void find_skipsCandidatesSharingABandButTooFarApart() {
+        CollectorSignal signal = CollectorSignal.builder().id(9L).sourceType(SourceType.HACKER_NEWS)
+                .rawText(STORY).createdAt(Instant.now()).build();
+        long fingerprint = SignalFingerprint.of(STORY);
+        when(signalRepository.findNearDuplicateCandidates(eq(9L), any(), any())).thenReturn(List.of(
+                candidate(3L, fingerprint ^ 0xFF00_0000_0000_0000L),
+                candidate(5L, fingerprint ^ 0b111111)));
+        when(signalRepository.findById(5L)).thenReturn(Optional.of(
+                CollectorSignal.builder().id(5L).sourceType(SourceType.REDDIT).noProblem(true).build()));
+
+        Optional<NearDuplicateSignalFinder.NearDuplicate> found = finder.find(signal);
+
+        assertThat(found).map(NearDuplicateSignalFinder.NearDuplicate::originalId).contains(5L);
+        verify(signalRepository, never()).findById(3L);
+    }
+
+    @Test
+    void new_maxDistanceBeyondBands_isRejected() {
+        assertThatThrownBy(() -> new NearDuplicateSignalFinder(
+                signalRepository, new ObjectMapper(), true, 7, Duration.ofDays(14)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void find_tooLittleText_skipsLookup() {
+        CollectorSignal signal = CollectorSignal.builder().id(9L).sourceType(SourceType.REDDIT)
+                .rawText("{\"title\": \"Any tips?\"}").build();
+
+        assertThat(finder.find(signal)).isEmpty();
+        verifyNoInteractions(signalRepository);
+    }
+
+    @Test
+    void find_disabled_returnsEmpty() {
+        finder = new NearDuplicateSignalFinder(signalRepository, new ObjectMapper(), false, 6, Duration.ofDays(14));
+
+        assertThat(finder.find(CollectorSignal.builder().id(9L).rawText(STORY).build())).isEmpty();
+        verifyNoInteractions(signalRepository);
+    }
+
+    private static CollectorSignalRepository.FingerprintCandidate candidate(Long id, long fingerprint) {
+        return new CollectorSignalRepository.FingerprintCandidate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getFingerprint() {
+                return fingerprint;
+            }
+        };
+    }
+}
@@ -0,0 +1,397 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openai.client.OpenAIClient;
+import com.openai.client.okhttp.OpenAIOkHttpClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process OpenAI-compatible stub for pipeline tests and benchmarks.
+ * <p>
+ * Serves {@code /v1/chat/completions} and {@code /v1/embeddings} from the JDK's built-in HTTP server
+ * with TCP_NODELAY, so Nagle/delayed-ACK stalls (~40ms per request) do not swamp the measurements.
+ * Chat responses are chosen by the system prompt of the calling service (extraction, scoring,
+ * duplicate verification); embeddings are deterministic feature-hashed bag-of-words vectors, so
+ * texts sharing most words end up close in cosine distance — close enough to exercise the
+ * definite/borderline dedup bands.
+ */
+class OpenAiStubServer implements AutoCloseable {
+
+    static final int EMBEDDING_DIMENSIONS = 1536;
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SplittableRandom errorRandom;
+
+    private final long chatLatencyMs;
+    private final long embeddingLatencyMs;
+    private final double errorRate;
+    private final double noProblemRate;
+    private final boolean truncateBatchVerdicts;
+
+    private final AtomicLong chatRequests = new AtomicLong();
+    private final AtomicLong embeddingRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private OpenAiStubServer(Builder builder) {
+        this.chatLatencyMs = builder.chatLatencyMs;
+        this.embeddingLatencyMs = builder.embeddingLatencyMs;
+        this.errorRate = builder.errorRate;
+        this.noProblemRate = builder.noProblemRate;
+        this.truncateBatchVerdicts = builder.truncateBatchVerdicts;
+        this.errorRandom = new SplittableRandom(builder.seed);
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create OpenAI stub server", e);
+        }
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/", this::handle);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    OpenAiStubServer start() {
+        server.start();
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * Client pointed at this stub. Retries are disabled so injected errors surface to the pipeline
+     * instead of being hidden (and slowed down) by the SDK's own backoff.
+     */
+    OpenAIClient client() {
+        return OpenAIOkHttpClient.builder()
+                .apiKey("stub-key")
+                .baseUrl(baseUrl())
+                .maxRetries(0)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    long chatRequests() {
+        return chatRequests.get();
+    }
+
+    long embeddingRequests() {
+        return embeddingRequests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Deterministic embedding: each lowercase word is hashed into one of {@link #EMBEDDING_DIMENSIONS}
+     * buckets with a pseudo-random sign, then the vector is L2-normalised.
+     */
+    static float[] fakeEmbedding(String text) {
+        float[] vector = new float[EMBEDDING_DIMENSIONS];
+        for (String token : tokenize(text)) {
+            int h = mix(token.hashCode());
+            int idx = Math.floorMod(h, EMBEDDING_DIMENSIONS);
+            vector[idx] += ((h >>> 16) & 1) == 0 ? 1f : -1f;
+        }
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        if (norm == 0) {
+            vector[Math.floorMod(mix(text.hashCode()), EMBEDDING_DIMENSIONS)] = 1f;
+            return vector;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) vector[i] *= inv;
+        return vector;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+"))
+                .filter(t -> t.length() > 2)
+                .toList();
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (path.endsWith("/chat/completions")) {
+                chatRequests.incrementAndGet();
+                respond(exchange, chatLatencyMs, () -> chatCompletion(body));
+            } else if (path.endsWith("/embeddings")) {
+                embeddingRequests.incrementAndGet();
+                respond(exchange, embeddingLatencyMs, () -> embeddings(body));
+            } else {
+                send(exchange, 404, "{}");
+            }
+        } catch (Exception e) {
+            send(exchange, 500, "{\"error\":{\"message\":\"stub failure\"}}");
+        }
+    }
+
+    private interface BodySupplier {
+        String get() throws IOException;
+    }
+
+    private void respond(HttpExchange exchange, long latencyMs, BodySupplier body) throws Exception {
+        if (latencyMs > 0) Thread.sleep(latencyMs);
+        boolean fail;
+        int code;
+        synchronized (errorRandom) {
+            fail = errorRate > 0 && errorRandom.nextDouble() < errorRate;
+            code = errorRandom.nextBoolean() ? 429 : 503;
+        }
+        if (fail) {
+            injectedErrors.incrementAndGet();
+            send(exchange, code, "{\"error\":{\"message\":\"stub injected error\",\"type\":\"stub\"}}");
+            return;
+        }
+        send(exchange, 200, body.get());
+    }
+
+    private void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String chatCompletion(String requestBody) throws IOException {
+        JsonNode request = objectMapper.readTree(requestBody);
+        String systemPrompt = "";
+        String userMessage = "";
+        for (JsonNode message : request.path("messages")) {
+            String role = message.path("role").asText();
+            String content = messageContent(message.path("content"));
+            if ("system".equals(role) || "developer".equals(role)) systemPrompt = content;
+            if ("user".equals(role)) userMessage = content;
+        }
+
+        String content;
+        if (systemPrompt.contains("deduplication expert") && userMessage.startsWith("Pair ")) {
+            content = verifyDuplicates(userMessage);
+        } else if (systemPrompt.contains("deduplication expert")) {
+            content = verifyDuplicate(userMessage);
+        } else if (systemPrompt.contains("scoring expert")) {
+            content = """
+                    {"demand":{"score":18,"rationale":"stub"},"pain":{"score":17,"rationale":"stub"},\
+                    "gap":{"score":12,"rationale":"stub"},"timing":{"score":9,"rationale":"stub"},\
+                    "feasibility":{"score":10,"rationale":"stub"}}""";
+        } else {
+            content = extractProblem(userMessage);
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("id", "chatcmpl-stub");
+        root.put("object", "chat.completion");
+        root.put("created", System.currentTimeMillis() / 1000);
+        root.put("model", request.path("model").asText("gpt-4o-mini"));
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.put("finish_reason", "stop");
+        choice.putNull("logprobs");
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", content);
+        message.putNull("refusal");
+        ObjectNode usage = root.putObject("usage");
+        int promptTokens = (systemPrompt.length() + userMessage.length()) / 4;
+        int completionTokens = content.length() / 4;
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private String messageContent(JsonNode content) {
+        if (content.isTextual()) return content.asText();
+        StringBuilder sb = new StringBuilder();
+        for (JsonNode part : content) sb.append(part.path("text").asText());
+        return sb.toString();
+    }
+
+    /**
+     * Echoes the synthetic signal back as an extracted problem: the signal's {@code title}/{@code text}
+     * fields become the problem title/description. A configurable share of signals yields no problem.
+     */
+    private String extractProblem(String userMessage) throws IOException {
+        int idx = userMessage.indexOf("Raw text:\n");
+        String raw = idx >= 0 ? userMessage.substring(idx + "Raw text:\n".length()) : userMessage;
+        JsonNode signal;
+        try {
+            signal = objectMapper.readTree(raw);
+        } catch (IOException e) {
+            return "{\"has_problem\": false}";
+        }
+        String title = signal.path("title").asText("");
+        if (title.length() < 10 || (noProblemRate > 0 && Math.floorMod(mix(raw.hashCode()), 10_000) < noProblemRate * 10_000)) {
+            return "{\"has_problem\": false}";
+        }
+
+        ObjectNode problem = objectMapper.createObjectNode();
+        problem.put("has_problem", true);
+        problem.put("title", title);
+        problem.put("description", signal.path("text").asText(title));
+        problem.put("problem_type", "workflow");
+        problem.put("industry", "Benchmarking");
+        problem.put("target_customer", "Operations teams");
+        problem.put("pain_intensity", "medium");
+        problem.put("monetization_potential", "medium");
+        problem.put("monetization_model", "subscription");
+        problem.put("willingness_to_pay_signal", "stub");
+        ArrayNode quotes = problem.putArray("key_quotes");
+        quotes.add(title);
+        problem.put("source_url", signal.path("url").asText(""));
+        return objectMapper.writeValueAsString(problem);
+    }
+
+    /** DUPLICATE when the two titles share at least half of their words (Jaccard over tokens). */
+    private String verifyDuplicate(String userMessage) {
+        List<String> titles = new ArrayList<>();
+        for (String line : userMessage.split("\n")) {
+            if (line.startsWith("Title: ")) titles.add(line.substring("Title: ".length()));
+        }
+        if (titles.size() < 2) return "DIFFERENT";
+        Set<String> a = new HashSet<>(tokenize(titles.get(0)));
+        Set<String> b = new HashSet<>(tokenize(titles.get(1)));
+        Set<String> union = new HashSet<>(a);
+        union.addAll(b);
+        a.retainAll(b);
+        return !union.isEmpty() && (double) a.size() / union.size() >= 0.5 ? "DUPLICATE" : "DIFFERENT";
+    }
+
+    /**
+     * Batched form of {@link #verifyDuplicate}: one verdict per "Pair N:" block, cut off halfway when
+     * {@link Builder#truncateBatchVerdicts} is set.
+     */
+    private String verifyDuplicates(String userMessage) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode verdicts = root.putArray("verdicts");
+        String[] blocks = userMessage.split("(?m)^Pair ");
+        for (String block : blocks) {
+            if (block.isBlank()) continue;
+            ObjectNode verdict = verdicts.addObject();
+            verdict.put("pair", Integer.parseInt(block.substring(0, block.indexOf(':'))));
+            verdict.put("duplicate", verifyDuplicate(block).equals("DUPLICATE"));
+        }
+        String json = objectMapper.writeValueAsString(root);
+        return truncateBatchVerdicts ? json.substring(0, json.length() / 2) : json;
+    }
+
+    private String embeddings(String requestBody) throws IOException {
+        JsonNode request = objectMapper.readTree(requestBody);
+        JsonNode input = request.path("input");
+        List<String> texts = new ArrayList<>();
+        if (input.isArray()) {
+            input.forEach(node -> texts.add(node.asText()));
+        } else {
+            texts.add(input.asText());
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("object", "list");
+        root.put("model", request.path("model").asText("text-embedding-3-small"));
+        ArrayNode data = root.putArray("data");
+        int tokens = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            ArrayNode values = item.putArray("embedding");
+            for (float v : fakeEmbedding(texts.get(i))) values.add(v);
+            tokens += texts.get(i).length() / 4;
+        }
+        ObjectNode usage = root.putObject("usage");
+        usage.put("prompt_tokens", tokens);
+        usage.put("total_tokens", tokens);
+        return objectMapper.writeValueAsString(root);
+    }
+
+    static class Builder {
+        private long chatLatencyMs = 0;
+        private long embeddingLatencyMs = 0;
+        private double errorRate = 0;
+        private double noProblemRate = 0;
+        private boolean truncateBatchVerdicts = false;
+        private long seed = 42;
+
+        Builder chatLatencyMs(long chatLatencyMs) {
+            this.chatLatencyMs = chatLatencyMs;
+            return this;
+        }
+
+        Builder embeddingLatencyMs(long embeddingLatencyMs) {
+            this.embeddingLatencyMs = embeddingLatencyMs;
+            return this;
+        }
+
+        /** Share of requests (0..1) answered with a 429 or 503 instead of a result. */
+        Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Share of extraction requests (0..1) answered with {@code has_problem: false}. */
+        Builder noProblemRate(double noProblemRate) {
+            this.noProblemRate = noProblemRate;
+            return this;
+        }
+
+        /** Cuts batched duplicate verdicts off mid-answer, as a model hitting its token limit would. */
+        Builder truncateBatchVerdicts(boolean truncateBatchVerdicts) {
+            this.truncateBatchVerdicts = truncateBatchVerdicts;
+            return this;
+        }
+
+        Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        OpenAiStubServer build() {
+            return new OpenAiStubServer(this);
+        }
+    }
+}
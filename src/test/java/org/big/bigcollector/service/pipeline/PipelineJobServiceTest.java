@@ -0,0 +1,109 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PipelineJobServiceTest {
+
+    @Mock
+    private SignalPipelineService pipelineService;
+
+    private PipelineJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new PipelineJobService(pipelineService, new ProgressEventBus());
+    }
+
+    @Test
+    void submit_runsInBackgroundAndStoresResult() throws InterruptedException {
+        when(pipelineService.processSignals(any(), any(), any()))
+                .thenReturn(Map.of("status", "COMPLETED", "processed", 3));
+
+        PipelineJob job = jobService.submit(PipelineRunOptions.defaults()).orElseThrow();
+
+        waitUntil(job::isFinished);
+        assertThat(job.getStatus()).isEqualTo(PipelineJob.Status.COMPLETED);
+        assertThat(job.getResult()).containsEntry("processed", 3);
+        assertThat(jobService.getJob(job.getId())).contains(job);
+        assertThat(jobService.getActiveJob()).isEmpty();
+    }
+
+    @Test
+    void submit_whileJobActive_isRejected() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(pipelineService.processSignals(any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of("status", "COMPLETED");
+        });
+
+        PipelineJob first = jobService.submit(PipelineRunOptions.defaults()).orElseThrow();
+
+        assertThat(jobService.submit(PipelineRunOptions.defaults())).isEmpty();
+        assertThat(jobService.getActiveJob()).contains(first);
+
+        release.countDown();
+        waitUntil(first::isFinished);
+        assertThat(jobService.submit(PipelineRunOptions.defaults())).isPresent();
+    }
+
+    @Test
+    void cancel_signalsRunningJob() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        when(pipelineService.processSignals(any(), any(), any())).thenAnswer(invocation -> {
+            BooleanSupplier cancelled = invocation.getArgument(2);
+            started.countDown();
+            while (!cancelled.getAsBoolean()) {
+                Thread.sleep(10);
+            }
+            return Map.of("status", "CANCELLED");
+        });
+
+        PipelineJob job = jobService.submit(PipelineRunOptions.defaults()).orElseThrow();
+        waitUntil(() -> started.getCount() == 0);
+
+        assertThat(jobService.cancel(job.getId())).contains(job);
+
+        waitUntil(job::isFinished);
+        assertThat(job.getStatus()).isEqualTo(PipelineJob.Status.CANCELLED);
+    }
+
+    @Test
+    void cancel_unknownJob_returnsEmpty() {
+        assertThat(jobService.cancel("missing")).isEmpty();
+    }
+
+    @Test
+    void submit_pipelineThrows_marksFailed() throws InterruptedException {
+        when(pipelineService.processSignals(any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        PipelineJob job = jobService.submit(PipelineRunOptions.defaults()).orElseThrow();
+
+        waitUntil(job::isFinished);
+        assertThat(job.getStatus()).isEqualTo(PipelineJob.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("db down");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
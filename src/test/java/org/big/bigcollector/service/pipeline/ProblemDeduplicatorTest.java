@@ -1,13 +1,16 @@
 package org.big.bigcollector.service.pipeline;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.dto.pipeline.ExtractedProblem;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.ProblemVaultEntry;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.PipelineMetrics;
 import org.big.bigcollector.repository.ProblemVaultEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -16,6 +19,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,11 +34,15 @@ class ProblemDeduplicatorTest {
     @Mock
     private LlmDuplicateVerifier duplicateVerifier;
 
+    private SimpleMeterRegistry meterRegistry;
     private ProblemDeduplicator deduplicator;
+    private RunVaultBuffer buffer;
 
     @BeforeEach
     void setUp() {
-        deduplicator = new ProblemDeduplicator(vaultRepository, duplicateVerifier);
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new ProblemDeduplicator(vaultRepository, duplicateVerifier, new PipelineMetrics(meterRegistry));
+        buffer = new RunVaultBuffer();
     }
 
     private ExtractedProblem buildExtractedProblem() {
@@ -50,6 +58,26 @@ class ProblemDeduplicatorTest {
                 .build();
     }
 
+    private static List<ProblemVaultEntryRepository.EntryDistance> distances(Object... idDistancePairs) {
+        List<ProblemVaultEntryRepository.EntryDistance> distances = new ArrayList<>();
+        for (int i = 0; i < idDistancePairs.length; i += 2) {
+            Long id = (Long) idDistancePairs[i];
+            Double distance = (Double) idDistancePairs[i + 1];
+            distances.add(new ProblemVaultEntryRepository.EntryDistance() {
+                @Override
+                public Long getId() {
+                    return id;
+                }
+
+                @Override
+                public Double getDistance() {
+                    return distance;
+                }
+            });
+        }
+        return distances;
+    }
+
     private CollectorSignal buildSignal() {
         return CollectorSignal.builder()
                 .id(1L)
@@ -64,7 +92,7 @@ class ProblemDeduplicatorTest {
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, null, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, null, signal, buffer);
 
         assertThat(result.isNew()).isTrue();
         assertThat(result.entry().getTitle()).isEqualTo("Manual invoice processing wastes hours");
@@ -83,7 +111,7 @@ class ProblemDeduplicatorTest {
         CollectorSignal signal = buildSignal();
         float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
 
         assertThat(result.isNew()).isTrue();
         assertThat(result.entry().getTitle()).isEqualTo("Manual invoice processing wastes hours");
@@ -102,20 +130,20 @@ class ProblemDeduplicatorTest {
 
         when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
                 .thenReturn(List.of(existing));
-        when(vaultRepository.getDistanceTo(eq(42L), anyString()))
-                .thenReturn(0.05); // < 0.10 = definite duplicate
+        when(vaultRepository.getDistancesTo(anyCollection(), anyString()))
+                .thenReturn(distances(42L, 0.05)); // < 0.10 = definite duplicate
 
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
         float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
 
         assertThat(result.isNew()).isFalse();
-        assertThat(result.entry().getId()).isEqualTo(42L);
-        assertThat(result.entry().getSourceCount()).isEqualTo(3);
-        assertThat(result.entry().getConfidence()).isEqualByComparingTo(new BigDecimal("0.75"));
-        assertThat(result.entry().getEvidence()).hasSize(1);
+        assertThat(result.entry()).isSameAs(existing);
+        // Merging is left to the outcome writer, on a copy read inside its transaction
+        assertThat(existing.getSourceCount()).isEqualTo(2);
+        assertThat(existing.getEvidence()).isEmpty();
         verifyNoInteractions(duplicateVerifier);
     }
 
@@ -132,21 +160,24 @@ class ProblemDeduplicatorTest {
 
         when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
                 .thenReturn(List.of(existing));
-        when(vaultRepository.getDistanceTo(eq(42L), anyString()))
-                .thenReturn(0.15); // 0.10-0.20 = borderline
-        when(duplicateVerifier.isDuplicate(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(true);
+        when(vaultRepository.getDistancesTo(anyCollection(), anyString()))
+                .thenReturn(distances(42L, 0.15)); // 0.10-0.20 = borderline
+        when(duplicateVerifier.areDuplicates(anyList()))
+                .thenReturn(List.of(true));
 
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
         float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
 
         assertThat(result.isNew()).isFalse();
-        assertThat(result.entry().getSourceCount()).isEqualTo(2);
-        assertThat(result.entry().getConfidence()).isEqualByComparingTo(new BigDecimal("0.50"));
-        verify(duplicateVerifier).isDuplicate(anyString(), anyString(), anyString(), anyString());
+        assertThat(result.entry()).isSameAs(existing);
+        verify(duplicateVerifier).areDuplicates(anyList());
+        assertThat(meterRegistry.get("pipeline.dedup.outcomes").tag("outcome", "llm_confirmed").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("pipeline.vector_search.duration").tag("query", "find_similar").timer().count())
+                .isEqualTo(1L);
     }
 
     @Test
@@ -162,19 +193,110 @@ class ProblemDeduplicatorTest {
 
         when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
                 .thenReturn(List.of(existing));
-        when(vaultRepository.getDistanceTo(eq(42L), anyString()))
-                .thenReturn(0.15); // borderline
-        when(duplicateVerifier.isDuplicate(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(false);
+        when(vaultRepository.getDistancesTo(anyCollection(), anyString()))
+                .thenReturn(distances(42L, 0.15)); // borderline
+        when(duplicateVerifier.areDuplicates(anyList()))
+                .thenReturn(List.of(false));
 
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
         float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
 
         assertThat(result.isNew()).isTrue();
         assertThat(result.entry().getTitle()).isEqualTo("Manual invoice processing wastes hours");
+        assertThat(meterRegistry.get("pipeline.dedup.outcomes").tag("outcome", "llm_rejected").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void deduplicate_closestRejected_mergesIntoNextConfirmedCandidate() {
+        ProblemVaultEntry closest = ProblemVaultEntry.builder()
+                .id(42L).title("Invoice approvals are slow").description("Approvals")
+                .sourceCount(1).confidence(new BigDecimal("0.25")).evidence(new ArrayList<>()).build();
+        ProblemVaultEntry second = ProblemVaultEntry.builder()
+                .id(43L).title("Manual invoice entry takes hours").description("Data entry")
+                .sourceCount(1).confidence(new BigDecimal("0.25")).evidence(new ArrayList<>()).build();
+        ProblemVaultEntry far = ProblemVaultEntry.builder()
+                .id(44L).title("Expense reports").description("Unrelated")
+                .sourceCount(1).confidence(new BigDecimal("0.25")).evidence(new ArrayList<>()).build();
+
+        when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
+                .thenReturn(List.of(closest, second, far));
+        when(vaultRepository.getDistancesTo(anyCollection(), anyString()))
+                .thenReturn(distances(44L, 0.23, 42L, 0.12, 43L, 0.16));
+        when(duplicateVerifier.areDuplicates(anyList()))
+                .thenReturn(List.of(false, true));
+
+        ExtractedProblem extracted = buildExtractedProblem();
+        CollectorSignal signal = buildSignal();
+        float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
+
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
+
+        assertThat(result.isNew()).isFalse();
+        assertThat(result.entry()).isSameAs(second);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LlmDuplicateVerifier.Pair>> pairs = ArgumentCaptor.forClass(List.class);
+        verify(duplicateVerifier).areDuplicates(pairs.capture());
+        assertThat(pairs.getValue()).extracting(LlmDuplicateVerifier.Pair::existing).containsExactly(closest, second);
+        assertThat(meterRegistry.get("pipeline.dedup.outcomes").tag("outcome", "llm_confirmed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void deduplicate_newEntry_isBufferedForTheRun() {
+        when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        ProblemDeduplicator.DeduplicationResult result =
+                deduplicator.deduplicate(buildExtractedProblem(), new float[]{0.1f, 0.2f, 0.3f}, buildSignal(), buffer);
+
+        assertThat(result.isNew()).isTrue();
+        assertThat(result.pending()).isNotNull();
+        assertThat(result.pending().entry()).isSameAs(result.entry());
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void deduplicate_definiteDuplicateCreatedEarlierInRun_mergesIntoSavedEntry() {
+        when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
+                .thenReturn(Collections.emptyList());
+        float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
+        ProblemDeduplicator.DeduplicationResult first =
+                deduplicator.deduplicate(buildExtractedProblem(), embedding, buildSignal(), buffer);
+        ProblemVaultEntry saved = ProblemVaultEntry.builder()
+                .id(42L).title(first.entry().getTitle())
+                .sourceCount(1).confidence(new BigDecimal("0.25")).evidence(new ArrayList<>()).build();
+        first.pending().saved(42L);
+        when(vaultRepository.findById(42L)).thenReturn(Optional.of(saved));
+
+        ProblemDeduplicator.DeduplicationResult second =
+                deduplicator.deduplicate(buildExtractedProblem(), embedding, buildSignal(), buffer);
+
+        assertThat(second.isNew()).isFalse();
+        assertThat(second.entry()).isSameAs(saved);
+        assertThat(second.pending()).isNull();
+        assertThat(meterRegistry.get("pipeline.dedup.outcomes").tag("outcome", "definite_duplicate").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void deduplicate_bufferedDuplicateAbandoned_insertsNew() {
+        when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
+                .thenReturn(Collections.emptyList());
+        float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
+        RunVaultBuffer.Claim other = buffer.claim(ProblemVaultEntry.builder().title("Other worker").build(),
+                embedding, 0.10);
+        other.pending().abandon();
+
+        ProblemDeduplicator.DeduplicationResult result =
+                deduplicator.deduplicate(buildExtractedProblem(), embedding, buildSignal(), buffer);
+
+        assertThat(result.isNew()).isTrue();
+        assertThat(result.pending()).isNotNull();
+        verify(vaultRepository, never()).findById(any());
     }
 
     @Test
@@ -190,21 +312,41 @@ class ProblemDeduplicatorTest {
 
         when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
                 .thenReturn(List.of(existing));
-        when(vaultRepository.getDistanceTo(eq(42L), anyString()))
-                .thenReturn(0.22); // > 0.20 = new
+        when(vaultRepository.getDistancesTo(anyCollection(), anyString()))
+                .thenReturn(distances(42L, 0.22)); // > 0.20 = new
 
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
         float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal, buffer);
 
         assertThat(result.isNew()).isTrue();
         verifyNoInteractions(duplicateVerifier);
     }
 
     @Test
-    void deduplicate_confidenceProgression() {
+    void mergeEvidence_addsEvidenceAndRaisesConfidence() {
+        ProblemVaultEntry existing = ProblemVaultEntry.builder()
+                .id(42L)
+                .title("Invoice processing is slow")
+                .description("Existing description")
+                .sourceCount(2)
+                .confidence(new BigDecimal("0.50"))
+                .evidence(new ArrayList<>())
+                .build();
+
+        ProblemVaultEntry merged = deduplicator.mergeEvidence(existing, buildExtractedProblem(), buildSignal());
+
+        assertThat(merged).isSameAs(existing);
+        assertThat(merged.getSourceCount()).isEqualTo(3);
+        assertThat(merged.getConfidence()).isEqualByComparingTo(new BigDecimal("0.75"));
+        assertThat(merged.getEvidence()).singleElement()
+                .satisfies(evidence -> assertThat(evidence.getProblemVaultEntry()).isSameAs(existing));
+    }
+
+    @Test
+    void mergeEvidence_confidenceProgression() {
         // Test confidence upgrades: 1→0.25, 2→0.50, 3→0.75, 5→0.90
         ProblemVaultEntry entry4Sources = ProblemVaultEntry.builder()
                 .id(42L)
@@ -215,19 +357,10 @@ class ProblemDeduplicatorTest {
                 .evidence(new ArrayList<>())
                 .build();
 
-        when(vaultRepository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt()))
-                .thenReturn(List.of(entry4Sources));
-        when(vaultRepository.getDistanceTo(eq(42L), anyString()))
-                .thenReturn(0.05); // definite dup
-
-        ExtractedProblem extracted = buildExtractedProblem();
-        CollectorSignal signal = buildSignal();
-        float[] embedding = new float[]{0.1f, 0.2f, 0.3f};
+        ProblemVaultEntry merged = deduplicator.mergeEvidence(entry4Sources, buildExtractedProblem(), buildSignal());
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, embedding, signal);
-
-        assertThat(result.entry().getSourceCount()).isEqualTo(5);
-        assertThat(result.entry().getConfidence()).isEqualByComparingTo(new BigDecimal("0.90"));
+        assertThat(merged.getSourceCount()).isEqualTo(5);
+        assertThat(merged.getConfidence()).isEqualByComparingTo(new BigDecimal("0.90"));
     }
 
     @Test
@@ -235,7 +368,7 @@ class ProblemDeduplicatorTest {
         ExtractedProblem extracted = buildExtractedProblem();
         CollectorSignal signal = buildSignal();
 
-        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, null, signal);
+        ProblemDeduplicator.DeduplicationResult result = deduplicator.deduplicate(extracted, null, signal, buffer);
 
         assertThat(result.entry().getEvidence()).hasSize(1);
         var evidence = result.entry().getEvidence().getFirst();
@@ -244,4 +377,27 @@ class ProblemDeduplicatorTest {
         assertThat(evidence.getRawText()).isEqualTo("some raw text");
         assertThat(evidence.getQuoteText()).isEqualTo("I spend hours on invoices");
     }
+
+    @Test
+    void attachEvidence_addsSignalAsEvidenceAndRaisesConfidence() {
+        ProblemVaultEntry existing = ProblemVaultEntry.builder()
+                .id(42L)
+                .sourceCount(1)
+                .confidence(new BigDecimal("0.25"))
+                .evidence(new ArrayList<>())
+                .build();
+        CollectorSignal signal = buildSignal();
+
+        ProblemVaultEntry result = deduplicator.attachEvidence(existing, signal, "https://news.ycombinator.com/item?id=1");
+
+        assertThat(result.getSourceCount()).isEqualTo(2);
+        assertThat(result.getConfidence()).isEqualByComparingTo("0.50");
+        assertThat(result.getEvidence()).singleElement().satisfies(evidence -> {
+            assertThat(evidence.getSourceType()).isEqualTo(SourceType.HACKER_NEWS);
+            assertThat(evidence.getSourceUrl()).isEqualTo("https://news.ycombinator.com/item?id=1");
+            assertThat(evidence.getRawText()).isEqualTo(signal.getRawText());
+            assertThat(evidence.getProblemVaultEntry()).isSameAs(existing);
+        });
+        verifyNoInteractions(vaultRepository, duplicateVerifier);
+    }
 }
@@ -0,0 +1,71 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class RunVaultBufferTest {
+
+    private final RunVaultBuffer buffer = new RunVaultBuffer();
+
+    private static ProblemVaultEntry entry(String title) {
+        return ProblemVaultEntry.builder().title(title).build();
+    }
+
+    @Test
+    void nearest_returnsEntriesWithinDistanceClosestFirst() {
+        buffer.claim(entry("far"), new float[]{0f, 1f}, 0.001);
+        buffer.claim(entry("close"), new float[]{1f, 0.3f}, 0.001);
+        buffer.claim(entry("exact"), new float[]{1f, 0f}, 0.001);
+
+        List<RunVaultBuffer.Match> matches = buffer.nearest(new float[]{1f, 0f}, 0.25, 5);
+
+        assertThat(matches).extracting(m -> m.pending().entry().getTitle()).containsExactly("exact", "close");
+        assertThat(matches.getFirst().distance()).isCloseTo(0.0, offset(1e-6));
+    }
+
+    @Test
+    void claim_concurrentNearIdentical_createsExactlyOne() throws Exception {
+        List<Future<RunVaultBuffer.Claim>> claims = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                float wobble = i * 0.001f;
+                claims.add(pool.submit(() -> buffer.claim(entry("same"), new float[]{1f, wobble}, 0.1)));
+            }
+        }
+
+        long created = 0;
+        for (Future<RunVaultBuffer.Claim> claim : claims) {
+            if (claim.get().created()) created++;
+        }
+        assertThat(created).isEqualTo(1);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void abandonedEntries_areIgnoredAndEvicted() {
+        RunVaultBuffer.Claim first = buffer.claim(entry("first"), new float[]{1f, 0f}, 0.1);
+        first.pending().abandon();
+
+        RunVaultBuffer.Claim second = buffer.claim(entry("second"), new float[]{1f, 0f}, 0.1);
+        second.pending().saved(7L);
+        second.pending().abandon();
+
+        assertThat(second.created()).isTrue();
+        assertThat(buffer.nearest(new float[]{1f, 0f}, 0.25, 5))
+                .extracting(m -> m.pending().entry().getTitle()).containsExactly("second");
+        assertThat(second.pending().awaitSavedId(Duration.ZERO)).contains(7L);
+
+        buffer.evictSettled();
+        assertThat(buffer.size()).isZero();
+    }
+}
@@ -0,0 +1,88 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.big.bigcollector.config.InstanceIdentity;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignalLeaseServiceTest {
+
+    @Mock
+    private CollectorSignalRepository signalRepository;
+
+    private SignalLeaseService leaseService;
+
+    @BeforeEach
+    void setUp() {
+        leaseService = new SignalLeaseService(signalRepository, new InstanceIdentity("worker-a"), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void claim_locksAssignsLeaseAndReturnsSignalsOldestFirst() {
+        Instant now = Instant.now();
+        CollectorSignal older = CollectorSignal.builder().id(7L).createdAt(now.minusSeconds(60)).build();
+        CollectorSignal newer = CollectorSignal.builder().id(3L).createdAt(now).build();
+        when(signalRepository.lockClaimableIds(any(), eq(10))).thenReturn(List.of(3L, 7L));
+        when(signalRepository.findAllById(List.of(3L, 7L))).thenReturn(List.of(newer, older));
+
+        List<CollectorSignal> claimed = leaseService.claim(10, null);
+
+        assertThat(claimed).containsExactly(older, newer);
+        ArgumentCaptor<Instant> expiry = ArgumentCaptor.forClass(Instant.class);
+        verify(signalRepository).assignLease(eq(List.of(3L, 7L)), eq("worker-a"), expiry.capture());
+        assertThat(expiry.getValue()).isAfter(now.plus(Duration.ofMinutes(4)));
+    }
+
+    @Test
+    void claim_withSourceType_usesFilteredQuery() {
+        when(signalRepository.lockClaimableIdsBySourceType(eq("REDDIT"), any(), eq(5))).thenReturn(List.of());
+
+        assertThat(leaseService.claim(5, SourceType.REDDIT)).isEmpty();
+
+        verify(signalRepository, never()).lockClaimableIds(any(), anyInt());
+        verify(signalRepository, never()).assignLease(any(), any(), any());
+    }
+
+    @Test
+    void release_clearsOnlyThisWorkersLeases() {
+        leaseService.release(List.of(CollectorSignal.builder().id(1L).build(), CollectorSignal.builder().id(2L).build()));
+
+        verify(signalRepository).releaseLease(List.of(1L, 2L), "worker-a");
+    }
+
+    @Test
+    void renew_extendsOnlyThisWorkersLease() {
+        Instant now = Instant.now();
+        when(signalRepository.renewLease(eq(List.of(1L)), eq("worker-a"), any())).thenReturn(1, 0);
+        CollectorSignal signal = CollectorSignal.builder().id(1L).build();
+
+        assertThat(leaseService.renew(signal)).isTrue();
+        assertThat(leaseService.renew(signal)).isFalse();
+
+        ArgumentCaptor<Instant> expiry = ArgumentCaptor.forClass(Instant.class);
+        verify(signalRepository, times(2)).renewLease(eq(List.of(1L)), eq("worker-a"), expiry.capture());
+        assertThat(expiry.getValue()).isAfter(now.plus(Duration.ofMinutes(4)));
+    }
+
+    @Test
+    void blankInstanceId_generatesOne() {
+        SignalLeaseService service = new SignalLeaseService(signalRepository, new InstanceIdentity(""), Duration.ofMinutes(5));
+
+        assertThat(service.getWorkerId()).isNotBlank();
+    }
+}
@@ -0,0 +1,209 @@
+package org.big.bigcollector.service.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.big.bigcollector.config.InstanceIdentity;
+import org.big.bigcollector.dto.pipeline.ExtractedProblem;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.ProblemEvidence;
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.PipelineMetrics;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.big.bigcollector.repository.ProblemEvidenceRepository;
+import org.big.bigcollector.repository.ProblemVaultEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Runs the writer against a real persistence context. Not transactional itself, so every call goes through
+ * the writer's own transactions with detached signals, as on a pipeline worker.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.schema-locations=classpath:db/pipeline-schema.sql",
+        "instance.id=worker-1"
+})
+@Import({SignalOutcomeWriter.class, ProblemDeduplicator.class, SignalLeaseService.class, InstanceIdentity.class,
+        PipelineMetrics.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SignalOutcomeWriterTest {
+
+    @MockitoBean
+    private LlmDuplicateVerifier duplicateVerifier;
+
+    @MockitoSpyBean
+    private ProblemDeduplicator deduplicator;
+
+    @Autowired
+    private SignalOutcomeWriter writer;
+
+    @Autowired
+    private CollectorSignalRepository signalRepository;
+
+    @Autowired
+    private ProblemVaultEntryRepository vaultRepository;
+
+    @Autowired
+    private ProblemEvidenceRepository evidenceRepository;
+
+    @AfterEach
+    void tearDown() {
+        evidenceRepository.deleteAllInBatch();
+        vaultRepository.deleteAllInBatch();
+        signalRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void recordMerge_addsEvidenceToStoredEntry() {
+        ProblemVaultEntry entry = storedEntry();
+        CollectorSignal signal = storedSignal("merged signal");
+
+        assertThat(writer.recordMerge(signal, entry.getId(), extracted())).isPresent();
+
+        ProblemVaultEntry stored = vaultRepository.findById(entry.getId()).orElseThrow();
+        assertThat(stored.getSourceCount()).isEqualTo(2);
+        assertThat(stored.getConfidence()).isEqualByComparingTo("0.50");
+        assertThat(evidenceRepository.findByProblemVaultEntryId(entry.getId()))
+                .extracting(ProblemEvidence::getRawText)
+                .containsExactlyInAnyOrder("first signal", "merged signal");
+        CollectorSignal processed = signalRepository.findById(signal.getId()).orElseThrow();
+        assertThat(processed.getProcessed()).isTrue();
+        assertThat(processed.getProblemVaultId()).isEqualTo(entry.getId());
+    }
+
+    @Test
+    void recordMerge_entryUpdatedConcurrently_failsWithoutLosingTheOtherUpdate() {
+        ProblemVaultEntry entry = storedEntry();
+        CollectorSignal first = storedSignal("first merge");
+        CollectorSignal second = storedSignal("second merge");
+        // The second worker merges and commits after the first has read the entry but before it writes
+        AtomicBoolean interleaved = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (interleaved.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> writer.recordMerge(second, entry.getId(), extracted())).join();
+            }
+            return invocation.callRealMethod();
+        }).when(deduplicator).mergeEvidence(any(), any(), any());
+
+        assertThatThrownBy(() -> writer.recordMerge(first, entry.getId(), extracted()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(vaultRepository.findById(entry.getId()).orElseThrow().getSourceCount()).isEqualTo(2);
+        assertThat(signalRepository.findById(first.getId()).orElseThrow().getProcessed()).isFalse();
+
+        // Retried on a fresh copy, both merges count
+        writer.recordMerge(first, entry.getId(), extracted());
+
+        assertThat(vaultRepository.findById(entry.getId()).orElseThrow().getSourceCount()).isEqualTo(3);
+        assertThat(evidenceRepository.findByProblemVaultEntryId(entry.getId())).hasSize(3);
+    }
+
+    @Test
+    void linkToOriginal_attachesCopyToOriginalsStoredEntry() {
+        ProblemVaultEntry entry = storedEntry();
+        CollectorSignal original = storedSignal("first signal");
+        CollectorSignal copy = storedSignal("first signal, reposted");
+
+        assertThat(writer.linkToOriginal(copy, new NearDuplicateSignalFinder.NearDuplicate(
+                original.getId(), entry.getId(), "https://reddit.com/r/smallbusiness/2"))).contains(true);
+
+        assertThat(vaultRepository.findById(entry.getId()).orElseThrow().getSourceCount()).isEqualTo(2);
+        assertThat(evidenceRepository.findByProblemVaultEntryId(entry.getId()))
+                .extracting(ProblemEvidence::getSourceUrl)
+                .containsExactlyInAnyOrder(null, "https://reddit.com/r/smallbusiness/2");
+        CollectorSignal linked = signalRepository.findById(copy.getId()).orElseThrow();
+        assertThat(linked.getProcessed()).isTrue();
+        assertThat(linked.getDuplicateOfId()).isEqualTo(original.getId());
+        assertThat(linked.getProblemVaultId()).isEqualTo(entry.getId());
+    }
+
+    @Test
+    void linkToOriginal_entryDeleted_leavesCopyUnprocessed() {
+        CollectorSignal original = storedSignal("first signal");
+        CollectorSignal copy = storedSignal("first signal, reposted");
+
+        assertThat(writer.linkToOriginal(copy, new NearDuplicateSignalFinder.NearDuplicate(
+                original.getId(), 999L, null))).isEmpty();
+
+        assertThat(signalRepository.findById(copy.getId()).orElseThrow().getProcessed()).isFalse();
+    }
+
+    @Test
+    void recordMerge_leaseTakenOver_rollsBackTheMerge() {
+        ProblemVaultEntry entry = storedEntry();
+        CollectorSignal signal = storedSignal("merged signal");
+        CollectorSignal current = signalRepository.findById(signal.getId()).orElseThrow();
+        current.setLeaseOwner("worker-2");
+        signalRepository.save(current);
+
+        assertThatThrownBy(() -> writer.recordMerge(signal, entry.getId(), extracted()))
+                .isInstanceOf(SignalLeaseLostException.class);
+
+        assertThat(vaultRepository.findById(entry.getId()).orElseThrow().getSourceCount()).isEqualTo(1);
+        assertThat(evidenceRepository.findByProblemVaultEntryId(entry.getId())).hasSize(1);
+        CollectorSignal stored = signalRepository.findById(signal.getId()).orElseThrow();
+        assertThat(stored.getProcessed()).isFalse();
+        assertThat(stored.getLeaseOwner()).isEqualTo("worker-2");
+    }
+
+    @Test
+    void recordNoProblem_recordsTheOutcomeForLaterCopies() {
+        CollectorSignal signal = storedSignal("nothing to see here");
+
+        writer.recordNoProblem(signal);
+
+        CollectorSignal processed = signalRepository.findById(signal.getId()).orElseThrow();
+        assertThat(processed.getProcessed()).isTrue();
+        assertThat(processed.getNoProblem()).isTrue();
+        assertThat(processed.getProblemVaultId()).isNull();
+    }
+
+    private ProblemVaultEntry storedEntry() {
+        ProblemVaultEntry entry = ProblemVaultEntry.builder()
+                .title("Manual invoice processing wastes hours")
+                .description("Small businesses spend hours per week on invoices.")
+                .sourceCount(1)
+                .confidence(new BigDecimal("0.25"))
+                .build();
+        ProblemEvidence evidence = ProblemEvidence.builder()
+                .problemVaultEntry(entry)
+                .sourceType(SourceType.REDDIT)
+                .rawText("first signal")
+                .build();
+        entry.getEvidence().add(evidence);
+        return vaultRepository.save(entry);
+    }
+
+    private CollectorSignal storedSignal(String rawText) {
+        return signalRepository.save(CollectorSignal.builder()
+                .sourceType(SourceType.REDDIT)
+                .rawText(rawText)
+                .leaseOwner("worker-1")
+                .build());
+    }
+
+    private static ExtractedProblem extracted() {
+        return ExtractedProblem.builder()
+                .hasProblem(true)
+                .title("Invoices take too long to process")
+                .description("Processing invoices by hand is slow.")
+                .build();
+    }
+}
@@ -0,0 +1,325 @@
+package org.big.bigcollector.service.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.big.bigcollector.config.OpenAiConfig;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.LlmMetrics;
+import org.big.bigcollector.metrics.PipelineMetrics;
+import org.big.bigcollector.progress.ProgressEventBus;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.big.bigcollector.repository.DuplicateVerdictRepository;
+import org.big.bigcollector.repository.LlmPromptRepository;
+import org.big.bigcollector.repository.ProblemVaultEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * End-to-end load benchmark for {@link SignalPipelineService}.
+ * <p>
+ * Pushes N synthetic signals through the real extractor, embedding service, deduplicator and scorer,
+ * talking HTTP to {@link OpenAiStubServer}. Postgres is replaced by in-memory repositories: the vault
+ * computes cosine distance in Java, since pgvector is not available in embedded Postgres builds.
+ * Reports signals/sec and p50/p99 latency per stage.
+ * <p>
+ * Not part of the default test run (the class name does not match surefire's patterns). Run with:
+ * <pre>
+ * mvn test -Dtest=SignalPipelineLoadBenchmark -Dbenchmark.signals=500 -Dbenchmark.chatLatencyMs=50 -Dbenchmark.concurrency=4
+ * </pre>
+ */
+class SignalPipelineLoadBenchmark {
+
+    private static final List<String> TOPICS = List.of(
+            "Manual invoice reconciliation wastes finance team hours every month",
+            "Scheduling shifts for hourly restaurant staff is chaotic and error prone",
+            "Small clinics cannot easily share patient records between systems",
+            "Freelancers struggle to chase late client payments without awkward emails",
+            "Warehouse inventory counts drift from the ERP after every stocktake",
+            "Property managers track maintenance requests in scattered spreadsheets",
+            "Sales teams lose context when handing leads between CRM tools",
+            "Teachers spend evenings grading repetitive homework assignments by hand",
+            "Construction firms cannot see subcontractor compliance documents in one place",
+            "Ecommerce sellers manually update prices across several marketplaces",
+            "Recruiters copy candidate details between job boards and the ATS",
+            "Nonprofits struggle to report donor impact without a data analyst"
+    );
+
+    private static final List<String> FILLERS = List.of(
+            "honestly", "really", "constantly", "again", "lately", "still", "seriously", "today"
+    );
+
+    private final int signalCount = Integer.getInteger("benchmark.signals", 200);
+    private final long chatLatencyMs = Long.getLong("benchmark.chatLatencyMs", 5);
+    private final long embeddingLatencyMs = Long.getLong("benchmark.embeddingLatencyMs", 2);
+    private final double errorRate = Double.parseDouble(System.getProperty("benchmark.errorRate", "0.0"));
+    private final long seed = Long.getLong("benchmark.seed", 42);
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 1);
+
+    private final Map<String, List<Long>> stageNanos = new ConcurrentHashMap<>();
+    private final Map<Long, ProblemVaultEntry> vault = new ConcurrentHashMap<>();
+    private final AtomicLong vaultIds = new AtomicLong();
+
+    private OpenAiStubServer stub;
+
+    @BeforeEach
+    void setUp() {
+        stub = OpenAiStubServer.builder()
+                .chatLatencyMs(chatLatencyMs)
+                .embeddingLatencyMs(embeddingLatencyMs)
+                .errorRate(errorRate)
+                .noProblemRate(0.1)
+                .seed(seed)
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void benchmarkPipeline() {
+        List<CollectorSignal> signals = syntheticSignals(signalCount, seed);
+
+        OpenAiConfig openAiConfig = mock(OpenAiConfig.class);
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        LlmPromptRepository promptRepository = mock(LlmPromptRepository.class);
+        when(promptRepository.findByPromptNameAndActiveTrue(anyString())).thenReturn(Optional.empty());
+
+        CollectorSignalRepository signalRepository = mock(CollectorSignalRepository.class);
+        when(signalRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Queue<CollectorSignal> backlog = new ConcurrentLinkedQueue<>(signals);
+        SignalLeaseService leaseService = mock(SignalLeaseService.class);
+        when(leaseService.countClaimable(any())).thenReturn((long) signals.size());
+        when(leaseService.renew(any())).thenReturn(true);
+        when(leaseService.lockIfHeld(any())).thenReturn(true);
+        when(leaseService.claim(anyInt(), any())).thenAnswer(inv -> {
+            int limit = inv.getArgument(0);
+            List<CollectorSignal> batch = new ArrayList<>(limit);
+            CollectorSignal next;
+            while (batch.size() < limit && (next = backlog.poll()) != null) {
+                batch.add(next);
+            }
+            return batch;
+        });
+
+        ProblemVaultEntryRepository vaultRepository = inMemoryVault();
+
+        var client = stub.client();
+        ObjectMapper objectMapper = new ObjectMapper();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LlmMetrics llmMetrics = new LlmMetrics(meterRegistry);
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry);
+
+        LlmProblemExtractor extractor = timed("extract", "extract", LlmProblemExtractor.class,
+                new LlmProblemExtractor(client, openAiConfig, promptRepository, objectMapper, llmMetrics));
+        EmbeddingService embeddingService = timed("embed", "generateEmbedding", EmbeddingService.class,
+                new EmbeddingService(client, openAiConfig, llmMetrics));
+        LlmDuplicateVerifier verifier = timed("verify", "areDuplicates", LlmDuplicateVerifier.class,
+                new LlmDuplicateVerifier(client, openAiConfig, llmMetrics, mock(DuplicateVerdictRepository.class),
+                        objectMapper, 10, Duration.ofMillis(50)));
+        ProblemDeduplicator deduplicator = timed("dedup", "deduplicate", ProblemDeduplicator.class,
+                new ProblemDeduplicator(vaultRepository, verifier, pipelineMetrics));
+        VaultScoringService scoringService = timed("score", "scoreEntry", VaultScoringService.class,
+                new VaultScoringService(client, openAiConfig, objectMapper, llmMetrics));
+
+        ProgressEventBus progressEventBus = new ProgressEventBus();
+        SignalPipelineService pipeline = new SignalPipelineService(
+                extractor, embeddingService, deduplicator, scoringService, openAiConfig, pipelineMetrics,
+                progressEventBus, leaseService,
+                new SignalRetryService(signalRepository, leaseService, 3, Duration.ofSeconds(1), Duration.ofMinutes(1)),
+                new NearDuplicateSignalFinder(signalRepository, objectMapper, true, 6, Duration.ofDays(14)),
+                new SignalOutcomeWriter(signalRepository, vaultRepository, deduplicator, leaseService));
+        PipelineRunOptions options = PipelineRunOptions.builder().concurrency(concurrency).build();
+
+        Instant start = Instant.now();
+        Map<String, Object> result = pipeline.processSignals(options,
+                progressEventBus.startRun("pipeline", "benchmark", signalCount), () -> false);
+        Duration elapsed = Duration.between(start, Instant.now());
+
+        report(result, elapsed);
+
+        assertThat(result).containsEntry("status", "COMPLETED");
+        assertThat(result).containsEntry("totalSignals", signalCount);
+    }
+
+    private List<CollectorSignal> syntheticSignals(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CollectorSignal> signals = new ArrayList<>(count);
+        Instant createdAt = Instant.now().minus(Duration.ofDays(1));
+        for (int i = 0; i < count; i++) {
+            String topic = TOPICS.get(random.nextInt(TOPICS.size()));
+            // Light rewording so copies of a topic land in the definite and borderline dedup bands
+            List<String> words = new ArrayList<>(List.of(topic.split(" ")));
+            int edits = random.nextInt(3);
+            for (int e = 0; e < edits; e++) {
+                words.add(random.nextInt(words.size() + 1), FILLERS.get(random.nextInt(FILLERS.size())));
+            }
+            String title = String.join(" ", words);
+            String rawText = """
+                    {"title":"%s","text":"%s. Has anyone found a tool for this?","url":"https://example.com/%d"}"""
+                    .formatted(title, title, i);
+
+            signals.add(CollectorSignal.builder()
+                    .id((long) i + 1)
+                    .sourceType(SourceType.values()[i % SourceType.values().length])
+                    .sourceId("bench_" + i)
+                    .rawText(rawText)
+                    .createdAt(createdAt.plusMillis(i))
+                    .build());
+        }
+        return signals;
+    }
+
+    private ProblemVaultEntryRepository inMemoryVault() {
+        ProblemVaultEntryRepository repository = mock(ProblemVaultEntryRepository.class);
+
+        when(repository.save(any())).thenAnswer(inv -> {
+            ProblemVaultEntry entry = inv.getArgument(0);
+            if (entry.getId() == null) entry.setId(vaultIds.incrementAndGet());
+            vault.put(entry.getId(), entry);
+            return entry;
+        });
+
+        when(repository.findSimilarByEmbedding(anyString(), anyDouble(), anyInt())).thenAnswer(inv -> {
+            long t0 = System.nanoTime();
+            float[] query = parseVector(inv.getArgument(0));
+            double maxDistance = inv.getArgument(1);
+            int limit = inv.getArgument(2);
+            List<ProblemVaultEntry> matches = vault.values().stream()
+                    .filter(e -> e.getEmbedding() != null)
+                    .filter(e -> cosineDistance(e.getEmbedding(), query) < maxDistance)
+                    .sorted(Comparator.comparingDouble(e -> cosineDistance(e.getEmbedding(), query)))
+                    .limit(limit)
+                    .toList();
+            record("vectorSearch", System.nanoTime() - t0);
+            return matches;
+        });
+
+        when(repository.findById(any())).thenAnswer(inv -> Optional.ofNullable(vault.get(inv.<Long>getArgument(0))));
+
+        when(repository.getDistancesTo(anyCollection(), anyString())).thenAnswer(inv -> {
+            float[] query = parseVector(inv.getArgument(1));
+            List<ProblemVaultEntryRepository.EntryDistance> distances = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                ProblemVaultEntry entry = vault.get(id);
+                if (entry == null || entry.getEmbedding() == null) continue;
+                double distance = cosineDistance(entry.getEmbedding(), query);
+                distances.add(new ProblemVaultEntryRepository.EntryDistance() {
+                    @Override
+                    public Long getId() {
+                        return id;
+                    }
+
+                    @Override
+                    public Double getDistance() {
+                        return distance;
+                    }
+                });
+            }
+            return distances;
+        });
+
+        return repository;
+    }
+
+    /** Spy that records the latency of the stage's entry method; internal helper calls are not timed. */
+    private <T> T timed(String stage, String method, Class<T> type, T delegate) {
+        Answer<Object> answer = inv -> {
+            if (!inv.getMethod().getName().equals(method)) {
+                return inv.callRealMethod();
+            }
+            long t0 = System.nanoTime();
+            try {
+                return inv.callRealMethod();
+            } finally {
+                record(stage, System.nanoTime() - t0);
+            }
+        };
+        return mock(type, withSettings().spiedInstance(delegate).defaultAnswer(answer));
+    }
+
+    private void record(String stage, long nanos) {
+        stageNanos.computeIfAbsent(stage, k -> Collections.synchronizedList(new ArrayList<>())).add(nanos);
+    }
+
+    private void report(Map<String, Object> result, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== Signal pipeline load benchmark ===\n");
+        sb.append("signals=%d chatLatencyMs=%d embeddingLatencyMs=%d errorRate=%.2f seed=%d%n"
+                .formatted(signalCount, chatLatencyMs, embeddingLatencyMs, errorRate, seed));
+        sb.append("result=%s%n".formatted(new LinkedHashMap<>(result)));
+        sb.append("elapsed=%.2fs throughput=%.1f signals/sec vaultEntries=%d%n"
+                .formatted(seconds, signalCount / seconds, vault.size()));
+        sb.append("stub requests: chat=%d embeddings=%d injectedErrors=%d%n"
+                .formatted(stub.chatRequests(), stub.embeddingRequests(), stub.injectedErrors()));
+        sb.append("%-14s %8s %10s %10s %10s%n".formatted("stage", "calls", "p50 ms", "p99 ms", "max ms"));
+        for (String stage : List.of("extract", "embed", "vectorSearch", "verify", "dedup", "score")) {
+            List<Long> samples = stageNanos.getOrDefault(stage, List.of());
+            if (samples.isEmpty()) continue;
+            List<Long> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            sb.append("%-14s %8d %10.2f %10.2f %10.2f%n".formatted(stage, sorted.size(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.getLast() / 1e6));
+        }
+        System.out.println(sb);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        int idx = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(idx, sorted.size() - 1))) / 1e6;
+    }
+
+    private static float[] parseVector(String value) {
+        String[] parts = value.substring(1, value.length() - 1).split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) vector[i] = Float.parseFloat(parts[i]);
+        return vector;
+    }
+
+    private static double cosineDistance(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        if (na == 0 || nb == 0) return 1.0;
+        return 1.0 - dot / (Math.sqrt(na) * Math.sqrt(nb));
+    }
+}
@@ -1,10 +1,14 @@
 package org.big.bigcollector.service.pipeline;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.config.OpenAiConfig;
 import org.big.bigcollector.dto.pipeline.ExtractedProblem;
+import org.big.bigcollector.dto.pipeline.PipelineRunOptions;
 import org.big.bigcollector.entity.CollectorSignal;
 import org.big.bigcollector.entity.ProblemVaultEntry;
 import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.metrics.PipelineMetrics;
+import org.big.bigcollector.progress.ProgressEventBus;
 import org.big.bigcollector.repository.CollectorSignalRepository;
 import org.big.bigcollector.repository.ProblemVaultEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +16,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -19,9 +25,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,13 +58,25 @@ class SignalPipelineServiceTest {
     @Mock
     private OpenAiConfig openAiConfig;
 
+    @Mock
+    private SignalLeaseService leaseService;
+
+    @Mock
+    private SignalRetryService retryService;
+
+    @Mock
+    private NearDuplicateSignalFinder nearDuplicateFinder;
+
     private SignalPipelineService pipelineService;
 
     @BeforeEach
     void setUp() {
         pipelineService = new SignalPipelineService(
-                signalRepository, vaultRepository, extractor,
-                embeddingService, deduplicator, scoringService, openAiConfig);
+                extractor, embeddingService, deduplicator, scoringService, openAiConfig,
+                new PipelineMetrics(new SimpleMeterRegistry()), new ProgressEventBus(), leaseService, retryService,
+                nearDuplicateFinder, new SignalOutcomeWriter(signalRepository, vaultRepository, deduplicator, leaseService));
+        lenient().when(leaseService.renew(any())).thenReturn(true);
+        lenient().when(leaseService.lockIfHeld(any())).thenReturn(true);
     }
 
     @Test
@@ -71,8 +93,7 @@ class SignalPipelineServiceTest {
     @Test
     void processUnprocessedSignals_noSignals_returnsCompleted() {
         when(openAiConfig.isConfigured()).thenReturn(true);
-        when(signalRepository.findByProcessedFalseOrderByCreatedAtAsc())
-                .thenReturn(Collections.emptyList());
+        when(leaseService.claim(anyInt(), any())).thenReturn(Collections.emptyList());
 
         Map<String, Object> result = pipelineService.processUnprocessedSignals();
 
@@ -92,8 +113,7 @@ class SignalPipelineServiceTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(signalRepository.findByProcessedFalseOrderByCreatedAtAsc())
-                .thenReturn(List.of(signal));
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
 
         ExtractedProblem extracted = ExtractedProblem.builder()
                 .hasProblem(true)
@@ -110,7 +130,7 @@ class SignalPipelineServiceTest {
                 .sourceCount(1)
                 .evidence(new ArrayList<>())
                 .build();
-        when(deduplicator.deduplicate(any(), any(), any()))
+        when(deduplicator.deduplicate(any(), any(), any(), any()))
                 .thenReturn(new ProblemDeduplicator.DeduplicationResult(newEntry, true));
 
         Map<String, Object> result = pipelineService.processUnprocessedSignals();
@@ -137,8 +157,7 @@ class SignalPipelineServiceTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(signalRepository.findByProcessedFalseOrderByCreatedAtAsc())
-                .thenReturn(List.of(signal));
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
 
         ExtractedProblem noProblem = ExtractedProblem.builder()
                 .hasProblem(false)
@@ -165,17 +184,89 @@ class SignalPipelineServiceTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(signalRepository.findByProcessedFalseOrderByCreatedAtAsc())
-                .thenReturn(List.of(signal));
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
         when(extractor.extract(any())).thenThrow(new RuntimeException("LLM API error"));
+        when(retryService.recordFailure(signal, "LLM API error")).thenReturn(false);
 
         Map<String, Object> result = pipelineService.processUnprocessedSignals();
 
         assertThat(result).containsEntry("errors", 1);
         assertThat(result).containsEntry("processed", 0);
-        // Signal is marked as failed
-        verify(signalRepository).save(signal);
-        assertThat(signal.getError()).isEqualTo("LLM API error");
+        assertThat(result).containsEntry("deadLettered", 0);
+        // Failure is handed to the retry policy rather than marking the signal processed
+        verify(retryService).recordFailure(signal, "LLM API error");
+        verify(signalRepository, never()).save(signal);
+    }
+
+    @Test
+    void processUnprocessedSignals_embeddingFails_retriesWithoutStoringEntry() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        CollectorSignal signal = CollectorSignal.builder()
+                .id(1L)
+                .sourceType(SourceType.HACKER_NEWS)
+                .rawText("some text about problems")
+                .createdAt(Instant.now())
+                .build();
+
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
+        when(extractor.extract(any())).thenReturn(ExtractedProblem.builder()
+                .hasProblem(true)
+                .title("A valid problem title here")
+                .description("A description")
+                .problemType("automation")
+                .build());
+        when(embeddingService.generateEmbedding(anyString(), anyString()))
+                .thenThrow(new RuntimeException("429 Too Many Requests"));
+        when(retryService.recordFailure(signal, "429 Too Many Requests")).thenReturn(false);
+
+        Map<String, Object> result = pipelineService.processUnprocessedSignals();
+
+        assertThat(result).containsEntry("errors", 1);
+        verifyNoInteractions(deduplicator, vaultRepository);
+        verify(signalRepository, never()).save(signal);
+    }
+
+    @Test
+    void processUnprocessedSignals_leaseLostBeforeFailureRecorded_countsLeaseLost() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        CollectorSignal signal = CollectorSignal.builder()
+                .id(1L)
+                .sourceType(SourceType.HACKER_NEWS)
+                .rawText("text")
+                .createdAt(Instant.now())
+                .build();
+
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
+        when(extractor.extract(any())).thenThrow(new RuntimeException("LLM API error"));
+        when(retryService.recordFailure(signal, "LLM API error")).thenThrow(new SignalLeaseLostException(1L));
+
+        Map<String, Object> result = pipelineService.processUnprocessedSignals();
+
+        assertThat(result).containsEntry("leaseLost", 1);
+        assertThat(result).containsEntry("deadLettered", 0);
+    }
+
+    @Test
+    void processUnprocessedSignals_retriesExhausted_countsDeadLettered() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        CollectorSignal signal = CollectorSignal.builder()
+                .id(1L)
+                .sourceType(SourceType.HACKER_NEWS)
+                .rawText("text")
+                .createdAt(Instant.now())
+                .build();
+
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
+        when(extractor.extract(any())).thenThrow(new RuntimeException("429 Too Many Requests"));
+        when(retryService.recordFailure(signal, "429 Too Many Requests")).thenReturn(true);
+
+        Map<String, Object> result = pipelineService.processUnprocessedSignals();
+
+        assertThat(result).containsEntry("errors", 1);
+        assertThat(result).containsEntry("deadLettered", 1);
     }
 
     @Test
@@ -189,8 +280,7 @@ class SignalPipelineServiceTest {
                 .createdAt(Instant.now())
                 .build();
 
-        when(signalRepository.findByProcessedFalseOrderByCreatedAtAsc())
-                .thenReturn(List.of(signal));
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
 
         ExtractedProblem extracted = ExtractedProblem.builder()
                 .hasProblem(true)
@@ -208,18 +298,200 @@ class SignalPipelineServiceTest {
                 .sourceCount(2)
                 .evidence(new ArrayList<>())
                 .build();
-        when(deduplicator.deduplicate(any(), any(), any()))
+        when(deduplicator.deduplicate(any(), any(), any(), any()))
                 .thenReturn(new ProblemDeduplicator.DeduplicationResult(existingEntry, false));
+        when(vaultRepository.findById(42L)).thenReturn(Optional.of(existingEntry));
+        when(deduplicator.mergeEvidence(existingEntry, extracted, signal)).thenReturn(existingEntry);
 
         Map<String, Object> result = pipelineService.processUnprocessedSignals();
 
         assertThat(result).containsEntry("processed", 1);
         verify(scoringService, never()).scoreEntry(any());
         verify(vaultRepository).save(existingEntry);
+        assertThat(signal.getProblemVaultId()).isEqualTo(42L);
+    }
+
+    @Test
+    void processSignal_concurrentUpdateOfMatchedEntry_retriesMergeOnFreshCopy() {
+        CollectorSignal signal = CollectorSignal.builder().id(1L).sourceType(SourceType.REDDIT)
+                .rawText("duplicate problem text").build();
+        ExtractedProblem extracted = ExtractedProblem.builder()
+                .hasProblem(true)
+                .title("A valid problem title here")
+                .description("A description")
+                .problemType("workflow")
+                .build();
+        when(extractor.extract(signal)).thenReturn(extracted);
+        ProblemVaultEntry stale = ProblemVaultEntry.builder().id(42L).version(3L).build();
+        ProblemVaultEntry fresh = ProblemVaultEntry.builder().id(42L).version(4L).build();
+        when(deduplicator.deduplicate(any(), any(), any(), any()))
+                .thenReturn(new ProblemDeduplicator.DeduplicationResult(stale, false));
+        when(vaultRepository.findById(42L)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(deduplicator.mergeEvidence(any(), eq(extracted), eq(signal))).thenAnswer(inv -> inv.getArgument(0));
+        when(vaultRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(ProblemVaultEntry.class, 42L));
+
+        boolean extractedProblem = pipelineService.processSignal(signal, new RunVaultBuffer());
+
+        assertThat(extractedProblem).isTrue();
+        verify(vaultRepository).save(fresh);
+        verify(signalRepository).save(signal);
+        assertThat(signal.getProblemVaultId()).isEqualTo(42L);
+    }
+
+    @Test
+    void processSignal_entryKeepsChangingConcurrently_failsForSignalRetry() {
+        CollectorSignal signal = CollectorSignal.builder().id(1L).sourceType(SourceType.REDDIT)
+                .rawText("duplicate problem text").build();
+        ExtractedProblem extracted = ExtractedProblem.builder()
+                .hasProblem(true)
+                .title("A valid problem title here")
+                .description("A description")
+                .problemType("workflow")
+                .build();
+        when(extractor.extract(signal)).thenReturn(extracted);
+        ProblemVaultEntry entry = ProblemVaultEntry.builder().id(42L).build();
+        when(deduplicator.deduplicate(any(), any(), any(), any()))
+                .thenReturn(new ProblemDeduplicator.DeduplicationResult(entry, false));
+        when(vaultRepository.findById(42L)).thenReturn(Optional.of(entry));
+        when(deduplicator.mergeEvidence(entry, extracted, signal)).thenReturn(entry);
+        when(vaultRepository.save(entry)).thenThrow(new ObjectOptimisticLockingFailureException(ProblemVaultEntry.class, 42L));
+
+        assertThatThrownBy(() -> pipelineService.processSignal(signal, new RunVaultBuffer()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(vaultRepository, times(3)).save(entry);
+        verify(signalRepository, never()).save(signal);
+    }
+
+    @Test
+    void processSignals_withSourceFilterAndLimit_queriesPage() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        when(leaseService.claim(anyInt(), any())).thenReturn(Collections.emptyList());
+
+        PipelineRunOptions options = PipelineRunOptions.builder()
+                .maxSignals(25)
+                .sourceType(SourceType.REDDIT)
+                .concurrency(4)
+                .build();
+        Map<String, Object> result = pipelineService.processSignals(options,
+                new ProgressEventBus().startRun("pipeline", "job-1", 25), () -> false);
+
+        assertThat(result).containsEntry("status", "COMPLETED");
+        verify(leaseService).claim(25, SourceType.REDDIT);
+    }
+
+    @Test
+    void processSignals_cancelled_startsNoFurtherSignals() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+
+        List<CollectorSignal> signals = List.of(
+                CollectorSignal.builder().id(1L).sourceType(SourceType.REDDIT).rawText("a").build(),
+                CollectorSignal.builder().id(2L).sourceType(SourceType.REDDIT).rawText("b").build(),
+                CollectorSignal.builder().id(3L).sourceType(SourceType.REDDIT).rawText("c").build());
+        when(leaseService.claim(anyInt(), any())).thenReturn(signals, List.of());
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        when(extractor.extract(any())).thenAnswer(invocation -> {
+            cancelled.set(true);
+            return ExtractedProblem.builder().hasProblem(false).build();
+        });
+
+        Map<String, Object> result = pipelineService.processSignals(PipelineRunOptions.defaults(),
+                new ProgressEventBus().startRun("pipeline", "job-2", null), cancelled::get);
+
+        assertThat(result).containsEntry("status", "CANCELLED");
+        assertThat(result).containsEntry("processed", 1);
+        verify(extractor, times(1)).extract(any());
+        assertThat(signals.get(1).getProcessed()).isFalse();
+        verify(leaseService).release(argThat(released -> released.size() == 2));
+        verify(leaseService, times(1)).claim(anyInt(), any());
+    }
+
+    @Test
+    void processSignals_leaseTakenOverWhileQueued_leavesSignalToNewOwner() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        CollectorSignal signal = CollectorSignal.builder().id(1L).sourceType(SourceType.REDDIT).rawText("a").build();
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
+        when(leaseService.renew(signal)).thenReturn(false);
+
+        Map<String, Object> result = pipelineService.processUnprocessedSignals();
+
+        assertThat(result).containsEntry("processed", 0);
+        assertThat(result).containsEntry("leaseLost", 1);
+        verifyNoInteractions(extractor, signalRepository, retryService);
+    }
+
+    @Test
+    void processSignals_leaseTakenOverWhileProcessing_discardsOutcomeWithoutRetry() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        CollectorSignal signal = CollectorSignal.builder().id(1L).sourceType(SourceType.REDDIT).rawText("a").build();
+        when(leaseService.claim(anyInt(), any())).thenReturn(List.of(signal), List.of());
+        when(extractor.extract(signal)).thenReturn(ExtractedProblem.builder().hasProblem(false).build());
+        when(leaseService.lockIfHeld(signal)).thenReturn(false);
+
+        Map<String, Object> result = pipelineService.processUnprocessedSignals();
+
+        assertThat(result).containsEntry("processed", 0);
+        assertThat(result).containsEntry("errors", 0);
+        assertThat(result).containsEntry("leaseLost", 1);
+        verify(signalRepository, never()).save(any());
+        verifyNoInteractions(retryService);
     }
 
     @Test
     void isRunning_initiallyFalse() {
         assertThat(pipelineService.isRunning()).isFalse();
     }
+
+    @Test
+    void processSignal_nearDuplicateOfProblemSignal_attachesEvidenceWithoutExtraction() {
+        CollectorSignal signal = CollectorSignal.builder().id(7L).sourceType(SourceType.PRODUCT_HUNT)
+                .rawText("{}").build();
+        ProblemVaultEntry existing = ProblemVaultEntry.builder().id(42L).sourceCount(1)
+                .evidence(new ArrayList<>()).build();
+        when(nearDuplicateFinder.find(signal)).thenReturn(Optional.of(
+                new NearDuplicateSignalFinder.NearDuplicate(3L, 42L, "https://producthunt.com/p/1")));
+        when(vaultRepository.findById(42L)).thenReturn(Optional.of(existing));
+        when(deduplicator.attachEvidence(existing, signal, "https://producthunt.com/p/1")).thenReturn(existing);
+
+        boolean extractedProblem = pipelineService.processSignal(signal, new RunVaultBuffer());
+
+        assertThat(extractedProblem).isTrue();
+        assertThat(signal.getDuplicateOfId()).isEqualTo(3L);
+        assertThat(signal.getProblemVaultId()).isEqualTo(42L);
+        assertThat(signal.getProcessed()).isTrue();
+        verify(vaultRepository).save(existing);
+        verifyNoInteractions(extractor, embeddingService);
+    }
+
+    @Test
+    void processSignal_nearDuplicateOfNoProblemSignal_marksProcessedWithoutExtraction() {
+        CollectorSignal signal = CollectorSignal.builder().id(7L).sourceType(SourceType.REDDIT)
+                .rawText("{}").build();
+        when(nearDuplicateFinder.find(signal)).thenReturn(Optional.of(
+                new NearDuplicateSignalFinder.NearDuplicate(3L, null, null)));
+
+        boolean extractedProblem = pipelineService.processSignal(signal, new RunVaultBuffer());
+
+        assertThat(extractedProblem).isFalse();
+        assertThat(signal.getDuplicateOfId()).isEqualTo(3L);
+        assertThat(signal.getProcessed()).isTrue();
+        assertThat(signal.getNoProblem()).isTrue();
+        verifyNoInteractions(extractor, vaultRepository);
+    }
+
+    @Test
+    void processSignal_nearDuplicateWhoseProblemIsGone_isExtractedNormally() {
+        CollectorSignal signal = CollectorSignal.builder().id(7L).sourceType(SourceType.REDDIT)
+                .rawText("{}").build();
+        when(nearDuplicateFinder.find(signal)).thenReturn(Optional.of(
+                new NearDuplicateSignalFinder.NearDuplicate(3L, 42L, null)));
+        when(vaultRepository.findById(42L)).thenReturn(Optional.empty());
+        when(extractor.extract(signal)).thenReturn(ExtractedProblem.builder().hasProblem(false).build());
+
+        boolean extractedProblem = pipelineService.processSignal(signal, new RunVaultBuffer());
+
+        assertThat(extractedProblem).isFalse();
+        assertThat(signal.getDuplicateOfId()).isNull();
+        verify(extractor).extract(signal);
+    }
 }
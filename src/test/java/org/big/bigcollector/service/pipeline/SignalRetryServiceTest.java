@@ -0,0 +1,124 @@
+package org.big.bigcollector.service.pipeline;
+
+import org.big.bigcollector.entity.CollectorSignal;
+import org.big.bigcollector.entity.enums.SourceType;
+import org.big.bigcollector.repository.CollectorSignalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignalRetryServiceTest {
+
+    @Mock
+    private CollectorSignalRepository signalRepository;
+
+    @Mock
+    private SignalLeaseService leaseService;
+
+    private SignalRetryService retryService;
+
+    @BeforeEach
+    void setUp() {
+        retryService = new SignalRetryService(signalRepository, leaseService, 3, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void recordFailure_belowMaxAttempts_schedulesRetryAndLeavesUnprocessed() {
+        CollectorSignal signal = CollectorSignal.builder()
+                .id(1L)
+                .leaseOwner("worker-a")
+                .leaseExpiresAt(Instant.now().plusSeconds(60))
+                .build();
+        stored(signal);
+
+        boolean deadLettered = retryService.recordFailure(signal, "429 Too Many Requests");
+
+        assertThat(deadLettered).isFalse();
+        assertThat(signal.getProcessed()).isFalse();
+        assertThat(signal.getAttempts()).isEqualTo(1);
+        assertThat(signal.getError()).isEqualTo("429 Too Many Requests");
+        assertThat(signal.getNextAttemptAt()).isAfter(Instant.now().plusSeconds(50));
+        assertThat(signal.getLeaseOwner()).isNull();
+        assertThat(signal.getLeaseExpiresAt()).isNull();
+        verify(signalRepository).save(signal);
+    }
+
+    @Test
+    void recordFailure_lastAttempt_deadLetters() {
+        CollectorSignal signal = CollectorSignal.builder().id(1L).attempts(2).build();
+        stored(signal);
+
+        boolean deadLettered = retryService.recordFailure(signal, "500 Internal Server Error");
+
+        assertThat(deadLettered).isTrue();
+        assertThat(signal.getProcessed()).isTrue();
+        assertThat(signal.getAttempts()).isEqualTo(3);
+        assertThat(signal.getDeadLetteredAt()).isNotNull();
+        assertThat(signal.getNextAttemptAt()).isNull();
+    }
+
+    @Test
+    void recordFailure_writesRetryStateOntoStoredRowNotWorkersCopy() {
+        // The worker's copy was marked processed by an outcome write that then rolled back
+        CollectorSignal workerCopy = CollectorSignal.builder().id(1L).processed(true).problemVaultId(7L).build();
+        CollectorSignal stored = CollectorSignal.builder().id(1L).leaseOwner("worker-a").build();
+        when(leaseService.lockIfHeld(workerCopy)).thenReturn(true);
+        when(signalRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        retryService.recordFailure(workerCopy, "409 Conflict");
+
+        assertThat(stored.getProcessed()).isFalse();
+        assertThat(stored.getProblemVaultId()).isNull();
+        assertThat(stored.getAttempts()).isEqualTo(1);
+        verify(signalRepository).save(stored);
+    }
+
+    @Test
+    void recordFailure_leaseTakenOver_leavesSignalToItsNewOwner() {
+        CollectorSignal signal = CollectorSignal.builder().id(1L).leaseOwner("worker-a").build();
+        when(leaseService.lockIfHeld(signal)).thenReturn(false);
+
+        assertThatThrownBy(() -> retryService.recordFailure(signal, "LLM API error"))
+                .isInstanceOf(SignalLeaseLostException.class);
+
+        assertThat(signal.getAttempts()).isZero();
+        verify(signalRepository, never()).save(any());
+    }
+
+    @Test
+    void backoff_doublesPerAttemptAndCapsAtMaxDelay() {
+        assertThat(retryService.backoff(1)).isBetween(Duration.ofMinutes(1), Duration.ofSeconds(72));
+        assertThat(retryService.backoff(3)).isBetween(Duration.ofMinutes(4), Duration.ofSeconds(288));
+        assertThat(retryService.backoff(50)).isBetween(Duration.ofMinutes(10), Duration.ofMinutes(12));
+    }
+
+    @Test
+    void requeueDeadLettered_delegatesWithSourceFilter() {
+        when(signalRepository.requeueDeadLettered(SourceType.REDDIT)).thenReturn(4);
+
+        assertThat(retryService.requeueDeadLettered(SourceType.REDDIT)).isEqualTo(4);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveMaxAttempts() {
+        assertThatThrownBy(() -> new SignalRetryService(signalRepository, leaseService, 0, Duration.ofMinutes(1), Duration.ofMinutes(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void stored(CollectorSignal signal) {
+        when(leaseService.lockIfHeld(signal)).thenReturn(true);
+        when(signalRepository.findById(signal.getId())).thenReturn(Optional.of(signal));
+    }
+}
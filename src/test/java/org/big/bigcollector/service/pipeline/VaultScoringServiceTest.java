@@ -2,8 +2,10 @@ package org.big.bigcollector.service.pipeline;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openai.client.OpenAIClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.big.bigcollector.config.OpenAiConfig;
 import org.big.bigcollector.entity.ProblemVaultEntry;
+import org.big.bigcollector.metrics.LlmMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +15,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +32,8 @@ class VaultScoringServiceTest {
 
     @BeforeEach
     void setUp() {
-        scoringService = new VaultScoringService(openAIClient, openAiConfig, objectMapper);
+        scoringService = new VaultScoringService(openAIClient, openAiConfig, objectMapper,
+                new LlmMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -49,6 +53,21 @@ class VaultScoringServiceTest {
         verifyNoInteractions(openAIClient);
     }
 
+    @Test
+    void scoreEntry_apiError_propagates() {
+        when(openAiConfig.isConfigured()).thenReturn(true);
+        when(openAIClient.chat()).thenThrow(new RuntimeException("503 Service Unavailable"));
+
+        ProblemVaultEntry entry = ProblemVaultEntry.builder()
+                .title("Some problem")
+                .description("Some description")
+                .sourceCount(1)
+                .build();
+
+        assertThatThrownBy(() -> scoringService.scoreEntry(entry))
+                .hasMessage("503 Service Unavailable");
+    }
+
     @Test
     void applyScores_validJson_setsAllScores() {
         String json = """
@@ -0,0 +1,40 @@
+package org.big.bigcollector.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinHashTest {
+
+    private final MinHash minHash = new MinHash(128);
+
+    @Test
+    void similarity_reorderedParaphrase_isHigh() {
+        long[] a = minHash.signature("Manual invoice reconciliation");
+        long[] b = minHash.signature("Manual reconciliation of invoices");
+
+        assertThat(MinHash.similarity(a, b)).isGreaterThan(0.6);
+    }
+
+    @Test
+    void similarity_unrelatedTexts_isLow() {
+        long[] a = minHash.signature("Manual invoice reconciliation for small accounting firms");
+        long[] b = minHash.signature("Scheduling volunteer shifts at animal shelters");
+
+        assertThat(MinHash.similarity(a, b)).isLessThan(0.2);
+    }
+
+    @Test
+    void signature_ignoresCaseAndPunctuation_andIsStableAcrossInstances() {
+        long[] a = minHash.signature("Patient-data interoperability!");
+        long[] b = new MinHash(128).signature("patient data INTEROPERABILITY");
+
+        assertThat(b).containsExactly(a);
+    }
+
+    @Test
+    void shingles_shortWordsCountWhole() {
+        assertThat(MinHash.shingles("of an API")).hasSize(3);
+        assertThat(MinHash.shingles("invoice")).hasSize(4);
+    }
+}
@@ -0,0 +1,32 @@
+package org.big.bigcollector.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+    private final NearDuplicateIndex index = new NearDuplicateIndex(32, 4, 0.6);
+
+    @Test
+    void findDuplicate_returnsClosestIndexedText() {
+        index.add("a", index.signature("Manual invoice reconciliation. Accountants match invoices to bank lines by hand."));
+        index.add("b", index.signature("Volunteer shift scheduling. Shelters juggle volunteer availability in spreadsheets."));
+
+        var match = index.findDuplicate(index.signature(
+                "Manual reconciliation of invoices. Accountants match bank lines to invoices by hand."));
+
+        assertThat(match).isPresent();
+        assertThat(match.get().key()).isEqualTo("a");
+        assertThat(match.get().similarity()).isGreaterThanOrEqualTo(0.6);
+    }
+
+    @Test
+    void findDuplicate_belowThreshold_returnsEmpty() {
+        index.add("a", index.signature("Manual invoice reconciliation. Accountants match invoices to bank lines by hand."));
+
+        assertThat(index.findDuplicate(index.signature(
+                "Clinical trial recruitment. Research sites wait months to find eligible patients."))).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+package org.big.bigcollector.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalFingerprintTest {
+
+    @Test
+    void of_crossPostWithDifferentMetadata_isWithinFewBits() {
+        Long reddit = SignalFingerprint.of("""
+                {"title": "How do you reconcile invoices with partial payments?",
+                 "selftext": "Our bookkeeping tool cannot match one invoice to several bank transfers, so we do it by hand every month.",
+                 "score": 120, "subreddit": "smallbusiness", "author": "founder", "url": "https://www.reddit.com/r/x"}
+                """);
+        Long hackerNews = SignalFingerprint.of("""
+                {"title": "Ask HN: How do you reconcile invoices with partial payments?",
+                 "text": "Our bookkeeping tool cannot match one invoice to several bank transfers, so we do it by hand every month.",
+                 "points": 40, "author": "someone_else", "url": "https://news.ycombinator.com/item?id=1"}
+                """);
+
+        assertThat(reddit).isNotNull();
+        assertThat(SimHash.distance(reddit, hackerNews)).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void of_differentStories_areFarApart() {
+        Long invoices = SignalFingerprint.of("""
+                {"title": "How do you reconcile invoices with partial payments?",
+                 "body": "Our bookkeeping tool cannot match one invoice to several bank transfers, so we do it by hand."}
+                """);
+        Long shifts = SignalFingerprint.of("""
+                {"title": "Scheduling volunteers across three animal shelters is a mess",
+                 "body": "We track availability in four spreadsheets and still end up with empty weekend shifts."}
+                """);
+
+        assertThat(SimHash.distance(invoices, shifts)).isGreaterThan(10);
+    }
+
+    @Test
+    void bands_splitAllBitsIntoSevenBands() {
+        long fingerprint = 0x8123_4567_89AB_CDEFL;
+
+        int[] bands = SignalFingerprint.bands(fingerprint);
+
+        assertThat(bands).hasSize(SignalFingerprint.BANDS);
+        long reassembled = bands[0];
+        for (int b = 1; b < bands.length; b++) {
+            reassembled = (reassembled << 9) | bands[b];
+        }
+        assertThat(reassembled).isEqualTo(fingerprint);
+    }
+
+    @Test
+    void bands_fingerprintsWithinSixBits_shareABand() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 1_000; i++) {
+            long fingerprint = random.nextLong();
+            long near = fingerprint;
+            while (SimHash.distance(fingerprint, near) < 6) {
+                near ^= 1L << random.nextInt(64);
+            }
+            int[] a = SignalFingerprint.bands(fingerprint);
+            int[] b = SignalFingerprint.bands(near);
+            assertThat(IntStream.range(0, a.length).anyMatch(band -> a[band] == b[band])).isTrue();
+        }
+    }
+
+    @Test
+    void of_shortOrInvalidText_isNull() {
+        assertThat(SignalFingerprint.of("{\"title\": \"Any tips?\"}")).isNull();
+        assertThat(SignalFingerprint.of("not json")).isNull();
+        assertThat(SignalFingerprint.of(null)).isNull();
+    }
+}
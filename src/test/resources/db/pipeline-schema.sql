@@ -0,0 +1,62 @@
+-- H2 stand-in for the pipeline tables; pgvector's vector(1536) becomes a plain REAL ARRAY
+CREATE TABLE problem_vault (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title              VARCHAR(500)  NOT NULL,
+    description        TEXT          NOT NULL,
+    problem_type       VARCHAR(50),
+    industry           VARCHAR(100),
+    target_customer    VARCHAR(200),
+    score_demand       NUMERIC(4, 2),
+    score_pain         NUMERIC(4, 2),
+    score_growth       NUMERIC(4, 2),
+    score_tractability NUMERIC(4, 2),
+    score_frequency    NUMERIC(4, 2),
+    overall_score      NUMERIC(5, 2),
+    confidence         NUMERIC(4, 2),
+    source_count       INTEGER,
+    embedding          REAL ARRAY,
+    is_public          BOOLEAN       NOT NULL,
+    first_seen_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_seen_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    version            BIGINT        NOT NULL DEFAULT 0
+);
+
+CREATE TABLE problem_evidence (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    problem_vault_id BIGINT        NOT NULL REFERENCES problem_vault (id),
+    source_type      VARCHAR(30)   NOT NULL,
+    source_url       VARCHAR(1000),
+    raw_text         TEXT,
+    quote_text       TEXT,
+    platform_score   INTEGER,
+    collected_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE collector_signal (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_type      VARCHAR(30)   NOT NULL,
+    source_id        VARCHAR(500),
+    raw_text         TEXT          NOT NULL,
+    processed        BOOLEAN       NOT NULL,
+    processed_at     TIMESTAMP(6) WITH TIME ZONE,
+    error            TEXT,
+    lease_owner      VARCHAR(100),
+    lease_expires_at TIMESTAMP(6) WITH TIME ZONE,
+    attempts         INTEGER       NOT NULL,
+    next_attempt_at  TIMESTAMP(6) WITH TIME ZONE,
+    dead_lettered_at TIMESTAMP(6) WITH TIME ZONE,
+    fingerprint      BIGINT,
+    fingerprint_band0 INTEGER,
+    fingerprint_band1 INTEGER,
+    fingerprint_band2 INTEGER,
+    fingerprint_band3 INTEGER,
+    fingerprint_band4 INTEGER,
+    fingerprint_band5 INTEGER,
+    fingerprint_band6 INTEGER,
+    duplicate_of_id  BIGINT,
+    problem_vault_id BIGINT,
+    no_problem       BOOLEAN,
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);